@@ -10,6 +10,9 @@ import com.github.sonarqube.ai.provider.claude.ClaudeCliService;
 import com.github.sonarqube.ai.provider.copilot.CopilotCliService;
 import com.github.sonarqube.ai.provider.gemini.GeminiApiService;
 import com.github.sonarqube.ai.provider.gemini.GeminiCliService;
+import com.github.sonarqube.ai.routing.LoadBalancedAiService;
+
+import java.util.List;
 
 /**
  * AI 服務工廠
@@ -59,6 +62,35 @@ public class AiServiceFactory {
         }
     }
 
+    /**
+     * 建立多提供者負載平衡 AI 服務
+     *
+     * 每個配置建立一個提供者，依 {@link AiConfig#getLoadBalanceWeight()} 分派請求，
+     * 失敗時自動切換；啟用對沖時，主要提供者超過 p95 延遲即同時送往下一個提供者。
+     *
+     * 插件設定負載平衡端點時，掃描流程以主要模型加上各端點的配置呼叫此方法。
+     *
+     * @param configs        各提供者的 AI 配置
+     * @param hedgingEnabled 是否啟用對沖請求
+     * @return 負載平衡 AI 服務（僅一個配置時直接回傳該提供者）
+     * @throws IllegalArgumentException 當配置為空或無效時拋出
+     */
+    public static AiService createLoadBalancedService(List<AiConfig> configs, boolean hedgingEnabled) {
+        if (configs == null || configs.isEmpty()) {
+            throw new IllegalArgumentException("At least one AI configuration is required");
+        }
+        if (configs.size() == 1) {
+            return createService(configs.get(0));
+        }
+
+        LoadBalancedAiService.Builder builder = LoadBalancedAiService.builder()
+            .hedgingEnabled(hedgingEnabled);
+        for (AiConfig config : configs) {
+            builder.addProvider(createService(config), config.getLoadBalanceWeight());
+        }
+        return builder.build();
+    }
+
     /**
      * 建立 CLI 模式 AI 服務
      *
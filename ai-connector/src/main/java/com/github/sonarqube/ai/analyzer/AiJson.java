@@ -0,0 +1,64 @@
+package com.github.sonarqube.ai.analyzer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AI Connector 共用 JSON 元件
+ *
+ * ObjectMapper 建立成本高且執行緒安全，所有提供者服務與回應解析器共用同一個預先配置的實例，
+ * 並為每個回應類型快取不可變的 ObjectReader，避免每個服務各自建立 ObjectMapper。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 1.0.0
+ */
+public final class AiJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private AiJson() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * 取得共用 ObjectMapper（僅供需要樹狀模型的呼叫端使用）
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * 取得共用 JsonFactory（串流解析用）
+     */
+    public static JsonFactory factory() {
+        return MAPPER.getFactory();
+    }
+
+    /**
+     * 取得共用 ObjectWriter
+     */
+    public static ObjectWriter writer() {
+        return WRITER;
+    }
+
+    /**
+     * 取得指定類型的預先配置 ObjectReader
+     *
+     * @param type 目標類型
+     * @return 快取的 ObjectReader
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+}
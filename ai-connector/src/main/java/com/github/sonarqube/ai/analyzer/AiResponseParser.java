@@ -1,9 +1,12 @@
 package com.github.sonarqube.ai.analyzer;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.github.sonarqube.ai.model.SecurityIssue;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,170 +15,298 @@ import java.util.List;
  *
  * 將 AI 返回的 JSON 格式分析結果解析為結構化的安全問題列表。
  *
+ * 使用 Jackson 串流 {@link JsonParser} 直接將 token 映射為 {@link SecurityIssue}，
+ * 不建立中間 JsonNode 樹，也不複製 JSON 子字串：
+ * - 容忍 JSON 前後的說明文字與 Markdown 程式碼區塊（```json ... ```）
+ * - 回應被截斷（例如達到 max_tokens）時，保留已完整解析的問題，
+ *   最後一筆不完整的問題若已含 OWASP 分類與描述也會一併保留
+ *
+ * 解析器本身無狀態且執行緒安全，建議透過 {@link #getInstance()} 共用。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 1.0.0
  */
 public class AiResponseParser {
 
-    private final ObjectMapper objectMapper;
+    private static final AiResponseParser INSTANCE = new AiResponseParser();
+
+    private static final String MARKDOWN_JSON_FENCE = "```json";
+
+    /**
+     * 前綴文字中可能出現非 JSON 的大括號，最多嘗試的起始位置數
+     */
+    private static final int MAX_START_CANDIDATES = 3;
 
     public AiResponseParser() {
-        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * 取得共用的解析器實例
+     *
+     * @return 共用 AiResponseParser
+     */
+    public static AiResponseParser getInstance() {
+        return INSTANCE;
     }
 
     /**
      * 解析 AI 回應內容為安全問題列表
      *
-     * @param analysisResult AI 分析結果（JSON 字串）
+     * @param analysisResult AI 分析結果（JSON 字串，可包含前後文字）
      * @return 安全問題列表
      */
     public List<SecurityIssue> parseSecurityIssues(String analysisResult) {
         List<SecurityIssue> issues = new ArrayList<>();
 
-        if (analysisResult == null || analysisResult.trim().isEmpty()) {
+        if (analysisResult == null || analysisResult.isBlank()) {
             return issues;
         }
 
-        try {
-            // 嘗試提取 JSON 部分（可能包含其他文字）
-            String jsonContent = extractJsonContent(analysisResult);
-
-            if (jsonContent == null) {
-                return issues;
-            }
-
-            JsonNode rootNode = objectMapper.readTree(jsonContent);
-            JsonNode issuesNode = rootNode.get("issues");
-
-            if (issuesNode == null || !issuesNode.isArray()) {
-                return issues;
-            }
+        int start = findJsonStart(analysisResult);
+        for (int attempt = 0; start >= 0 && attempt < MAX_START_CANDIDATES; attempt++) {
+            int decodedBefore = issues.size();
+            boolean wellFormed = decodeFrom(analysisResult, start, issues);
 
-            for (JsonNode issueNode : issuesNode) {
-                SecurityIssue issue = parseSecurityIssue(issueNode);
-                if (issue != null) {
-                    issues.add(issue);
-                }
+            // 成功解析或已取得部分問題（截斷回應）即停止，否則嘗試下一個 '{'
+            if (wellFormed || issues.size() > decodedBefore) {
+                break;
             }
-
-        } catch (Exception e) {
-            // 無法解析 JSON，返回空列表
-            // 可以記錄日誌以供診斷
+            start = analysisResult.indexOf('{', start + 1);
         }
 
         return issues;
     }
 
     /**
-     * 從可能包含其他文字的回應中提取 JSON 內容
+     * 定位 JSON 起始位置
+     *
+     * 優先使用 Markdown ```json 區塊；否則取第一個 '{'，
+     * 若第一個 '[' 在其之前且緊接物件（問題陣列作為根節點）則取 '['。
      *
      * @param content 原始內容
-     * @return JSON 字串，如果無法提取則返回 null
+     * @return JSON 起始索引，找不到則返回 -1
      */
-    private String extractJsonContent(String content) {
-        if (content == null) {
-            return null;
-        }
+    private int findJsonStart(String content) {
+        int fence = content.indexOf(MARKDOWN_JSON_FENCE);
+        int from = fence >= 0 ? fence + MARKDOWN_JSON_FENCE.length() : 0;
 
-        // 尋找第一個 { 和最後一個 }
-        int startIndex = content.indexOf('{');
-        int endIndex = content.lastIndexOf('}');
+        int objectStart = content.indexOf('{', from);
+        int arrayStart = content.indexOf('[', from);
 
-        if (startIndex == -1 || endIndex == -1 || startIndex >= endIndex) {
-            return null;
+        if (arrayStart >= 0 && (objectStart < 0 || arrayStart < objectStart) && startsIssueArray(content, arrayStart)) {
+            return arrayStart;
         }
+        return objectStart;
+    }
 
-        return content.substring(startIndex, endIndex + 1);
+    private boolean startsIssueArray(String content, int arrayStart) {
+        for (int i = arrayStart + 1; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{';
+            }
+        }
+        return false;
     }
 
     /**
-     * 解析單一安全問題
+     * 從指定位置串流解析一個 JSON 值，將其中的問題加入 sink
+     *
+     * 解析在根節點結束時停止，因此 JSON 之後的說明文字不會被讀取。
      *
-     * @param issueNode JSON 節點
-     * @return SecurityIssue 物件，如果解析失敗則返回 null
+     * @param content 原始內容
+     * @param start   JSON 起始索引
+     * @param sink    問題輸出列表
+     * @return true 如果根節點語法完整
      */
-    private SecurityIssue parseSecurityIssue(JsonNode issueNode) {
-        try {
-            SecurityIssue issue = new SecurityIssue();
+    private boolean decodeFrom(String content, int start, List<SecurityIssue> sink) {
+        try (Reader reader = new StringReader(content)) {
+            reader.skip(start);
 
-            // OWASP 分類
-            JsonNode owaspNode = issueNode.get("owaspCategory");
-            if (owaspNode != null && !owaspNode.isNull()) {
-                issue.setOwaspCategory(owaspNode.asText());
-            }
+            try (JsonParser parser = AiJson.factory().createParser(reader)) {
+                JsonToken root = parser.nextToken();
 
-            // CWE ID
-            JsonNode cweNode = issueNode.get("cweId");
-            if (cweNode != null && !cweNode.isNull()) {
-                issue.setCweId(cweNode.asText());
-            }
+                if (root == JsonToken.START_ARRAY) {
+                    readIssueArray(parser, sink);
+                    return true;
+                }
+                if (root != JsonToken.START_OBJECT) {
+                    return false;
+                }
 
-            // 嚴重性
-            JsonNode severityNode = issueNode.get("severity");
-            if (severityNode != null && !severityNode.isNull()) {
-                issue.setSeverity(SecurityIssue.Severity.fromString(severityNode.asText()));
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("issues".equals(field) && value == JsonToken.START_ARRAY) {
+                        readIssueArray(parser, sink);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                return true;
             }
+        } catch (IOException e) {
+            // 語法錯誤或輸入被截斷：保留目前已解析的問題
+            return false;
+        }
+    }
 
-            // 描述
-            JsonNode descNode = issueNode.get("description");
-            if (descNode != null && !descNode.isNull()) {
-                issue.setDescription(descNode.asText());
+    /**
+     * 讀取問題陣列（parser 位於 START_ARRAY）
+     */
+    private void readIssueArray(JsonParser parser, List<SecurityIssue> sink) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                return;
             }
-
-            // 行號
-            JsonNode lineNode = issueNode.get("lineNumber");
-            if (lineNode != null && !lineNode.isNull() && lineNode.isNumber()) {
-                issue.setLineNumber(lineNode.asInt());
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
             }
 
-            // 修復建議
-            JsonNode fixNode = issueNode.get("fixSuggestion");
-            if (fixNode != null && !fixNode.isNull()) {
-                issue.setFixSuggestion(fixNode.asText());
+            SecurityIssue issue = new SecurityIssue();
+            try {
+                readSecurityIssue(parser, issue);
+            } catch (IOException e) {
+                // 截斷於問題中途：必要欄位齊全時仍保留
+                if (isValidIssue(issue)) {
+                    sink.add(issue);
+                }
+                throw e;
             }
+            sink.add(issue);
+        }
+    }
 
-            // 代碼範例
-            JsonNode exampleNode = issueNode.get("codeExample");
-            if (exampleNode != null && !exampleNode.isNull()) {
-                SecurityIssue.CodeExample example = parseCodeExample(exampleNode);
-                issue.setCodeExample(example);
-            }
+    /**
+     * 解析單一安全問題（parser 位於 START_OBJECT）
+     *
+     * @param parser JSON 串流解析器
+     * @param issue  填入欄位的問題物件
+     */
+    private void readSecurityIssue(JsonParser parser, SecurityIssue issue) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
 
-            // 工時預估
-            JsonNode effortNode = issueNode.get("effortEstimate");
-            if (effortNode != null && !effortNode.isNull()) {
-                issue.setEffortEstimate(effortNode.asText());
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
             }
 
-            return issue;
-
-        } catch (Exception e) {
-            return null;
+            switch (field) {
+                case "owaspCategory":
+                    issue.setOwaspCategory(readText(parser, value));
+                    break;
+                case "cweId":
+                    issue.setCweId(readText(parser, value));
+                    break;
+                case "severity":
+                    issue.setSeverity(SecurityIssue.Severity.fromString(readText(parser, value)));
+                    break;
+                case "description":
+                    issue.setDescription(readText(parser, value));
+                    break;
+                case "lineNumber":
+                    if (value.isNumeric()) {
+                        issue.setLineNumber(parser.getValueAsInt());
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "fixSuggestion":
+                    issue.setFixSuggestion(readText(parser, value));
+                    break;
+                case "codeExample":
+                    if (value == JsonToken.START_OBJECT) {
+                        issue.setCodeExample(readCodeExample(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "effortEstimate":
+                    issue.setEffortEstimate(readText(parser, value));
+                    break;
+                case "confidence":
+                    issue.setConfidence(readConfidence(parser, value));
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
         }
     }
 
     /**
-     * 解析代碼範例
+     * 解析代碼範例（parser 位於 START_OBJECT）
      *
-     * @param exampleNode JSON 節點
+     * @param parser JSON 串流解析器
      * @return CodeExample 物件
      */
-    private SecurityIssue.CodeExample parseCodeExample(JsonNode exampleNode) {
+    private SecurityIssue.CodeExample readCodeExample(JsonParser parser) throws IOException {
         SecurityIssue.CodeExample example = new SecurityIssue.CodeExample();
 
-        JsonNode beforeNode = exampleNode.get("before");
-        if (beforeNode != null && !beforeNode.isNull()) {
-            example.setBefore(beforeNode.asText());
-        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
 
-        JsonNode afterNode = exampleNode.get("after");
-        if (afterNode != null && !afterNode.isNull()) {
-            example.setAfter(afterNode.asText());
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if ("before".equals(field)) {
+                example.setBefore(readText(parser, value));
+            } else if ("after".equals(field)) {
+                example.setAfter(readText(parser, value));
+            } else {
+                parser.skipChildren();
+            }
         }
 
         return example;
     }
 
+    /**
+     * 讀取純量值為字串；物件或陣列會被略過並返回 null
+     */
+    private String readText(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isScalarValue()) {
+            return parser.getValueAsString();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * 讀取信心分數（接受 0-1 小數、0-100 百分比或 "85%" 字串；無法解析時為 null）
+     */
+    private Double readConfidence(JsonParser parser, JsonToken value) throws IOException {
+        double confidence;
+        if (value.isNumeric()) {
+            confidence = parser.getValueAsDouble();
+        } else if (value == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            boolean percent = text.endsWith("%");
+            try {
+                confidence = Double.parseDouble(percent ? text.substring(0, text.length() - 1).trim() : text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (percent) {
+                confidence /= 100.0;
+            }
+        } else {
+            parser.skipChildren();
+            return null;
+        }
+        if (confidence > 1.0 && confidence <= 100.0) {
+            confidence /= 100.0;
+        }
+        if (Double.isNaN(confidence) || confidence < 0 || confidence > 1.0) {
+            return null;
+        }
+        return confidence;
+    }
+
     /**
      * 驗證解析結果是否有效
      *
@@ -3,21 +3,29 @@ package com.github.sonarqube.ai.cli;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * CLI 執行器抽象基類
  *
  * 提供 CLI 工具執行的通用實作，子類別只需實作特定的命令建構邏輯。
+ * stdout / stderr 由背景執行緒同時抽取至有上限的緩衝區，超時自程序啟動起算。
  *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.1.0 (Epic 9, Story 9.3)
@@ -26,8 +34,27 @@ public abstract class AbstractCliExecutor implements CliExecutor {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractCliExecutor.class);
 
+    /**
+     * 預設輸出上限：8M 字元
+     */
+    public static final int DEFAULT_MAX_OUTPUT_CHARS = 8 * 1024 * 1024;
+
+    private static final int VERSION_TIMEOUT_SECONDS = 10;
+    private static final long PUMP_DRAIN_MILLIS = 2000;
+    private static final int PUMP_CHUNK_CHARS = 8192;
+
+    /**
+     * 輸出抽取與標準輸入寫入共用的背景執行緒
+     */
+    private static final ExecutorService IO_THREADS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "cli-executor-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected final String cliPath;
     protected int timeoutSeconds;
+    protected volatile int maxOutputChars = DEFAULT_MAX_OUTPUT_CHARS;
 
     /**
      * 建構 CLI 執行器
@@ -56,34 +83,100 @@ public abstract class AbstractCliExecutor implements CliExecutor {
 
     @Override
     public String executeCommand(String[] command, String input) throws IOException, InterruptedException, CliExecutionException {
+        return executeCommand(command, input, null);
+    }
+
+    @Override
+    public String executeCommand(String[] command, String input, Consumer<String> stdoutLineConsumer)
+            throws IOException, InterruptedException, CliExecutionException {
         if (command == null || command.length == 0) {
             throw new IllegalArgumentException("Command cannot be null or empty");
         }
 
-        LOG.debug("Executing CLI command: {}", String.join(" ", command));
+        String commandLine = String.join(" ", command);
+        LOG.debug("Executing CLI command: {}", commandLine);
+
+        ProcessOutcome outcome = runProcess(command, input, stdoutLineConsumer,
+            TimeUnit.SECONDS.toNanos(timeoutSeconds), false);
 
-        // 建立 ProcessBuilder
+        if (outcome.timedOut) {
+            throw new CliExecutionException(
+                "CLI execution timeout after " + timeoutSeconds + " seconds",
+                -1,
+                commandLine,
+                outcome.stdout,
+                outcome.stderr
+            );
+        }
+        if (outcome.overflowed) {
+            throw new CliExecutionException(
+                "CLI output exceeded limit of " + maxOutputChars + " characters",
+                -1,
+                commandLine
+            );
+        }
+        if (outcome.consumerFailure != null) {
+            throw new CliExecutionException(
+                "CLI output consumer failed: " + outcome.consumerFailure.getMessage(),
+                outcome.consumerFailure,
+                outcome.exitCode,
+                commandLine
+            );
+        }
+
+        LOG.debug("CLI command finished with exit code: {}", outcome.exitCode);
+
+        // 檢查退出碼
+        if (outcome.exitCode != 0) {
+            throw new CliExecutionException(
+                "CLI command failed with non-zero exit code",
+                outcome.exitCode,
+                commandLine,
+                outcome.stdout,
+                outcome.stderr
+            );
+        }
+
+        return outcome.stdout;
+    }
+
+    /**
+     * 啟動程序並同時抽取 stdout / stderr
+     *
+     * 兩個輸出流與標準輸入皆由背景執行緒處理，任一管線填滿都不會阻塞其他流；
+     * 超時自程序啟動起算，stdout 超過上限時立即終止程序，stderr 超過上限時僅截斷。
+     *
+     * @param command            命令陣列
+     * @param input              標準輸入內容（可為 null）
+     * @param stdoutLineConsumer stdout 逐行消費者（可為 null）
+     * @param timeoutNanos       自程序啟動起算的超時時間
+     * @param mergeStderr        是否將 stderr 合併至 stdout
+     * @return 執行結果
+     */
+    private ProcessOutcome runProcess(String[] command, String input, Consumer<String> stdoutLineConsumer,
+                                      long timeoutNanos, boolean mergeStderr) throws IOException, InterruptedException {
         ProcessBuilder pb = new ProcessBuilder(command);
-        pb.redirectErrorStream(false); // 分開處理 stdout 和 stderr
+        pb.redirectErrorStream(mergeStderr);
 
-        // 啟動程序
+        // 啟動程序，超時自此起算
         Process process = pb.start();
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        StreamPump stdoutPump = new StreamPump(process.getInputStream(), maxOutputChars,
+            stdoutLineConsumer, process::destroyForcibly);
+        StreamPump stderrPump = mergeStderr ? null
+            : new StreamPump(process.getErrorStream(), maxOutputChars, null, null);
 
+        List<Future<?>> tasks = new ArrayList<>(3);
         try {
-            // 寫入標準輸入（如果有）
-            if (input != null && !input.isEmpty()) {
-                try (OutputStream os = process.getOutputStream()) {
-                    os.write(input.getBytes(StandardCharsets.UTF_8));
-                    os.flush();
-                }
+            tasks.add(IO_THREADS.submit(stdoutPump));
+            if (stderrPump != null) {
+                tasks.add(IO_THREADS.submit(stderrPump));
             }
+            tasks.add(IO_THREADS.submit(() -> writeInput(process, input)));
 
-            // 讀取標準輸出和標準錯誤
-            String stdout = readStream(process.getInputStream());
-            String stderr = readStream(process.getErrorStream());
-
-            // 等待程序完成（帶超時）
-            boolean completed = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            // 等待程序完成（超時自程序啟動起算）
+            boolean completed = process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
 
             if (!completed) {
                 process.destroy();
@@ -91,35 +184,46 @@ public abstract class AbstractCliExecutor implements CliExecutor {
                 if (process.isAlive()) {
                     process.destroyForcibly(); // 強制終止
                 }
-                throw new CliExecutionException(
-                    "CLI execution timeout after " + timeoutSeconds + " seconds",
-                    -1,
-                    String.join(" ", command)
-                );
             }
 
-            int exitCode = process.exitValue();
-
-            LOG.debug("CLI command finished with exit code: {}", exitCode);
-
-            // 檢查退出碼
-            if (exitCode != 0) {
-                throw new CliExecutionException(
-                    "CLI command failed with non-zero exit code",
-                    exitCode,
-                    String.join(" ", command),
-                    stdout,
-                    stderr
-                );
+            // 程序結束後輸出流會關閉，等待抽取執行緒收尾
+            stdoutPump.await(PUMP_DRAIN_MILLIS);
+            if (stderrPump != null) {
+                stderrPump.await(PUMP_DRAIN_MILLIS);
             }
 
-            return stdout;
+            return new ProcessOutcome(
+                completed ? process.exitValue() : -1,
+                stdoutPump.getContent(),
+                stderrPump != null ? stderrPump.getContent() : "",
+                !completed,
+                stdoutPump.isOverflowed(),
+                stdoutPump.getConsumerFailure()
+            );
 
         } finally {
             // 確保程序被終止
             if (process.isAlive()) {
                 process.destroyForcibly();
             }
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 寫入標準輸入並關閉，讓 CLI 讀到 EOF
+     */
+    private static void writeInput(Process process, String input) {
+        try (OutputStream os = process.getOutputStream()) {
+            if (input != null && !input.isEmpty()) {
+                os.write(input.getBytes(StandardCharsets.UTF_8));
+                os.flush();
+            }
+        } catch (IOException e) {
+            // 程序可能在讀取輸入前已結束
+            LOG.debug("Failed to write CLI input: {}", e.getMessage());
         }
     }
 
@@ -163,24 +267,17 @@ public abstract class AbstractCliExecutor implements CliExecutor {
         }
 
         try {
-            ProcessBuilder pb = new ProcessBuilder(versionCommand);
-            pb.redirectErrorStream(true);
-
-            Process process = pb.start();
-            String output = readStream(process.getInputStream());
+            ProcessOutcome outcome = runProcess(versionCommand, null, null,
+                TimeUnit.SECONDS.toNanos(VERSION_TIMEOUT_SECONDS), true);
 
-            boolean completed = process.waitFor(10, TimeUnit.SECONDS);
-            if (!completed) {
-                process.destroyForcibly();
+            if (outcome.timedOut) {
                 throw new IOException("Version command timeout");
             }
-
-            int exitCode = process.exitValue();
-            if (exitCode != 0) {
-                throw new IOException("Version command failed with exit code: " + exitCode);
+            if (outcome.exitCode != 0) {
+                throw new IOException("Version command failed with exit code: " + outcome.exitCode);
             }
 
-            return output.trim();
+            return outcome.stdout.trim();
 
         } catch (IOException | InterruptedException e) {
             LOG.error("Failed to get CLI version", e);
@@ -207,25 +304,21 @@ public abstract class AbstractCliExecutor implements CliExecutor {
     }
 
     /**
-     * 讀取輸入流內容
+     * 設定輸出大小上限（字元數）
      *
-     * @param inputStream 輸入流
-     * @return 輸入流的文字內容
-     * @throws IOException 當讀取失敗時拋出
+     * stdout 超過上限時終止程序並拋出例外，stderr 超過上限時截斷。
+     *
+     * @param maxOutputChars 輸出上限（字元數）
      */
-    protected String readStream(InputStream inputStream) throws IOException {
-        StringBuilder output = new StringBuilder();
-
-        try (BufferedReader reader = new BufferedReader(
-            new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
+    public void setMaxOutputChars(int maxOutputChars) {
+        if (maxOutputChars <= 0) {
+            throw new IllegalArgumentException("Max output size must be positive: " + maxOutputChars);
         }
+        this.maxOutputChars = maxOutputChars;
+    }
 
-        return output.toString();
+    public int getMaxOutputChars() {
+        return maxOutputChars;
     }
 
     /**
@@ -251,4 +344,140 @@ public abstract class AbstractCliExecutor implements CliExecutor {
     protected boolean validateOutput(String output) {
         return output != null && !output.trim().isEmpty();
     }
+
+    /**
+     * 執行結果
+     */
+    private static final class ProcessOutcome {
+        private final int exitCode;
+        private final String stdout;
+        private final String stderr;
+        private final boolean timedOut;
+        private final boolean overflowed;
+        private final RuntimeException consumerFailure;
+
+        ProcessOutcome(int exitCode, String stdout, String stderr, boolean timedOut, boolean overflowed,
+                       RuntimeException consumerFailure) {
+            this.exitCode = exitCode;
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.timedOut = timedOut;
+            this.overflowed = overflowed;
+            this.consumerFailure = consumerFailure;
+        }
+    }
+
+    /**
+     * 輸出流抽取器
+     *
+     * 以固定大小的字元區塊讀取直到 EOF，上限以區塊累計檢查，單一超長行也無法繞過；
+     * 超過上限或消費者拋出例外後，仍持續讀取並丟棄以排空管線，避免程序阻塞。
+     */
+    private static final class StreamPump implements Runnable {
+        private final InputStream stream;
+        private final int maxChars;
+        private final Consumer<String> lineConsumer;
+        private final Runnable onOverflow;
+        private final StringBuilder buffer = new StringBuilder();
+        private final StringBuilder pendingLine = new StringBuilder();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean overflowed;
+        private volatile RuntimeException consumerFailure;
+
+        StreamPump(InputStream stream, int maxChars, Consumer<String> lineConsumer, Runnable onOverflow) {
+            this.stream = stream;
+            this.maxChars = maxChars;
+            this.lineConsumer = lineConsumer;
+            this.onOverflow = onOverflow;
+        }
+
+        @Override
+        public void run() {
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                char[] chunk = new char[PUMP_CHUNK_CHARS];
+                int read;
+                while ((read = reader.read(chunk)) >= 0) {
+                    if (overflowed) {
+                        continue;
+                    }
+                    if (buffer.length() + read > maxChars) {
+                        overflowed = true;
+                        if (onOverflow != null) {
+                            onOverflow.run();
+                        }
+                        continue;
+                    }
+                    synchronized (buffer) {
+                        buffer.append(chunk, 0, read);
+                    }
+                    deliverLines(chunk, read);
+                }
+                if (pendingLine.length() > 0 && !overflowed) {
+                    deliver(pendingLine.toString());
+                }
+            } catch (IOException e) {
+                LOG.debug("CLI output stream closed: {}", e.getMessage());
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /**
+         * 將區塊內完整的行交給消費者，未完成的行留待下一個區塊
+         */
+        private void deliverLines(char[] chunk, int length) {
+            if (lineConsumer == null || consumerFailure != null) {
+                return;
+            }
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (chunk[i] == '\n') {
+                    pendingLine.append(chunk, start, i - start);
+                    int end = pendingLine.length();
+                    if (end > 0 && pendingLine.charAt(end - 1) == '\r') {
+                        pendingLine.setLength(end - 1);
+                    }
+                    deliver(pendingLine.toString());
+                    pendingLine.setLength(0);
+                    start = i + 1;
+                    if (consumerFailure != null) {
+                        return;
+                    }
+                }
+            }
+            pendingLine.append(chunk, start, length - start);
+        }
+
+        private void deliver(String line) {
+            if (lineConsumer == null || consumerFailure != null) {
+                return;
+            }
+            try {
+                lineConsumer.accept(line);
+            } catch (RuntimeException e) {
+                // 記錄第一個失敗並停止回呼，其餘輸出仍照常收集
+                consumerFailure = e;
+                pendingLine.setLength(0);
+                LOG.warn("CLI output consumer failed: {}", e.getMessage());
+            }
+        }
+
+        void await(long millis) throws InterruptedException {
+            done.await(millis, TimeUnit.MILLISECONDS);
+        }
+
+        boolean isOverflowed() {
+            return overflowed;
+        }
+
+        RuntimeException getConsumerFailure() {
+            return consumerFailure;
+        }
+
+        String getContent() {
+            synchronized (buffer) {
+                return buffer.toString();
+            }
+        }
+    }
 }
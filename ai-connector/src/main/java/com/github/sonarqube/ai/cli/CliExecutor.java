@@ -1,6 +1,7 @@
 package com.github.sonarqube.ai.cli;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 
 /**
  * CLI 執行器介面
@@ -24,6 +25,28 @@ public interface CliExecutor {
      */
     String executeCommand(String[] command, String input) throws IOException, InterruptedException, CliExecutionException;
 
+    /**
+     * 執行 CLI 命令，並在 stdout 產生時逐行交給消費者（用於增量解析）
+     *
+     * 預設實作於命令完成後才逐行回放輸出，實作類別可覆寫以提供真正的串流。
+     *
+     * @param command            CLI 命令陣列（命令與參數）
+     * @param input              標準輸入內容（可選，null 表示無輸入）
+     * @param stdoutLineConsumer stdout 逐行消費者（可選，null 表示不消費）
+     * @return CLI 完整輸出結果
+     * @throws IOException           當 CLI 執行失敗時拋出
+     * @throws InterruptedException  當執行被中斷時拋出
+     * @throws CliExecutionException 當 CLI 返回錯誤時拋出
+     */
+    default String executeCommand(String[] command, String input, Consumer<String> stdoutLineConsumer)
+            throws IOException, InterruptedException, CliExecutionException {
+        String output = executeCommand(command, input);
+        if (stdoutLineConsumer != null && output != null) {
+            output.lines().forEach(stdoutLineConsumer);
+        }
+        return output;
+    }
+
     /**
      * 測試 CLI 工具是否可用
      *
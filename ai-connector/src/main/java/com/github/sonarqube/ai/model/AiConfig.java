@@ -29,6 +29,12 @@ public class AiConfig {
     private final double rateLimitBufferRatio;
     private final String rateLimitStrategy;
 
+    // Prompt 前綴快取配置
+    private final boolean promptCachingEnabled;
+
+    // 多提供者負載平衡權重
+    private final int loadBalanceWeight;
+
     private AiConfig(Builder builder) {
         this.model = builder.model;
         this.apiKey = builder.apiKey;
@@ -44,6 +50,8 @@ public class AiConfig {
         this.maxTokensPerMinute = builder.maxTokensPerMinute;
         this.rateLimitBufferRatio = builder.rateLimitBufferRatio;
         this.rateLimitStrategy = builder.rateLimitStrategy;
+        this.promptCachingEnabled = builder.promptCachingEnabled;
+        this.loadBalanceWeight = builder.loadBalanceWeight;
     }
 
     public AiModel getModel() {
@@ -102,6 +110,30 @@ public class AiConfig {
         return rateLimitStrategy;
     }
 
+    /**
+     * 是否啟用 Prompt 前綴快取（靜態系統提示在請求間重用）
+     *
+     * 僅適用於 Claude（cache_control 標記）與 OpenAI（prompt_cache_key）。Gemini API 不支援此設定：
+     * Gemini 2.5 之後的模型自動對相同前綴做隱式快取且無法關閉，需另建 cachedContents 資源的顯式快取未實作。
+     *
+     * @return true 如果啟用
+     */
+    public boolean isPromptCachingEnabled() {
+        return promptCachingEnabled;
+    }
+
+    /**
+     * 多提供者負載平衡時的分派權重
+     *
+     * 僅用於 {@link com.github.sonarqube.ai.AiServiceFactory#createLoadBalancedService}；
+     * 插件屬性目前只配置單一提供者，未提供對應的設定項目。
+     *
+     * @return 權重（正整數）
+     */
+    public int getLoadBalanceWeight() {
+        return loadBalanceWeight;
+    }
+
     /**
      * 驗證配置是否有效
      *
@@ -109,7 +141,8 @@ public class AiConfig {
      */
     public boolean isValid() {
         // 基本驗證
-        if (model == null || timeoutSeconds <= 0 || temperature < 0.0 || temperature > 2.0 || maxTokens <= 0 || maxRetries < 0) {
+        if (model == null || timeoutSeconds <= 0 || temperature < 0.0 || temperature > 2.0 || maxTokens <= 0 || maxRetries < 0
+            || loadBalanceWeight <= 0) {
             return false;
         }
 
@@ -157,6 +190,12 @@ public class AiConfig {
         private double rateLimitBufferRatio = 0.9; // 使用 90% 限制
         private String rateLimitStrategy = "adaptive"; // adaptive 或 fixed
 
+        // Prompt 前綴快取配置
+        private boolean promptCachingEnabled = true; // 預設啟用
+
+        // 多提供者負載平衡權重
+        private int loadBalanceWeight = 1;
+
         public Builder model(AiModel model) {
             this.model = model;
             // 自動設定預設 API endpoint
@@ -237,6 +276,16 @@ public class AiConfig {
             return this;
         }
 
+        public Builder promptCachingEnabled(boolean promptCachingEnabled) {
+            this.promptCachingEnabled = promptCachingEnabled;
+            return this;
+        }
+
+        public Builder loadBalanceWeight(int loadBalanceWeight) {
+            this.loadBalanceWeight = loadBalanceWeight;
+            return this;
+        }
+
         public AiConfig build() {
             // 智能推斷執行模式（如果未明確設置）
             if (executionMode == null) {
@@ -21,6 +21,10 @@ public class AiResponse {
     private final String effortEstimate;
     private final long processingTimeMs;
     private final int tokensUsed;
+    private final int inputTokens;
+    private final int outputTokens;
+    private final int cachedInputTokens;
+    private final int cacheWriteInputTokens;
     private final String modelUsed;
     private final LocalDateTime timestamp;
     private final String errorMessage;
@@ -33,6 +37,10 @@ public class AiResponse {
         this.effortEstimate = builder.effortEstimate;
         this.processingTimeMs = builder.processingTimeMs;
         this.tokensUsed = builder.tokensUsed;
+        this.inputTokens = builder.inputTokens;
+        this.outputTokens = builder.outputTokens;
+        this.cachedInputTokens = builder.cachedInputTokens;
+        this.cacheWriteInputTokens = builder.cacheWriteInputTokens;
         this.modelUsed = builder.modelUsed;
         this.timestamp = builder.timestamp;
         this.errorMessage = builder.errorMessage;
@@ -79,6 +87,41 @@ public class AiResponse {
         return tokensUsed;
     }
 
+    /**
+     * 取得輸入 token 數（包含自快取讀取的前綴 token）
+     *
+     * @return 輸入 token 數，提供者未回報時為 0
+     */
+    public int getInputTokens() {
+        return inputTokens;
+    }
+
+    public int getOutputTokens() {
+        return outputTokens;
+    }
+
+    /**
+     * 取得自 Prompt 快取讀取的輸入 token 數
+     *
+     * 此數值為 {@link #getInputTokens()} 的子集，以較低單價計費。
+     *
+     * @return 快取命中的輸入 token 數
+     */
+    public int getCachedInputTokens() {
+        return cachedInputTokens;
+    }
+
+    /**
+     * 取得寫入 Prompt 快取的輸入 token 數
+     *
+     * 此數值為 {@link #getInputTokens()} 的子集；Anthropic 以高於一般輸入的單價計費，其餘供應商不回報。
+     *
+     * @return 寫入快取的輸入 token 數
+     */
+    public int getCacheWriteInputTokens() {
+        return cacheWriteInputTokens;
+    }
+
     public String getModelUsed() {
         return modelUsed;
     }
@@ -130,6 +173,10 @@ public class AiResponse {
         private String effortEstimate;
         private long processingTimeMs;
         private int tokensUsed;
+        private int inputTokens;
+        private int outputTokens;
+        private int cachedInputTokens;
+        private int cacheWriteInputTokens;
         private String modelUsed;
         private LocalDateTime timestamp = LocalDateTime.now();
         private String errorMessage;
@@ -196,6 +243,26 @@ public class AiResponse {
             return this;
         }
 
+        public Builder inputTokens(int inputTokens) {
+            this.inputTokens = inputTokens;
+            return this;
+        }
+
+        public Builder outputTokens(int outputTokens) {
+            this.outputTokens = outputTokens;
+            return this;
+        }
+
+        public Builder cachedInputTokens(int cachedInputTokens) {
+            this.cachedInputTokens = cachedInputTokens;
+            return this;
+        }
+
+        public Builder cacheWriteInputTokens(int cacheWriteInputTokens) {
+            this.cacheWriteInputTokens = cacheWriteInputTokens;
+            return this;
+        }
+
         public Builder modelUsed(String modelUsed) {
             this.modelUsed = modelUsed;
             return this;
@@ -219,7 +286,7 @@ public class AiResponse {
 
     @Override
     public String toString() {
-        return String.format("AiResponse[success=%s, issues=%d, tokens=%d, time=%dms]",
-            success, issues.size(), tokensUsed, processingTimeMs);
+        return String.format("AiResponse[success=%s, issues=%d, tokens=%d, cached=%d, time=%dms]",
+            success, issues.size(), tokensUsed, cachedInputTokens, processingTimeMs);
     }
 }
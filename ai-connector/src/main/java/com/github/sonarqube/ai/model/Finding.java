@@ -113,6 +113,7 @@ public class Finding {
         issue.setDescription(message != null ? message : "Security issue detected");
         issue.setLineNumber(startLine);
         issue.setFixSuggestion(suggestedFix);
+        issue.setConfidence(confidenceScore);
 
         return issue;
     }
@@ -52,6 +52,11 @@ public class SecurityIssue {
      */
     private String effortEstimate;
 
+    /**
+     * 信心分數（0.0-1.0，AI 未提供時為 null）
+     */
+    private Double confidence;
+
     /**
      * 嚴重性枚舉
      */
@@ -183,6 +188,14 @@ public class SecurityIssue {
         this.effortEstimate = effortEstimate;
     }
 
+    public Double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -210,6 +223,7 @@ public class SecurityIssue {
             ", lineNumber=" + lineNumber +
             ", fixSuggestion='" + fixSuggestion + '\'' +
             ", effortEstimate='" + effortEstimate + '\'' +
+            ", confidence=" + confidence +
             '}';
     }
 }
@@ -1,8 +1,10 @@
 package com.github.sonarqube.ai.provider;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.github.sonarqube.ai.AiException;
 import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.analyzer.AiJson;
 import com.github.sonarqube.ai.analyzer.AiResponseParser;
 import com.github.sonarqube.ai.cache.AiCacheManager;
 import com.github.sonarqube.ai.model.AiConfig;
@@ -36,7 +38,8 @@ public class ClaudeService implements AiService {
 
     private final AiConfig config;
     private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter requestWriter;
+    private final ObjectReader responseReader;
     private final AiCacheManager cacheManager;
     private final AiResponseParser responseParser;
 
@@ -52,10 +55,11 @@ public class ClaudeService implements AiService {
             throw new IllegalArgumentException("Config must be for Claude model");
         }
         this.config = config;
-        this.objectMapper = new ObjectMapper();
+        this.requestWriter = AiJson.writer();
+        this.responseReader = AiJson.readerFor(ClaudeApiResponse.class);
         this.httpClient = createHttpClient();
         this.cacheManager = cacheManager;
-        this.responseParser = new AiResponseParser();
+        this.responseParser = AiResponseParser.getInstance();
     }
 
     /**
@@ -85,7 +89,7 @@ public class ClaudeService implements AiService {
         try {
             // 建立 Claude API 請求
             ClaudeApiRequest apiRequest = buildApiRequest(request);
-            String requestJson = objectMapper.writeValueAsString(apiRequest);
+            String requestJson = requestWriter.writeValueAsString(apiRequest);
 
             // 執行 HTTP 請求（帶重試機制）
             ClaudeApiResponse apiResponse = executeWithRetry(requestJson);
@@ -135,12 +139,16 @@ public class ClaudeService implements AiService {
         apiRequest.setMaxTokens(config.getMaxTokens());
         apiRequest.setTemperature(config.getTemperature());
 
-        // Claude 使用單獨的 system 欄位
-        apiRequest.setSystem(PromptTemplate.SYSTEM_PROMPT);
+        // Claude 使用單獨的 system 欄位（靜態前綴，標記 cache_control 以重用快取）
+        String systemPrompt = PromptTemplate.getSystemPrompt(request);
+        if (config.isPromptCachingEnabled()) {
+            apiRequest.setCachedSystem(systemPrompt);
+        } else {
+            apiRequest.setSystem(systemPrompt);
+        }
 
-        // 用戶提示
-        String userPrompt = PromptTemplate.createAnalysisPrompt(request);
-        apiRequest.addMessage("user", userPrompt);
+        // 用戶提示（每個檔案不同的動態部分置於快取斷點之後）
+        apiRequest.addMessage("user", PromptTemplate.createUserPrompt(request));
 
         return apiRequest;
     }
@@ -201,7 +209,7 @@ public class ClaudeService implements AiService {
             if (!response.isSuccessful()) {
                 // 嘗試解析錯誤回應
                 try {
-                    ClaudeApiResponse errorResponse = objectMapper.readValue(responseBody, ClaudeApiResponse.class);
+                    ClaudeApiResponse errorResponse = responseReader.readValue(responseBody);
                     if (errorResponse.hasError()) {
                         return errorResponse;
                     }
@@ -211,7 +219,7 @@ public class ClaudeService implements AiService {
                 throw new IOException("HTTP " + response.code() + ": " + responseBody);
             }
 
-            return objectMapper.readValue(responseBody, ClaudeApiResponse.class);
+            return responseReader.readValue(responseBody);
         }
     }
 
@@ -228,7 +236,14 @@ public class ClaudeService implements AiService {
 
         // Claude 回應格式：content 是陣列，取第一個文本內容
         String content = apiResponse.getContent().get(0).getText();
-        int tokensUsed = apiResponse.getUsage() != null ? apiResponse.getUsage().getTotalTokens() : 0;
+        ClaudeApiResponse.Usage usage = apiResponse.getUsage();
+        int tokensUsed = usage != null ? usage.getTotalTokens() : 0;
+        int inputTokens = usage != null ? usage.getTotalInputTokens() : 0;
+        int outputTokens = usage != null && usage.getOutputTokens() != null ? usage.getOutputTokens() : 0;
+        int cachedInputTokens = usage != null && usage.getCacheReadInputTokens() != null
+            ? usage.getCacheReadInputTokens() : 0;
+        int cacheWriteInputTokens = usage != null && usage.getCacheCreationInputTokens() != null
+            ? usage.getCacheCreationInputTokens() : 0;
 
         // 解析 JSON 格式的安全問題
         List<SecurityIssue> issues = responseParser.parseSecurityIssues(content);
@@ -238,6 +253,10 @@ public class ClaudeService implements AiService {
             .issues(issues)
             .processingTimeMs(processingTimeMs)
             .tokensUsed(tokensUsed)
+            .inputTokens(inputTokens)
+            .outputTokens(outputTokens)
+            .cachedInputTokens(cachedInputTokens)
+            .cacheWriteInputTokens(cacheWriteInputTokens)
             .modelUsed(apiResponse.getModel())
             .timestamp(LocalDateTime.now())
             .build();
@@ -273,7 +292,7 @@ public class ClaudeService implements AiService {
             testRequest.setMaxTokens(10);
             testRequest.addMessage("user", PromptTemplate.TEST_PROMPT);
 
-            String requestJson = objectMapper.writeValueAsString(testRequest);
+            String requestJson = requestWriter.writeValueAsString(testRequest);
             ClaudeApiResponse response = executeRequest(requestJson);
 
             return !response.hasError();
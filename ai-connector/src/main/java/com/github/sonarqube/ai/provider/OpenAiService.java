@@ -1,8 +1,10 @@
 package com.github.sonarqube.ai.provider;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.github.sonarqube.ai.AiException;
 import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.analyzer.AiJson;
 import com.github.sonarqube.ai.analyzer.AiResponseParser;
 import com.github.sonarqube.ai.cache.AiCacheManager;
 import com.github.sonarqube.ai.model.AiConfig;
@@ -45,7 +47,8 @@ public class OpenAiService implements AiService {
 
     private final AiConfig config;
     private final OkHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter requestWriter;
+    private final ObjectReader responseReader;
     private final AiCacheManager cacheManager;
     private final AiResponseParser responseParser;
     private final TokenBucketRateLimiter rateLimiter; // TPM Rate Limiter
@@ -62,10 +65,11 @@ public class OpenAiService implements AiService {
             throw new IllegalArgumentException("Config must be for OpenAI model");
         }
         this.config = config;
-        this.objectMapper = new ObjectMapper();
+        this.requestWriter = AiJson.writer();
+        this.responseReader = AiJson.readerFor(OpenAiApiResponse.class);
         this.httpClient = createHttpClient();
         this.cacheManager = cacheManager;
-        this.responseParser = new AiResponseParser();
+        this.responseParser = AiResponseParser.getInstance();
 
         // 初始化 Rate Limiter（如果啟用）
         if (config.isRateLimitEnabled()) {
@@ -105,7 +109,7 @@ public class OpenAiService implements AiService {
         try {
             // 建立 OpenAI API 請求
             OpenAiApiRequest apiRequest = buildApiRequest(request);
-            String requestJson = objectMapper.writeValueAsString(apiRequest);
+            String requestJson = requestWriter.writeValueAsString(apiRequest);
 
             // 執行 HTTP 請求（帶重試機制）
             OpenAiApiResponse apiResponse = executeWithRetry(requestJson);
@@ -149,26 +153,22 @@ public class OpenAiService implements AiService {
     /**
      * 建立 OpenAI API 請求
      */
-    private OpenAiApiRequest buildApiRequest(AiRequest request) {
+    OpenAiApiRequest buildApiRequest(AiRequest request) {
         OpenAiApiRequest apiRequest = new OpenAiApiRequest();
         apiRequest.setModel(config.getModel().getModelId());
         apiRequest.setTemperature(config.getTemperature());
         apiRequest.setMaxTokens(config.getMaxTokens());
 
-        // 判斷分析模式（使用 analysisType 欄位）
-        boolean isDetectionOnly = "detection".equalsIgnoreCase(request.getAnalysisType());
+        // 系統提示（根據模式選擇）：固定置於第一則訊息，形成穩定的可快取前綴
+        apiRequest.addMessage("system", PromptTemplate.getSystemPrompt(request));
 
-        // 系統提示（根據模式選擇）
-        String systemPrompt = isDetectionOnly
-            ? PromptTemplate.SYSTEM_PROMPT_DETECTION_ONLY
-            : PromptTemplate.SYSTEM_PROMPT;
-        apiRequest.addMessage("system", systemPrompt);
+        // 用戶提示（根據模式選擇）：動態內容一律放在前綴之後
+        apiRequest.addMessage("user", PromptTemplate.createUserPrompt(request));
 
-        // 用戶提示（根據模式選擇）
-        String userPrompt = isDetectionOnly
-            ? PromptTemplate.createDetectionOnlyPrompt(request)
-            : PromptTemplate.createAnalysisPrompt(request);
-        apiRequest.addMessage("user", userPrompt);
+        // 相同前綴的請求導向同一快取節點，提高自動前綴快取命中率
+        if (config.isPromptCachingEnabled()) {
+            apiRequest.setPromptCacheKey(PromptTemplate.getPromptCacheKey(request));
+        }
 
         return apiRequest;
     }
@@ -336,7 +336,7 @@ public class OpenAiService implements AiService {
             if (!response.isSuccessful()) {
                 // 嘗試解析錯誤回應
                 try {
-                    OpenAiApiResponse errorResponse = objectMapper.readValue(responseBody, OpenAiApiResponse.class);
+                    OpenAiApiResponse errorResponse = responseReader.readValue(responseBody);
                     if (errorResponse.hasError()) {
                         return errorResponse;
                     }
@@ -346,14 +346,14 @@ public class OpenAiService implements AiService {
                 throw new IOException("HTTP " + response.code() + ": " + responseBody);
             }
 
-            return objectMapper.readValue(responseBody, OpenAiApiResponse.class);
+            return responseReader.readValue(responseBody);
         }
     }
 
     /**
      * 解析 OpenAI 回應為 AiResponse
      */
-    private AiResponse parseResponse(OpenAiApiResponse apiResponse, long processingTimeMs) {
+    AiResponse parseResponse(OpenAiApiResponse apiResponse, long processingTimeMs) {
         if (apiResponse.getChoices() == null || apiResponse.getChoices().isEmpty()) {
             return AiResponse.failure("No response from OpenAI API")
                 .processingTimeMs(processingTimeMs)
@@ -362,7 +362,11 @@ public class OpenAiService implements AiService {
         }
 
         String content = apiResponse.getChoices().get(0).getMessage().getContent();
-        int tokensUsed = apiResponse.getUsage() != null ? apiResponse.getUsage().getTotalTokens() : 0;
+        OpenAiApiResponse.Usage usage = apiResponse.getUsage();
+        int tokensUsed = usage != null && usage.getTotalTokens() != null ? usage.getTotalTokens() : 0;
+        int inputTokens = usage != null && usage.getPromptTokens() != null ? usage.getPromptTokens() : 0;
+        int outputTokens = usage != null && usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0;
+        int cachedInputTokens = usage != null ? usage.getCachedTokens() : 0;
 
         // 解析 JSON 格式的安全問題
         List<SecurityIssue> issues = responseParser.parseSecurityIssues(content);
@@ -372,6 +376,9 @@ public class OpenAiService implements AiService {
             .issues(issues)
             .processingTimeMs(processingTimeMs)
             .tokensUsed(tokensUsed)
+            .inputTokens(inputTokens)
+            .outputTokens(outputTokens)
+            .cachedInputTokens(cachedInputTokens)
             .modelUsed(apiResponse.getModel())
             .timestamp(LocalDateTime.now())
             .build();
@@ -407,7 +414,7 @@ public class OpenAiService implements AiService {
             testRequest.setMaxTokens(10);
             testRequest.addMessage("user", PromptTemplate.TEST_PROMPT);
 
-            String requestJson = objectMapper.writeValueAsString(testRequest);
+            String requestJson = requestWriter.writeValueAsString(testRequest);
             OpenAiApiResponse response = executeRequest(requestJson);
 
             return !response.hasError();
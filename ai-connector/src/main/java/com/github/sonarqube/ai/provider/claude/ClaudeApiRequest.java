@@ -1,5 +1,7 @@
 package com.github.sonarqube.ai.provider.claude;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +11,9 @@ import java.util.List;
  *
  * 對應 Claude Messages API 的請求格式。
  *
+ * system 欄位以內容區塊陣列序列化，靜態系統提示可附加 cache_control 標記，
+ * 讓 Anthropic 在後續請求中直接讀取已快取的前綴。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 1.0.0
  */
@@ -27,7 +32,7 @@ public class ClaudeApiRequest {
     private Double temperature;
 
     @JsonProperty("system")
-    private String system;
+    private List<SystemBlock> system;
 
     @JsonProperty("top_p")
     private Double topP;
@@ -72,12 +77,42 @@ public class ClaudeApiRequest {
         this.temperature = temperature;
     }
 
+    /**
+     * 取得系統提示文字（合併所有區塊）
+     *
+     * @return 系統提示，未設定時為 null
+     */
+    @JsonIgnore
     public String getSystem() {
-        return system;
+        if (system == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (SystemBlock block : system) {
+            text.append(block.getText());
+        }
+        return text.toString();
     }
 
     public void setSystem(String system) {
-        this.system = system;
+        this.system = system != null ? List.of(new SystemBlock(system, null)) : null;
+    }
+
+    /**
+     * 設定可快取的系統提示
+     *
+     * 以 ephemeral cache_control 標記系統提示區塊，快取斷點之前的內容
+     * （tools + system）會在後續請求中以快取讀取計費。
+     *
+     * @param system 靜態系統提示
+     */
+    public void setCachedSystem(String system) {
+        this.system = system != null ? List.of(new SystemBlock(system, CacheControl.ephemeral())) : null;
+    }
+
+    @JsonIgnore
+    public List<SystemBlock> getSystemBlocks() {
+        return system;
     }
 
     public Double getTopP() {
@@ -88,6 +123,64 @@ public class ClaudeApiRequest {
         this.topP = topP;
     }
 
+    /**
+     * 系統提示區塊
+     */
+    public static class SystemBlock {
+        @JsonProperty("type")
+        private String type = "text";
+
+        @JsonProperty("text")
+        private String text;
+
+        @JsonProperty("cache_control")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private CacheControl cacheControl;
+
+        public SystemBlock() {
+        }
+
+        public SystemBlock(String text, CacheControl cacheControl) {
+            this.text = text;
+            this.cacheControl = cacheControl;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public CacheControl getCacheControl() {
+            return cacheControl;
+        }
+    }
+
+    /**
+     * 快取控制標記
+     */
+    public static class CacheControl {
+        @JsonProperty("type")
+        private String type;
+
+        public CacheControl() {
+        }
+
+        public CacheControl(String type) {
+            this.type = type;
+        }
+
+        public static CacheControl ephemeral() {
+            return new CacheControl("ephemeral");
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
     /**
      * 訊息資料類別
      */
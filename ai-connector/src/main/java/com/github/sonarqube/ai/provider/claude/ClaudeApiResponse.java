@@ -142,6 +142,12 @@ public class ClaudeApiResponse {
         @JsonProperty("output_tokens")
         private Integer outputTokens;
 
+        @JsonProperty("cache_creation_input_tokens")
+        private Integer cacheCreationInputTokens;
+
+        @JsonProperty("cache_read_input_tokens")
+        private Integer cacheReadInputTokens;
+
         public Integer getInputTokens() {
             return inputTokens;
         }
@@ -158,8 +164,35 @@ public class ClaudeApiResponse {
             this.outputTokens = outputTokens;
         }
 
+        public Integer getCacheCreationInputTokens() {
+            return cacheCreationInputTokens;
+        }
+
+        public void setCacheCreationInputTokens(Integer cacheCreationInputTokens) {
+            this.cacheCreationInputTokens = cacheCreationInputTokens;
+        }
+
+        public Integer getCacheReadInputTokens() {
+            return cacheReadInputTokens;
+        }
+
+        public void setCacheReadInputTokens(Integer cacheReadInputTokens) {
+            this.cacheReadInputTokens = cacheReadInputTokens;
+        }
+
+        /**
+         * 取得全部輸入 token 數
+         *
+         * Claude 的 input_tokens 不含快取寫入與快取讀取部分，需加總後才是完整 prompt 大小。
+         */
+        public int getTotalInputTokens() {
+            return (inputTokens != null ? inputTokens : 0)
+                + (cacheCreationInputTokens != null ? cacheCreationInputTokens : 0)
+                + (cacheReadInputTokens != null ? cacheReadInputTokens : 0);
+        }
+
         public int getTotalTokens() {
-            return (inputTokens != null ? inputTokens : 0) + (outputTokens != null ? outputTokens : 0);
+            return getTotalInputTokens() + (outputTokens != null ? outputTokens : 0);
         }
     }
 
@@ -1,5 +1,7 @@
 package com.github.sonarqube.ai.provider.gemini;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,11 +11,16 @@ import java.util.List;
  * 符合 Gemini API v1beta 規範
  * 參考: https://ai.google.dev/gemini-api/docs
  *
+ * 靜態系統提示放在 systemInstruction，位於 contents 之前，
+ * 讓 Gemini 的隱式快取可在相同前綴的請求間重用。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.1.0 (Epic 9, Story 9.2)
  */
 public class GeminiApiRequest {
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Content systemInstruction;
     private List<Content> contents;
     private GenerationConfig generationConfig;
     private List<SafetySetting> safetySettings;
@@ -23,6 +30,14 @@ public class GeminiApiRequest {
         this.safetySettings = new ArrayList<>();
     }
 
+    public Content getSystemInstruction() {
+        return systemInstruction;
+    }
+
+    public void setSystemInstruction(Content systemInstruction) {
+        this.systemInstruction = systemInstruction;
+    }
+
     public List<Content> getContents() {
         return contents;
     }
@@ -199,6 +214,16 @@ public class GeminiApiRequest {
             this.request = new GeminiApiRequest();
         }
 
+        /**
+         * 設定系統指示（可快取的靜態前綴）
+         */
+        public Builder systemInstruction(String text) {
+            Content instruction = new Content();
+            instruction.addTextPart(text);
+            request.systemInstruction = instruction;
+            return this;
+        }
+
         public Builder addUserMessage(String text) {
             request.addContent(new Content("user", text));
             return this;
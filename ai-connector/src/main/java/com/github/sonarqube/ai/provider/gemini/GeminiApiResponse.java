@@ -1,5 +1,7 @@
 package com.github.sonarqube.ai.provider.gemini;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,6 +13,7 @@ import java.util.List;
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.1.0 (Epic 9, Story 9.2)
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class GeminiApiResponse {
 
     private List<Candidate> candidates;
@@ -166,10 +169,12 @@ public class GeminiApiResponse {
     /**
      * Usage Metadata
      */
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class UsageMetadata {
         private Integer promptTokenCount;
         private Integer candidatesTokenCount;
         private Integer totalTokenCount;
+        private Integer cachedContentTokenCount;
 
         public Integer getPromptTokenCount() {
             return promptTokenCount;
@@ -194,5 +199,16 @@ public class GeminiApiResponse {
         public void setTotalTokenCount(Integer totalTokenCount) {
             this.totalTokenCount = totalTokenCount;
         }
+
+        /**
+         * 取得命中隱式／顯式快取的 prompt token 數（已包含於 promptTokenCount）
+         */
+        public Integer getCachedContentTokenCount() {
+            return cachedContentTokenCount;
+        }
+
+        public void setCachedContentTokenCount(Integer cachedContentTokenCount) {
+            this.cachedContentTokenCount = cachedContentTokenCount;
+        }
     }
 }
@@ -1,11 +1,15 @@
 package com.github.sonarqube.ai.provider.gemini;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.github.sonarqube.ai.AiException;
 import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.analyzer.AiJson;
+import com.github.sonarqube.ai.analyzer.AiResponseParser;
 import com.github.sonarqube.ai.model.AiConfig;
 import com.github.sonarqube.ai.model.AiRequest;
 import com.github.sonarqube.ai.model.AiResponse;
+import com.github.sonarqube.ai.model.PromptTemplate;
 import com.github.sonarqube.ai.model.SecurityIssue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +45,9 @@ public class GeminiApiService implements AiService {
 
     private final AiConfig config;
     private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter requestWriter;
+    private final ObjectReader responseReader;
+    private final AiResponseParser responseParser;
 
     /**
      * 建構 Gemini API 服務
@@ -60,7 +66,9 @@ public class GeminiApiService implements AiService {
         this.httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
             .build();
-        this.objectMapper = new ObjectMapper();
+        this.requestWriter = AiJson.writer();
+        this.responseReader = AiJson.readerFor(GeminiApiResponse.class);
+        this.responseParser = AiResponseParser.getInstance();
     }
 
     @Override
@@ -79,7 +87,7 @@ public class GeminiApiService implements AiService {
             String responseJson = sendApiRequest(geminiRequest);
 
             // 3. 解析回應
-            GeminiApiResponse geminiResponse = objectMapper.readValue(responseJson, GeminiApiResponse.class);
+            GeminiApiResponse geminiResponse = responseReader.readValue(responseJson);
 
             // 4. 轉換為統一 AiResponse 格式
             return convertToAiResponse(geminiResponse, request);
@@ -140,10 +148,11 @@ public class GeminiApiService implements AiService {
      * 建構 Gemini API 請求
      */
     private GeminiApiRequest buildGeminiRequest(AiRequest request) {
-        String prompt = buildSecurityAnalysisPrompt(request);
-
+        // 靜態系統提示放在 systemInstruction（可快取前綴），檔案內容放在 contents。
+        // Gemini 只有自動的隱式快取，不受 promptCachingEnabled 控制（顯式 cachedContents 未實作）
         GeminiApiRequest.Builder builder = GeminiApiRequest.builder()
-            .addUserMessage(prompt);
+            .systemInstruction(PromptTemplate.getSystemPrompt(request))
+            .addUserMessage(PromptTemplate.createUserPrompt(request));
 
         // 設定生成參數
         // config.getTemperature() 返回 double，需要轉換為 float
@@ -161,33 +170,6 @@ public class GeminiApiService implements AiService {
         return builder.build();
     }
 
-    /**
-     * 建構安全分析提示詞
-     */
-    private String buildSecurityAnalysisPrompt(AiRequest request) {
-        StringBuilder prompt = new StringBuilder();
-
-        prompt.append("You are a security analysis expert. ");
-        prompt.append("Analyze the following code for security vulnerabilities.\n\n");
-
-        prompt.append("Code to analyze:\n");
-        prompt.append("```\n");
-        prompt.append(request.getCode());
-        prompt.append("\n```\n\n");
-
-        prompt.append("Please identify:\n");
-        prompt.append("1. All security vulnerabilities (OWASP Top 10)\n");
-        prompt.append("2. Severity level for each issue (BLOCKER, CRITICAL, MAJOR, MINOR, INFO)\n");
-        prompt.append("3. OWASP category (e.g., A03:2021-Injection)\n");
-        prompt.append("4. Related CWE IDs\n");
-        prompt.append("5. Detailed description of each vulnerability\n");
-        prompt.append("6. Suggested fixes\n\n");
-
-        prompt.append("Format your response as a structured list of findings.");
-
-        return prompt.toString();
-    }
-
     /**
      * 發送 API 請求
      */
@@ -198,7 +180,7 @@ public class GeminiApiService implements AiService {
         String urlWithKey = apiUrl + "?key=" + config.getApiKey();
 
         // 序列化請求
-        String requestBody = objectMapper.writeValueAsString(request);
+        String requestBody = requestWriter.writeValueAsString(request);
 
         LOG.debug("Sending request to Gemini API: {}", apiUrl);
 
@@ -249,28 +231,26 @@ public class GeminiApiService implements AiService {
 
         LOG.info("Gemini API analysis completed: {} findings", findings.size());
 
+        GeminiApiResponse.UsageMetadata usage = geminiResponse.getUsageMetadata();
         return AiResponse.builder()
             .issues(findings)
             .rawResponse(responseText)
+            .tokensUsed(usage != null && usage.getTotalTokenCount() != null ? usage.getTotalTokenCount() : 0)
+            .inputTokens(usage != null && usage.getPromptTokenCount() != null ? usage.getPromptTokenCount() : 0)
+            .outputTokens(usage != null && usage.getCandidatesTokenCount() != null ? usage.getCandidatesTokenCount() : 0)
+            .cachedInputTokens(usage != null && usage.getCachedContentTokenCount() != null
+                ? usage.getCachedContentTokenCount() : 0)
+            .modelUsed(getModelName())
             .build();
     }
 
     /**
      * 解析安全發現
      *
-     * 這是簡化的實作，實際專案中應該有更完善的解析邏輯
+     * 系統提示要求 JSON 格式回應，交由共用的串流解析器處理。
      */
     private List<SecurityIssue> parseSecurityFindings(String responseText) {
-        List<SecurityIssue> findings = new ArrayList<>();
-
-        // TODO: 實作完整的回應解析邏輯
-        // 目前返回空列表，待後續實作詳細的文字解析器
-
         LOG.debug("Parsing security findings from response text");
-
-        // 暫時返回空列表，實際專案中應該解析 Gemini 的回應
-        // 並轉換為 SecurityIssue 物件
-
-        return findings;
+        return responseParser.parseSecurityIssues(responseText);
     }
 }
@@ -1,5 +1,6 @@
 package com.github.sonarqube.ai.provider.openai;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +10,9 @@ import java.util.List;
  *
  * 對應 OpenAI Chat Completions API 的請求格式。
  *
+ * OpenAI 會自動快取相同的 prompt 前綴，因此 system 訊息須固定位於 messages 首位；
+ * prompt_cache_key 則讓共用前綴的請求被路由到同一快取。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 1.0.0
  */
@@ -35,6 +39,10 @@ public class OpenAiApiRequest {
     @JsonProperty("presence_penalty")
     private Double presencePenalty;
 
+    @JsonProperty("prompt_cache_key")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String promptCacheKey;
+
     public OpenAiApiRequest() {
         this.messages = new ArrayList<>();
     }
@@ -99,6 +107,14 @@ public class OpenAiApiRequest {
         this.presencePenalty = presencePenalty;
     }
 
+    public String getPromptCacheKey() {
+        return promptCacheKey;
+    }
+
+    public void setPromptCacheKey(String promptCacheKey) {
+        this.promptCacheKey = promptCacheKey;
+    }
+
     /**
      * 訊息資料類別
      */
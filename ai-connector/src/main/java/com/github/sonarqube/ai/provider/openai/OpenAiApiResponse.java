@@ -177,6 +177,9 @@ public class OpenAiApiResponse {
         @JsonProperty("total_tokens")
         private Integer totalTokens;
 
+        @JsonProperty("prompt_tokens_details")
+        private PromptTokensDetails promptTokensDetails;
+
         public Integer getPromptTokens() {
             return promptTokens;
         }
@@ -200,6 +203,41 @@ public class OpenAiApiResponse {
         public void setTotalTokens(Integer totalTokens) {
             this.totalTokens = totalTokens;
         }
+
+        public PromptTokensDetails getPromptTokensDetails() {
+            return promptTokensDetails;
+        }
+
+        public void setPromptTokensDetails(PromptTokensDetails promptTokensDetails) {
+            this.promptTokensDetails = promptTokensDetails;
+        }
+
+        /**
+         * 取得命中前綴快取的 prompt token 數（已包含於 prompt_tokens）
+         */
+        public int getCachedTokens() {
+            if (promptTokensDetails == null || promptTokensDetails.getCachedTokens() == null) {
+                return 0;
+            }
+            return promptTokensDetails.getCachedTokens();
+        }
+    }
+
+    /**
+     * Prompt token 明細
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PromptTokensDetails {
+        @JsonProperty("cached_tokens")
+        private Integer cachedTokens;
+
+        public Integer getCachedTokens() {
+            return cachedTokens;
+        }
+
+        public void setCachedTokens(Integer cachedTokens) {
+            this.cachedTokens = cachedTokens;
+        }
     }
 
     /**
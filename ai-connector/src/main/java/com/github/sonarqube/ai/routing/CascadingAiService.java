@@ -0,0 +1,370 @@
+package com.github.sonarqube.ai.routing;
+
+import com.github.sonarqube.ai.AiException;
+import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.model.AiRequest;
+import com.github.sonarqube.ai.model.AiResponse;
+import com.github.sonarqube.ai.model.SecurityIssue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 模型串接 AI 服務
+ *
+ * 先以小型快速模型進行初步檢測，只有結果不確定時才交由大型模型重新分析：
+ * - 初步檢測失敗（例外或回應失敗）時升級
+ * - 任一問題的信心分數低於門檻（或未提供信心分數）時升級
+ * - 未發現問題且所有問題信心足夠時直接採用初步結果
+ *
+ * 升級時整個檔案由大型模型重新分析並採用其結果；大型模型失敗時保留初步結果。
+ * 每一層各自記錄請求數、失敗數、延遲與 token 用量。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public class CascadingAiService implements AiService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CascadingAiService.class);
+
+    private static final String PROVIDER_NAME = "Cascade";
+
+    /**
+     * 升級原因
+     */
+    public enum Escalation {
+        /** 未升級，採用初步結果 */
+        NONE,
+        /** 有信心不足的問題 */
+        LOW_CONFIDENCE,
+        /** 初步檢測失敗 */
+        FIRST_TIER_FAILED
+    }
+
+    private final TierMetrics firstTier;
+    private final TierMetrics escalationTier;
+    private final double confidenceThreshold;
+
+    private final AtomicLong lowConfidenceEscalations = new AtomicLong();
+    private final AtomicLong failureEscalations = new AtomicLong();
+
+    private CascadingAiService(Builder builder) {
+        this.firstTier = new TierMetrics(builder.firstTier);
+        this.escalationTier = new TierMetrics(builder.escalationTier);
+        this.confidenceThreshold = builder.confidenceThreshold;
+    }
+
+    @Override
+    public AiResponse analyzeCode(AiRequest request) throws AiException {
+        return analyze(request).getResponse();
+    }
+
+    /**
+     * 執行串接分析並回傳各層回應（供依模型計費）
+     *
+     * @param request 分析請求
+     * @return 串接結果
+     * @throws AiException 兩層皆失敗時
+     */
+    public CascadeResult analyze(AiRequest request) throws AiException {
+        AiResponse first = null;
+        AiException firstError = null;
+        try {
+            first = firstTier.invoke(request);
+        } catch (AiException e) {
+            firstError = e;
+        }
+
+        Escalation escalation = escalationFor(first);
+        if (escalation == Escalation.NONE) {
+            return new CascadeResult(first, null, Escalation.NONE);
+        }
+        if (escalation == Escalation.LOW_CONFIDENCE) {
+            lowConfidenceEscalations.incrementAndGet();
+        } else {
+            failureEscalations.incrementAndGet();
+        }
+        LOG.debug("Escalating {} from {} to {} ({})", request.getFileName(),
+            firstTier.getModelName(), escalationTier.getModelName(), escalation);
+
+        try {
+            return new CascadeResult(first, escalationTier.invoke(request), escalation);
+        } catch (AiException e) {
+            if (first != null && first.isSuccess()) {
+                LOG.warn("Escalation to {} failed, keeping first-tier result: {}",
+                    escalationTier.getModelName(), e.getMessage());
+                return new CascadeResult(first, null, escalation);
+            }
+            if (firstError != null) {
+                e.addSuppressed(firstError);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 判斷初步結果是否需要升級
+     */
+    Escalation escalationFor(AiResponse first) {
+        if (first == null || !first.isSuccess()) {
+            return Escalation.FIRST_TIER_FAILED;
+        }
+        for (SecurityIssue issue : first.getIssues()) {
+            Double confidence = issue.getConfidence();
+            if (confidence == null || confidence < confidenceThreshold) {
+                return Escalation.LOW_CONFIDENCE;
+            }
+        }
+        return Escalation.NONE;
+    }
+
+    @Override
+    public boolean testConnection() {
+        return firstTier.service.testConnection() && escalationTier.service.testConnection();
+    }
+
+    @Override
+    public String getProviderName() {
+        return PROVIDER_NAME + "[" + firstTier.service.getProviderName() + ">"
+            + escalationTier.service.getProviderName() + "]";
+    }
+
+    @Override
+    public String getModelName() {
+        return firstTier.getModelName() + ">" + escalationTier.getModelName();
+    }
+
+    @Override
+    public void close() {
+        for (TierMetrics tier : new TierMetrics[]{firstTier, escalationTier}) {
+            try {
+                tier.service.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to close provider {}: {}", tier.service.getProviderName(), e.getMessage());
+            }
+        }
+    }
+
+    public TierMetrics getFirstTierMetrics() {
+        return firstTier;
+    }
+
+    public TierMetrics getEscalationTierMetrics() {
+        return escalationTier;
+    }
+
+    public double getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    /**
+     * 指定原因的升級次數
+     */
+    public long getEscalationCount(Escalation reason) {
+        switch (reason) {
+            case LOW_CONFIDENCE:
+                return lowConfidenceEscalations.get();
+            case FIRST_TIER_FAILED:
+                return failureEscalations.get();
+            default:
+                return firstTier.getRequestCount() - lowConfidenceEscalations.get() - failureEscalations.get();
+        }
+    }
+
+    /**
+     * 升級比例（升級次數 / 初步檢測次數）
+     */
+    public double getEscalationRate() {
+        long requests = firstTier.getRequestCount();
+        if (requests == 0) {
+            return 0.0;
+        }
+        return (double) (lowConfidenceEscalations.get() + failureEscalations.get()) / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CascadingAiService[first=%s, escalation=%s, escalationRate=%.1f%%]",
+            firstTier, escalationTier, getEscalationRate() * 100);
+    }
+
+    /**
+     * 串接分析結果
+     */
+    public static final class CascadeResult {
+        private final AiResponse firstTierResponse;
+        private final AiResponse escalationResponse;
+        private final Escalation escalation;
+
+        CascadeResult(AiResponse firstTierResponse, AiResponse escalationResponse, Escalation escalation) {
+            this.firstTierResponse = firstTierResponse;
+            this.escalationResponse = escalationResponse;
+            this.escalation = escalation;
+        }
+
+        /**
+         * 最終採用的回應（升級成功時為大型模型結果，否則為初步結果）
+         */
+        public AiResponse getResponse() {
+            if (escalationResponse != null
+                && (escalationResponse.isSuccess() || firstTierResponse == null || !firstTierResponse.isSuccess())) {
+                return escalationResponse;
+            }
+            return firstTierResponse;
+        }
+
+        /**
+         * 初步檢測回應（初步檢測拋出例外時為 null）
+         */
+        public AiResponse getFirstTierResponse() {
+            return firstTierResponse;
+        }
+
+        /**
+         * 升級後的回應（未升級或升級失敗時為 null）
+         */
+        public AiResponse getEscalationResponse() {
+            return escalationResponse;
+        }
+
+        public Escalation getEscalation() {
+            return escalation;
+        }
+
+        public boolean isEscalated() {
+            return escalation != Escalation.NONE;
+        }
+    }
+
+    /**
+     * 單一層的服務與統計
+     */
+    public static final class TierMetrics {
+        // 串接不做冷卻切換，失敗只計數
+        private static final int NO_COOLDOWN = Integer.MAX_VALUE;
+
+        private final AiService service;
+        private final ProviderStats stats = new ProviderStats();
+        private final LongAdder inputTokens = new LongAdder();
+        private final LongAdder outputTokens = new LongAdder();
+
+        TierMetrics(AiService service) {
+            this.service = service;
+        }
+
+        AiResponse invoke(AiRequest request) throws AiException {
+            long start = System.nanoTime();
+            try {
+                AiResponse response = service.analyzeCode(request);
+                if (response == null) {
+                    throw new AiException("Provider returned no response",
+                        AiException.ErrorType.INVALID_RESPONSE, service.getProviderName());
+                }
+                long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (response.isSuccess()) {
+                    stats.recordSuccess(latencyMillis);
+                } else {
+                    stats.recordFailure(NO_COOLDOWN, 0);
+                }
+                if (response.getInputTokens() > 0 || response.getOutputTokens() > 0) {
+                    inputTokens.add(response.getInputTokens());
+                    outputTokens.add(response.getOutputTokens());
+                } else {
+                    inputTokens.add(response.getTokensUsed());
+                }
+                return response;
+            } catch (AiException e) {
+                stats.recordFailure(NO_COOLDOWN, 0);
+                throw e;
+            } catch (RuntimeException e) {
+                stats.recordFailure(NO_COOLDOWN, 0);
+                throw new AiException("Provider failed: " + e.getMessage(), e,
+                    AiException.ErrorType.UNKNOWN_ERROR, service.getProviderName());
+            }
+        }
+
+        public String getModelName() {
+            return service.getModelName();
+        }
+
+        public long getRequestCount() {
+            return stats.getSuccessCount() + stats.getFailureCount();
+        }
+
+        public long getFailureCount() {
+            return stats.getFailureCount();
+        }
+
+        /**
+         * 最近成功呼叫的延遲百分位數（毫秒，無樣本時為 -1）
+         */
+        public long getLatencyPercentile(double percentile) {
+            return stats.getLatencyPercentile(percentile);
+        }
+
+        public long getInputTokens() {
+            return inputTokens.sum();
+        }
+
+        public long getOutputTokens() {
+            return outputTokens.sum();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{requests=%d, failures=%d, p50=%dms, p95=%dms, tokens=%d/%d}",
+                getModelName(), getRequestCount(), getFailureCount(), getLatencyPercentile(50),
+                getLatencyPercentile(95), getInputTokens(), getOutputTokens());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * CascadingAiService 建構器
+     */
+    public static class Builder {
+        private AiService firstTier;
+        private AiService escalationTier;
+        private double confidenceThreshold = 0.7;
+
+        /**
+         * 初步檢測使用的小型快速模型
+         */
+        public Builder firstTier(AiService firstTier) {
+            this.firstTier = firstTier;
+            return this;
+        }
+
+        /**
+         * 結果不確定時使用的大型模型
+         */
+        public Builder escalationTier(AiService escalationTier) {
+            this.escalationTier = escalationTier;
+            return this;
+        }
+
+        /**
+         * 信心分數門檻（低於此值的問題觸發升級）
+         */
+        public Builder confidenceThreshold(double confidenceThreshold) {
+            this.confidenceThreshold = confidenceThreshold;
+            return this;
+        }
+
+        public CascadingAiService build() {
+            if (firstTier == null || escalationTier == null) {
+                throw new IllegalStateException("Both first and escalation tier AI services are required");
+            }
+            if (confidenceThreshold < 0 || confidenceThreshold > 1) {
+                throw new IllegalStateException("Confidence threshold must be in [0, 1]: " + confidenceThreshold);
+            }
+            return new CascadingAiService(this);
+        }
+    }
+}
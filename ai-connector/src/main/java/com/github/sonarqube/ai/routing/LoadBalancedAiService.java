@@ -0,0 +1,433 @@
+package com.github.sonarqube.ai.routing;
+
+import com.github.sonarqube.ai.AiException;
+import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.model.AiRequest;
+import com.github.sonarqube.ai.model.AiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 多提供者負載平衡 AI 服務
+ *
+ * 將請求依權重與即時健康狀態分派至多個 AI 提供者：
+ * - 加權隨機選擇，權重依進行中請求數動態下修
+ * - 連續失敗或遇到速率限制的提供者進入冷卻期，冷卻期內僅作為最後備援
+ * - 失敗時自動切換至下一個提供者
+ * - 可選對沖請求：主要提供者超過其 p95 延遲時，同時送往第二個提供者，取先完成者；
+ *   落敗而被取消的請求不計入該提供者的失敗統計
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 1.0.0
+ */
+public class LoadBalancedAiService implements AiService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadBalancedAiService.class);
+
+    private static final String PROVIDER_NAME = "LoadBalanced";
+
+    private final List<Member> members;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final int hedgeMinSamples;
+    private final long hedgeFallbackDelayMillis;
+    private final int failureThreshold;
+    private final long cooldownMillis;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+
+    private LoadBalancedAiService(Builder builder) {
+        this.members = List.copyOf(builder.members);
+        this.hedgingEnabled = builder.hedgingEnabled;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.hedgeMinSamples = builder.hedgeMinSamples;
+        this.hedgeFallbackDelayMillis = builder.hedgeFallbackDelayMillis;
+        this.failureThreshold = builder.failureThreshold;
+        this.cooldownMillis = builder.cooldownMillis;
+        this.ownsExecutor = builder.executor == null;
+        this.executor = builder.executor != null ? builder.executor : createExecutor();
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ai-load-balancer-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public AiResponse analyzeCode(AiRequest request) throws AiException {
+        List<Member> candidates = rankCandidates();
+        if (!hedgingEnabled || candidates.size() == 1) {
+            return analyzeWithFailover(candidates, request);
+        }
+        return analyzeWithHedging(candidates, request);
+    }
+
+    /**
+     * 依序嘗試候選提供者直到成功
+     */
+    private AiResponse analyzeWithFailover(List<Member> candidates, AiRequest request) throws AiException {
+        AiException lastError = null;
+        for (Member member : candidates) {
+            if (lastError != null) {
+                failovers.incrementAndGet();
+                LOG.debug("Failing over to {}", member.service.getProviderName());
+            }
+            try {
+                return invoke(member, request, null);
+            } catch (AiException e) {
+                lastError = e;
+            }
+        }
+        throw allFailed(lastError);
+    }
+
+    /**
+     * 主要提供者超過延遲門檻時送出對沖請求，失敗時切換至下一個提供者
+     */
+    private AiResponse analyzeWithHedging(List<Member> candidates, AiRequest request) throws AiException {
+        CompletionService<AiResponse> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<AiResponse>, Member> running = new HashMap<>();
+        int next = 0;
+        boolean hedged = false;
+        AiException lastError = null;
+        // 已取得結果（或放棄）後仍在執行的請求會被取消，其錯誤不代表提供者異常
+        AtomicBoolean abandoned = new AtomicBoolean();
+
+        Member primary = candidates.get(next++);
+        running.put(completion.submit(() -> invoke(primary, request, abandoned)), primary);
+        Member leader = primary;
+
+        try {
+            while (!running.isEmpty()) {
+                Future<AiResponse> done;
+                if (!hedged && next < candidates.size()) {
+                    done = completion.poll(hedgeDelayMillis(leader), TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        // 主要提供者超過延遲門檻，送出對沖請求
+                        hedged = true;
+                        hedgedRequests.incrementAndGet();
+                        Member hedge = candidates.get(next++);
+                        LOG.debug("Hedging request from {} to {}",
+                            leader.service.getProviderName(), hedge.service.getProviderName());
+                        running.put(completion.submit(() -> invoke(hedge, request, abandoned)), hedge);
+                        continue;
+                    }
+                } else {
+                    done = completion.take();
+                }
+
+                running.remove(done);
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    lastError = toAiException(e.getCause());
+                    if (running.isEmpty() && next < candidates.size()) {
+                        failovers.incrementAndGet();
+                        Member fallback = candidates.get(next++);
+                        LOG.debug("Failing over to {}", fallback.service.getProviderName());
+                        running.put(completion.submit(() -> invoke(fallback, request, abandoned)), fallback);
+                        leader = fallback;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AiException("Load-balanced request interrupted", e,
+                AiException.ErrorType.UNKNOWN_ERROR, PROVIDER_NAME);
+        } finally {
+            // 取消仍在進行中的落後請求
+            abandoned.set(true);
+            running.keySet().forEach(future -> future.cancel(true));
+        }
+
+        throw allFailed(lastError);
+    }
+
+    /**
+     * 呼叫單一提供者並更新其統計
+     *
+     * @param abandoned 對沖請求的放棄旗標（非對沖請求為 null）；被取消或中斷的請求不計入失敗統計
+     */
+    private AiResponse invoke(Member member, AiRequest request, AtomicBoolean abandoned) throws AiException {
+        member.stats.enter();
+        long start = System.nanoTime();
+        try {
+            AiResponse response = member.service.analyzeCode(request);
+            member.stats.recordSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        } catch (AiException e) {
+            if (isCancelled(abandoned, e)) {
+                LOG.debug("Provider {} request cancelled", member.service.getProviderName());
+                throw e;
+            }
+            if (e.getErrorType() == AiException.ErrorType.RATE_LIMIT_EXCEEDED) {
+                member.stats.markUnhealthy(cooldownMillis);
+            } else {
+                member.stats.recordFailure(failureThreshold, cooldownMillis);
+            }
+            LOG.warn("Provider {} failed: {}", member.service.getProviderName(), e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            if (!isCancelled(abandoned, e)) {
+                member.stats.recordFailure(failureThreshold, cooldownMillis);
+            }
+            throw new AiException("Provider failed: " + e.getMessage(), e,
+                AiException.ErrorType.UNKNOWN_ERROR, member.service.getProviderName());
+        } finally {
+            member.stats.exit();
+        }
+    }
+
+    /**
+     * 請求是否因對沖落敗或執行緒中斷而結束
+     */
+    private static boolean isCancelled(AtomicBoolean abandoned, Throwable error) {
+        if ((abandoned != null && abandoned.get()) || Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException
+                || cause instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 決定本次請求的候選順序
+     *
+     * 健康的提供者以加權隨機排序（權重 / (1 + 進行中請求數)），
+     * 冷卻中的提供者依恢復時間附加在後作為最後備援。
+     */
+    List<Member> rankCandidates() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Member> healthy = new ArrayList<>(members.size());
+        List<Member> cooling = new ArrayList<>();
+        Map<Member, Double> keys = new HashMap<>();
+
+        for (Member member : members) {
+            if (member.stats.isHealthy()) {
+                double weight = (double) member.weight / (1 + member.stats.getInFlight());
+                // 加權隨機排序（key = u^(1/w)，越大越優先）
+                keys.put(member, Math.pow(random.nextDouble(), 1.0 / weight));
+                healthy.add(member);
+            } else {
+                cooling.add(member);
+            }
+        }
+
+        healthy.sort(Comparator.comparingDouble((Member m) -> keys.get(m)).reversed());
+        cooling.sort(Comparator.comparingLong(m -> m.stats.getUnhealthyUntilMillis()));
+        healthy.addAll(cooling);
+        return healthy;
+    }
+
+    private long hedgeDelayMillis(Member member) {
+        if (member.stats.getSampleCount() < hedgeMinSamples) {
+            return hedgeFallbackDelayMillis;
+        }
+        return Math.max(1, member.stats.getLatencyPercentile(hedgePercentile));
+    }
+
+    private static AiException toAiException(Throwable cause) {
+        if (cause instanceof AiException) {
+            return (AiException) cause;
+        }
+        return new AiException("Provider failed: " + cause.getMessage(), cause,
+            AiException.ErrorType.UNKNOWN_ERROR, PROVIDER_NAME);
+    }
+
+    private AiException allFailed(AiException lastError) {
+        String message = "All AI providers failed"
+            + (lastError != null ? ": " + lastError.getMessage() : "");
+        AiException.ErrorType type = lastError != null ? lastError.getErrorType() : AiException.ErrorType.UNKNOWN_ERROR;
+        return new AiException(message, lastError, type, PROVIDER_NAME);
+    }
+
+    @Override
+    public boolean testConnection() {
+        boolean anyAvailable = false;
+        for (Member member : members) {
+            boolean available = member.service.testConnection();
+            if (!available) {
+                member.stats.markUnhealthy(cooldownMillis);
+            }
+            anyAvailable |= available;
+        }
+        return anyAvailable;
+    }
+
+    @Override
+    public String getProviderName() {
+        return members.stream()
+            .map(member -> member.service.getProviderName())
+            .collect(Collectors.joining(",", PROVIDER_NAME + "[", "]"));
+    }
+
+    @Override
+    public String getModelName() {
+        return members.stream()
+            .map(member -> member.service.getModelName())
+            .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public void close() {
+        for (Member member : members) {
+            try {
+                member.service.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to close provider {}: {}", member.service.getProviderName(), e.getMessage());
+            }
+        }
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 取得各提供者的即時統計（依註冊順序）
+     *
+     * @return 提供者名稱至統計的對應
+     */
+    public Map<String, ProviderStats> getProviderStats() {
+        Map<String, ProviderStats> stats = new LinkedHashMap<>();
+        for (Member member : members) {
+            stats.put(member.service.getProviderName() + "/" + member.service.getModelName(), member.stats);
+        }
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public long getHedgedRequestCount() {
+        return hedgedRequests.get();
+    }
+
+    public long getFailoverCount() {
+        return failovers.get();
+    }
+
+    /**
+     * 已註冊的提供者
+     */
+    static final class Member {
+        private final AiService service;
+        private final int weight;
+        private final ProviderStats stats = new ProviderStats();
+
+        Member(AiService service, int weight) {
+            this.service = service;
+            this.weight = weight;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * LoadBalancedAiService 建構器
+     */
+    public static class Builder {
+        private final List<Member> members = new ArrayList<>();
+        private boolean hedgingEnabled = false;
+        private double hedgePercentile = 95.0;
+        private int hedgeMinSamples = 20;
+        private long hedgeFallbackDelayMillis = 30000;
+        private int failureThreshold = 3;
+        private long cooldownMillis = 30000;
+        private ExecutorService executor;
+
+        public Builder addProvider(AiService service) {
+            return addProvider(service, 1);
+        }
+
+        public Builder addProvider(AiService service, int weight) {
+            if (service == null) {
+                throw new IllegalArgumentException("AI service cannot be null");
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight must be positive: " + weight);
+            }
+            members.add(new Member(service, weight));
+            return this;
+        }
+
+        public Builder hedgingEnabled(boolean hedgingEnabled) {
+            this.hedgingEnabled = hedgingEnabled;
+            return this;
+        }
+
+        public Builder hedgePercentile(double hedgePercentile) {
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        public Builder hedgeMinSamples(int hedgeMinSamples) {
+            this.hedgeMinSamples = hedgeMinSamples;
+            return this;
+        }
+
+        public Builder hedgeFallbackDelayMillis(long hedgeFallbackDelayMillis) {
+            this.hedgeFallbackDelayMillis = hedgeFallbackDelayMillis;
+            return this;
+        }
+
+        public Builder failureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        public Builder cooldownMillis(long cooldownMillis) {
+            this.cooldownMillis = cooldownMillis;
+            return this;
+        }
+
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public LoadBalancedAiService build() {
+            if (members.isEmpty()) {
+                throw new IllegalStateException("At least one AI provider is required");
+            }
+            if (hedgePercentile <= 0 || hedgePercentile > 100) {
+                throw new IllegalStateException("Hedge percentile must be in (0, 100]: " + hedgePercentile);
+            }
+            if (failureThreshold <= 0) {
+                throw new IllegalStateException("Failure threshold must be positive: " + failureThreshold);
+            }
+            return new LoadBalancedAiService(this);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.sonarqube.ai.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 單一 AI 提供者的即時健康與延遲統計
+ *
+ * 以固定大小環形緩衝區保存最近的成功延遲（用於 p95 計算），
+ * 連續失敗達門檻時進入冷卻期，冷卻結束後以半開狀態重新接受請求。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 1.0.0
+ */
+public class ProviderStats {
+
+    private static final int WINDOW_SIZE = 128;
+
+    private final long[] latencies = new long[WINDOW_SIZE];
+    private int latencyCount;
+    private int latencyCursor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private volatile long unhealthyUntilMillis;
+
+    /**
+     * 記錄成功呼叫
+     *
+     * @param latencyMillis 延遲（毫秒）
+     */
+    public void recordSuccess(long latencyMillis) {
+        synchronized (latencies) {
+            latencies[latencyCursor] = latencyMillis;
+            latencyCursor = (latencyCursor + 1) % WINDOW_SIZE;
+            latencyCount = Math.min(latencyCount + 1, WINDOW_SIZE);
+        }
+        successCount.incrementAndGet();
+        consecutiveFailures.set(0);
+        unhealthyUntilMillis = 0;
+    }
+
+    /**
+     * 記錄失敗呼叫，連續失敗達門檻時進入冷卻期
+     *
+     * @param failureThreshold 連續失敗門檻
+     * @param cooldownMillis   冷卻時間（毫秒）
+     */
+    public void recordFailure(int failureThreshold, long cooldownMillis) {
+        failureCount.incrementAndGet();
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            markUnhealthy(cooldownMillis);
+        }
+    }
+
+    /**
+     * 立即進入冷卻期（例如遇到速率限制）
+     *
+     * @param cooldownMillis 冷卻時間（毫秒）
+     */
+    public void markUnhealthy(long cooldownMillis) {
+        unhealthyUntilMillis = System.currentTimeMillis() + cooldownMillis;
+    }
+
+    /**
+     * 是否健康（不在冷卻期內）
+     */
+    public boolean isHealthy() {
+        return System.currentTimeMillis() >= unhealthyUntilMillis;
+    }
+
+    long getUnhealthyUntilMillis() {
+        return unhealthyUntilMillis;
+    }
+
+    /**
+     * 取得延遲百分位數
+     *
+     * @param percentile 百分位（0-100）
+     * @return 延遲（毫秒），樣本不足時回傳 -1
+     */
+    public long getLatencyPercentile(double percentile) {
+        long[] snapshot;
+        synchronized (latencies) {
+            if (latencyCount == 0) {
+                return -1;
+            }
+            snapshot = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(percentile / 100.0 * snapshot.length) - 1;
+        return snapshot[Math.max(0, Math.min(index, snapshot.length - 1))];
+    }
+
+    public int getSampleCount() {
+        synchronized (latencies) {
+            return latencyCount;
+        }
+    }
+
+    int enter() {
+        return inFlight.incrementAndGet();
+    }
+
+    void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ProviderStats[success=%d, failure=%d, p95=%dms, healthy=%s]",
+            getSuccessCount(), getFailureCount(), getLatencyPercentile(95), isHealthy());
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.sonarqube.ai.token;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 近似 Tokenizer
+ *
+ * 供應商未公開詞彙表（Anthropic、Google）或詞彙表未安裝時使用。以與 BPE 相同的片段切分規則切分文字，
+ * 再依片段型態估算：識別字依駝峰與底線拆成子詞（短子詞計 1，長子詞每 4 字元計 1）、符號每 2 字元計 1、
+ * 數字每 3 位計 1、空白計 1、非 ASCII 字元各計 1。
+ *
+ * <p>對原始碼的誤差通常在 10% 內；以 {@link TokenCounter#calibrate(long, long)} 依實際用量校正後可再收斂。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class ApproximateTokenizer implements Tokenizer {
+
+    private static final Pattern PIECES = Pattern.compile(BpeTokenizer.CL100K_PATTERN);
+
+    private static final int SHORT_SUBWORD = 8;
+
+    private final String encodingName;
+
+    public ApproximateTokenizer(String encodingName) {
+        this.encodingName = encodingName;
+    }
+
+    @Override
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        Matcher matcher = PIECES.matcher(text);
+        while (matcher.find()) {
+            count += countPiece(text, matcher.start(), matcher.end());
+        }
+        return count;
+    }
+
+    @Override
+    public String getEncodingName() {
+        return encodingName;
+    }
+
+    @Override
+    public boolean isExact() {
+        return false;
+    }
+
+    private static int countPiece(String text, int start, int end) {
+        char first = text.charAt(start);
+        if (Character.isWhitespace(first) && isBlank(text, start, end)) {
+            return 1;
+        }
+
+        int count = 0;
+        int subword = 0;
+        int symbols = 0;
+        int digits = 0;
+        char previous = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                if (!Character.isLowSurrogate(c)) {
+                    count++;
+                }
+                count += flushSubword(subword);
+                subword = 0;
+            } else if (Character.isLetter(c)) {
+                // 駝峰邊界（小寫接大寫）切成新子詞
+                if (subword > 0 && Character.isUpperCase(c) && Character.isLowerCase(previous)) {
+                    count += flushSubword(subword);
+                    subword = 0;
+                }
+                subword++;
+            } else if (Character.isDigit(c)) {
+                digits++;
+            } else if (c == ' ' && i == start) {
+                // 前導空白與後續詞合併為同一 token
+                continue;
+            } else if (!Character.isWhitespace(c)) {
+                count += flushSubword(subword);
+                subword = 0;
+                symbols++;
+            }
+            previous = c;
+        }
+        count += flushSubword(subword);
+        count += (symbols + 1) / 2;
+        count += (digits + 2) / 3;
+        return Math.max(1, count);
+    }
+
+    private static int flushSubword(int length) {
+        if (length == 0) {
+            return 0;
+        }
+        return length <= SHORT_SUBWORD ? 1 : (length + 3) / 4;
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
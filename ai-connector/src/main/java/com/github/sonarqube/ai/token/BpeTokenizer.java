@@ -0,0 +1,194 @@
+package com.github.sonarqube.ai.token;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte-level BPE Tokenizer（tiktoken 詞彙表格式）
+ *
+ * 詞彙表每行為「base64 編碼的 token 位元組 + 空白 + rank」。文字先以編碼對應的正規表示式切成片段，
+ * 每個片段的 UTF-8 位元組再依 rank 由小到大合併，剩餘的段數即為該片段的 token 數。
+ *
+ * <p>原始碼中的識別字與符號重複度很高，片段的計數結果會被快取（僅快取短片段，達上限時清空）。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class BpeTokenizer implements Tokenizer {
+
+    /**
+     * cl100k_base 的片段切分規則（GPT-4、GPT-3.5）
+     */
+    public static final String CL100K_PATTERN =
+        "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}"
+            + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+    /**
+     * o200k_base 的片段切分規則（GPT-4o 系列）
+     */
+    public static final String O200K_PATTERN =
+        "[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]*[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]+(?i:'s|'t|'re|'ve|'m|'ll|'d)?"
+            + "|[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]+[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]*(?i:'s|'t|'re|'ve|'m|'ll|'d)?"
+            + "|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n/]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+";
+
+    private static final int MAX_CACHED_PIECE_LENGTH = 32;
+    private static final int MAX_CACHED_PIECES = 200_000;
+
+    private final String encodingName;
+    private final Pattern pattern;
+
+    /**
+     * token 位元組（以 ISO-8859-1 一對一對應為字元）→ rank
+     */
+    private final Map<String, Integer> ranks;
+    private final Map<String, Integer> pieceCache = new ConcurrentHashMap<>();
+
+    private BpeTokenizer(String encodingName, Pattern pattern, Map<String, Integer> ranks) {
+        this.encodingName = encodingName;
+        this.pattern = pattern;
+        this.ranks = ranks;
+    }
+
+    /**
+     * 讀取 tiktoken 格式的詞彙表
+     *
+     * @param encodingName 編碼名稱
+     * @param vocabulary 詞彙表內容
+     * @param splitPattern 片段切分規則
+     * @throws IOException 讀取失敗或格式錯誤時
+     */
+    public static BpeTokenizer load(String encodingName, InputStream vocabulary, String splitPattern) throws IOException {
+        Map<String, Integer> ranks = new HashMap<>(1 << 18);
+        Base64.Decoder decoder = Base64.getDecoder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(vocabulary, StandardCharsets.US_ASCII));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            if (space <= 0) {
+                throw new IOException("Malformed vocabulary line " + lineNumber + " in " + encodingName);
+            }
+            try {
+                byte[] token = decoder.decode(line.substring(0, space));
+                ranks.put(new String(token, StandardCharsets.ISO_8859_1), Integer.parseInt(line.substring(space + 1).trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Malformed vocabulary line " + lineNumber + " in " + encodingName, e);
+            }
+        }
+        if (ranks.isEmpty()) {
+            throw new IOException("Empty vocabulary: " + encodingName);
+        }
+        return new BpeTokenizer(encodingName, Pattern.compile(splitPattern), ranks);
+    }
+
+    @Override
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            count += countPiece(matcher.group());
+        }
+        return count;
+    }
+
+    @Override
+    public String getEncodingName() {
+        return encodingName;
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    /**
+     * 詞彙表大小
+     */
+    public int getVocabularySize() {
+        return ranks.size();
+    }
+
+    private int countPiece(String piece) {
+        if (piece.length() > MAX_CACHED_PIECE_LENGTH) {
+            return mergeCount(piece);
+        }
+        Integer cached = pieceCache.get(piece);
+        if (cached != null) {
+            return cached;
+        }
+        int count = mergeCount(piece);
+        if (pieceCache.size() >= MAX_CACHED_PIECES) {
+            pieceCache.clear();
+        }
+        pieceCache.put(piece, count);
+        return count;
+    }
+
+    /**
+     * 依 rank 合併片段位元組，回傳剩餘段數
+     */
+    private int mergeCount(String piece) {
+        String bytes = new String(piece.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+        int length = bytes.length();
+        if (length == 1 || ranks.containsKey(bytes)) {
+            return 1;
+        }
+
+        // starts[i]：第 i 段的起點；pairRanks[i]：第 i 段與第 i+1 段合併後的 rank
+        int[] starts = new int[length + 1];
+        int[] pairRanks = new int[length];
+        for (int i = 0; i <= length; i++) {
+            starts[i] = i;
+        }
+        int parts = length;
+        for (int i = 0; i < parts - 1; i++) {
+            pairRanks[i] = rankOf(bytes, starts[i], starts[i + 2]);
+        }
+
+        while (parts > 1) {
+            int best = -1;
+            int bestRank = Integer.MAX_VALUE;
+            for (int i = 0; i < parts - 1; i++) {
+                if (pairRanks[i] < bestRank) {
+                    bestRank = pairRanks[i];
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            // 合併 best 與 best+1
+            System.arraycopy(starts, best + 2, starts, best + 1, parts - best - 1);
+            System.arraycopy(pairRanks, best + 1, pairRanks, best, parts - best - 2);
+            parts--;
+            if (best < parts - 1) {
+                pairRanks[best] = rankOf(bytes, starts[best], starts[best + 2]);
+            }
+            if (best > 0) {
+                pairRanks[best - 1] = rankOf(bytes, starts[best - 1], starts[best + 1]);
+            }
+        }
+        return parts;
+    }
+
+    private int rankOf(String bytes, int start, int end) {
+        Integer rank = ranks.get(bytes.substring(start, end));
+        return rank == null ? Integer.MAX_VALUE : rank;
+    }
+}
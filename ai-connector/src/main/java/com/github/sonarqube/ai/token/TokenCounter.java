@@ -0,0 +1,137 @@
+package com.github.sonarqube.ai.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token 計數器
+ *
+ * 包裝 {@link Tokenizer}，提供：
+ * <ul>
+ *   <li>檔案層級的 token 數快取（以路徑為鍵，大小與修改時間相同時不重新讀檔）</li>
+ *   <li>依實際用量校正的估算（近似 Tokenizer 時以實際/估算比例的指數移動平均修正，精確 Tokenizer 不校正）</li>
+ * </ul>
+ * 所有操作皆為無鎖且執行緒安全。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class TokenCounter {
+
+    private static final int DEFAULT_MAX_CACHED_FILES = 100_000;
+
+    /**
+     * 校正的平滑係數（新樣本權重）
+     */
+    private static final double CALIBRATION_ALPHA = 0.2;
+
+    private final Tokenizer tokenizer;
+    private final Cache<Path, FileTokens> fileCache;
+    private final AtomicLong calibrationBits = new AtomicLong(Double.doubleToLongBits(1.0));
+    private final AtomicLong calibrationSamples = new AtomicLong();
+
+    public TokenCounter(Tokenizer tokenizer) {
+        this(tokenizer, DEFAULT_MAX_CACHED_FILES);
+    }
+
+    public TokenCounter(Tokenizer tokenizer, int maxCachedFiles) {
+        this.tokenizer = tokenizer;
+        this.fileCache = Caffeine.newBuilder().maximumSize(maxCachedFiles).build();
+    }
+
+    /**
+     * 依模型建立計數器
+     */
+    public static TokenCounter forModel(String modelId) {
+        return new TokenCounter(Tokenizers.forModel(modelId));
+    }
+
+    /**
+     * 文字的原始 token 數（未校正）
+     */
+    public int count(String text) {
+        return tokenizer.countTokens(text);
+    }
+
+    /**
+     * 檔案內容的原始 token 數（未校正，結果依大小與修改時間快取）
+     *
+     * @throws IOException 讀取失敗時
+     */
+    public int countFile(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        FileTokens cached = fileCache.getIfPresent(file);
+        if (cached != null && cached.size == size && cached.lastModifiedMillis == lastModified) {
+            return cached.tokens;
+        }
+        int tokens = tokenizer.countTokens(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        fileCache.put(file, new FileTokens(size, lastModified, tokens));
+        return tokens;
+    }
+
+    /**
+     * 將原始 token 數換算為校正後的估計值
+     */
+    public long estimate(long rawTokens) {
+        if (tokenizer.isExact()) {
+            return rawTokens;
+        }
+        return Math.round(rawTokens * getCalibrationFactor());
+    }
+
+    /**
+     * 以一次呼叫的實際用量校正估算
+     *
+     * @param rawEstimatedTokens 呼叫前以本計數器算出的原始 token 數
+     * @param actualTokens 供應商回報的實際 token 數
+     */
+    public void calibrate(long rawEstimatedTokens, long actualTokens) {
+        if (tokenizer.isExact() || rawEstimatedTokens <= 0 || actualTokens <= 0) {
+            return;
+        }
+        double ratio = (double) actualTokens / rawEstimatedTokens;
+        long samples = calibrationSamples.incrementAndGet();
+        calibrationBits.updateAndGet(bits -> {
+            double current = Double.longBitsToDouble(bits);
+            // 前幾個樣本以平均值快速收斂，之後改為指數移動平均
+            double weight = Math.max(CALIBRATION_ALPHA, 1.0 / samples);
+            return Double.doubleToLongBits(current + weight * (ratio - current));
+        });
+    }
+
+    /**
+     * 目前的校正係數（實際/估算）
+     */
+    public double getCalibrationFactor() {
+        return Double.longBitsToDouble(calibrationBits.get());
+    }
+
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * 快取的檔案 token 數
+     */
+    private static final class FileTokens {
+        private final long size;
+        private final long lastModifiedMillis;
+        private final int tokens;
+
+        FileTokens(long size, long lastModifiedMillis, int tokens) {
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.tokens = tokens;
+        }
+    }
+}
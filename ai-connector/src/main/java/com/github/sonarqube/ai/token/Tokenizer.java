@@ -0,0 +1,31 @@
+package com.github.sonarqube.ai.token;
+
+/**
+ * 本機 Tokenizer
+ *
+ * 在呼叫 AI 之前計算文字的 token 數，供成本估算與預算控制使用。
+ * 實作必須是執行緒安全的。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public interface Tokenizer {
+
+    /**
+     * 計算文字的 token 數
+     *
+     * @param text 文字
+     * @return token 數
+     */
+    int countTokens(String text);
+
+    /**
+     * 編碼名稱（例：cl100k_base）
+     */
+    String getEncodingName();
+
+    /**
+     * 是否與供應商使用相同的詞彙表（false 表示為近似值，需以實際用量校正）
+     */
+    boolean isExact();
+}
@@ -0,0 +1,107 @@
+package com.github.sonarqube.ai.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokenizer 工廠
+ *
+ * 依模型選擇編碼：GPT-4o / o 系列使用 o200k_base，GPT-4 / GPT-3.5 使用 cl100k_base，
+ * 其餘供應商使用近似 Tokenizer。詞彙表從 classpath 的 {@code /tokenizers/<encoding>.tiktoken} 載入，
+ * 每種編碼只載入一次；找不到詞彙表時退回近似 Tokenizer。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class Tokenizers {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Tokenizers.class);
+
+    public static final String CL100K_BASE = "cl100k_base";
+    public static final String O200K_BASE = "o200k_base";
+    public static final String APPROXIMATE = "approximate";
+
+    static final String RESOURCE_DIRECTORY = "/tokenizers/";
+
+    private static final Map<String, Tokenizer> LOADED = new ConcurrentHashMap<>();
+
+    private Tokenizers() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 取得模型對應的 Tokenizer
+     *
+     * @param modelId 模型 ID（例：gpt-4o、claude-3-5-sonnet-20241022，可帶供應商前綴）
+     */
+    public static Tokenizer forModel(String modelId) {
+        return forEncoding(encodingFor(modelId));
+    }
+
+    /**
+     * 模型對應的編碼名稱
+     */
+    public static String encodingFor(String modelId) {
+        if (modelId == null) {
+            return APPROXIMATE;
+        }
+        String id = modelId.toLowerCase(Locale.ROOT);
+        if (id.contains("gpt-4o") || id.contains("gpt-4.1") || id.matches("(?:.*[-/])?o[134](?:-.*)?")) {
+            return O200K_BASE;
+        }
+        if (id.contains("gpt-4") || id.contains("gpt-3.5")) {
+            return CL100K_BASE;
+        }
+        return APPROXIMATE;
+    }
+
+    /**
+     * 取得指定編碼的 Tokenizer（詞彙表不存在時為近似 Tokenizer）
+     */
+    public static Tokenizer forEncoding(String encoding) {
+        return LOADED.computeIfAbsent(encoding, Tokenizers::loadBundled);
+    }
+
+    /**
+     * 從檔案載入自訂詞彙表（tiktoken 格式）
+     *
+     * @param encodingName 編碼名稱
+     * @param vocabulary 詞彙表檔案
+     * @param splitPattern 片段切分規則（例：{@link BpeTokenizer#CL100K_PATTERN}）
+     * @throws IOException 讀取失敗時
+     */
+    public static Tokenizer load(String encodingName, Path vocabulary, String splitPattern) throws IOException {
+        try (InputStream in = Files.newInputStream(vocabulary)) {
+            return BpeTokenizer.load(encodingName, in, splitPattern);
+        }
+    }
+
+    private static Tokenizer loadBundled(String encoding) {
+        if (APPROXIMATE.equals(encoding)) {
+            return new ApproximateTokenizer(APPROXIMATE);
+        }
+        String resource = RESOURCE_DIRECTORY + encoding + ".tiktoken";
+        try (InputStream in = Tokenizers.class.getResourceAsStream(resource)) {
+            if (in != null) {
+                long start = System.nanoTime();
+                BpeTokenizer tokenizer = BpeTokenizer.load(encoding, in,
+                    O200K_BASE.equals(encoding) ? BpeTokenizer.O200K_PATTERN : BpeTokenizer.CL100K_PATTERN);
+                LOG.debug("Loaded {} vocabulary ({} tokens) in {} ms", encoding,
+                    tokenizer.getVocabularySize(), (System.nanoTime() - start) / 1_000_000);
+                return tokenizer;
+            }
+            LOG.info("Vocabulary {} not bundled, using approximate token counts", resource);
+        } catch (IOException e) {
+            LOG.warn("Failed to load vocabulary {}, using approximate token counts: {}", resource, e.getMessage());
+        }
+        return new ApproximateTokenizer(encoding);
+    }
+}
@@ -301,4 +301,131 @@ class AiResponseParserTest {
         assertNull(issue.getCodeExample());
         assertNull(issue.getEffortEstimate());
     }
+
+    @Test
+    void testParseMarkdownFencedJson() {
+        String response = """
+            Analysis below uses {placeholders} in prose.
+
+            ```json
+            {
+              "issues": [
+                {
+                  "owaspCategory": "A03:2021-Injection",
+                  "description": "SQL Injection found",
+                  "lineNumber": 7
+                }
+              ]
+            }
+            ```
+
+            Let me know if you need more detail.
+            """;
+
+        List<SecurityIssue> issues = parser.parseSecurityIssues(response);
+
+        assertEquals(1, issues.size());
+        assertEquals(7, issues.get(0).getLineNumber());
+    }
+
+    @Test
+    void testParseRootIssueArray() {
+        String response = """
+            [
+              {"owaspCategory": "A01", "description": "First"},
+              {"owaspCategory": "A02", "description": "Second"}
+            ]
+            """;
+
+        List<SecurityIssue> issues = parser.parseSecurityIssues(response);
+
+        assertEquals(2, issues.size());
+        assertEquals("Second", issues.get(1).getDescription());
+    }
+
+    @Test
+    void testParseTruncatedResponseKeepsCompletedIssues() {
+        String truncated = """
+            {
+              "issues": [
+                {
+                  "owaspCategory": "A03:2021-Injection",
+                  "severity": "HIGH",
+                  "description": "SQL Injection"
+                },
+                {
+                  "owaspCategory": "A02:2021-Cryptographic Failures",
+                  "description": "Weak hash",
+                  "fixSuggestion": "Use SHA-256 instea""";
+
+        List<SecurityIssue> issues = parser.parseSecurityIssues(truncated);
+
+        assertEquals(2, issues.size());
+        assertEquals("A03:2021-Injection", issues.get(0).getOwaspCategory());
+        assertEquals("Weak hash", issues.get(1).getDescription());
+        assertNull(issues.get(1).getFixSuggestion());
+    }
+
+    @Test
+    void testParseTruncatedIncompleteIssueIsDropped() {
+        String truncated = """
+            {"issues": [
+              {"owaspCategory": "A01", "description": "Complete"},
+              {"owaspCategory": "A05", "cweId": "CWE-""";
+
+        List<SecurityIssue> issues = parser.parseSecurityIssues(truncated);
+
+        assertEquals(1, issues.size());
+        assertEquals("Complete", issues.get(0).getDescription());
+    }
+
+    @Test
+    void testParseIgnoresUnknownNestedFields() {
+        String response = """
+            {
+              "meta": {"model": "x", "tags": [1, 2, {"a": []}]},
+              "issues": [
+                {
+                  "owaspCategory": "A01",
+                  "description": "Test",
+                  "references": ["https://owasp.org"],
+                  "codeExample": {"before": "a", "after": "b", "notes": {"x": 1}}
+                }
+              ],
+              "summary": "done"
+            }
+            """;
+
+        List<SecurityIssue> issues = parser.parseSecurityIssues(response);
+
+        assertEquals(1, issues.size());
+        assertEquals("b", issues.get(0).getCodeExample().getAfter());
+    }
+
+    @Test
+    void testParseConfidence() {
+        String jsonResponse = """
+            [
+              {"owaspCategory": "A03", "description": "a", "confidence": 0.85},
+              {"owaspCategory": "A03", "description": "b", "confidence": 60},
+              {"owaspCategory": "A03", "description": "c", "confidence": "40%"},
+              {"owaspCategory": "A03", "description": "d", "confidence": "high"},
+              {"owaspCategory": "A03", "description": "e"}
+            ]
+            """;
+
+        List<SecurityIssue> issues = parser.parseSecurityIssues(jsonResponse);
+
+        assertEquals(5, issues.size());
+        assertEquals(0.85, issues.get(0).getConfidence(), 1e-9);
+        assertEquals(0.60, issues.get(1).getConfidence(), 1e-9);
+        assertEquals(0.40, issues.get(2).getConfidence(), 1e-9);
+        assertNull(issues.get(3).getConfidence());
+        assertNull(issues.get(4).getConfidence());
+    }
+
+    @Test
+    void testSharedInstance() {
+        assertSame(AiResponseParser.getInstance(), AiResponseParser.getInstance());
+    }
 }
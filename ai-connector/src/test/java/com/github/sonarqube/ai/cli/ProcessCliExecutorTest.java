@@ -5,6 +5,9 @@ import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -208,6 +211,125 @@ class ProcessCliExecutorTest {
         assertThat(output).contains("Hello");
     }
 
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testLargeStderrDoesNotBlockStdout() throws Exception {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/sh")
+            .timeout(10)
+            .build();
+
+        // 遠超過管線緩衝區的 stderr 輸出，循序讀取時會死結
+        String[] command = executor.buildCommand("-c",
+            "i=0; while [ $i -lt 4000 ]; do echo 'warning line padding padding padding' >&2; i=$((i+1)); done; echo done");
+        String output = executor.executeCommand(command, null);
+
+        assertThat(output).isEqualTo("done\n");
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testTimeoutIsEnforcedWhileStreaming() {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/sh")
+            .timeout(1)
+            .build();
+
+        String[] command = executor.buildCommand("-c", "echo started; sleep 30");
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> executor.executeCommand(command, null))
+            .isInstanceOf(CliExecutionException.class)
+            .hasMessageContaining("timeout");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testOutputSizeCap() {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/sh")
+            .timeout(10)
+            .build();
+        executor.setMaxOutputChars(1000);
+
+        String[] command = executor.buildCommand("-c", "while true; do echo 0123456789; done");
+
+        assertThatThrownBy(() -> executor.executeCommand(command, null))
+            .isInstanceOf(CliExecutionException.class)
+            .hasMessageContaining("exceeded limit");
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testOutputSizeCapAppliesWithinSingleLine() {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/sh")
+            .timeout(10)
+            .build();
+        executor.setMaxOutputChars(1000);
+
+        // 沒有換行的無限輸出，逐行讀取時永遠不會檢查上限
+        String[] command = executor.buildCommand("-c", "while true; do printf 0123456789; done");
+
+        assertThatThrownBy(() -> executor.executeCommand(command, null))
+            .isInstanceOf(CliExecutionException.class)
+            .hasMessageContaining("exceeded limit");
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testFailingConsumerDoesNotStopDraining() {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/sh")
+            .timeout(10)
+            .build();
+        List<String> lines = new CopyOnWriteArrayList<>();
+
+        // 輸出遠超過管線緩衝區；消費者失敗後若停止讀取，程序會阻塞至超時
+        String[] command = executor.buildCommand("-c",
+            "i=0; while [ $i -lt 4000 ]; do echo 'line padding padding padding padding'; i=$((i+1)); done");
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> executor.executeCommand(command, null, line -> {
+            lines.add(line);
+            throw new IllegalStateException("parse error");
+        }))
+            .isInstanceOf(CliExecutionException.class)
+            .hasMessageContaining("consumer failed")
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(lines).hasSize(1);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(8));
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testStreamsLastLineWithoutNewline() throws Exception {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/cat")
+            .build();
+        List<String> lines = new CopyOnWriteArrayList<>();
+
+        String output = executor.executeCommand(executor.buildCommand(), "first\r\nsecond", lines::add);
+
+        assertThat(lines).containsExactly("first", "second");
+        assertThat(output).isEqualTo("first\r\nsecond");
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void testStreamsStdoutLines() throws Exception {
+        ProcessCliExecutor executor = ProcessCliExecutor.builder()
+            .cliPath("/bin/cat")
+            .build();
+        List<String> lines = new CopyOnWriteArrayList<>();
+
+        String output = executor.executeCommand(executor.buildCommand(), "first\nsecond\n", lines::add);
+
+        assertThat(lines).containsExactly("first", "second");
+        assertThat(output).isEqualTo("first\nsecond\n");
+    }
+
     @Test
     @EnabledOnOs(OS.WINDOWS)
     void testIsCliAvailableOnWindows() {
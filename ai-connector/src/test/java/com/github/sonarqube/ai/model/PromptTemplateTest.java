@@ -0,0 +1,52 @@
+package com.github.sonarqube.ai.model;
+
+import com.github.sonarqube.ai.token.ApproximateTokenizer;
+import com.github.sonarqube.ai.token.Tokenizer;
+import com.github.sonarqube.ai.token.Tokenizers;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PromptTemplate 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+class PromptTemplateTest {
+
+    private static final Tokenizer APPROXIMATE = new ApproximateTokenizer(Tokenizers.APPROXIMATE);
+
+    @Test
+    void testSystemPromptsReachMinimumCacheableLength() {
+        for (String prompt : new String[]{PromptTemplate.SYSTEM_PROMPT, PromptTemplate.SYSTEM_PROMPT_DETECTION_ONLY}) {
+            assertTrue(APPROXIMATE.countTokens(prompt) >= PromptTemplate.MIN_CACHEABLE_PREFIX_TOKENS,
+                "系統提示未達最小可快取長度: " + APPROXIMATE.countTokens(prompt));
+            Tokenizer openAi = Tokenizers.forModel("gpt-4o");
+            assertTrue(openAi.countTokens(prompt) >= PromptTemplate.MIN_CACHEABLE_PREFIX_TOKENS,
+                openAi.getEncodingName() + ": " + openAi.countTokens(prompt));
+        }
+    }
+
+    @Test
+    void testUserPromptCarriesOnlyPerFileContent() {
+        AiRequest request = AiRequest.builder("String q = \"SELECT\" + id;")
+            .fileName("Dao.java")
+            .language("java")
+            .owaspVersion("2021")
+            .build();
+
+        String prompt = PromptTemplate.createUserPrompt(request);
+
+        assertTrue(prompt.contains("Dao.java"));
+        assertTrue(prompt.contains("String q = \"SELECT\" + id;"));
+        assertFalse(prompt.contains("Analysis rules"));
+        assertTrue(PromptTemplate.getSystemPrompt(request).contains("Analysis rules"));
+    }
+
+    @Test
+    void testTextBlockLineContinuationsAreJoined() {
+        assertFalse(PromptTemplate.SYSTEM_PROMPT.contains("\\"));
+        assertTrue(PromptTemplate.SYSTEM_PROMPT.contains("missing authorization checks on endpoints"));
+    }
+}
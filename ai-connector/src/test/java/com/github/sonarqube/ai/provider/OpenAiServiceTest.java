@@ -5,6 +5,10 @@ import com.github.sonarqube.ai.model.AiConfig;
 import com.github.sonarqube.ai.model.AiModel;
 import com.github.sonarqube.ai.model.AiRequest;
 import com.github.sonarqube.ai.model.AiResponse;
+import com.github.sonarqube.ai.model.PromptTemplate;
+import com.github.sonarqube.ai.provider.openai.OpenAiApiRequest;
+import com.github.sonarqube.ai.provider.openai.OpenAiApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -81,6 +85,56 @@ class OpenAiServiceTest {
         assertEquals("gpt-4", service.getModelName());
     }
 
+    @Test
+    void testRequestPutsStaticSystemPromptFirst() {
+        AiRequest request = AiRequest.builder("String sql = \"SELECT \" + input;")
+            .fileName("Dao.java")
+            .language("java")
+            .owaspVersion("2021")
+            .build();
+
+        OpenAiApiRequest apiRequest = service.buildApiRequest(request);
+
+        assertEquals("system", apiRequest.getMessages().get(0).getRole());
+        assertEquals(PromptTemplate.SYSTEM_PROMPT, apiRequest.getMessages().get(0).getContent());
+        assertEquals("user", apiRequest.getMessages().get(1).getRole());
+        assertTrue(apiRequest.getMessages().get(1).getContent().contains("Dao.java"));
+        assertEquals(PromptTemplate.getPromptCacheKey(request), apiRequest.getPromptCacheKey());
+    }
+
+    @Test
+    void testPromptCacheKeyOmittedWhenCachingDisabled() {
+        AiConfig noCaching = AiConfig.builder()
+            .model(AiModel.GPT_4O_MINI)
+            .apiKey("test-api-key")
+            .promptCachingEnabled(false)
+            .build();
+        OpenAiService uncached = new OpenAiService(noCaching);
+
+        OpenAiApiRequest apiRequest = uncached.buildApiRequest(AiRequest.builder("code").build());
+
+        assertNull(apiRequest.getPromptCacheKey());
+        uncached.close();
+    }
+
+    @Test
+    void testResponseReportsCachedInputTokens() throws Exception {
+        String body = """
+            {"id":"chatcmpl-1","object":"chat.completion","model":"gpt-4o-mini",
+             "choices":[{"index":0,"message":{"role":"assistant","content":"{\\"issues\\":[]}"},"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":1500,"completion_tokens":80,"total_tokens":1580,
+                      "prompt_tokens_details":{"cached_tokens":1024}}}
+            """;
+        OpenAiApiResponse apiResponse = new ObjectMapper().readValue(body, OpenAiApiResponse.class);
+
+        AiResponse response = service.parseResponse(apiResponse, 10);
+
+        assertEquals(1500, response.getInputTokens());
+        assertEquals(1024, response.getCachedInputTokens());
+        assertEquals(80, response.getOutputTokens());
+        assertEquals(0, response.getCacheWriteInputTokens());
+    }
+
     @Test
     @EnabledIfEnvironmentVariable(named = "OPENAI_API_KEY", matches = ".+")
     void testAnalyzeCodeWithRealApi() throws AiException {
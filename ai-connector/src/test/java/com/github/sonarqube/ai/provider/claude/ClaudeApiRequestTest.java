@@ -0,0 +1,65 @@
+package com.github.sonarqube.ai.provider.claude;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sonarqube.ai.model.PromptTemplate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClaudeApiRequest / ClaudeApiResponse 序列化測試（Prompt 前綴快取）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 1.0.0
+ */
+class ClaudeApiRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testCachedSystemSerializesCacheControl() throws Exception {
+        ClaudeApiRequest request = new ClaudeApiRequest();
+        request.setModel("claude-3-haiku-20240307");
+        request.setCachedSystem(PromptTemplate.SYSTEM_PROMPT);
+        request.addMessage("user", "code");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(request));
+
+        JsonNode system = json.get("system");
+        assertTrue(system.isArray());
+        assertEquals(1, system.size());
+        assertEquals("text", system.get(0).get("type").asText());
+        assertEquals(PromptTemplate.SYSTEM_PROMPT, system.get(0).get("text").asText());
+        assertEquals("ephemeral", system.get(0).get("cache_control").get("type").asText());
+        assertFalse(json.has("systemBlocks"));
+        assertEquals(PromptTemplate.SYSTEM_PROMPT, request.getSystem());
+    }
+
+    @Test
+    void testPlainSystemOmitsCacheControl() throws Exception {
+        ClaudeApiRequest request = new ClaudeApiRequest();
+        request.setSystem("static prompt");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(request));
+
+        assertEquals("static prompt", json.get("system").get(0).get("text").asText());
+        assertFalse(json.get("system").get(0).has("cache_control"));
+    }
+
+    @Test
+    void testUsageIncludesCacheTokens() throws Exception {
+        String body = """
+            {"id":"msg_1","type":"message","role":"assistant","model":"claude-3-haiku-20240307",
+             "content":[{"type":"text","text":"{}"}],
+             "usage":{"input_tokens":120,"output_tokens":40,
+                      "cache_creation_input_tokens":0,"cache_read_input_tokens":900}}
+            """;
+
+        ClaudeApiResponse response = objectMapper.readValue(body, ClaudeApiResponse.class);
+
+        assertEquals(1020, response.getUsage().getTotalInputTokens());
+        assertEquals(900, response.getUsage().getCacheReadInputTokens());
+        assertEquals(1060, response.getUsage().getTotalTokens());
+    }
+}
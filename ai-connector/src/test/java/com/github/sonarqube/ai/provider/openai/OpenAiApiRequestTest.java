@@ -0,0 +1,73 @@
+package com.github.sonarqube.ai.provider.openai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sonarqube.ai.model.PromptTemplate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OpenAiApiRequest / OpenAiApiResponse 序列化測試（Prompt 前綴快取）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 1.0.0
+ */
+class OpenAiApiRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testPromptCacheKeySerialized() throws Exception {
+        OpenAiApiRequest request = new OpenAiApiRequest();
+        request.setModel("gpt-4o-mini");
+        request.addMessage("system", PromptTemplate.SYSTEM_PROMPT);
+        request.addMessage("user", "code");
+        request.setPromptCacheKey("aiowasp-full-1234");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(request));
+
+        assertEquals("aiowasp-full-1234", json.get("prompt_cache_key").asText());
+        assertEquals("system", json.get("messages").get(0).get("role").asText());
+        assertEquals(PromptTemplate.SYSTEM_PROMPT, json.get("messages").get(0).get("content").asText());
+    }
+
+    @Test
+    void testPromptCacheKeyOmittedWhenUnset() throws Exception {
+        OpenAiApiRequest request = new OpenAiApiRequest();
+        request.setModel("gpt-4o-mini");
+        request.addMessage("user", "code");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(request));
+
+        assertFalse(json.has("prompt_cache_key"));
+    }
+
+    @Test
+    void testUsageIncludesCachedTokens() throws Exception {
+        String body = """
+            {"id":"chatcmpl-1","object":"chat.completion","model":"gpt-4o-mini",
+             "choices":[{"index":0,"message":{"role":"assistant","content":"{}"},"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":1500,"completion_tokens":80,"total_tokens":1580,
+                      "prompt_tokens_details":{"cached_tokens":1024}}}
+            """;
+
+        OpenAiApiResponse response = objectMapper.readValue(body, OpenAiApiResponse.class);
+
+        assertEquals(1500, response.getUsage().getPromptTokens());
+        assertEquals(1024, response.getUsage().getCachedTokens());
+    }
+
+    @Test
+    void testUsageWithoutDetailsHasNoCachedTokens() throws Exception {
+        String body = """
+            {"id":"chatcmpl-2","object":"chat.completion","model":"gpt-4",
+             "choices":[{"index":0,"message":{"role":"assistant","content":"{}"},"finish_reason":"stop"}],
+             "usage":{"prompt_tokens":300,"completion_tokens":20,"total_tokens":320}}
+            """;
+
+        OpenAiApiResponse response = objectMapper.readValue(body, OpenAiApiResponse.class);
+
+        assertEquals(0, response.getUsage().getCachedTokens());
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.sonarqube.ai.routing;
+
+import com.github.sonarqube.ai.AiException;
+import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.model.AiRequest;
+import com.github.sonarqube.ai.model.AiResponse;
+import com.github.sonarqube.ai.model.SecurityIssue;
+import com.github.sonarqube.ai.routing.CascadingAiService.Escalation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CascadingAiService 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+class CascadingAiServiceTest {
+
+    private static final AiRequest REQUEST = AiRequest.builder("String sql = \"SELECT \" + input;")
+        .fileName("Dao.java")
+        .build();
+
+    /**
+     * 回傳固定信心分數問題的假提供者（confidences 為 null 表示拋出例外）
+     */
+    private static class FakeService implements AiService {
+        private final String model;
+        private final Double[] confidences;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FakeService(String model, Double... confidences) {
+            this.model = model;
+            this.confidences = confidences;
+        }
+
+        @Override
+        public AiResponse analyzeCode(AiRequest request) throws AiException {
+            calls.incrementAndGet();
+            if (confidences == null) {
+                throw new AiException(model + " failed", AiException.ErrorType.NETWORK_ERROR, model);
+            }
+            List<SecurityIssue> issues = new ArrayList<>();
+            for (Double confidence : confidences) {
+                SecurityIssue issue = new SecurityIssue();
+                issue.setOwaspCategory("A03:2021-Injection");
+                issue.setDescription("SQL Injection");
+                issue.setConfidence(confidence);
+                issues.add(issue);
+            }
+            return AiResponse.success().issues(issues).modelUsed(model).inputTokens(100).outputTokens(20).build();
+        }
+
+        @Override
+        public boolean testConnection() {
+            return true;
+        }
+
+        @Override
+        public String getProviderName() {
+            return "fake";
+        }
+
+        @Override
+        public String getModelName() {
+            return model;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static CascadingAiService cascade(AiService first, AiService escalation) {
+        return CascadingAiService.builder()
+            .firstTier(first)
+            .escalationTier(escalation)
+            .confidenceThreshold(0.7)
+            .build();
+    }
+
+    @Test
+    void testCleanFileStaysOnFirstTier() throws Exception {
+        FakeService small = new FakeService("small");
+        FakeService large = new FakeService("large", 0.99);
+        CascadingAiService service = cascade(small, large);
+
+        CascadingAiService.CascadeResult result = service.analyze(REQUEST);
+
+        assertThat(result.getEscalation()).isEqualTo(Escalation.NONE);
+        assertThat(result.getResponse().getModelUsed()).isEqualTo("small");
+        assertThat(large.calls.get()).isZero();
+        assertThat(service.getEscalationRate()).isZero();
+    }
+
+    @Test
+    void testConfidentFindingsStayOnFirstTier() throws Exception {
+        FakeService large = new FakeService("large", 0.99);
+        CascadingAiService service = cascade(new FakeService("small", 0.9, 0.75), large);
+
+        assertThat(service.analyzeCode(REQUEST).getModelUsed()).isEqualTo("small");
+        assertThat(large.calls.get()).isZero();
+    }
+
+    @Test
+    void testLowConfidenceEscalates() throws Exception {
+        FakeService large = new FakeService("large", 0.95);
+        CascadingAiService service = cascade(new FakeService("small", 0.9, 0.4), large);
+
+        CascadingAiService.CascadeResult result = service.analyze(REQUEST);
+
+        assertThat(result.getEscalation()).isEqualTo(Escalation.LOW_CONFIDENCE);
+        assertThat(result.getFirstTierResponse().getModelUsed()).isEqualTo("small");
+        assertThat(result.getResponse().getModelUsed()).isEqualTo("large");
+        assertThat(service.getEscalationCount(Escalation.LOW_CONFIDENCE)).isEqualTo(1);
+        assertThat(service.getFirstTierMetrics().getInputTokens()).isEqualTo(100);
+        assertThat(service.getEscalationTierMetrics().getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testMissingConfidenceEscalates() throws Exception {
+        CascadingAiService service = cascade(new FakeService("small", (Double) null), new FakeService("large"));
+
+        assertThat(service.analyze(REQUEST).getEscalation()).isEqualTo(Escalation.LOW_CONFIDENCE);
+    }
+
+    @Test
+    void testFirstTierFailureEscalates() throws Exception {
+        FakeService small = new FakeService("small", (Double[]) null);
+        CascadingAiService service = cascade(small, new FakeService("large"));
+
+        CascadingAiService.CascadeResult result = service.analyze(REQUEST);
+
+        assertThat(result.getEscalation()).isEqualTo(Escalation.FIRST_TIER_FAILED);
+        assertThat(result.getFirstTierResponse()).isNull();
+        assertThat(result.getResponse().getModelUsed()).isEqualTo("large");
+        assertThat(service.getFirstTierMetrics().getFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testEscalationFailureKeepsFirstTierResult() throws Exception {
+        CascadingAiService service = cascade(new FakeService("small", 0.3), new FakeService("large", (Double[]) null));
+
+        CascadingAiService.CascadeResult result = service.analyze(REQUEST);
+
+        assertThat(result.isEscalated()).isTrue();
+        assertThat(result.getEscalationResponse()).isNull();
+        assertThat(result.getResponse().getModelUsed()).isEqualTo("small");
+    }
+
+    @Test
+    void testBothTiersFailing() {
+        CascadingAiService service = cascade(new FakeService("small", (Double[]) null),
+            new FakeService("large", (Double[]) null));
+
+        assertThatThrownBy(() -> service.analyzeCode(REQUEST))
+            .isInstanceOf(AiException.class)
+            .hasMessageContaining("large");
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        assertThatThrownBy(() -> CascadingAiService.builder().firstTier(new FakeService("small")).build())
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CascadingAiService.builder()
+            .firstTier(new FakeService("small"))
+            .escalationTier(new FakeService("large"))
+            .confidenceThreshold(1.5)
+            .build())
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,220 @@
+package com.github.sonarqube.ai.routing;
+
+import com.github.sonarqube.ai.AiException;
+import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.model.AiRequest;
+import com.github.sonarqube.ai.model.AiResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LoadBalancedAiService 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 1.0.0
+ */
+class LoadBalancedAiServiceTest {
+
+    private static final AiRequest REQUEST = AiRequest.builder("String sql = \"SELECT \" + input;").build();
+
+    /**
+     * 可控延遲與失敗的假提供者
+     */
+    private static class FakeService implements AiService {
+        private final String name;
+        private final long latencyMillis;
+        private final AiException.ErrorType failure;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean closed;
+
+        FakeService(String name, long latencyMillis, AiException.ErrorType failure) {
+            this.name = name;
+            this.latencyMillis = latencyMillis;
+            this.failure = failure;
+        }
+
+        @Override
+        public AiResponse analyzeCode(AiRequest request) throws AiException {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AiException("interrupted", AiException.ErrorType.TIMEOUT, name);
+            }
+            if (failure != null) {
+                throw new AiException(name + " failed", failure, name);
+            }
+            return AiResponse.success().modelUsed(name).build();
+        }
+
+        @Override
+        public boolean testConnection() {
+            return failure == null;
+        }
+
+        @Override
+        public String getProviderName() {
+            return name;
+        }
+
+        @Override
+        public String getModelName() {
+            return name + "-model";
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void testFailsOverToHealthyProvider() throws Exception {
+        FakeService broken = new FakeService("broken", 0, AiException.ErrorType.NETWORK_ERROR);
+        FakeService healthy = new FakeService("healthy", 0, null);
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(broken, 1000)
+            .addProvider(healthy, 1)
+            .build();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.analyzeCode(REQUEST).getModelUsed()).isEqualTo("healthy");
+        }
+        assertThat(service.getFailoverCount()).isGreaterThan(0);
+        service.close();
+    }
+
+    @Test
+    void testUnhealthyProviderIsDemoted() throws Exception {
+        FakeService broken = new FakeService("broken", 0, AiException.ErrorType.RATE_LIMIT_EXCEEDED);
+        FakeService healthy = new FakeService("healthy", 0, null);
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(broken, 1000)
+            .addProvider(healthy, 1)
+            .cooldownMillis(60000)
+            .build();
+
+        for (int i = 0; i < 20; i++) {
+            service.analyzeCode(REQUEST);
+        }
+
+        // 速率限制後立即進入冷卻，不再優先分派
+        assertThat(broken.calls.get()).isEqualTo(1);
+        assertThat(healthy.calls.get()).isEqualTo(20);
+        service.close();
+    }
+
+    @Test
+    void testDistributesByWeight() throws Exception {
+        FakeService heavy = new FakeService("heavy", 0, null);
+        FakeService light = new FakeService("light", 0, null);
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(heavy, 9)
+            .addProvider(light, 1)
+            .build();
+
+        for (int i = 0; i < 1000; i++) {
+            service.analyzeCode(REQUEST);
+        }
+
+        assertThat(heavy.calls.get()).isBetween(800, 980);
+        assertThat(light.calls.get()).isBetween(20, 200);
+        service.close();
+    }
+
+    @Test
+    void testHedgedRequestReturnsFastestProvider() throws Exception {
+        FakeService slow = new FakeService("slow", 3000, null);
+        FakeService fast = new FakeService("fast", 10, null);
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(slow, 1000000)
+            .addProvider(fast, 1)
+            .hedgingEnabled(true)
+            .hedgeFallbackDelayMillis(100)
+            .build();
+
+        long start = System.currentTimeMillis();
+        AiResponse response = service.analyzeCode(REQUEST);
+
+        assertThat(response.getModelUsed()).isEqualTo("fast");
+        assertThat(System.currentTimeMillis() - start).isLessThan(2000);
+        assertThat(service.getHedgedRequestCount()).isEqualTo(1);
+        service.close();
+    }
+
+    @Test
+    void testCancelledHedgeLoserIsNotCountedAsFailure() throws Exception {
+        FakeService slow = new FakeService("slow", 3000, null);
+        FakeService fast = new FakeService("fast", 10, null);
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(slow, 1000000)
+            .addProvider(fast, 1)
+            .hedgingEnabled(true)
+            .hedgeFallbackDelayMillis(50)
+            .failureThreshold(1)
+            .build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(service.analyzeCode(REQUEST).getModelUsed()).isEqualTo("fast");
+        }
+
+        // 落敗請求被取消後仍為健康狀態，且沒有失敗紀錄
+        ProviderStats slowStats = service.getProviderStats().get("slow/slow-model");
+        long deadline = System.currentTimeMillis() + 2000;
+        while (slowStats.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(slowStats.getFailureCount()).isZero();
+        assertThat(slowStats.isHealthy()).isTrue();
+        assertThat(slow.calls.get()).isEqualTo(3);
+        service.close();
+    }
+
+    @Test
+    void testAllProvidersFail() {
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(new FakeService("a", 0, AiException.ErrorType.TIMEOUT))
+            .addProvider(new FakeService("b", 0, AiException.ErrorType.TIMEOUT))
+            .hedgingEnabled(true)
+            .build();
+
+        assertThatThrownBy(() -> service.analyzeCode(REQUEST))
+            .isInstanceOf(AiException.class)
+            .hasMessageContaining("All AI providers failed");
+        service.close();
+    }
+
+    @Test
+    void testCloseClosesAllProviders() {
+        FakeService a = new FakeService("a", 0, null);
+        FakeService b = new FakeService("b", 0, null);
+        LoadBalancedAiService service = LoadBalancedAiService.builder()
+            .addProvider(a)
+            .addProvider(b)
+            .build();
+
+        assertThat(service.getProviderName()).isEqualTo("LoadBalanced[a,b]");
+        service.close();
+
+        assertThat(a.closed).isTrue();
+        assertThat(b.closed).isTrue();
+    }
+
+    @Test
+    void testProviderStatsPercentile() {
+        ProviderStats stats = new ProviderStats();
+        assertThat(stats.getLatencyPercentile(95)).isEqualTo(-1);
+
+        for (int i = 1; i <= 100; i++) {
+            stats.recordSuccess(i);
+        }
+
+        assertThat(stats.getLatencyPercentile(95)).isEqualTo(95);
+        assertThat(stats.getLatencyPercentile(50)).isEqualTo(50);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.sonarqube.ai.token;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BpeTokenizer 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+class BpeTokenizerTest {
+
+    /**
+     * 256 個單位元組 token + 少量合併規則
+     */
+    private static BpeTokenizer tokenizer(String... merges) throws IOException {
+        StringBuilder vocabulary = new StringBuilder();
+        Base64.Encoder encoder = Base64.getEncoder();
+        for (int b = 0; b < 256; b++) {
+            vocabulary.append(encoder.encodeToString(new byte[]{(byte) b})).append(' ').append(b).append('\n');
+        }
+        int rank = 256;
+        for (String merge : merges) {
+            vocabulary.append(encoder.encodeToString(merge.getBytes(StandardCharsets.UTF_8)))
+                .append(' ').append(rank++).append('\n');
+        }
+        return BpeTokenizer.load("test", new ByteArrayInputStream(
+            vocabulary.toString().getBytes(StandardCharsets.US_ASCII)), BpeTokenizer.CL100K_PATTERN);
+    }
+
+    @Test
+    void testMergesByRank() throws IOException {
+        BpeTokenizer tokenizer = tokenizer("he", "ll", "hell", "hello");
+
+        assertEquals(260, tokenizer.getVocabularySize());
+        assertEquals(1, tokenizer.countTokens("hello"));
+        assertEquals(3, tokenizer.countTokens("help"));     // he + l + p
+        assertEquals(2, tokenizer.countTokens(" hello"));   // 空白與 hello 同片段但無合併規則
+        assertEquals(2, tokenizer.countTokens("hello1"));   // 字母與數字分屬不同片段
+        assertEquals(0, tokenizer.countTokens(""));
+        assertTrue(tokenizer.isExact());
+    }
+
+    @Test
+    void testLowerRankMergesFirst() throws IOException {
+        // "bc" 的 rank 最低，先合併後 "ab" 與 "cx" 都無法再套用：a + bc + x
+        BpeTokenizer tokenizer = tokenizer("bc", "ab", "cx");
+        assertEquals(3, tokenizer.countTokens("abcx"));
+    }
+
+    @Test
+    void testMultiByteCharacters() throws IOException {
+        BpeTokenizer tokenizer = tokenizer();
+        // 「安」為 3 個 UTF-8 位元組，無合併規則時為 3 個 token
+        assertEquals(3, tokenizer.countTokens("安"));
+        // 結果可重複（片段快取）
+        assertEquals(3, tokenizer.countTokens("安"));
+    }
+
+    @Test
+    void testMalformedVocabulary() {
+        assertThrows(IOException.class, () -> BpeTokenizer.load("bad",
+            new ByteArrayInputStream("no-rank-here\n".getBytes(StandardCharsets.US_ASCII)), BpeTokenizer.CL100K_PATTERN));
+        assertThrows(IOException.class, () -> BpeTokenizer.load("empty",
+            new ByteArrayInputStream(new byte[0]), BpeTokenizer.CL100K_PATTERN));
+    }
+
+    @Test
+    void testEncodingSelection() {
+        assertEquals(Tokenizers.O200K_BASE, Tokenizers.encodingFor("gpt-4o-mini"));
+        assertEquals(Tokenizers.O200K_BASE, Tokenizers.encodingFor("openai-gpt-4o"));
+        assertEquals(Tokenizers.CL100K_BASE, Tokenizers.encodingFor("gpt-4-turbo"));
+        assertEquals(Tokenizers.CL100K_BASE, Tokenizers.encodingFor("gpt-3.5-turbo"));
+        assertEquals(Tokenizers.APPROXIMATE, Tokenizers.encodingFor("claude-3-5-sonnet-20241022"));
+        assertEquals(Tokenizers.APPROXIMATE, Tokenizers.encodingFor(null));
+        assertNotNull(Tokenizers.forModel("claude-3-haiku"));
+    }
+}
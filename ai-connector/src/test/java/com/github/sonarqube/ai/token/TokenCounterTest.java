@@ -0,0 +1,121 @@
+package com.github.sonarqube.ai.token;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TokenCounter 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+class TokenCounterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 記錄呼叫次數的近似 Tokenizer
+     */
+    private static final class CountingTokenizer implements Tokenizer {
+        private final Tokenizer delegate = new ApproximateTokenizer("test");
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public int countTokens(String text) {
+            calls.incrementAndGet();
+            return delegate.countTokens(text);
+        }
+
+        @Override
+        public String getEncodingName() {
+            return delegate.getEncodingName();
+        }
+
+        @Override
+        public boolean isExact() {
+            return false;
+        }
+    }
+
+    @Test
+    void testFileCountIsCachedUntilFileChanges() throws IOException {
+        CountingTokenizer tokenizer = new CountingTokenizer();
+        TokenCounter counter = new TokenCounter(tokenizer);
+        Path file = tempDir.resolve("A.java");
+        Files.writeString(file, "public class A { int value = 42; }");
+
+        int first = counter.countFile(file);
+        assertEquals(first, counter.countFile(file));
+        assertEquals(1, tokenizer.calls.get());
+
+        Files.writeString(file, "public class A { int value = 42; String name = \"a\"; }");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2_000));
+        assertTrue(counter.countFile(file) > first);
+        assertEquals(2, tokenizer.calls.get());
+    }
+
+    @Test
+    void testCalibrationConvergesToActualUsage() {
+        TokenCounter counter = new TokenCounter(new CountingTokenizer());
+        assertEquals(1000, counter.estimate(1000));
+
+        // 實際用量穩定比估算多 10%
+        for (int i = 0; i < 30; i++) {
+            counter.calibrate(1000, 1100);
+        }
+        assertEquals(1.1, counter.getCalibrationFactor(), 0.01);
+        assertEquals(2200, counter.estimate(2000), 20);
+
+        // 無效樣本不影響
+        counter.calibrate(0, 500);
+        counter.calibrate(500, 0);
+        assertEquals(1.1, counter.getCalibrationFactor(), 0.01);
+    }
+
+    @Test
+    void testExactTokenizerIsNotCalibrated() throws IOException {
+        Tokenizer exact = new Tokenizer() {
+            @Override
+            public int countTokens(String text) {
+                return text.length();
+            }
+
+            @Override
+            public String getEncodingName() {
+                return "exact";
+            }
+
+            @Override
+            public boolean isExact() {
+                return true;
+            }
+        };
+        TokenCounter counter = new TokenCounter(exact);
+        counter.calibrate(1000, 2000);
+        assertEquals(1000, counter.estimate(1000));
+    }
+
+    @Test
+    void testApproximateTokenizerOnCode() {
+        Tokenizer tokenizer = new ApproximateTokenizer("approximate");
+        assertEquals(0, tokenizer.countTokens(""));
+        assertEquals(1, tokenizer.countTokens("return"));
+        // get + User + Name
+        assertEquals(3, tokenizer.countTokens("getUserName"));
+        assertFalse(tokenizer.isExact());
+
+        String code = "String sql = \"SELECT * FROM users WHERE id = \" + request.getParameter(\"id\");\n";
+        int tokens = tokenizer.countTokens(code);
+        // 實際 cl100k_base 約 20 個 token
+        assertTrue(tokens >= 16 && tokens <= 26, "tokens=" + tokens);
+    }
+}
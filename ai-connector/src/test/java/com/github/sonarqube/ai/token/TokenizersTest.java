@@ -0,0 +1,61 @@
+package com.github.sonarqube.ai.token;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tokenizers 單元測試
+ *
+ * 已知 token 數取自 tiktoken 對相同文字的編碼結果；詞彙表未放入
+ * {@code src/main/resources/tokenizers} 時略過精確計數的測試。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+class TokenizersTest {
+
+    private static Tokenizer bundled(String encoding) {
+        assumeTrue(Tokenizers.class.getResource(Tokenizers.RESOURCE_DIRECTORY + encoding + ".tiktoken") != null,
+            encoding + " vocabulary is not bundled");
+        Tokenizer tokenizer = Tokenizers.forEncoding(encoding);
+        assertTrue(tokenizer.isExact());
+        return tokenizer;
+    }
+
+    @Test
+    void testCl100kKnownCounts() {
+        Tokenizer tokenizer = bundled(Tokenizers.CL100K_BASE);
+
+        assertEquals(2, tokenizer.countTokens("hello world"));
+        assertEquals(6, tokenizer.countTokens("tiktoken is great!"));
+        assertEquals(6, tokenizer.countTokens("antidisestablishmentarianism"));
+        assertEquals(7, tokenizer.countTokens("2 + 2 = 4"));
+        assertEquals(9, tokenizer.countTokens("お誕生日おめでとう"));
+    }
+
+    @Test
+    void testO200kKnownCounts() {
+        Tokenizer tokenizer = bundled(Tokenizers.O200K_BASE);
+
+        assertEquals(2, tokenizer.countTokens("hello world"));
+        assertEquals(7, tokenizer.countTokens("2 + 2 = 4"));
+    }
+
+    @Test
+    void testMissingVocabularyFallsBackToApproximation() {
+        Tokenizer tokenizer = Tokenizers.forEncoding("missing_base");
+
+        assertFalse(tokenizer.isExact());
+        assertEquals("missing_base", tokenizer.getEncodingName());
+        assertTrue(tokenizer.countTokens("String sql = \"SELECT \" + input;") > 0);
+    }
+
+    @Test
+    void testModelFamiliesShareTokenizer() {
+        assertSame(Tokenizers.forModel("gpt-4o"), Tokenizers.forModel("gpt-4o-mini"));
+        assertSame(Tokenizers.forModel("gpt-4-turbo"), Tokenizers.forModel("gpt-3.5-turbo"));
+        assertSame(Tokenizers.forModel("claude-3-5-sonnet-20241022"), Tokenizers.forModel("gemini-1.5-pro"));
+    }
+}
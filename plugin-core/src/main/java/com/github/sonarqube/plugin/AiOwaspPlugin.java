@@ -6,7 +6,10 @@ import com.github.sonarqube.plugin.api.CliStatusApiController;
 import com.github.sonarqube.plugin.api.OwaspVersionApiController;
 import com.github.sonarqube.plugin.api.PdfReportApiController;
 import com.github.sonarqube.plugin.api.ScanProgressApiController;
+import com.github.sonarqube.plugin.cache.ReportResultCache;
+import com.github.sonarqube.plugin.service.ReportPrerenderTask;
 import com.github.sonarqube.plugin.web.OwaspReportPageDefinition;
+import com.github.sonarqube.rules.RuleCatalog;
 import com.github.sonarqube.rules.RuleRegistry;
 import org.sonar.api.Plugin;
 import org.sonar.api.PropertyType;
@@ -57,6 +60,12 @@ public class AiOwaspPlugin implements Plugin {
     public static final String PROPERTY_AI_RATE_LIMIT_BUFFER_RATIO = "sonar.aiowasp.ai.rateLimit.bufferRatio";
     public static final String PROPERTY_AI_RATE_LIMIT_STRATEGY = "sonar.aiowasp.ai.rateLimit.strategy";
 
+    // 模型串接配置
+    public static final String PROPERTY_AI_CASCADE_MODEL = "sonar.aiowasp.ai.cascade.firstTierModel";
+    public static final String PROPERTY_AI_CASCADE_CONFIDENCE = "sonar.aiowasp.ai.cascade.confidenceThreshold";
+    public static final String PROPERTY_AI_ENDPOINT_POOL = "sonar.aiowasp.ai.loadBalance.endpoints";
+    public static final String PROPERTY_AI_HEDGING_ENABLED = "sonar.aiowasp.ai.loadBalance.hedging";
+
     // CLI 模式配置 (Epic 9)
     public static final String PROPERTY_CLI_GEMINI_PATH = "sonar.aiowasp.cli.gemini.path";
     public static final String PROPERTY_CLI_COPILOT_PATH = "sonar.aiowasp.cli.copilot.path";
@@ -71,10 +80,16 @@ public class AiOwaspPlugin implements Plugin {
     public static final String PROPERTY_PARALLEL_FILES = "sonar.aiowasp.parallel.files";
     public static final String PROPERTY_CACHE_ENABLED = "sonar.aiowasp.cache.enabled";
     public static final String PROPERTY_INCREMENTAL_SCAN = "sonar.aiowasp.incremental.enabled";
+    public static final String PROPERTY_BUDGET_MAX_TOKENS = "sonar.aiowasp.budget.maxTokens";
+    public static final String PROPERTY_BUDGET_MAX_COST = "sonar.aiowasp.budget.maxCost";
+    public static final String PROPERTY_BUDGET_GLOBAL_MAX_COST = "sonar.aiowasp.budget.globalMaxCost";
 
     // 報告配置
     public static final String PROPERTY_REPORT_FORMAT = "sonar.aiowasp.report.format";
     public static final String PROPERTY_REPORT_MULTI_VERSION = "sonar.aiowasp.report.multiVersion";
+    public static final String PROPERTY_REPORT_CACHE_ENABLED = "sonar.aiowasp.report.cache.enabled";
+    public static final String PROPERTY_REPORT_CACHE_MAX_SIZE_MB = "sonar.aiowasp.report.cache.maxSizeMb";
+    public static final String PROPERTY_REPORT_PRERENDER_FORMATS = "sonar.aiowasp.report.prerender.formats";
 
     @Override
     public void define(Context context) {
@@ -89,6 +104,9 @@ public class AiOwaspPlugin implements Plugin {
         // 註冊 Web 頁面 (Epic 5.6 + 7.4)
         defineWebPages(context);
 
+        // 註冊共用規則目錄（感測器等元件透過建構子注入，規則資料只建立一次）
+        context.addExtension(RuleCatalog.getInstance());
+
         // 註冊掃描器 (Sensor)
         context.addExtension(OwaspSensor.class);
         LOG.debug("已註冊 OwaspSensor");
@@ -322,6 +340,58 @@ public class AiOwaspPlugin implements Plugin {
                 .build()
         );
 
+        // ============================================================
+        // 模型串接配置
+        // ============================================================
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_AI_CASCADE_MODEL)
+                .name("Cascade First-Tier Model")
+                .description("模型串接的初步檢測模型（須與 AI Model 同一 Provider，例：gpt-4o-mini、claude-haiku-4-5-20251001、"
+                    + "gemini-2.5-flash-lite）。設定後先以此模型檢測，只有信心不足或失敗的檔案才交由 AI Model 重新分析；留空則停用")
+                .category(CATEGORY_AI)
+                .subCategory("Model Cascade")
+                .type(PropertyType.STRING)
+                .index(15)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_AI_CASCADE_CONFIDENCE)
+                .name("Cascade Confidence Threshold")
+                .description("初步檢測結果的信心門檻（0.0-1.0），任一問題低於此值時升級至 AI Model 重新分析")
+                .category(CATEGORY_AI)
+                .subCategory("Model Cascade")
+                .defaultValue("0.7")
+                .type(PropertyType.FLOAT)
+                .index(16)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_AI_ENDPOINT_POOL)
+                .name("Load Balancing Endpoints")
+                .description("與 AI Model 一同分派請求的其他模型（每項格式 model 或 model:weight，例：claude-3-5-haiku-20241022:2、"
+                    + "gpt-4o-mini），沿用各 Provider 的 API Key；依權重分派並在失敗時自動切換，成本以 AI Model 價格估算。留空則只使用 AI Model")
+                .category(CATEGORY_AI)
+                .subCategory("Load Balancing")
+                .multiValues(true)
+                .type(PropertyType.STRING)
+                .index(17)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_AI_HEDGING_ENABLED)
+                .name("Hedged Requests")
+                .description("請求超過主要端點的 p95 延遲時同時送往下一個端點，取先完成者（需設定 Load Balancing Endpoints）")
+                .category(CATEGORY_AI)
+                .subCategory("Load Balancing")
+                .defaultValue("false")
+                .type(PropertyType.BOOLEAN)
+                .index(18)
+                .build()
+        );
+
         // ============================================================
         // CLI 模式配置 (Epic 9)
         // ============================================================
@@ -433,6 +503,42 @@ public class AiOwaspPlugin implements Plugin {
                 .build()
         );
 
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_BUDGET_MAX_TOKENS)
+                .name("Scan Token Budget")
+                .description("單次掃描的 AI token 上限，依風險優先分析檔案，超出時略過其餘檔案（0 表示不限制）")
+                .category(CATEGORY_PERFORMANCE)
+                .subCategory("Budget")
+                .defaultValue("0")
+                .type(PropertyType.INTEGER)
+                .index(4)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_BUDGET_MAX_COST)
+                .name("Scan Cost Budget (USD)")
+                .description("單次掃描的 AI 成本上限（美元），依風險優先分析檔案，額度不足時改用同廠商較便宜的模型，仍不足時略過其餘檔案（0 表示不限制）")
+                .category(CATEGORY_PERFORMANCE)
+                .subCategory("Budget")
+                .defaultValue("0")
+                .type(PropertyType.FLOAT)
+                .index(5)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_BUDGET_GLOBAL_MAX_COST)
+                .name("Global Cost Budget (USD)")
+                .description("掃描程序內所有 AI 呼叫共用的成本總預算（美元），額度不足時改用同廠商較便宜的模型，仍不足時略過（0 表示不限制）")
+                .category(CATEGORY_PERFORMANCE)
+                .subCategory("Budget")
+                .defaultValue("0")
+                .type(PropertyType.FLOAT)
+                .index(6)
+                .build()
+        );
+
         // ============================================================
         // 報告配置
         // ============================================================
@@ -459,7 +565,42 @@ public class AiOwaspPlugin implements Plugin {
                 .build()
         );
 
-        LOG.debug("已註冊 {} 個配置屬性", 21); // 新增 4 個 Rate Limiting 屬性
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_REPORT_CACHE_ENABLED)
+                .name("Enable Report Cache")
+                .description("快取已匯出的報告（依專案最新分析 ID 失效）")
+                .category(CATEGORY_REPORT)
+                .subCategory("Caching")
+                .defaultValue("true")
+                .type(PropertyType.BOOLEAN)
+                .index(3)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_REPORT_CACHE_MAX_SIZE_MB)
+                .name("Report Cache Size (MB)")
+                .description("報告快取的磁碟容量上限，超過時淘汰最久未使用的報告")
+                .category(CATEGORY_REPORT)
+                .subCategory("Caching")
+                .defaultValue(String.valueOf(ReportResultCache.DEFAULT_MAX_SIZE_MB))
+                .type(PropertyType.INTEGER)
+                .index(4)
+                .build()
+        );
+
+        context.addExtension(
+            PropertyDefinition.builder(PROPERTY_REPORT_PRERENDER_FORMATS)
+                .name("Pre-render Report Formats")
+                .description("新分析完成後在背景預先生成的報告格式（pdf, html, json, ndjson, markdown），留空停用")
+                .category(CATEGORY_REPORT)
+                .subCategory("Caching")
+                .multiValues(true)
+                .index(5)
+                .build()
+        );
+
+        LOG.debug("已註冊 {} 個配置屬性", 24); // 新增 3 個報告快取屬性
     }
 
     /**
@@ -473,6 +614,10 @@ public class AiOwaspPlugin implements Plugin {
         // 註冊 SonarQube 數據查詢服務
         context.addExtension(com.github.sonarqube.plugin.service.SonarQubeDataService.class);
 
+        // 報告結果快取與新分析完成後的背景預先渲染（Compute Engine）
+        context.addExtension(ReportResultCache.class);
+        context.addExtension(ReportPrerenderTask.class);
+
         // 配置管理 API (Epic 7.1)
         // TODO: 暫時停用，需要實作 AiConfiguration, ConfigurationManager, ScanScopeConfiguration 類別後才能啟用
         // context.addExtension(ConfigurationApiController.class);
@@ -1,8 +1,7 @@
 package com.github.sonarqube.plugin;
 
+import com.github.sonarqube.rules.RuleCatalog;
 import com.github.sonarqube.rules.RuleDefinition;
-import com.github.sonarqube.rules.java.JavaSecurityRules;
-import com.github.sonarqube.rules.javascript.JavaScriptSecurityRules;
 import org.sonar.api.server.profile.BuiltInQualityProfilesDefinition;
 
 import java.util.List;
@@ -21,6 +20,19 @@ public class OwaspQualityProfile implements BuiltInQualityProfilesDefinition {
     private static final String JAVA_PROFILE_NAME = "OWASP Security Profile for Java";
     private static final String JAVASCRIPT_PROFILE_NAME = "OWASP Security Profile for JavaScript";
 
+    private final RuleCatalog ruleCatalog;
+
+    public OwaspQualityProfile() {
+        this(RuleCatalog.getInstance());
+    }
+
+    /**
+     * @param ruleCatalog 共用規則目錄
+     */
+    public OwaspQualityProfile(RuleCatalog ruleCatalog) {
+        this.ruleCatalog = ruleCatalog;
+    }
+
     @Override
     public void define(Context context) {
         // 建立 Java 品質設定檔
@@ -42,7 +54,7 @@ public class OwaspQualityProfile implements BuiltInQualityProfilesDefinition {
         profile.setDefault(false); // 不設為預設，讓使用者選擇
 
         // 獲取所有 Java 規則
-        List<RuleDefinition> rules = JavaSecurityRules.getAllRules();
+        List<RuleDefinition> rules = ruleCatalog.getJavaRules();
 
         // 啟用所有規則
         for (RuleDefinition rule : rules) {
@@ -64,7 +76,7 @@ public class OwaspQualityProfile implements BuiltInQualityProfilesDefinition {
         profile.setDefault(false); // 不設為預設，讓使用者選擇
 
         // 獲取所有 JavaScript 規則
-        List<RuleDefinition> rules = JavaScriptSecurityRules.getAllRules();
+        List<RuleDefinition> rules = ruleCatalog.getJavaScriptRules();
 
         // 啟用所有規則
         for (RuleDefinition rule : rules) {
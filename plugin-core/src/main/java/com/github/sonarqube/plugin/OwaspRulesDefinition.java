@@ -1,9 +1,8 @@
 package com.github.sonarqube.plugin;
 
+import com.github.sonarqube.rules.RuleCatalog;
 import com.github.sonarqube.rules.RuleDefinition;
 import com.github.sonarqube.rules.RuleEngineService;
-import com.github.sonarqube.rules.java.JavaSecurityRules;
-import com.github.sonarqube.rules.javascript.JavaScriptSecurityRules;
 import com.github.sonarqube.version.OwaspVersion;
 import com.github.sonarqube.version.VersionManager;
 import org.sonar.api.server.rule.RulesDefinition;
@@ -27,6 +26,19 @@ public class OwaspRulesDefinition implements RulesDefinition {
     private static final String JAVA_REPOSITORY_KEY = "owasp-java";
     private static final String JAVASCRIPT_REPOSITORY_KEY = "owasp-javascript";
 
+    private final RuleCatalog ruleCatalog;
+
+    public OwaspRulesDefinition() {
+        this(RuleCatalog.getInstance());
+    }
+
+    /**
+     * @param ruleCatalog 共用規則目錄
+     */
+    public OwaspRulesDefinition(RuleCatalog ruleCatalog) {
+        this.ruleCatalog = ruleCatalog;
+    }
+
     @Override
     public void define(Context context) {
         // 根據當前版本註冊規則
@@ -48,7 +60,7 @@ public class OwaspRulesDefinition implements RulesDefinition {
                 .setName("OWASP Security Rules for Java");
 
         // 獲取當前版本的 Java 規則
-        List<RuleDefinition> rules = JavaSecurityRules.getAllRules();
+        List<RuleDefinition> rules = ruleCatalog.getJavaRules();
 
         // 註冊每條規則
         for (RuleDefinition rule : rules) {
@@ -67,7 +79,7 @@ public class OwaspRulesDefinition implements RulesDefinition {
                 .setName("OWASP Security Rules for JavaScript");
 
         // 獲取當前版本的 JavaScript 規則
-        List<RuleDefinition> rules = JavaScriptSecurityRules.getAllRules();
+        List<RuleDefinition> rules = ruleCatalog.getJavaScriptRules();
 
         // 註冊每條規則
         for (RuleDefinition rule : rules) {
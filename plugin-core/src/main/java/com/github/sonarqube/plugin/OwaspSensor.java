@@ -8,11 +8,26 @@ import com.github.sonarqube.ai.model.AiModel;
 import com.github.sonarqube.ai.model.AiRequest;
 import com.github.sonarqube.ai.model.AiResponse;
 import com.github.sonarqube.ai.model.SecurityIssue;
+import com.github.sonarqube.ai.routing.CascadingAiService;
 import com.github.sonarqube.config.PluginConfiguration;
+import com.github.sonarqube.plugin.cost.CostEstimator;
+import com.github.sonarqube.plugin.cost.CostEstimator.AiProvider;
+import com.github.sonarqube.plugin.incremental.ScanStateManifest;
+import com.github.sonarqube.plugin.incremental.ScanStateStore;
+import com.github.sonarqube.plugin.schedule.RiskScorer;
+import com.github.sonarqube.plugin.schedule.ScanBudget;
+import com.github.sonarqube.plugin.schedule.ScanScheduler;
 import com.github.sonarqube.plugin.util.SonarQubeVersionDetector;
+import com.github.sonarqube.rules.OwaspRule;
+import com.github.sonarqube.rules.RuleCatalog;
 import com.github.sonarqube.rules.RuleDefinition;
-import com.github.sonarqube.rules.java.JavaSecurityRules;
-import com.github.sonarqube.rules.javascript.JavaScriptSecurityRules;
+import com.github.sonarqube.rules.RuleLookupTable;
+import com.github.sonarqube.rules.owasp2021.BrokenAccessControlRule;
+import com.github.sonarqube.rules.owasp2021.CryptographicFailuresRule;
+import com.github.sonarqube.rules.owasp2021.InjectionRule;
+import com.github.sonarqube.rules.owasp2021.InsecureDesignRule;
+import com.github.sonarqube.shared.git.GitChange;
+import com.github.sonarqube.shared.git.GitRepository;
 import com.github.sonarqube.version.VersionManager;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -29,10 +44,14 @@ import org.sonar.api.utils.log.Loggers;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Optional;
 
 /**
  * OWASP 安全掃描感測器
@@ -47,22 +66,56 @@ public class OwaspSensor implements Sensor {
 
     private static final Logger LOG = Loggers.get(OwaspSensor.class);
 
+    // 每次呼叫的系統提示與規則說明 token 數（加在檔案內容 token 數上）
+    private static final long PROMPT_OVERHEAD_TOKENS = 400;
+    // detection 模式每檔案預估輸出 token 數
+    private static final long EXPECTED_OUTPUT_TOKENS = 500;
+    // 計算變更量時回溯的提交數
+    private static final int CHURN_HISTORY_COMMITS = 20;
+    private static final int MAX_LOGGED_SKIPPED_FILES = 20;
+
+    // 風險評分使用的靜態規則（純正規表示式，不呼叫 AI；涵蓋注入、存取控制、加密與不安全設計）
+    private static final List<OwaspRule> STATIC_RISK_RULES = List.of(
+        new BrokenAccessControlRule(),
+        new CryptographicFailuresRule(),
+        new InjectionRule(),
+        new InsecureDesignRule()
+    );
+
+    private static final String SUGGESTION_PREFIX = " (建議: ";
+    private static final String LEGACY_SUGGESTION_PREFIX = "\n\n建議: ";
+    private static final String LEGACY_BEFORE_PREFIX = "\n\n程式碼範例（修復前）:\n";
+    private static final String LEGACY_AFTER_PREFIX = "\n\n程式碼範例（修復後）:\n";
+    private static final String LEGACY_EFFORT_PREFIX = "\n\n工作量評估: ";
+    private static final int MAX_CODE_EXAMPLE_LENGTH = 1000;
+
     private final PluginConfiguration config;
     private final Configuration sonarConfig; // SonarQube 配置（用於讀取 Admin 設定的 API Key）
     private AiService aiService; // 延遲初始化，只有在 AI 分析啟用時才建立
-    private final Map<String, RuleDefinition> ruleMap;
+    private final RuleCatalog ruleCatalog; // 共用規則目錄（規則查詢表與規則集指紋）
+    private String aiModelId; // 與 aiService 一同初始化，作為掃描狀態清單的相容性條件
+    private CascadingAiService cascadeService; // 啟用模型串接時與 aiService 相同，否則為 null
+    private String primaryModelId; // 主要模型（串接時為升級模型）
+    private String firstTierModelId; // 串接的初步檢測模型（未串接時與主要模型相同）
+    private AiConfig primaryConfig; // 主要模型配置（建立降級模型服務時沿用連線參數）
+    private final Map<AiProvider, AiService> downshiftServices = new HashMap<>(); // 依價格等級延遲建立
 
     /**
-     * 建構子（SonarQube 會自動注入 Configuration）
+     * 建構子（SonarQube 會自動注入 Configuration 與 RuleCatalog）
      */
-    public OwaspSensor(Configuration configuration) {
+    public OwaspSensor(Configuration configuration, RuleCatalog ruleCatalog) {
         this.config = PluginConfiguration.getInstance();
         this.sonarConfig = configuration;
+        this.ruleCatalog = ruleCatalog;
         // 不在建構子中初始化 aiService，避免配置不完整時失敗
         this.aiService = null;
+    }
 
-        // 建立規則映射表以便快速查詢
-        this.ruleMap = buildRuleMap();
+    /**
+     * 使用共用規則目錄的建構子
+     */
+    public OwaspSensor(Configuration configuration) {
+        this(configuration, RuleCatalog.getInstance());
     }
 
     /**
@@ -92,6 +145,7 @@ public class OwaspSensor implements Sensor {
             LOG.warn("無法識別的 AI 模型 ID: {}，使用預設模型 GPT-4", modelId);
             model = AiModel.GPT_4;
         }
+        this.aiModelId = model.getModelId();
 
         // 讀取其他配置參數
         double temperature = sonarConfig.getDouble(com.github.sonarqube.plugin.AiOwaspPlugin.PROPERTY_AI_TEMPERATURE)
@@ -134,6 +188,144 @@ public class OwaspSensor implements Sensor {
             .build();
     }
 
+    /**
+     * 依設定建立模型串接服務（未設定初步檢測模型時回傳主要服務）
+     *
+     * 初步檢測模型須與主要模型同一 Provider（共用 API Key 與 Endpoint）。
+     * 啟用串接時掃描狀態的模型識別為「初步檢測模型&gt;主要模型」，變更任一模型都會重新分析。
+     *
+     * @param primaryConfig 主要模型配置（convertToAiConfig 的結果）
+     * @param primary 主要模型服務
+     */
+    private AiService createCascadeIfConfigured(AiConfig primaryConfig, AiService primary) {
+        this.primaryModelId = aiModelId;
+        this.firstTierModelId = aiModelId;
+        this.cascadeService = null;
+
+        String cascadeModelId = sonarConfig.get(AiOwaspPlugin.PROPERTY_AI_CASCADE_MODEL)
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .orElse(null);
+        if (cascadeModelId == null) {
+            return primary;
+        }
+        AiModel firstTierModel = AiModel.fromModelId(cascadeModelId);
+        if (firstTierModel == null) {
+            LOG.warn("無法識別的串接初步檢測模型: {}，停用模型串接", cascadeModelId);
+            return primary;
+        }
+        if (!firstTierModel.getProvider().equals(primaryConfig.getModel().getProvider())) {
+            LOG.warn("串接初步檢測模型 {} 與主要模型 {} 不屬於同一 Provider，停用模型串接",
+                firstTierModel.getModelId(), primaryConfig.getModel().getModelId());
+            return primary;
+        }
+        if (firstTierModel == primaryConfig.getModel()) {
+            return primary;
+        }
+
+        double threshold = sonarConfig.getDouble(AiOwaspPlugin.PROPERTY_AI_CASCADE_CONFIDENCE).orElse(0.7);
+        this.cascadeService = CascadingAiService.builder()
+            .firstTier(AiServiceFactory.createService(withModel(primaryConfig, firstTierModel)))
+            .escalationTier(primary)
+            .confidenceThreshold(threshold)
+            .build();
+        this.firstTierModelId = firstTierModel.getModelId();
+        this.aiModelId = firstTierModelId + ">" + primaryModelId;
+        LOG.info("模型串接: 以 {} 初步檢測，信心低於 {} 或檢測失敗時升級至 {}",
+            firstTierModelId, threshold, primaryModelId);
+        return cascadeService;
+    }
+
+    /**
+     * 建立主要模型服務（設定負載平衡端點時與各端點組成負載平衡服務）
+     *
+     * 每個端點格式為 {@code model} 或 {@code model:weight}，Provider 由模型推斷並沿用該 Provider 的 API Key 與 Endpoint；
+     * 主要模型權重為 1。無法解析或缺少 API Key 的端點記錄警告後略過。
+     *
+     * @param primaryConfig 主要模型配置（convertToAiConfig 的結果）
+     */
+    AiService createPrimaryService(AiConfig primaryConfig) {
+        List<AiConfig> configs = new ArrayList<>();
+        configs.add(primaryConfig);
+        for (String entry : sonarConfig.getStringArray(AiOwaspPlugin.PROPERTY_AI_ENDPOINT_POOL)) {
+            AiConfig endpoint = parseEndpoint(primaryConfig, entry.trim());
+            if (endpoint != null) {
+                configs.add(endpoint);
+            }
+        }
+        if (configs.size() == 1) {
+            return AiServiceFactory.createService(primaryConfig);
+        }
+        boolean hedging = sonarConfig.getBoolean(AiOwaspPlugin.PROPERTY_AI_HEDGING_ENABLED).orElse(false);
+        LOG.info("負載平衡: {} 個端點 {}（對沖請求{}）", configs.size(),
+            configs.stream().map(c -> c.getModel().getModelId() + ":" + c.getLoadBalanceWeight()).toList(),
+            hedging ? "啟用" : "停用");
+        return AiServiceFactory.createLoadBalancedService(configs, hedging);
+    }
+
+    /**
+     * 解析負載平衡端點（無效時回傳 null）
+     */
+    private AiConfig parseEndpoint(AiConfig base, String entry) {
+        if (entry.isEmpty()) {
+            return null;
+        }
+        String[] parts = entry.split(":");
+        AiModel model = AiModel.fromModelId(parts[0].trim());
+        if (model == null || parts.length > 2) {
+            LOG.warn("無法識別的負載平衡端點: {}（格式: model 或 model:weight），略過", entry);
+            return null;
+        }
+        int weight = 1;
+        if (parts.length == 2) {
+            try {
+                weight = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                weight = 0;
+            }
+            if (weight <= 0) {
+                LOG.warn("負載平衡端點 {} 的權重須為正整數，略過", entry);
+                return null;
+            }
+        }
+        String provider = model.isClaude() ? "anthropic" : model.isGemini() ? "gemini-api" : "openai";
+        try {
+            return withModel(base, model, getApiKeyForProvider(provider), getApiEndpointForProvider(provider), weight);
+        } catch (IllegalStateException e) {
+            LOG.warn("略過負載平衡端點 {}: {}", entry, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 以相同連線與參數建立另一模型的配置
+     */
+    private static AiConfig withModel(AiConfig base, AiModel model) {
+        return withModel(base, model, base.getApiKey(), base.getApiEndpoint(), base.getLoadBalanceWeight());
+    }
+
+    /**
+     * 以相同參數建立另一模型、另一連線的配置
+     */
+    private static AiConfig withModel(AiConfig base, AiModel model, String apiKey, String apiEndpoint, int weight) {
+        return AiConfig.builder()
+            .model(model)
+            .apiKey(apiKey)
+            .apiEndpoint(apiEndpoint)
+            .loadBalanceWeight(weight)
+            .timeoutSeconds(base.getTimeoutSeconds())
+            .temperature(base.getTemperature())
+            .maxTokens(Math.min(base.getMaxTokens(), model.getMaxOutputTokens()))
+            .maxRetries(base.getMaxRetries())
+            .retryDelayMs(base.getRetryDelayMs())
+            .executionMode(base.getExecutionMode())
+            .rateLimitEnabled(base.isRateLimitEnabled())
+            .maxTokensPerMinute(base.getMaxTokensPerMinute())
+            .rateLimitBufferRatio(base.getRateLimitBufferRatio())
+            .rateLimitStrategy(base.getRateLimitStrategy())
+            .build();
+    }
+
     /**
      * 根據 AI Provider 取得對應的 API Endpoint
      */
@@ -216,7 +408,8 @@ public class OwaspSensor implements Sensor {
         // 延遲初始化 AI 服務（只有在 AI 分析啟用時才建立）
         if (this.aiService == null) {
             try {
-                this.aiService = AiServiceFactory.createService(convertToAiConfig(config));
+                this.primaryConfig = convertToAiConfig(config);
+                this.aiService = createCascadeIfConfigured(primaryConfig, createPrimaryService(primaryConfig));
                 LOG.info("AI 服務初始化成功");
             } catch (IllegalStateException e) {
                 LOG.error("AI 配置無效，無法初始化 AI 服務: {}", e.getMessage());
@@ -226,7 +419,22 @@ public class OwaspSensor implements Sensor {
             }
         }
 
-        LOG.info("開始 OWASP AI 安全掃描 (OWASP 版本: {})", VersionManager.getCurrentVersion().getVersion());
+        String owaspVersion = VersionManager.getCurrentVersion().getVersion();
+        LOG.info("開始 OWASP AI 安全掃描 (OWASP 版本: {})", owaspVersion);
+
+        // 增量掃描：沿用上一次成功掃描中未變更檔案的結果
+        boolean incremental = sonarConfig.getBoolean(AiOwaspPlugin.PROPERTY_INCREMENTAL_SCAN).orElse(true);
+        ScanStateManifest previousState = null;
+        if (incremental) {
+            previousState = ScanStateStore.load(context)
+                .filter(manifest -> manifest.isCompatibleWith(ruleCatalog.getRulesetFingerprint(), owaspVersion, aiModelId))
+                .orElse(null);
+            LOG.info("增量掃描: {}", previousState != null
+                ? "沿用上次掃描狀態（" + previousState.getFiles().size() + " 個檔案）"
+                : "無可沿用的掃描狀態，執行完整掃描");
+        }
+        ScanStateManifest.Builder nextState =
+            ScanStateManifest.builder(ruleCatalog.getRulesetFingerprint(), owaspVersion, aiModelId, System.currentTimeMillis());
 
         FileSystem fileSystem = context.fileSystem();
 
@@ -244,73 +452,327 @@ public class OwaspSensor implements Sensor {
 
         LOG.info("專案包含 {} 種程式語言: {}", languageStats.size(), languageStats.keySet());
 
-        // 對每種語言執行掃描
+        // 依風險排序後在預算內進行 AI 分析
+        CostEstimator costEstimator = CostEstimator.getInstance();
+        AiProvider pricing = AiProvider.fromModelId(firstTierModelId);
+        AiProvider provider = pricing != null ? pricing : AiProvider.OPENAI_GPT4;
+        RiskScorer riskScorer = RiskScorer.builder()
+            .staticRules(STATIC_RISK_RULES)
+            .churn(loadChurn(fileSystem.baseDir().toPath()))
+            .previousState(previousState)
+            .build();
+        ScanScheduler<PendingFile> scheduler = new ScanScheduler<>();
+
+        // 對每種語言收集待分析檔案（未變更的檔案直接沿用上次結果）
         for (String language : languageStats.keySet()) {
             String repositoryKey = "owasp-" + language;
             LOG.info("開始掃描 {} 檔案 (共 {} 個檔案)", language, languageStats.get(language));
-            scanFiles(context, fileSystem, language, repositoryKey);
+            scanFiles(context, fileSystem, language, repositoryKey, previousState, nextState,
+                riskScorer, scheduler, costEstimator, provider);
         }
 
+        // 全域預算只在有設定時套用（預設不限制）
+        double globalMaxCost = sonarConfig.getDouble(AiOwaspPlugin.PROPERTY_BUDGET_GLOBAL_MAX_COST).orElse(0.0);
+        if (globalMaxCost > 0) {
+            costEstimator.setBudgetLimit(globalMaxCost);
+        }
+        ScanBudget budget = new ScanBudget(costEstimator, pricing,
+            sonarConfig.getLong(AiOwaspPlugin.PROPERTY_BUDGET_MAX_TOKENS).orElse(0L),
+            sonarConfig.getDouble(AiOwaspPlugin.PROPERTY_BUDGET_MAX_COST).orElse(0.0),
+            globalMaxCost > 0);
+        LOG.info("依風險順序分析 {} 個檔案", scheduler.size());
+        int[] issueCount = {0};
+        ScanScheduler.ScheduleReport report = scheduler.run(budget, (candidate, admission) ->
+            issueCount[0] += analyzeCandidate(context, candidate, admission, budget, nextState, costEstimator, provider));
+        LOG.info("AI 分析完成: {} 個檔案, {} 個安全問題, {} tokens, ${}", report.getProcessedCount(),
+            issueCount[0], report.getUsedTokens(), String.format("%.4f", report.getUsedCost()));
+        if (report.getDownshiftedCount() > 0) {
+            LOG.warn("成本額度不足，{} 個檔案改用較便宜的模型分析（下次掃描將以原模型重新分析）",
+                report.getDownshiftedCount());
+        }
+        logSkipped(report);
+        if (cascadeService != null) {
+            LOG.info("模型串接: 升級比例 {}%（信心不足 {} 次、初步檢測失敗 {} 次）",
+                String.format("%.1f", cascadeService.getEscalationRate() * 100),
+                cascadeService.getEscalationCount(CascadingAiService.Escalation.LOW_CONFIDENCE),
+                cascadeService.getEscalationCount(CascadingAiService.Escalation.FIRST_TIER_FAILED));
+            LOG.info("  初步檢測: {}", cascadeService.getFirstTierMetrics());
+            LOG.info("  升級分析: {}", cascadeService.getEscalationTierMetrics());
+        }
+
+        if (incremental) {
+            ScanStateStore.save(context, nextState.build());
+        }
         LOG.info("OWASP AI 安全掃描完成");
     }
 
     /**
      * 掃描指定語言的檔案
+     *
+     * 未變更的檔案直接沿用上次結果；其餘檔案計算風險分數與預估 token 數後加入排程器，
+     * 由 {@link ScanScheduler} 依優先順序在預算內分析。
+     *
+     * @param previousState 上一次成功掃描的狀態（null 表示完整掃描）
+     * @param nextState 本次掃描狀態（僅記錄分析成功的檔案，失敗或略過的檔案下次重新分析）
      */
-    private void scanFiles(SensorContext context, FileSystem fileSystem, String language, String repositoryKey) {
+    private void scanFiles(SensorContext context, FileSystem fileSystem, String language, String repositoryKey,
+                           ScanStateManifest previousState, ScanStateManifest.Builder nextState,
+                           RiskScorer riskScorer, ScanScheduler<PendingFile> scheduler,
+                           CostEstimator costEstimator, AiProvider provider) {
         Iterable<InputFile> files = fileSystem.inputFiles(
                 fileSystem.predicates().hasLanguage(language)
         );
 
         int fileCount = 0;
-        int issueCount = 0;
+        int replayedIssueCount = 0;
+        int unchangedCount = 0;
+        int pendingCount = 0;
+        Path baseDir = fileSystem.baseDir().toPath();
 
         for (InputFile file : files) {
             fileCount++;
             try {
-                List<SecurityIssue> issues = analyzeFile(file);
-                issueCount += reportIssues(context, file, issues, repositoryKey);
+                Path filePath = Path.of(file.uri());
+                String path = manifestPath(baseDir, filePath);
+                BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+                long size = attributes.size();
+                long lastModified = attributes.lastModifiedTime().toMillis();
+
+                ScanStateManifest.FileState unchanged = previousState == null ? null
+                    : previousState.findUnchanged(path, size, lastModified, file::md5Hash);
+                if (unchanged != null) {
+                    unchangedCount++;
+                    replayedIssueCount += replayIssues(context, file, unchanged.getIssues());
+                    nextState.put(path, unchanged);
+                    continue;
+                }
+
+                String content = new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8);
+                long rawInputTokens = costEstimator.countInputTokens(provider, content) + PROMPT_OVERHEAD_TOKENS;
+                scheduler.add(new PendingFile(file, path, repositoryKey, size, lastModified, rawInputTokens), path,
+                    riskScorer.score(filePath, path, language, content),
+                    costEstimator.calibrateEstimate(provider, rawInputTokens), EXPECTED_OUTPUT_TOKENS);
+                pendingCount++;
             } catch (Exception e) {
                 LOG.error("分析檔案時發生錯誤: {}", file.uri(), e);
             }
         }
 
-        LOG.info("掃描 {} 語言: {} 個檔案, {} 個安全問題", language, fileCount, issueCount);
+        LOG.info("掃描 {} 語言: {} 個檔案（{} 個未變更沿用上次結果，{} 個問題）, {} 個待 AI 分析",
+            language, fileCount, unchangedCount, replayedIssueCount, pendingCount);
+    }
+
+    /**
+     * 分析排程器選出的檔案並回報問題
+     *
+     * 預留結果為降級時改以較便宜的模型直接分析（不經模型串接），結果不寫入掃描狀態，
+     * 使下次掃描以原模型重新分析。
+     *
+     * @return 回報的問題數
+     */
+    private int analyzeCandidate(SensorContext context, ScanScheduler.Candidate<PendingFile> candidate,
+                                 ScanBudget.Admission admission, ScanBudget budget,
+                                 ScanStateManifest.Builder nextState, CostEstimator costEstimator,
+                                 AiProvider provider) {
+        PendingFile pending = candidate.getItem();
+        InputFile file = pending.file;
+        try {
+            AiRequest request = buildRequest(file);
+            AiResponse response;
+            try {
+                if (admission.isDownshifted()) {
+                    AiService downshifted = downshiftService(admission.getProvider());
+                    if (downshifted == null) {
+                        LOG.warn("無法改用 {} 分析 {}，略過", admission.getProvider().getModelId(), pending.path);
+                        budget.settle(admission.getProvider(), candidate.getEstimatedInputTokens(),
+                            candidate.getEstimatedOutputTokens(), 0, 0);
+                        return 0;
+                    }
+                    LOG.info("成本額度不足，{} 改用 {} 分析", pending.path, admission.getProvider().getModelId());
+                    response = downshifted.analyzeCode(request);
+                    settleUsage(candidate, budget, costEstimator, admission.getProvider(),
+                        admission.getProvider(), response);
+                } else if (cascadeService != null) {
+                    CascadingAiService.CascadeResult result = cascadeService.analyze(request);
+                    settleUsage(candidate, budget, costEstimator, admission.getProvider(), provider,
+                        result.getFirstTierResponse());
+                    AiResponse escalated = result.getEscalationResponse();
+                    if (escalated != null) {
+                        // 升級呼叫不在預留額度內，以主要模型價格追加記錄
+                        AiProvider escalationPricing = AiProvider.fromModelId(primaryModelId);
+                        costEstimator.recordResponse(
+                            escalationPricing != null ? escalationPricing : AiProvider.OPENAI_GPT4, escalated);
+                        budget.charge(escalationPricing, inputTokensOf(escalated), escalated.getOutputTokens());
+                    }
+                    response = result.getResponse();
+                } else {
+                    response = aiService.analyzeCode(request);
+                    settleUsage(candidate, budget, costEstimator, admission.getProvider(), provider, response);
+                }
+            } catch (com.github.sonarqube.ai.AiException e) {
+                // 失敗的呼叫仍保留預留額度（實際用量未知）
+                LOG.error("AI 分析發生異常: {} - {}", file.uri(), e.getMessage());
+                return 0;
+            }
+            if (response == null || !response.isSuccess()) {
+                LOG.warn("AI 分析失敗: {}", file.uri());
+                return 0;
+            }
+
+            List<ScanStateManifest.RecordedIssue> recorded = new ArrayList<>();
+            int count = reportIssues(context, file, response.getIssues(), pending.repositoryKey, recorded);
+            if (!admission.isDownshifted()) {
+                nextState.put(pending.path,
+                    new ScanStateManifest.FileState(pending.size, pending.lastModified, file.md5Hash(), recorded));
+            }
+            return count;
+        } catch (Exception e) {
+            LOG.error("分析檔案時發生錯誤: {}", file.uri(), e);
+            return 0;
+        }
     }
 
     /**
-     * 使用 AI 分析單一檔案
+     * 記錄預留額度內呼叫的實際用量（並以實際輸入 token 數校正估算）
+     *
+     * @param admittedProvider 預留時決定的價格等級（未知模型為 null）
+     * @param provider 記錄成本用的價格等級
+     */
+    private static void settleUsage(ScanScheduler.Candidate<PendingFile> candidate, ScanBudget budget,
+                                    CostEstimator costEstimator, AiProvider admittedProvider, AiProvider provider,
+                                    AiResponse response) {
+        if (response == null) {
+            return;
+        }
+        costEstimator.recordResponse(provider, response, candidate.getItem().rawInputTokens);
+        budget.settle(admittedProvider, candidate.getEstimatedInputTokens(), candidate.getEstimatedOutputTokens(),
+            inputTokensOf(response), response.getOutputTokens());
+    }
+
+    /**
+     * 取得降級價格等級對應模型的服務（同一 Provider 並沿用主要模型的連線參數；無對應模型時回傳 null）
+     */
+    private AiService downshiftService(AiProvider tier) {
+        return downshiftServices.computeIfAbsent(tier, key -> {
+            AiModel model = AiModel.fromModelId(key.getModelId());
+            if (model == null || primaryConfig == null
+                || !model.getProvider().equals(primaryConfig.getModel().getProvider())) {
+                return null;
+            }
+            return AiServiceFactory.createService(withModel(primaryConfig, model));
+        });
+    }
+
+    /**
+     * 回應的輸入 token 數（未回報明細時以總數計）
+     */
+    private static long inputTokensOf(AiResponse response) {
+        return response.getInputTokens() > 0 || response.getOutputTokens() > 0
+            ? response.getInputTokens() : response.getTokensUsed();
+    }
+
+    /**
+     * 記錄因預算不足而略過的檔案（依風險順序）
+     */
+    private void logSkipped(ScanScheduler.ScheduleReport report) {
+        List<ScanScheduler.Skipped> skipped = report.getSkipped();
+        if (skipped.isEmpty()) {
+            return;
+        }
+        LOG.warn("預算不足，略過 {} 個檔案的 AI 分析（下次掃描將重新分析）", skipped.size());
+        int shown = 0;
+        for (ScanScheduler.Skipped entry : skipped) {
+            if (shown++ < MAX_LOGGED_SKIPPED_FILES) {
+                LOG.info("  略過 {}（風險 {}，約 {} tokens）: {}", entry.getPath(),
+                    String.format("%.2f", entry.getRisk().getValue()), entry.getEstimatedTokens(),
+                    entry.getReason().getDescription());
+            } else {
+                LOG.debug("  略過 {}（風險 {}，約 {} tokens）: {}", entry.getPath(),
+                    String.format("%.2f", entry.getRisk().getValue()), entry.getEstimatedTokens(),
+                    entry.getReason().getDescription());
+            }
+        }
+    }
+
+    /**
+     * 讀取 Git 近期變更行數（作為風險訊號；非 Git 專案或讀取失敗時回傳空表）
+     */
+    private static Map<Path, Integer> loadChurn(Path baseDir) {
+        try {
+            Optional<GitRepository> opened = GitRepository.open(baseDir);
+            if (!opened.isPresent()) {
+                return Collections.emptyMap();
+            }
+            try (GitRepository repository = opened.get()) {
+                List<GitChange> changes;
+                try {
+                    changes = repository.diffWorkingTree("HEAD~" + CHURN_HISTORY_COMMITS, true);
+                } catch (IOException e) {
+                    // 歷史不足時只計算未提交的變更
+                    changes = repository.diffWorkingTree("HEAD", true);
+                }
+                Map<Path, Integer> churn = new HashMap<>();
+                for (GitChange change : changes) {
+                    churn.merge(repository.getWorkTree().resolve(change.getPath()).normalize(),
+                        change.getAddedLines() + change.getDeletedLines(), Integer::sum);
+                }
+                return churn;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("無法讀取 Git 變更量，風險評分不含變更量: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 掃描狀態中的檔案鍵：相對於專案根目錄、以 / 分隔的路徑
+     */
+    static String manifestPath(Path baseDir, Path file) {
+        return baseDir.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * 重新回報未變更檔案在上一次掃描中的問題
+     */
+    private int replayIssues(SensorContext context, InputFile file, List<ScanStateManifest.RecordedIssue> issues) {
+        int count = 0;
+        for (ScanStateManifest.RecordedIssue issue : issues) {
+            try {
+                NewIssue newIssue = context.newIssue();
+                newIssue.forRule(RuleKey.parse(issue.getRuleKey()));
+                NewIssueLocation location = newIssue.newLocation()
+                        .on(file)
+                        .message(issue.getMessage());
+                if (issue.getLine() > 0 && issue.getLine() <= file.lines()) {
+                    location.at(file.selectLine(issue.getLine()));
+                }
+                newIssue.at(location);
+                newIssue.save();
+                count++;
+            } catch (Exception e) {
+                LOG.error("重新回報問題時發生錯誤: {}", file.uri(), e);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 建立單一檔案的 AI 分析請求
      *
      * 注意：掃描時使用「detection」模式，只檢測問題不生成修復建議，以節省 Token。
      * 詳細的修復建議可透過 Web API 按需取得（/api/aiowasp/suggest）。
      */
-    private List<SecurityIssue> analyzeFile(InputFile file) throws IOException {
+    private AiRequest buildRequest(InputFile file) throws IOException {
         // 讀取檔案內容
         String content = new String(Files.readAllBytes(file.path()), StandardCharsets.UTF_8);
 
         // 建立 AI 請求（使用 "detection" 模式，只檢測問題不生成建議）
-        AiRequest request = AiRequest.builder(content)
+        return AiRequest.builder(content)
                 .language(file.language())
                 .fileName(file.filename())
                 .analysisType("detection")  // 使用檢測模式，節省 Token
                 .owaspVersion(VersionManager.getCurrentVersion().getVersion())
                 .build();
-
-        try {
-            // 呼叫 AI 分析
-            AiResponse response = aiService.analyzeCode(request);
-
-            if (response == null || !response.isSuccess()) {
-                LOG.warn("AI 分析失敗: {}", file.uri());
-                return List.of();
-            }
-
-            // 解析安全問題 (正確的方法名是 getIssues)
-            return response.getIssues();
-        } catch (com.github.sonarqube.ai.AiException e) {
-            LOG.error("AI 分析發生異常: {} - {}", file.uri(), e.getMessage());
-            return List.of();
-        }
     }
 
     /**
@@ -319,14 +781,20 @@ public class OwaspSensor implements Sensor {
      * Story 10.2: 修改為保留完整 AI 增強資訊
      *
      * 註：由於 SonarQube API 限制，AI 資訊透過增強訊息格式傳遞
+     *
+     * @param recorded 已回報問題的紀錄（寫入掃描狀態清單，供下次掃描沿用）
      */
-    private int reportIssues(SensorContext context, InputFile file, List<SecurityIssue> issues, String repositoryKey) {
+    private int reportIssues(SensorContext context, InputFile file, List<SecurityIssue> issues, String repositoryKey,
+                             List<ScanStateManifest.RecordedIssue> recorded) {
         int count = 0;
+        RuleLookupTable rules = ruleCatalog.getLookupTable();
+        int totalLines = -1; // 第一次需要驗證行號時才讀取
+        Map<RuleDefinition, RuleKey> ruleKeys = new HashMap<>();
 
         for (SecurityIssue issue : issues) {
             try {
                 // 根據 OWASP 分類和 CWE ID 找到對應的規則
-                RuleDefinition rule = findMatchingRule(issue);
+                RuleDefinition rule = rules.find(issue.getCweId(), issue.getOwaspCategory());
 
                 if (rule == null) {
                     LOG.debug("找不到對應規則: OWASP={}, CWE={}", issue.getOwaspCategory(), issue.getCweId());
@@ -335,7 +803,8 @@ public class OwaspSensor implements Sensor {
 
                 // 建立問題
                 NewIssue newIssue = context.newIssue();
-                newIssue.forRule(RuleKey.of(repositoryKey, rule.getRuleKey()));
+                RuleKey ruleKey = ruleKeys.computeIfAbsent(rule, r -> RuleKey.of(repositoryKey, r.getRuleKey()));
+                newIssue.forRule(ruleKey);
 
                 // 使用增強訊息格式（包含完整 AI 資訊）
                 String message = buildEnhancedMessage(issue, rule);
@@ -346,14 +815,18 @@ public class OwaspSensor implements Sensor {
                         .message(message);
 
                 // 如果有行號，設定行號（需驗證行號有效性）
+                int reportedLine = 0;
                 if (issue.getLineNumber() != null && issue.getLineNumber() > 0) {
                     int lineNumber = issue.getLineNumber();
-                    int totalLines = file.lines();
+                    if (totalLines < 0) {
+                        totalLines = file.lines();
+                    }
 
                     // 驗證行號是否在有效範圍內
                     if (lineNumber <= totalLines) {
                         // 行號有效，設定具體行位置
                         location.at(file.selectLine(lineNumber));
+                        reportedLine = lineNumber;
                     } else {
                         // 行號無效，記錄警告並降級為檔案級別問題
                         LOG.warn("AI 回應的行號 {} 超過檔案 {} 的總行數 {}，將使用檔案級別問題",
@@ -364,6 +837,7 @@ public class OwaspSensor implements Sensor {
 
                 newIssue.at(location);
                 newIssue.save();
+                recorded.add(new ScanStateManifest.RecordedIssue(ruleKey.toString(), reportedLine, message));
 
                 count++;
             } catch (Exception e) {
@@ -392,78 +866,27 @@ public class OwaspSensor implements Sensor {
         return hasAiEnhancement ? buildLegacyIssueMessage(issue, rule) : buildIssueMessage(issue, rule);
     }
 
-    /**
-     * 根據 SecurityIssue 找到對應的規則
-     */
-    private RuleDefinition findMatchingRule(SecurityIssue issue) {
-        // 優先用 CWE ID 匹配
-        if (issue.getCweId() != null && !issue.getCweId().isEmpty()) {
-            String cweId = normalizeCweId(issue.getCweId());
-            for (RuleDefinition rule : ruleMap.values()) {
-                if (rule.getCweIds() != null && rule.getCweIds().contains(cweId)) {
-                    return rule;
-                }
-            }
-        }
-
-        // 如果沒有 CWE，用 OWASP 分類匹配
-        if (issue.getOwaspCategory() != null && !issue.getOwaspCategory().isEmpty()) {
-            for (RuleDefinition rule : ruleMap.values()) {
-                if (matchesOwaspCategory(rule, issue.getOwaspCategory())) {
-                    return rule;
-                }
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * 檢查規則是否匹配 OWASP 分類
-     */
-    private boolean matchesOwaspCategory(RuleDefinition rule, String owaspCategory) {
-        if (rule.getOwaspCategory() == null) {
-            return false;
-        }
-
-        String ruleCategoryId = rule.getOwaspCategory().getCategoryId();
-        String issueCategory = owaspCategory.toUpperCase();
-
-        // 移除年份部分進行比較 (A01:2021 → A01)
-        String ruleCategoryPrefix = ruleCategoryId.split(":")[0];
-        String issueCategoryPrefix = issueCategory.split(":")[0];
-
-        return ruleCategoryPrefix.equals(issueCategoryPrefix);
-    }
-
-    /**
-     * 標準化 CWE ID
-     */
-    private String normalizeCweId(String cweId) {
-        if (cweId == null) {
-            return "";
-        }
-        String normalized = cweId.toUpperCase().trim();
-        if (!normalized.startsWith("CWE-")) {
-            normalized = "CWE-" + normalized;
-        }
-        return normalized;
-    }
-
     /**
      * 建立問題訊息（舊版本，保留用於降級模式）
      */
     private String buildIssueMessage(SecurityIssue issue, RuleDefinition rule) {
-        StringBuilder message = new StringBuilder();
+        String description = nonEmpty(issue.getDescription());
+        String suggestion = nonEmpty(issue.getFixSuggestion());
+        if (description == null && suggestion == null) {
+            return rule.getName();
+        }
 
+        StringBuilder message = new StringBuilder(rule.getName().length()
+            + (description != null ? description.length() + 2 : 0)
+            + (suggestion != null ? suggestion.length() + SUGGESTION_PREFIX.length() + 1 : 0));
         message.append(rule.getName());
 
-        if (issue.getDescription() != null && !issue.getDescription().isEmpty()) {
-            message.append(": ").append(issue.getDescription());
+        if (description != null) {
+            message.append(": ").append(description);
         }
 
-        if (issue.getFixSuggestion() != null && !issue.getFixSuggestion().isEmpty()) {
-            message.append(" (建議: ").append(issue.getFixSuggestion()).append(")");
+        if (suggestion != null) {
+            message.append(SUGGESTION_PREFIX).append(suggestion).append(')');
         }
 
         return message.toString();
@@ -488,27 +911,33 @@ public class OwaspSensor implements Sensor {
 
         // 修復建議
         if (issue.getFixSuggestion() != null && !issue.getFixSuggestion().isEmpty()) {
-            message.append("\n\n建議: ").append(issue.getFixSuggestion());
+            message.append(LEGACY_SUGGESTION_PREFIX).append(issue.getFixSuggestion());
         }
 
         // 程式碼範例（如果有）
         if (issue.getCodeExample() != null) {
             if (issue.getCodeExample().getBefore() != null && !issue.getCodeExample().getBefore().isEmpty()) {
-                message.append("\n\n程式碼範例（修復前）:\n").append(truncate(issue.getCodeExample().getBefore(), 1000));
+                message.append(LEGACY_BEFORE_PREFIX)
+                    .append(truncate(issue.getCodeExample().getBefore(), MAX_CODE_EXAMPLE_LENGTH));
             }
             if (issue.getCodeExample().getAfter() != null && !issue.getCodeExample().getAfter().isEmpty()) {
-                message.append("\n\n程式碼範例（修復後）:\n").append(truncate(issue.getCodeExample().getAfter(), 1000));
+                message.append(LEGACY_AFTER_PREFIX)
+                    .append(truncate(issue.getCodeExample().getAfter(), MAX_CODE_EXAMPLE_LENGTH));
             }
         }
 
         // 工作量評估
         if (issue.getEffortEstimate() != null && !issue.getEffortEstimate().isEmpty()) {
-            message.append("\n\n工作量評估: ").append(issue.getEffortEstimate());
+            message.append(LEGACY_EFFORT_PREFIX).append(issue.getEffortEstimate());
         }
 
         return message.toString();
     }
 
+    private static String nonEmpty(String text) {
+        return text != null && !text.isEmpty() ? text : null;
+    }
+
     /**
      * 截斷字串至指定長度
      *
@@ -529,18 +958,24 @@ public class OwaspSensor implements Sensor {
     }
 
     /**
-     * 建立規則映射表
+     * 等待 AI 分析的檔案（內容不保留於記憶體，分析時重新讀取）
      */
-    private Map<String, RuleDefinition> buildRuleMap() {
-        List<RuleDefinition> allRules = List.of();
-
-        // 合併 Java 和 JavaScript 規則
-        return Stream.concat(
-                JavaSecurityRules.getAllRules().stream(),
-                JavaScriptSecurityRules.getAllRules().stream()
-        ).collect(Collectors.toMap(
-                RuleDefinition::getRuleKey,
-                rule -> rule
-        ));
+    private static final class PendingFile {
+        private final InputFile file;
+        private final String path;
+        private final String repositoryKey;
+        private final long size;
+        private final long lastModified;
+        private final long rawInputTokens;
+
+        PendingFile(InputFile file, String path, String repositoryKey, long size, long lastModified,
+                    long rawInputTokens) {
+            this.file = file;
+            this.path = path;
+            this.repositoryKey = repositoryKey;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.rawInputTokens = rawInputTokens;
+        }
     }
 }
@@ -2,6 +2,7 @@ package com.github.sonarqube.plugin.api;
 
 import com.github.sonarqube.rules.OwaspVersionManager;
 import com.github.sonarqube.rules.OwaspVersionMappingService;
+import com.github.sonarqube.rules.RuleCatalog;
 import com.github.sonarqube.rules.RuleRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +45,7 @@ public class OwaspVersionApiController implements WebService {
      */
     public OwaspVersionApiController(RuleRegistry ruleRegistry) {
         this.versionManager = new OwaspVersionManager(ruleRegistry);
-        this.mappingService = new OwaspVersionMappingService();
+        this.mappingService = RuleCatalog.getInstance().getVersionMappings();
     }
 
     @Override
@@ -1,24 +1,26 @@
 package com.github.sonarqube.plugin.api;
 
+import com.github.sonarqube.plugin.cache.ReportResultCache;
 import com.github.sonarqube.plugin.service.SonarQubeDataService;
 import com.github.sonarqube.plugin.settings.PdfReportSettings;
+import com.github.sonarqube.plugin.util.ContentEncodingNegotiator;
 import com.github.sonarqube.report.ReportGenerator;
 import com.github.sonarqube.report.html.HtmlReportGenerator;
 import com.github.sonarqube.report.json.JsonReportGenerator;
 import com.github.sonarqube.report.markdown.MarkdownReportGenerator;
 import com.github.sonarqube.report.model.AnalysisReport;
-import com.github.sonarqube.report.model.ReportSummary;
-import com.github.sonarqube.report.model.SecurityFinding;
 import com.github.sonarqube.report.pdf.PdfReportGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.server.ws.*;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.List;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * OWASP Report Export API Controller
@@ -32,9 +34,14 @@ import java.util.List;
  *   <li>pdf - 企業級 PDF 報表（iText 7, PDF/A-1b 合規）</li>
  *   <li>html - 響應式 HTML 報表（含互動式圖表）</li>
  *   <li>json - 結構化 JSON 報表（API 整合用）</li>
+ *   <li>ndjson - 每行一個 finding 的 JSON Lines（資料匯入用）</li>
  *   <li>markdown - Markdown 文字報表（易讀易編輯）</li>
  * </ul>
  *
+ * <p>文字格式依 {@code Accept-Encoding} 協商 gzip/deflate 壓縮；PDF 本身已壓縮，不再重複壓縮。</p>
+ *
+ * <p>生成的報告存入 {@link ReportResultCache}，專案未重新分析前重複匯出直接傳送快取檔。</p>
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.0.0 (Story 1.6, 5.2, 5.3, 5.5)
  */
@@ -50,9 +57,11 @@ public class PdfReportApiController implements WebService {
 
     private final Configuration configuration;
     private final SonarQubeDataService dataService;
+    private final ReportResultCache reportCache;
     private final PdfReportGenerator pdfReportGenerator;
     private final HtmlReportGenerator htmlReportGenerator;
     private final JsonReportGenerator jsonReportGenerator;
+    private final JsonReportGenerator ndjsonReportGenerator;
     private final MarkdownReportGenerator markdownReportGenerator;
 
     /**
@@ -60,13 +69,17 @@ public class PdfReportApiController implements WebService {
      *
      * @param configuration SonarQube configuration
      * @param dataService SonarQube 數據查詢服務
+     * @param reportCache 報告結果快取
      */
-    public PdfReportApiController(Configuration configuration, SonarQubeDataService dataService) {
+    public PdfReportApiController(Configuration configuration, SonarQubeDataService dataService,
+                                  ReportResultCache reportCache) {
         this.configuration = configuration;
         this.dataService = dataService;
+        this.reportCache = reportCache;
         this.pdfReportGenerator = new PdfReportGenerator();
         this.htmlReportGenerator = new HtmlReportGenerator();
         this.jsonReportGenerator = new JsonReportGenerator();
+        this.ndjsonReportGenerator = JsonReportGenerator.ndjson();
         this.markdownReportGenerator = new MarkdownReportGenerator();
     }
 
@@ -85,9 +98,9 @@ public class PdfReportApiController implements WebService {
 
         // Define parameters
         exportAction.createParam(PARAM_FORMAT)
-                .setDescription("Report format (pdf, html, json, or markdown)")
+                .setDescription("Report format (pdf, html, json, ndjson, or markdown)")
                 .setRequired(true)
-                .setPossibleValues("pdf", "html", "json", "markdown")
+                .setPossibleValues("pdf", "html", "json", "ndjson", "markdown")
                 .setExampleValue("pdf");
 
         exportAction.createParam(PARAM_PROJECT)
@@ -133,22 +146,39 @@ public class PdfReportApiController implements WebService {
                 case "json":
                     exportJsonReport(request, response, projectKey, owaspVersion);
                     break;
+                case "ndjson":
+                    exportNdjsonReport(request, response, projectKey, owaspVersion);
+                    break;
                 case "markdown":
                     exportMarkdownReport(request, response, projectKey, owaspVersion);
                     break;
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
             }
+        } catch (ResponseCommittedException e) {
+            // 報告已部分送出，狀態碼與標頭無法再變更：不附加錯誤內容，交由 SonarQube 中止回應
+            LOG.error("Failed to export report after streaming started: format={}, project={}",
+                    format, projectKey, e.getCause());
+            throw e;
         } catch (Exception e) {
             LOG.error("Failed to export report: format={}, project={}", format, projectKey, e);
+            writeError(response, e);
+        }
+    }
+
+    /**
+     * 寫出 JSON 錯誤回應（僅在尚未送出任何報告內容時呼叫）
+     */
+    private static void writeError(Response response, Exception e) {
+        try {
+            response.stream().setMediaType("application/json");
             response.stream().setStatus(500);
-            try {
-                response.stream().output().write(
-                        String.format("{\"error\": \"Failed to export report: %s\"}", e.getMessage()).getBytes()
-                );
-            } catch (IOException ioException) {
-                LOG.error("Failed to write error response", ioException);
-            }
+            String message = String.valueOf(e.getMessage()).replace("\\", "\\\\").replace("\"", "\\\"");
+            response.stream().output().write(
+                    String.format("{\"error\": \"Failed to export report: %s\"}", message)
+                            .getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ioException) {
+            LOG.error("Failed to write error response", ioException);
         }
     }
 
@@ -158,44 +188,17 @@ public class PdfReportApiController implements WebService {
      * @param request    Web service request
      * @param response   Web service response
      * @param projectKey Project key
-     * @throws IOException If file operations fail
+     * @throws IOException If PDF generation or writing fails
      */
     private void exportPdfReport(Request request, Response response, String projectKey, String owaspVersion) throws IOException {
         LOG.info("Generating PDF report for project: {} (OWASP {})", projectKey, owaspVersion);
 
-        // 從 SonarQube 查詢實際的安全問題數據
-        AnalysisReport report = createReportFromSonarQubeData(projectKey, owaspVersion);
-
         // Apply configuration settings
         applyConfigurationToGenerator();
 
-        // Generate PDF
-        String pdfPath = pdfReportGenerator.generate(report);
-        File pdfFile = new File(pdfPath);
-
-        if (!pdfFile.exists()) {
-            throw new IOException("PDF file not found: " + pdfPath);
-        }
-
-        LOG.info("PDF report generated successfully: {}", pdfPath);
-
-        // Set response headers
+        // PDF 直接寫入回應（未命中快取時同時寫入快取檔）
         String filename = String.format("owasp-security-report-%s.pdf", projectKey.replace(":", "-"));
-        response.stream().setMediaType("application/pdf");
-        response.stream().setStatus(200);
-
-        // Write PDF file to response
-        byte[] pdfBytes = Files.readAllBytes(pdfFile.toPath());
-        response.stream().output().write(pdfBytes);
-
-        LOG.info("PDF report sent to client: {} ({} bytes)", filename, pdfBytes.length);
-
-        // Clean up temporary file
-        if (pdfFile.delete()) {
-            LOG.debug("Temporary PDF file deleted: {}", pdfPath);
-        } else {
-            LOG.warn("Failed to delete temporary PDF file: {}", pdfPath);
-        }
+        exportReport(request, response, projectKey, owaspVersion, pdfReportGenerator, "application/pdf", filename, false);
     }
 
     /**
@@ -204,26 +207,13 @@ public class PdfReportApiController implements WebService {
      * @param request    Web service request
      * @param response   Web service response
      * @param projectKey Project key
-     * @throws IOException If file operations fail
+     * @throws IOException If writing fails
      */
     private void exportHtmlReport(Request request, Response response, String projectKey, String owaspVersion) throws IOException {
         LOG.info("Generating HTML report for project: {} (OWASP {})", projectKey, owaspVersion);
 
-        // 從 SonarQube 查詢實際的安全問題數據
-        AnalysisReport report = createReportFromSonarQubeData(projectKey, owaspVersion);
-
-        // Generate HTML
-        String htmlContent = htmlReportGenerator.generate(report);
-
-        // Set response headers
         String filename = String.format("owasp-security-report-%s.html", projectKey.replace(":", "-"));
-        response.stream().setMediaType("text/html");
-        response.stream().setStatus(200);
-
-        // Write HTML content to response
-        response.stream().output().write(htmlContent.getBytes("UTF-8"));
-
-        LOG.info("HTML report sent to client: {} ({} bytes)", filename, htmlContent.length());
+        exportReport(request, response, projectKey, owaspVersion, htmlReportGenerator, "text/html", filename, true);
     }
 
     /**
@@ -232,26 +222,28 @@ public class PdfReportApiController implements WebService {
      * @param request    Web service request
      * @param response   Web service response
      * @param projectKey Project key
-     * @throws IOException If file operations fail
+     * @throws IOException If writing fails
      */
     private void exportJsonReport(Request request, Response response, String projectKey, String owaspVersion) throws IOException {
         LOG.info("Generating JSON report for project: {} (OWASP {})", projectKey, owaspVersion);
 
-        // 從 SonarQube 查詢實際的安全問題數據
-        AnalysisReport report = createReportFromSonarQubeData(projectKey, owaspVersion);
-
-        // Generate JSON
-        String jsonContent = jsonReportGenerator.generate(report);
-
-        // Set response headers
         String filename = String.format("owasp-security-report-%s.json", projectKey.replace(":", "-"));
-        response.stream().setMediaType("application/json");
-        response.stream().setStatus(200);
+        exportReport(request, response, projectKey, owaspVersion, jsonReportGenerator, "application/json", filename, true);
+    }
 
-        // Write JSON content to response
-        response.stream().output().write(jsonContent.getBytes("UTF-8"));
+    /**
+     * Export NDJSON report (one finding per line)
+     *
+     * @param request    Web service request
+     * @param response   Web service response
+     * @param projectKey Project key
+     * @throws IOException If writing fails
+     */
+    private void exportNdjsonReport(Request request, Response response, String projectKey, String owaspVersion) throws IOException {
+        LOG.info("Generating NDJSON report for project: {} (OWASP {})", projectKey, owaspVersion);
 
-        LOG.info("JSON report sent to client: {} ({} bytes)", filename, jsonContent.length());
+        String filename = String.format("owasp-security-report-%s.ndjson", projectKey.replace(":", "-"));
+        exportReport(request, response, projectKey, owaspVersion, ndjsonReportGenerator, "application/x-ndjson", filename, true);
     }
 
     /**
@@ -260,26 +252,221 @@ public class PdfReportApiController implements WebService {
      * @param request    Web service request
      * @param response   Web service response
      * @param projectKey Project key
-     * @throws IOException If file operations fail
+     * @throws IOException If writing fails
      */
     private void exportMarkdownReport(Request request, Response response, String projectKey, String owaspVersion) throws IOException {
         LOG.info("Generating Markdown report for project: {} (OWASP {})", projectKey, owaspVersion);
 
+        String filename = String.format("owasp-security-report-%s.md", projectKey.replace(":", "-"));
+        exportReport(request, response, projectKey, owaspVersion, markdownReportGenerator, "text/markdown", filename, true);
+    }
+
+    /**
+     * 匯出報告：命中快取時直接傳送快取檔，否則查詢 SonarQube 生成報告
+     *
+     * <p>快取鍵包含專案最新分析 ID，專案重新分析後自動改為重新生成；
+     * 無法取得分析 ID（例如尚未分析）時不使用快取。</p>
+     *
+     * @param request      Web service request
+     * @param response     Web service response
+     * @param projectKey   Project key
+     * @param owaspVersion OWASP 版本
+     * @param generator    報告生成器
+     * @param mediaType    回應 Content-Type
+     * @param filename     報告檔名（僅用於日誌）
+     * @param compressible 是否允許壓縮傳輸
+     * @throws IOException If generation or writing fails
+     */
+    private void exportReport(Request request, Response response, String projectKey, String owaspVersion,
+                              ReportGenerator generator, String mediaType, String filename,
+                              boolean compressible) throws IOException {
+        ReportResultCache.Key cacheKey = createCacheKey(projectKey, owaspVersion, generator.getFormat());
+        if (cacheKey != null) {
+            Optional<InputStream> cached = reportCache.open(cacheKey);
+            if (cached.isPresent()) {
+                try (InputStream input = cached.get()) {
+                    streamReport(request, response, generator.getFormat(), mediaType, filename, compressible,
+                            input::transferTo);
+                }
+                return;
+            }
+        }
+
         // 從 SonarQube 查詢實際的安全問題數據
-        AnalysisReport report = createReportFromSonarQubeData(projectKey, owaspVersion);
+        AnalysisReport report = dataService.createReport(projectKey, owaspVersion);
 
-        // Generate Markdown
-        String markdownContent = markdownReportGenerator.generate(report);
+        if (cacheKey == null) {
+            streamReport(request, response, generator.getFormat(), mediaType, filename, compressible,
+                    output -> generator.generate(report, output));
+            return;
+        }
 
-        // Set response headers
-        String filename = String.format("owasp-security-report-%s.md", projectKey.replace(":", "-"));
-        response.stream().setMediaType("text/markdown");
-        response.stream().setStatus(200);
+        // 邊生成邊寫入快取，成功完成才發布為快取項目
+        try (ReportResultCache.PendingEntry entry = reportCache.begin(cacheKey)) {
+            streamReport(request, response, generator.getFormat(), mediaType, filename, compressible,
+                    output -> generator.generate(report, entry.tee(output)));
+            entry.commit();
+        }
+    }
 
-        // Write Markdown content to response
-        response.stream().output().write(markdownContent.getBytes("UTF-8"));
+    /**
+     * 建立報告快取鍵
+     *
+     * <p>在查詢報告資料之前取得鍵值，生成期間發生的 Issue 變更只會讓下一次匯出重新生成，不會被舊鍵遮蔽。</p>
+     *
+     * @return 快取鍵；快取停用或無法取得最新分析 ID / Issue 更新時間時為 null
+     */
+    private ReportResultCache.Key createCacheKey(String projectKey, String owaspVersion, String format) {
+        if (!reportCache.isEnabled()) {
+            return null;
+        }
+        Optional<String> analysisId = dataService.getLatestAnalysisId(projectKey);
+        if (analysisId.isEmpty()) {
+            return null;
+        }
+        return dataService.getLatestIssueUpdate(projectKey)
+                .map(issuesUpdatedAt -> new ReportResultCache.Key(projectKey, analysisId.get(), issuesUpdatedAt,
+                        owaspVersion, format, ReportResultCache.configurationHash(configuration)))
+                .orElse(null);
+    }
+
+    /**
+     * 將報告內容直接串流寫入回應輸出流
+     *
+     * <p>報告不會先完整組裝為字串或位元組陣列，記憶體用量與報告大小無關。
+     * 可壓縮格式依用戶端 Accept-Encoding 協商 Content-Encoding。</p>
+     *
+     * <p>狀態碼、Content-Type 與 Content-Encoding 延到第一個位元組寫出時才設定（壓縮標頭也在那時寫出），
+     * 生成在此之前失敗時仍可回傳一般錯誤回應；之後才失敗則拋出 {@link ResponseCommittedException}，
+     * 且不寫出壓縮尾端資料，用戶端會看到不完整的回應而非看似成功的內容。</p>
+     *
+     * @param request      Web service request
+     * @param response     Web service response
+     * @param format       報告格式（僅用於日誌）
+     * @param mediaType    回應 Content-Type
+     * @param filename     報告檔名（僅用於日誌）
+     * @param compressible 是否允許壓縮傳輸
+     * @param body         寫入報告內容（未壓縮）
+     * @throws IOException If writing fails
+     */
+    private void streamReport(Request request, Response response, String format, String mediaType, String filename,
+                              boolean compressible, ReportBody body) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        String encoding = compressible
+                ? ContentEncodingNegotiator.negotiate(request.header("Accept-Encoding").orElse(null))
+                : null;
+
+        DeferredResponseOutput output = new DeferredResponseOutput(response, mediaType, compressible, encoding);
+        try {
+            body.writeTo(output);
+        } catch (IOException | RuntimeException e) {
+            if (output.isStarted()) {
+                throw new ResponseCommittedException(e);
+            }
+            throw e;
+        }
+        output.finish();
 
-        LOG.info("Markdown report sent to client: {} ({} bytes)", filename, markdownContent.length());
+        LOG.info("{} report streamed to client: {} (encoding={}, {}ms)",
+                format, filename, encoding != null ? encoding : "identity",
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 報告內容寫入函式（生成器輸出或快取檔）
+     */
+    @FunctionalInterface
+    private interface ReportBody {
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    /**
+     * 延遲送出回應標頭的輸出流
+     *
+     * <p>第一次寫入（或 {@link #finish()}）時才設定狀態碼與標頭並建立壓縮串流，
+     * 在此之前回應仍未送出，可改為錯誤回應。</p>
+     */
+    static final class DeferredResponseOutput extends OutputStream {
+        private final Response response;
+        private final String mediaType;
+        private final boolean compressible;
+        private final String encoding;
+        private OutputStream target;
+        private DeflaterOutputStream compressed;
+
+        DeferredResponseOutput(Response response, String mediaType, boolean compressible, String encoding) {
+            this.response = response;
+            this.mediaType = mediaType;
+            this.compressible = compressible;
+            this.encoding = encoding;
+        }
+
+        /**
+         * 是否已開始送出回應（標頭已設定、可能已有位元組寫出）
+         */
+        boolean isStarted() {
+            return target != null;
+        }
+
+        private OutputStream target() throws IOException {
+            if (target == null) {
+                response.stream().setMediaType(mediaType);
+                response.stream().setStatus(200);
+                if (compressible) {
+                    response.setHeader("Vary", "Accept-Encoding");
+                }
+                OutputStream raw = response.stream().output();
+                if (encoding != null) {
+                    response.setHeader("Content-Encoding", encoding);
+                    compressed = ContentEncodingNegotiator.wrap(raw, encoding);
+                    target = compressed;
+                } else {
+                    target = raw;
+                }
+            }
+            return target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                target().write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        /**
+         * 完成回應（空報告也會送出標頭），寫出壓縮尾端資料並釋放壓縮器
+         */
+        void finish() throws IOException {
+            OutputStream out = target();
+            if (compressed != null) {
+                compressed.close();
+            } else {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * 報告已開始送出後才發生的失敗
+     */
+    static final class ResponseCommittedException extends RuntimeException {
+        ResponseCommittedException(Throwable cause) {
+            super("Report export failed after the response was committed: " + cause.getMessage(), cause);
+        }
     }
 
     /**
@@ -301,35 +488,4 @@ public class PdfReportApiController implements WebService {
         // TODO: Apply these settings to PdfReportGenerator
         // This will be implemented in Task 6
     }
-
-    /**
-     * 從 SonarQube 查詢實際的分析數據並創建報告
-     *
-     * @param projectKey 專案 key
-     * @return 分析報告（包含實際的安全發現）
-     */
-    private AnalysisReport createReportFromSonarQubeData(String projectKey, String owaspVersion) {
-        LOG.info("Retrieving actual analysis data from SonarQube for project: {} (OWASP {})",
-             projectKey, owaspVersion);
-
-        // 查詢安全問題
-        List<SecurityFinding> findings = dataService.getOwaspFindings(projectKey, owaspVersion);
-
-        // 計算摘要統計
-        ReportSummary summary = dataService.calculateSummary(findings);
-
-        LOG.info("Report created: {} total findings, {} BLOCKER, {} CRITICAL, {} MAJOR",
-                summary.getTotalFindings(),
-                summary.getBlockerCount(),
-                summary.getCriticalCount(),
-                summary.getMajorCount());
-
-        return AnalysisReport.builder()
-                .projectName(projectKey)
-                .owaspVersion(owaspVersion)
-                .analysisTime(java.time.LocalDateTime.now())
-                .findings(findings)
-                .summary(summary)
-                .build();
-    }
 }
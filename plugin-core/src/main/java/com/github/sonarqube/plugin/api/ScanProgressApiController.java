@@ -10,8 +10,19 @@ import org.sonar.api.server.ws.WebService;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
 
 /**
  * 掃描進度 API 控制器
@@ -23,11 +34,17 @@ import java.util.concurrent.ConcurrentHashMap;
  * - 預估剩餘時間
  * - 掃描開始/結束時間
  * - 錯誤資訊
+ * - 吞吐量（每秒檔案數、進行中的 AI 請求、每秒 token 數）
+ *
+ * 儀表板以 watch 端點長輪詢：伺服器在進度變更（或逾時）時才回應，且只回傳自用戶端已知版本後變更的欄位，
+ * 不需要高頻率輪詢。已結束的掃描只保留有限數量與時間；尚無進度的專案不會建立任何資料，
+ * 同時等待的長輪詢數量也有上限（超過時回應 429）。
  *
  * API 端點：
  * - GET  /api/owasp/scan/progress?project=<key>
+ * - GET  /api/owasp/scan/watch?project=<key>&since=<version>&timeout=<seconds>
  * - POST /api/owasp/scan/start?project=<key>
- * - POST /api/owasp/scan/update?project=<key>&file=<path>&processed=<n>&total=<n>
+ * - POST /api/owasp/scan/update?project=<key>&file=<path>&processed=<n>&total=<n>[&aiRequestsInFlight=<n>&tokens=<n>]
  * - POST /api/owasp/scan/complete?project=<key>
  * - POST /api/owasp/scan/fail?project=<key>&error=<message>
  *
@@ -38,9 +55,37 @@ public class ScanProgressApiController implements WebService {
 
     private static final Logger logger = LoggerFactory.getLogger(ScanProgressApiController.class);
 
+    /**
+     * 已結束掃描的保留上限（筆數）
+     */
+    static final int MAX_RETAINED_FINISHED = 200;
+
+    /**
+     * 已結束掃描的保留時間
+     */
+    static final long FINISHED_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 長輪詢預設/最長等待秒數
+     */
+    static final int DEFAULT_WATCH_TIMEOUT_SECONDS = 25;
+    static final int MAX_WATCH_TIMEOUT_SECONDS = 60;
+
+    /**
+     * 同時等待中的長輪詢上限（每個等待者佔用一條 Web 執行緒）
+     */
+    static final int MAX_CONCURRENT_WATCHERS = 64;
+
+    /**
+     * 超過等待上限時建議用戶端重試的秒數
+     */
+    static final int WATCH_RETRY_AFTER_SECONDS = 5;
+
     // 專案掃描進度儲存（記憶體快取）
     private static final Map<String, ScanProgress> progressMap = new ConcurrentHashMap<>();
 
+    private final Semaphore watchPermits = new Semaphore(MAX_CONCURRENT_WATCHERS);
+
     @Override
     public void define(Context context) {
         NewController controller = context.createController("api/owasp/scan")
@@ -57,6 +102,22 @@ public class ScanProgressApiController implements WebService {
                 .setDescription("Project key")
                 .setRequired(true);
 
+        // GET /api/owasp/scan/watch?project=<key>&since=<version>&timeout=<seconds>
+        NewAction watchAction = controller.createAction("watch")
+            .setDescription("Wait for scan progress changes (long poll) and return fields changed since a version")
+            .setSince("2.7.0")
+            .setHandler(new WatchProgressHandler());
+
+        watchAction.createParam("project")
+                .setDescription("Project key")
+                .setRequired(true);
+        watchAction.createParam("since")
+                .setDescription("Last progress version seen by the client (0 for a full response)")
+                .setDefaultValue("0");
+        watchAction.createParam("timeout")
+                .setDescription("Maximum seconds to wait for a change (max " + MAX_WATCH_TIMEOUT_SECONDS + ")")
+                .setDefaultValue(String.valueOf(DEFAULT_WATCH_TIMEOUT_SECONDS));
+
         // POST /api/owasp/scan/start?project=<key>&totalFiles=<n>
         NewAction startAction = controller.createAction("start")
             .setDescription("Start a new scan and initialize progress tracking")
@@ -90,6 +151,10 @@ public class ScanProgressApiController implements WebService {
         updateAction.createParam("total")
                 .setDescription("Total number of files")
                 .setRequired(true);
+        updateAction.createParam("aiRequestsInFlight")
+                .setDescription("Number of AI requests currently in flight");
+        updateAction.createParam("tokens")
+                .setDescription("Cumulative number of AI tokens used by the scan");
 
         // POST /api/owasp/scan/complete?project=<key>
         controller.createAction("complete")
@@ -138,6 +203,52 @@ public class ScanProgressApiController implements WebService {
         }
     }
 
+    /**
+     * GET /api/owasp/scan/watch?project=<key>&since=<version>&timeout=<seconds>
+     *
+     * 版本號大於 since 時立即回應，否則等待變更或逾時；回應中的 version 作為下一次請求的 since。
+     * 尚無進度的專案立即回應未開始狀態（不建立進度物件，避免任意專案鍵累積在記憶體中）；
+     * 等待者已達 {@link #MAX_CONCURRENT_WATCHERS} 時回應 429 與 Retry-After。
+     */
+    class WatchProgressHandler implements RequestHandler {
+        @Override
+        public void handle(Request request, Response response) throws Exception {
+            String projectKey = request.mandatoryParam("project");
+            long since = Long.parseLong(request.mandatoryParam("since"));
+            int timeoutSeconds = Math.max(0, Math.min(MAX_WATCH_TIMEOUT_SECONDS,
+                Integer.parseInt(request.mandatoryParam("timeout"))));
+
+            ScanProgress progress = progressMap.get(projectKey);
+            if (progress == null) {
+                writeJsonResponse(response, new ScanProgress(projectKey).toJson(since));
+                return;
+            }
+            if (progress.getVersion() != since || timeoutSeconds == 0) {
+                writeJsonResponse(response, progress.toJson(since));
+                return;
+            }
+
+            if (!watchPermits.tryAcquire()) {
+                logger.debug("Too many scan progress watchers, rejecting watch for project {}", projectKey);
+                response.setHeader("Retry-After", String.valueOf(WATCH_RETRY_AFTER_SECONDS));
+                response.stream().setStatus(429);
+                response.stream().setMediaType("application/json");
+                response.stream().output().write(
+                    "{\"error\": \"Too many concurrent watchers\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            try {
+                progress.awaitChange(since, TimeUnit.SECONDS.toMillis(timeoutSeconds));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                watchPermits.release();
+            }
+
+            writeJsonResponse(response, progress.toJson(since));
+        }
+    }
+
     /**
      * POST /api/owasp/scan/start?project=<key>&totalFiles=<n>
      */
@@ -147,9 +258,9 @@ public class ScanProgressApiController implements WebService {
             String projectKey = request.mandatoryParam("project");
             int totalFiles = Integer.parseInt(request.mandatoryParam("totalFiles"));
 
-            ScanProgress progress = new ScanProgress(projectKey);
-            progress.start(totalFiles);
-            progressMap.put(projectKey, progress);
+            // 沿用既有物件：版本號持續遞增，正在等待的長輪詢會收到通知
+            progressMap.computeIfAbsent(projectKey, ScanProgress::new).start(totalFiles);
+            evictFinishedScans();
 
             logger.info("Scan started for project {}: {} files", projectKey, totalFiles);
 
@@ -171,6 +282,14 @@ public class ScanProgressApiController implements WebService {
             ScanProgress progress = progressMap.computeIfAbsent(projectKey, ScanProgress::new);
             progress.update(currentFile, processed, total);
 
+            String inFlight = request.param("aiRequestsInFlight");
+            String tokens = request.param("tokens");
+            if (inFlight != null || tokens != null) {
+                progress.updateAiUsage(
+                    inFlight != null ? Integer.parseInt(inFlight) : progress.getAiRequestsInFlight(),
+                    tokens != null ? Long.parseLong(tokens) : progress.getTotalTokens());
+            }
+
             logger.debug("Scan progress for {}: {}/{} - {}", projectKey, processed, total, currentFile);
 
             writeJsonResponse(response, "{\"status\": \"success\", \"message\": \"Progress updated\"}");
@@ -189,8 +308,9 @@ public class ScanProgressApiController implements WebService {
             if (progress != null) {
                 progress.complete();
                 logger.info("Scan completed for project {}: {} files processed in {}ms",
-                    projectKey, progress.totalFiles, progress.getDurationMillis());
+                    projectKey, progress.getTotalFiles(), progress.getDurationMillis());
             }
+            evictFinishedScans();
 
             writeJsonResponse(response, "{\"status\": \"success\", \"message\": \"Scan completed\"}");
         }
@@ -210,6 +330,7 @@ public class ScanProgressApiController implements WebService {
                 progress.fail(error);
                 logger.error("Scan failed for project {}: {}", projectKey, error);
             }
+            evictFinishedScans();
 
             writeJsonResponse(response, "{\"status\": \"success\", \"message\": \"Scan marked as failed\"}");
         }
@@ -217,6 +338,32 @@ public class ScanProgressApiController implements WebService {
 
     // ==================== Helper Methods ====================
 
+    /**
+     * 移除超過保留時間的已結束掃描，並將其餘已結束掃描限制在 {@link #MAX_RETAINED_FINISHED} 筆以內（先移除最舊的）
+     */
+    static void evictFinishedScans() {
+        long expiry = System.currentTimeMillis() - FINISHED_RETENTION_MILLIS;
+        List<ScanProgress> finished = new ArrayList<>();
+        for (ScanProgress progress : progressMap.values()) {
+            if (!progress.isFinished()) {
+                continue;
+            }
+            if (progress.getLastUpdatedMillis() < expiry) {
+                progressMap.remove(progress.getProjectKey(), progress);
+            } else {
+                finished.add(progress);
+            }
+        }
+
+        int excess = finished.size() - MAX_RETAINED_FINISHED;
+        if (excess > 0) {
+            finished.sort(Comparator.comparingLong(ScanProgress::getLastUpdatedMillis));
+            for (ScanProgress progress : finished.subList(0, excess)) {
+                progressMap.remove(progress.getProjectKey(), progress);
+            }
+        }
+    }
+
     /**
      * 寫入 JSON 響應
      */
@@ -228,110 +375,303 @@ public class ScanProgressApiController implements WebService {
 
     /**
      * 掃描進度資料模型
+     *
+     * 計數器使用原子變數/LongAdder，掃描回呼可在任意執行緒更新而不需加鎖；
+     * 每次變更遞增 {@link #getVersion() 版本號}，並只在有長輪詢等待者時喚醒。
      */
     public static class ScanProgress {
+
+        /**
+         * 吞吐量取樣間隔：以最近一個間隔的變化量計算每秒速率
+         */
+        static final long THROUGHPUT_WINDOW_MILLIS = 2_000;
+
         private final String projectKey;
-        private ScanStatus status;
-        private int processedFiles;
-        private int totalFiles;
-        private String currentFile;
-        private long startTimeMillis;
-        private long endTimeMillis;
-        private String errorMessage;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicInteger processedFiles = new AtomicInteger();
+        private final AtomicInteger totalFiles = new AtomicInteger();
+        private final AtomicInteger aiRequestsInFlight = new AtomicInteger();
+        private final LongAdder aiRequestsCompleted = new LongAdder();
+        private final AtomicLong totalTokens = new AtomicLong();
+        private final AtomicReference<ThroughputSample[]> samples;
+        private final AtomicInteger waiters = new AtomicInteger();
+        private final Object monitor = new Object();
+
+        private volatile ScanStatus status = ScanStatus.NOT_STARTED;
+        private volatile String currentFile = "";
+        private volatile long startTimeMillis;
+        private volatile long endTimeMillis;
+        private volatile String errorMessage = "";
+        private volatile long lastUpdatedMillis;
+
+        /**
+         * 狀態、時間、錯誤等生命週期欄位最後變更時的版本號（增量回應據此決定是否附帶這些欄位）
+         */
+        private volatile long lifecycleVersion;
 
         public ScanProgress(String projectKey) {
             this.projectKey = projectKey;
-            this.status = ScanStatus.NOT_STARTED;
-            this.processedFiles = 0;
-            this.totalFiles = 0;
-            this.currentFile = "";
-            this.startTimeMillis = 0;
-            this.endTimeMillis = 0;
-            this.errorMessage = "";
+            long now = System.currentTimeMillis();
+            ThroughputSample initial = new ThroughputSample(now, 0, 0);
+            this.samples = new AtomicReference<>(new ThroughputSample[]{initial, initial});
+            this.lastUpdatedMillis = now;
         }
 
         public void start(int totalFiles) {
+            long now = System.currentTimeMillis();
             this.status = ScanStatus.IN_PROGRESS;
-            this.totalFiles = totalFiles;
-            this.processedFiles = 0;
+            this.totalFiles.set(totalFiles);
+            this.processedFiles.set(0);
+            this.aiRequestsInFlight.set(0);
+            this.aiRequestsCompleted.reset();
+            this.totalTokens.set(0);
+            ThroughputSample initial = new ThroughputSample(now, 0, 0);
+            this.samples.set(new ThroughputSample[]{initial, initial});
             this.currentFile = "";
-            this.startTimeMillis = System.currentTimeMillis();
+            this.startTimeMillis = now;
             this.endTimeMillis = 0;
             this.errorMessage = "";
+            publishLifecycle();
         }
 
         public void update(String currentFile, int processed, int total) {
             this.currentFile = currentFile;
-            this.processedFiles = processed;
-            this.totalFiles = total;
+            this.processedFiles.set(processed);
+            if (this.totalFiles.getAndSet(total) != total) {
+                publishLifecycle();
+            } else {
+                publish();
+            }
+        }
+
+        /**
+         * 完成一個檔案
+         *
+         * @param file 已處理的檔案路徑
+         */
+        public void fileProcessed(String file) {
+            this.currentFile = file;
+            this.processedFiles.incrementAndGet();
+            publish();
+        }
+
+        /**
+         * AI 請求送出
+         */
+        public void aiRequestStarted() {
+            aiRequestsInFlight.incrementAndGet();
+            publish();
+        }
+
+        /**
+         * AI 請求完成
+         *
+         * @param tokens 本次請求使用的 token 數
+         */
+        public void aiRequestFinished(long tokens) {
+            aiRequestsInFlight.decrementAndGet();
+            aiRequestsCompleted.increment();
+            totalTokens.addAndGet(tokens);
+            publish();
+        }
+
+        /**
+         * 以掃描端回報的累計值更新 AI 使用量
+         *
+         * @param inFlight 進行中的 AI 請求數
+         * @param tokens   累計 token 數
+         */
+        public void updateAiUsage(int inFlight, long tokens) {
+            aiRequestsInFlight.set(inFlight);
+            totalTokens.set(tokens);
+            publish();
         }
 
         public void complete() {
             this.status = ScanStatus.COMPLETED;
             this.endTimeMillis = System.currentTimeMillis();
             this.currentFile = "";
+            this.aiRequestsInFlight.set(0);
+            publishLifecycle();
         }
 
         public void fail(String error) {
             this.status = ScanStatus.FAILED;
             this.endTimeMillis = System.currentTimeMillis();
             this.errorMessage = error;
+            this.aiRequestsInFlight.set(0);
+            publishLifecycle();
+        }
+
+        private void publishLifecycle() {
+            lifecycleVersion = publish();
+        }
+
+        /**
+         * 遞增版本號、滾動吞吐量取樣，並喚醒長輪詢等待者
+         *
+         * @return 新版本號
+         */
+        private long publish() {
+            long now = System.currentTimeMillis();
+            lastUpdatedMillis = now;
+            ThroughputSample[] current = samples.get();
+            if (now - current[1].timeMillis >= THROUGHPUT_WINDOW_MILLIS) {
+                // 競爭失敗代表其他執行緒已滾動，直接沿用
+                samples.compareAndSet(current, new ThroughputSample[]{
+                    current[1], new ThroughputSample(now, processedFiles.get(), totalTokens.get())});
+            }
+
+            long newVersion = version.incrementAndGet();
+            if (waiters.get() > 0) {
+                synchronized (monitor) {
+                    monitor.notifyAll();
+                }
+            }
+            return newVersion;
+        }
+
+        /**
+         * 等待版本號超過 sinceVersion（長輪詢）
+         *
+         * @param sinceVersion  用戶端已知的版本號
+         * @param timeoutMillis 最長等待時間
+         * @return 目前版本號（逾時時可能仍等於 sinceVersion）
+         * @throws InterruptedException 等待被中斷時
+         */
+        public long awaitChange(long sinceVersion, long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            waiters.incrementAndGet();
+            try {
+                synchronized (monitor) {
+                    long remaining = timeoutMillis;
+                    while (version.get() == sinceVersion && remaining > 0) {
+                        monitor.wait(remaining);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                }
+            } finally {
+                waiters.decrementAndGet();
+            }
+            return version.get();
+        }
+
+        public String getProjectKey() { return projectKey; }
+        public ScanStatus getStatus() { return status; }
+        public long getVersion() { return version.get(); }
+        public int getProcessedFiles() { return processedFiles.get(); }
+        public int getTotalFiles() { return totalFiles.get(); }
+        public int getAiRequestsInFlight() { return aiRequestsInFlight.get(); }
+        public long getAiRequestsCompleted() { return aiRequestsCompleted.sum(); }
+        public long getTotalTokens() { return totalTokens.get(); }
+        public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+        int getWaiterCount() { return waiters.get(); }
+
+        public boolean isFinished() {
+            return status != ScanStatus.IN_PROGRESS;
         }
 
         public long getDurationMillis() {
-            if (startTimeMillis == 0) {
+            long start = startTimeMillis;
+            if (start == 0) {
                 return 0;
             }
-            long endTime = (endTimeMillis > 0) ? endTimeMillis : System.currentTimeMillis();
-            return endTime - startTimeMillis;
+            long end = endTimeMillis;
+            long endTime = (end > 0) ? end : System.currentTimeMillis();
+            return endTime - start;
         }
 
         public double getProgressPercentage() {
-            if (totalFiles == 0) {
+            int total = totalFiles.get();
+            if (total == 0) {
                 return 0.0;
             }
-            return (double) processedFiles / totalFiles * 100.0;
+            return (double) processedFiles.get() / total * 100.0;
         }
 
         public long getEstimatedRemainingMillis() {
-            if (processedFiles == 0 || totalFiles == 0 || status != ScanStatus.IN_PROGRESS) {
+            int processed = processedFiles.get();
+            int total = totalFiles.get();
+            if (processed == 0 || total == 0 || status != ScanStatus.IN_PROGRESS) {
                 return 0;
             }
 
             long elapsedMillis = System.currentTimeMillis() - startTimeMillis;
-            double avgTimePerFile = (double) elapsedMillis / processedFiles;
-            int remainingFiles = totalFiles - processedFiles;
+            double avgTimePerFile = (double) elapsedMillis / processed;
+            int remainingFiles = total - processed;
 
             return (long) (avgTimePerFile * remainingFiles);
         }
 
+        /**
+         * 最近取樣間隔內的每秒處理檔案數
+         */
+        public double getFilesPerSecond() {
+            return rate(processedFiles.get(), sample -> sample.files);
+        }
+
+        /**
+         * 最近取樣間隔內的每秒 token 數
+         */
+        public double getTokensPerSecond() {
+            return rate(totalTokens.get(), sample -> sample.tokens);
+        }
+
+        private double rate(long current, ToLongFunction<ThroughputSample> value) {
+            if (status != ScanStatus.IN_PROGRESS) {
+                return 0.0;
+            }
+            ThroughputSample previous = samples.get()[0];
+            long elapsed = System.currentTimeMillis() - previous.timeMillis;
+            if (elapsed <= 0) {
+                return 0.0;
+            }
+            return (current - value.applyAsLong(previous)) * 1000.0 / elapsed;
+        }
+
         public String toJson() {
-            return String.format(
-                "{" +
-                    "\"projectKey\": \"%s\", " +
-                    "\"status\": \"%s\", " +
-                    "\"processedFiles\": %d, " +
-                    "\"totalFiles\": %d, " +
-                    "\"currentFile\": \"%s\", " +
-                    "\"progressPercentage\": %.2f, " +
-                    "\"startTime\": \"%s\", " +
-                    "\"endTime\": \"%s\", " +
-                    "\"durationMillis\": %d, " +
-                    "\"estimatedRemainingMillis\": %d, " +
-                    "\"errorMessage\": \"%s\"" +
-                "}",
-                escapeJson(projectKey),
-                status,
-                processedFiles,
-                totalFiles,
-                escapeJson(currentFile),
-                getProgressPercentage(),
-                (startTimeMillis > 0) ? Instant.ofEpochMilli(startTimeMillis).toString() : "",
-                (endTimeMillis > 0) ? Instant.ofEpochMilli(endTimeMillis).toString() : "",
-                getDurationMillis(),
-                getEstimatedRemainingMillis(),
-                escapeJson(errorMessage)
-            );
+            return toJson(0);
+        }
+
+        /**
+         * 序列化為 JSON
+         *
+         * @param sinceVersion 用戶端已知的版本號；生命週期欄位在此版本後未變更時省略（增量回應），0 表示完整回應
+         * @return JSON 字串
+         */
+        public String toJson(long sinceVersion) {
+            long currentVersion = version.get();
+            boolean full = sinceVersion <= 0 || sinceVersion > currentVersion || lifecycleVersion > sinceVersion;
+
+            StringBuilder json = new StringBuilder(512);
+            json.append("{\"projectKey\": \"").append(escapeJson(projectKey)).append("\", ");
+            json.append("\"version\": ").append(currentVersion).append(", ");
+            json.append("\"full\": ").append(full).append(", ");
+            if (full) {
+                long start = startTimeMillis;
+                long end = endTimeMillis;
+                json.append("\"status\": \"").append(status).append("\", ");
+                json.append("\"startTime\": \"").append(start > 0 ? Instant.ofEpochMilli(start).toString() : "").append("\", ");
+                json.append("\"endTime\": \"").append(end > 0 ? Instant.ofEpochMilli(end).toString() : "").append("\", ");
+                json.append("\"errorMessage\": \"").append(escapeJson(errorMessage)).append("\", ");
+            }
+            json.append("\"processedFiles\": ").append(processedFiles.get()).append(", ");
+            json.append("\"totalFiles\": ").append(totalFiles.get()).append(", ");
+            json.append("\"currentFile\": \"").append(escapeJson(currentFile)).append("\", ");
+            json.append("\"progressPercentage\": ").append(format(getProgressPercentage())).append(", ");
+            json.append("\"durationMillis\": ").append(getDurationMillis()).append(", ");
+            json.append("\"estimatedRemainingMillis\": ").append(getEstimatedRemainingMillis()).append(", ");
+            json.append("\"filesPerSecond\": ").append(format(getFilesPerSecond())).append(", ");
+            json.append("\"aiRequestsInFlight\": ").append(aiRequestsInFlight.get()).append(", ");
+            json.append("\"aiRequestsCompleted\": ").append(aiRequestsCompleted.sum()).append(", ");
+            json.append("\"totalTokens\": ").append(totalTokens.get()).append(", ");
+            json.append("\"tokensPerSecond\": ").append(format(getTokensPerSecond()));
+            json.append('}');
+            return json.toString();
+        }
+
+        private static String format(double value) {
+            return String.format(Locale.ROOT, "%.2f", value);
         }
 
         private String escapeJson(String input) {
@@ -347,6 +687,21 @@ public class ScanProgressApiController implements WebService {
         }
     }
 
+    /**
+     * 吞吐量取樣點（不可變）
+     */
+    private static final class ThroughputSample {
+        private final long timeMillis;
+        private final long files;
+        private final long tokens;
+
+        private ThroughputSample(long timeMillis, long files, long tokens) {
+            this.timeMillis = timeMillis;
+            this.files = files;
+            this.tokens = tokens;
+        }
+    }
+
     /**
      * 掃描狀態枚舉
      */
@@ -0,0 +1,573 @@
+package com.github.sonarqube.plugin.cache;
+
+import com.github.sonarqube.plugin.AiOwaspPlugin;
+import com.github.sonarqube.plugin.settings.PdfReportSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 報告結果快取
+ *
+ * 以磁碟保存已生成的報告檔案，鍵為（專案、最新分析 ID、Issue 最後更新時間、OWASP 版本、格式、設定 hash）。
+ * 專案重新分析或 Issue 狀態變更（確認、標記誤報、解決等）後鍵值改變，舊項目自然不再命中，最終由容量淘汰清除。
+ *
+ * 功能特性：
+ * - 磁碟儲存：Web 與 Compute Engine 程序共用同一目錄（背景預先渲染寫入、匯出 API 讀取）
+ * - 原子寫入：先寫入暫存檔再 rename，讀取端不會看到未完成的報告
+ * - 容量淘汰：總大小超過上限時依最後存取時間（LRU）刪除；中斷遺留的暫存檔逾時後一併清除
+ * - 邊生成邊寫入：未命中時報告同時串流到回應與快取檔
+ *
+ * @since 2.0.0
+ * @author SonarQube AI OWASP Plugin Team
+ */
+@ServerSide
+@ComputeEngineSide
+public class ReportResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportResultCache.class);
+
+    /**
+     * 預設容量上限（MB）
+     */
+    public static final int DEFAULT_MAX_SIZE_MB = 256;
+
+    /**
+     * 快取檔案格式版本（生成器輸出變更時遞增，使舊項目失效）
+     */
+    private static final String CACHE_FORMAT_VERSION = "1";
+
+    private static final String ENTRY_SUFFIX = ".report";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * 暫存檔超過此時間仍未發布，視為程序中斷遺留的檔案
+     */
+    static final long STALE_TEMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final boolean enabled;
+
+    // 快取統計
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cachePuts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * 建構子（由 SonarQube 注入）
+     *
+     * <p>快取目錄為 {@code <sonarqube-data>/owasp-plugin/report-cache}，無法取得資料目錄時使用系統暫存目錄。</p>
+     *
+     * @param configuration SonarQube 配置
+     */
+    public ReportResultCache(Configuration configuration) {
+        this(resolveDirectory(configuration),
+             configuration.getInt(AiOwaspPlugin.PROPERTY_REPORT_CACHE_MAX_SIZE_MB).orElse(DEFAULT_MAX_SIZE_MB) * 1024L * 1024L,
+             configuration.getBoolean(AiOwaspPlugin.PROPERTY_REPORT_CACHE_ENABLED).orElse(true));
+    }
+
+    /**
+     * 建構子
+     *
+     * @param directory    快取目錄
+     * @param maxSizeBytes 容量上限（位元組）
+     * @param enabled      是否啟用
+     */
+    public ReportResultCache(Path directory, long maxSizeBytes, boolean enabled) {
+        this.directory = directory;
+        this.maxSizeBytes = Math.max(0, maxSizeBytes);
+        this.enabled = enabled;
+        LOG.info("ReportResultCache 已初始化: dir={}, maxSize={}MB, enabled={}",
+                directory, this.maxSizeBytes / (1024 * 1024), enabled);
+    }
+
+    private static Path resolveDirectory(Configuration configuration) {
+        Path base = configuration.get("sonar.path.data")
+                .map(Paths::get)
+                .orElseGet(() -> Paths.get(System.getProperty("java.io.tmpdir")));
+        return base.resolve("owasp-plugin").resolve("report-cache");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 計算影響報告輸出的設定 hash
+     *
+     * @param configuration SonarQube 配置
+     * @return 設定 hash（hex）
+     */
+    public static String configurationHash(Configuration configuration) {
+        StringBuilder settings = new StringBuilder(CACHE_FORMAT_VERSION);
+        for (String key : new String[] {
+                PdfReportSettings.LOGO_PATH,
+                PdfReportSettings.REPORT_TITLE,
+                PdfReportSettings.COLOR_THEME,
+                PdfReportSettings.HEADER_FOOTER_ENABLED}) {
+            settings.append('\n').append(key).append('=').append(configuration.get(key).orElse(""));
+        }
+        return sha256(settings.toString()).substring(0, 16);
+    }
+
+    /**
+     * 開啟快取的報告檔案
+     *
+     * <p>命中時更新檔案的最後修改時間，作為 LRU 淘汰依據。檔案與淘汰在同一把鎖內開啟，
+     * 已開啟的串流不會因之後的淘汰而中斷（POSIX 上刪除只移除目錄項目；Windows 上開啟中的檔案無法刪除，保留至下次淘汰）。</p>
+     *
+     * @param key 快取鍵
+     * @return 報告內容串流（呼叫端負責關閉），未命中則為 empty
+     */
+    public synchronized Optional<InputStream> open(Key key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Path entry = entryPath(key);
+        try {
+            InputStream input = Files.newInputStream(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            cacheHits.incrementAndGet();
+            LOG.debug("報告快取命中: {}", key);
+            return Optional.of(input);
+        } catch (NoSuchFileException e) {
+            cacheMisses.incrementAndGet();
+            LOG.debug("報告快取未命中: {}", key);
+            return Optional.empty();
+        } catch (IOException e) {
+            cacheMisses.incrementAndGet();
+            LOG.warn("讀取報告快取失敗: {}", key, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 開始寫入一個快取項目
+     *
+     * <p>呼叫端寫入 {@link PendingEntry#output()}（或 {@link PendingEntry#tee(OutputStream)}），
+     * 成功後呼叫 {@link PendingEntry#commit()}；未 commit 即 close 時捨棄暫存檔。</p>
+     *
+     * @param key 快取鍵
+     * @return 寫入中的項目
+     * @throws IOException 無法建立暫存檔時拋出
+     */
+    public PendingEntry begin(Key key) throws IOException {
+        Files.createDirectories(directory);
+        purgeStaleTempFiles();
+        Path temp = Files.createTempFile(directory, key.digest() + "-", TEMP_SUFFIX);
+        try {
+            return new PendingEntry(key, temp);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 清除所有快取項目
+     */
+    public synchronized void clearAll() {
+        for (Path file : listFiles()) {
+            deleteQuietly(file);
+        }
+        LOG.info("已清除所有報告快取");
+    }
+
+    /**
+     * 取得快取統計資訊
+     */
+    public CacheStatistics getStatistics() {
+        long totalBytes = 0;
+        int entryCount = 0;
+        for (Path file : listFiles()) {
+            if (file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                entryCount++;
+                totalBytes += sizeOf(file);
+            }
+        }
+        return new CacheStatistics(entryCount, totalBytes, maxSizeBytes,
+                cacheHits.get(), cacheMisses.get(), cachePuts.get(), evictions.get());
+    }
+
+    private Path entryPath(Key key) {
+        return directory.resolve(key.digest() + ENTRY_SUFFIX);
+    }
+
+    /**
+     * 總大小超過上限時依最後存取時間淘汰
+     *
+     * <p>直接掃描目錄而非維護記憶體索引，另一個程序寫入的項目同樣會被計入。</p>
+     */
+    private synchronized void evictIfNeeded() {
+        List<Path> entries = new ArrayList<>();
+        long totalBytes = 0;
+        for (Path file : listFiles()) {
+            if (file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                entries.add(file);
+                totalBytes += sizeOf(file);
+            }
+        }
+        if (totalBytes <= maxSizeBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparingLong(ReportResultCache::lastModifiedOf));
+        for (Path entry : entries) {
+            if (totalBytes <= maxSizeBytes) {
+                break;
+            }
+            long size = sizeOf(entry);
+            if (deleteQuietly(entry)) {
+                totalBytes -= size;
+                evictions.incrementAndGet();
+                LOG.debug("已淘汰報告快取項目: {} ({} bytes)", entry.getFileName(), size);
+            }
+        }
+    }
+
+    /**
+     * 刪除超過 {@link #STALE_TEMP_MILLIS} 仍未發布的暫存檔（生成中途程序結束時遺留）
+     */
+    private void purgeStaleTempFiles() {
+        long expiry = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        for (Path file : listFiles()) {
+            if (file.getFileName().toString().endsWith(TEMP_SUFFIX) && lastModifiedOf(file) < expiry
+                    && deleteQuietly(file)) {
+                LOG.debug("已清除遺留的報告快取暫存檔: {}", file.getFileName());
+            }
+        }
+    }
+
+    private List<Path> listFiles() {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            LOG.warn("無法列出報告快取目錄: {}", directory, e);
+        }
+        return files;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModifiedOf(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("無法刪除報告快取檔案: {}", file, e);
+            return false;
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 快取鍵
+     */
+    public static final class Key {
+        private final String projectKey;
+        private final String analysisId;
+        private final String issuesUpdatedAt;
+        private final String owaspVersion;
+        private final String format;
+        private final String configHash;
+
+        /**
+         * @param projectKey      專案 key
+         * @param analysisId      最新分析 ID
+         * @param issuesUpdatedAt 專案 Issue 的最後更新時間（無 Issue 時為空字串）
+         * @param owaspVersion    OWASP 版本
+         * @param format          報告格式
+         * @param configHash      設定 hash
+         */
+        public Key(String projectKey, String analysisId, String issuesUpdatedAt, String owaspVersion,
+                   String format, String configHash) {
+            this.projectKey = Objects.requireNonNull(projectKey, "projectKey");
+            this.analysisId = Objects.requireNonNull(analysisId, "analysisId");
+            this.issuesUpdatedAt = Objects.requireNonNull(issuesUpdatedAt, "issuesUpdatedAt");
+            this.owaspVersion = Objects.requireNonNull(owaspVersion, "owaspVersion");
+            this.format = Objects.requireNonNull(format, "format");
+            this.configHash = Objects.requireNonNull(configHash, "configHash");
+        }
+
+        public String getProjectKey() {
+            return projectKey;
+        }
+
+        public String getAnalysisId() {
+            return analysisId;
+        }
+
+        public String getIssuesUpdatedAt() {
+            return issuesUpdatedAt;
+        }
+
+        public String getOwaspVersion() {
+            return owaspVersion;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public String getConfigHash() {
+            return configHash;
+        }
+
+        /**
+         * 檔名用的摘要（避免專案 key 中的特殊字元）
+         */
+        String digest() {
+            return sha256(String.join("\n", projectKey, analysisId, issuesUpdatedAt, owaspVersion, format, configHash));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return projectKey.equals(other.projectKey)
+                    && analysisId.equals(other.analysisId)
+                    && issuesUpdatedAt.equals(other.issuesUpdatedAt)
+                    && owaspVersion.equals(other.owaspVersion)
+                    && format.equals(other.format)
+                    && configHash.equals(other.configHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(projectKey, analysisId, issuesUpdatedAt, owaspVersion, format, configHash);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s@%s (issues=%s, OWASP %s, %s, config=%s)",
+                    projectKey, analysisId, issuesUpdatedAt, owaspVersion, format, configHash);
+        }
+    }
+
+    /**
+     * 寫入中的快取項目
+     */
+    public final class PendingEntry implements Closeable {
+        private final Key key;
+        private final Path temp;
+        private final OutputStream output;
+        private boolean committed;
+
+        private PendingEntry(Key key, Path temp) throws IOException {
+            this.key = key;
+            this.temp = temp;
+            this.output = new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE);
+        }
+
+        /**
+         * 快取檔的輸出流
+         */
+        public OutputStream output() {
+            return output;
+        }
+
+        /**
+         * 同時寫入下游與快取檔的輸出流
+         *
+         * <p>關閉回傳的串流不會關閉下游或快取檔。</p>
+         *
+         * @param downstream 下游輸出流（例如 HTTP 回應）
+         * @return 分流輸出流
+         */
+        public OutputStream tee(OutputStream downstream) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    downstream.write(b);
+                    output.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    downstream.write(b, off, len);
+                    output.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    downstream.flush();
+                    output.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+
+        /**
+         * 完成寫入並發布為快取項目
+         *
+         * @return 快取檔案路徑
+         * @throws IOException 寫入或 rename 失敗時拋出
+         */
+        public Path commit() throws IOException {
+            output.close();
+            Path entry = entryPath(key);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            committed = true;
+            cachePuts.incrementAndGet();
+            LOG.debug("已快取報告: {} ({} bytes)", key, sizeOf(entry));
+
+            evictIfNeeded();
+            return entry;
+        }
+
+        /**
+         * 未 commit 時捨棄暫存檔
+         */
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            try {
+                output.close();
+            } catch (IOException e) {
+                LOG.debug("關閉報告快取暫存檔失敗: {}", temp, e);
+            }
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * 快取統計資訊
+     */
+    public static class CacheStatistics {
+        private final int entryCount;
+        private final long totalBytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        private final long puts;
+        private final long evictions;
+
+        public CacheStatistics(int entryCount, long totalBytes, long maxBytes,
+                               long hits, long misses, long puts, long evictions) {
+            this.entryCount = entryCount;
+            this.totalBytes = totalBytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+            this.evictions = evictions;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total * 100.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "CacheStatistics{entries=%d, bytes=%d/%d, hits=%d, misses=%d, puts=%d, evictions=%d, hitRate=%.2f%%}",
+                    entryCount, totalBytes, maxBytes, hits, misses, puts, evictions, getHitRate());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.sonarqube.plugin.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * 原始碼片段快取
+ *
+ * 以（元件 key、分析版本）為鍵快取檔案原始碼與行起始位移索引，
+ * 同一檔案的多個發現只需下載一次原始碼，任意行範圍可直接依索引切出，不必重新分割整個檔案。
+ *
+ * 功能特性：
+ * - 依位元組計重的容量上限（Caffeine maximumWeight）
+ * - 同一鍵並行載入時只下載一次
+ * - 鍵包含分析版本，專案重新分析後不會讀到舊原始碼
+ * - 載入失敗或原始碼為空時不快取
+ *
+ * @since 2.0.0
+ * @author SonarQube AI OWASP Plugin Team
+ */
+public class SourceSnippetCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SourceSnippetCache.class);
+
+    /**
+     * 預設容量上限（位元組）
+     */
+    public static final long DEFAULT_MAX_WEIGHT_BYTES = 64L * 1024 * 1024;
+
+    private final Cache<String, IndexedSource> cache;
+
+    /**
+     * 預設建構子（使用預設容量）
+     */
+    public SourceSnippetCache() {
+        this(DEFAULT_MAX_WEIGHT_BYTES);
+    }
+
+    /**
+     * 自訂容量建構子
+     *
+     * @param maxWeightBytes 容量上限（位元組）
+     */
+    public SourceSnippetCache(long maxWeightBytes) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((String key, IndexedSource source) -> source.weight())
+            // 淘汰在呼叫端執行緒完成，不使用 ForkJoinPool.commonPool()
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * 取得元件原始碼（未命中時以 loader 下載並建立行索引）
+     *
+     * @param component 元件 key
+     * @param revision  分析版本（例如最新分析 ID）
+     * @param loader    元件 key → 原始碼（可回傳 null）
+     * @return 已索引的原始碼，原始碼不存在或為空時回傳 null
+     */
+    public IndexedSource get(String component, String revision, Function<String, String> loader) {
+        return cache.get(component + '\n' + revision, key -> {
+            String content = loader.apply(component);
+            if (content == null || content.isEmpty()) {
+                return null;
+            }
+            IndexedSource source = IndexedSource.of(content);
+            LOG.debug("已快取原始碼: {} ({} 行, {} bytes)", component, source.getLineCount(), source.weight());
+            return source;
+        });
+    }
+
+    /**
+     * 清除所有快取
+     */
+    public void clearAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 取得快取統計資訊
+     */
+    public CacheStats getStatistics() {
+        return cache.stats();
+    }
+
+    /**
+     * 附行起始位移索引的原始碼
+     *
+     * <p>行以 {@code \n} 分隔，行尾的 {@code \r} 不屬於該行內容；檔案結尾的空行不計入行數，
+     * 與 {@code String.split("\\r?\\n")} 的結果一致。</p>
+     */
+    public static final class IndexedSource {
+        private final String content;
+        private final int[] lineStarts;
+        private final int lineCount;
+
+        private IndexedSource(String content, int[] lineStarts, int lineCount) {
+            this.content = content;
+            this.lineStarts = lineStarts;
+            this.lineCount = lineCount;
+        }
+
+        /**
+         * 單次掃描建立行起始位移索引
+         *
+         * @param content 原始碼
+         * @return 已索引的原始碼
+         */
+        public static IndexedSource of(String content) {
+            int[] starts = new int[64];
+            int count = 0;
+            starts[count++] = 0;
+            for (int i = content.indexOf('\n'); i >= 0; i = content.indexOf('\n', i + 1)) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+
+            // 與 split 一致：移除結尾的空行
+            int lines = count;
+            while (lines > 0 && lineEnd(content, starts, count, lines - 1) == starts[lines - 1]) {
+                lines--;
+            }
+            return new IndexedSource(content, Arrays.copyOf(starts, count), lines);
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * 取得單行內容
+         *
+         * @param line 行號（1 起算）
+         * @return 行內容（不含換行字元）
+         */
+        public String getLine(int line) {
+            int index = line - 1;
+            if (index < 0 || index >= lineCount) {
+                throw new IndexOutOfBoundsException("Line " + line + " out of range 1.." + lineCount);
+            }
+            return content.substring(lineStarts[index], lineEnd(content, lineStarts, lineStarts.length, index));
+        }
+
+        /**
+         * 切出行範圍，只複製範圍內的字元
+         *
+         * @param fromLine 起始行（1 起算，含）
+         * @param toLine   結束行（含），超出檔案時截至最後一行
+         * @return 以 {@code \n} 連接並去除首尾空白的內容
+         */
+        public String slice(int fromLine, int toLine) {
+            int from = Math.max(1, fromLine) - 1;
+            int to = Math.min(toLine, lineCount);
+            StringBuilder snippet = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                snippet.append(content, lineStarts[i], lineEnd(content, lineStarts, lineStarts.length, i)).append('\n');
+            }
+            return snippet.toString().trim();
+        }
+
+        /**
+         * 取得某行前後各 contextLines 行的片段
+         *
+         * @param line         行號（1 起算）
+         * @param contextLines 前後行數
+         * @return 代碼片段
+         */
+        public String snippet(int line, int contextLines) {
+            return slice(line - contextLines, line + contextLines);
+        }
+
+        /**
+         * 估計佔用的位元組數（字元 + 索引）
+         */
+        int weight() {
+            return content.length() * 2 + lineStarts.length * Integer.BYTES;
+        }
+
+        private static int lineEnd(String content, int[] starts, int count, int index) {
+            int end = index + 1 < count ? starts[index + 1] - 1 : content.length();
+            if (end > starts[index] && content.charAt(end - 1) == '\r' && end < content.length()
+                    && content.charAt(end) == '\n') {
+                end--;
+            }
+            return end;
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.github.sonarqube.plugin.cost;
 
+import com.github.sonarqube.ai.model.AiResponse;
+import com.github.sonarqube.ai.token.TokenCounter;
+import com.github.sonarqube.ai.token.Tokenizers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * AI 成本估算工具
@@ -14,17 +23,24 @@ import java.util.concurrent.atomic.AtomicLong;
  * 追蹤 AI API 使用量，計算成本，提供預算控制與優化建議。
  *
  * 功能特性：
- * - Token 使用量追蹤（輸入/輸出 token）
+ * - Token 使用量追蹤（輸入/輸出 token，含 Prompt 快取命中 token）
  * - 多 AI 供應商價格支援（OpenAI, Anthropic, Google Gemini）
  * - 成本預算控制與警告
  * - 統計分析與成本報告
- * - 批次成本估算
+ * - 批次成本估算（以本機 Tokenizer 計算檔案 token 數，近似 Tokenizer 依實際用量校正）
+ * - 預算決策（執行前判斷繼續、降級至較便宜模型或停止）
+ *
+ * 所有計數器皆為無鎖累加（LongAdder / DoubleAdder），多執行緒記錄不互相阻塞。
  *
  * 定價參考（2025-10-20）：
  * - OpenAI GPT-4: $0.03/1K input, $0.06/1K output
  * - Anthropic Claude 3: $0.015/1K input, $0.075/1K output
  * - Google Gemini Pro: $0.00025/1K input, $0.0005/1K output
  *
+ * 快取命中的輸入 token 以各供應商的快取讀取單價計費（Anthropic 10%、OpenAI 50%、Gemini 25% 的輸入單價；
+ * OpenAI 只有 GPT-4o 之後的模型會回報快取命中，較舊的模型命中數恆為 0）。
+ * Anthropic 寫入快取的輸入 token 以 1.25 倍輸入單價計費，其餘供應商寫入快取不另收費。
+ *
  * @since 2.9.0 (Epic 6, Story 6.7)
  * @author SonarQube AI OWASP Plugin Team
  */
@@ -32,41 +48,61 @@ public class CostEstimator {
 
     private static final Logger LOG = LoggerFactory.getLogger(CostEstimator.class);
 
-    // Singleton instance
-    private static CostEstimator instance;
-
     // Token 使用量追蹤
-    private final AtomicLong totalInputTokens;
-    private final AtomicLong totalOutputTokens;
-    private final AtomicInteger totalApiCalls;
+    private final LongAdder totalInputTokens = new LongAdder();
+    private final LongAdder totalCachedInputTokens = new LongAdder();
+    private final LongAdder totalCacheWriteInputTokens = new LongAdder();
+    private final LongAdder totalOutputTokens = new LongAdder();
+    private final LongAdder totalApiCalls = new LongAdder();
+
+    // 依各次呼叫的實際供應商累計的成本（美元）
+    private final DoubleAdder spentCost = new DoubleAdder();
 
     // 成本預算設定
-    private double budgetLimit = 100.0; // 預設 $100
-    private double warningThreshold = 0.8; // 80% 時警告
+    private volatile double budgetLimit = 100.0; // 預設 $100
+    private volatile double warningThreshold = 0.8; // 80% 時警告
+    private final AtomicBoolean warningLogged = new AtomicBoolean();
+    private final AtomicBoolean overspendLogged = new AtomicBoolean();
 
     // AI 供應商價格表（美元/1K tokens）
     private final Map<AiProvider, Pricing> pricingTable;
 
+    // 各供應商的 Token 計數器（相同編碼共用，檔案快取與校正亦共用）
+    private final Map<AiProvider, TokenCounter> tokenCounters;
+
     /**
      * 私有建構子（Singleton 模式）
      */
     private CostEstimator() {
-        this.totalInputTokens = new AtomicLong(0);
-        this.totalOutputTokens = new AtomicLong(0);
-        this.totalApiCalls = new AtomicInteger(0);
         this.pricingTable = initializePricingTable();
+        this.tokenCounters = initializeTokenCounters();
 
         LOG.info("CostEstimator 已初始化");
     }
 
     /**
-     * 取得 Singleton 實例
+     * 取得 Singleton 實例（延遲初始化，不需同步）
+     */
+    public static CostEstimator getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final CostEstimator INSTANCE = new CostEstimator();
+    }
+
+    /**
+     * 初始化 Token 計數器
      */
-    public static synchronized CostEstimator getInstance() {
-        if (instance == null) {
-            instance = new CostEstimator();
+    private static Map<AiProvider, TokenCounter> initializeTokenCounters() {
+        Map<String, TokenCounter> byEncoding = new HashMap<>();
+        Map<AiProvider, TokenCounter> counters = new EnumMap<>(AiProvider.class);
+        for (AiProvider provider : AiProvider.values()) {
+            counters.put(provider, byEncoding.computeIfAbsent(
+                    provider.getVendor() + ":" + Tokenizers.encodingFor(provider.getModelId()),
+                    key -> TokenCounter.forModel(provider.getModelId())));
         }
-        return instance;
+        return counters;
     }
 
     /**
@@ -76,28 +112,28 @@ public class CostEstimator {
         Map<AiProvider, Pricing> table = new HashMap<>();
 
         // OpenAI GPT-4
-        table.put(AiProvider.OPENAI_GPT4, new Pricing(0.03, 0.06));
+        table.put(AiProvider.OPENAI_GPT4, new Pricing(0.03, 0.015, 0.06));
 
-        // OpenAI GPT-4 Turbo
-        table.put(AiProvider.OPENAI_GPT4_TURBO, new Pricing(0.01, 0.03));
+        // OpenAI GPT-4 Turbo（GPT-4o 亦歸入此等級）
+        table.put(AiProvider.OPENAI_GPT4_TURBO, new Pricing(0.01, 0.005, 0.03));
 
         // OpenAI GPT-3.5 Turbo
-        table.put(AiProvider.OPENAI_GPT35_TURBO, new Pricing(0.0015, 0.002));
+        table.put(AiProvider.OPENAI_GPT35_TURBO, new Pricing(0.0015, 0.00075, 0.002));
 
         // Anthropic Claude 3 Opus
-        table.put(AiProvider.ANTHROPIC_CLAUDE3_OPUS, new Pricing(0.015, 0.075));
+        table.put(AiProvider.ANTHROPIC_CLAUDE3_OPUS, new Pricing(0.015, 0.0015, 0.01875, 0.075));
 
         // Anthropic Claude 3 Sonnet
-        table.put(AiProvider.ANTHROPIC_CLAUDE3_SONNET, new Pricing(0.003, 0.015));
+        table.put(AiProvider.ANTHROPIC_CLAUDE3_SONNET, new Pricing(0.003, 0.0003, 0.00375, 0.015));
 
         // Anthropic Claude 3 Haiku
-        table.put(AiProvider.ANTHROPIC_CLAUDE3_HAIKU, new Pricing(0.00025, 0.00125));
+        table.put(AiProvider.ANTHROPIC_CLAUDE3_HAIKU, new Pricing(0.00025, 0.000025, 0.0003125, 0.00125));
 
         // Google Gemini 1.5 Pro
-        table.put(AiProvider.GOOGLE_GEMINI_PRO, new Pricing(0.00025, 0.0005));
+        table.put(AiProvider.GOOGLE_GEMINI_PRO, new Pricing(0.00025, 0.0000625, 0.0005));
 
         // Google Gemini 1.5 Flash
-        table.put(AiProvider.GOOGLE_GEMINI_FLASH, new Pricing(0.000125, 0.00025));
+        table.put(AiProvider.GOOGLE_GEMINI_FLASH, new Pricing(0.000125, 0.00003125, 0.00025));
 
         return table;
     }
@@ -110,20 +146,106 @@ public class CostEstimator {
      * @param outputTokens 輸出 token 數
      */
     public void recordApiCall(AiProvider provider, long inputTokens, long outputTokens) {
-        totalInputTokens.addAndGet(inputTokens);
-        totalOutputTokens.addAndGet(outputTokens);
-        totalApiCalls.incrementAndGet();
+        recordApiCall(provider, inputTokens, 0, outputTokens);
+    }
+
+    /**
+     * 記錄 API 呼叫（含 Prompt 快取命中 token）
+     *
+     * @param provider AI 供應商
+     * @param inputTokens 輸入 token 數（包含快取命中部分）
+     * @param cachedInputTokens 自快取讀取的輸入 token 數
+     * @param outputTokens 輸出 token 數
+     */
+    public void recordApiCall(AiProvider provider, long inputTokens, long cachedInputTokens, long outputTokens) {
+        recordApiCall(provider, inputTokens, cachedInputTokens, 0, outputTokens);
+    }
+
+    /**
+     * 記錄 API 呼叫（含 Prompt 快取讀取與寫入 token）
+     *
+     * @param provider AI 供應商
+     * @param inputTokens 輸入 token 數（包含快取讀取與寫入部分）
+     * @param cachedInputTokens 自快取讀取的輸入 token 數
+     * @param cacheWriteInputTokens 寫入快取的輸入 token 數
+     * @param outputTokens 輸出 token 數
+     */
+    public void recordApiCall(AiProvider provider, long inputTokens, long cachedInputTokens,
+                              long cacheWriteInputTokens, long outputTokens) {
+        totalInputTokens.add(inputTokens);
+        totalCachedInputTokens.add(cachedInputTokens);
+        totalCacheWriteInputTokens.add(cacheWriteInputTokens);
+        totalOutputTokens.add(outputTokens);
+        totalApiCalls.increment();
 
         // 計算成本
-        double cost = calculateCost(provider, inputTokens, outputTokens);
+        double cost = calculateCost(provider, inputTokens, cachedInputTokens, cacheWriteInputTokens, outputTokens);
+        spentCost.add(cost);
 
-        LOG.debug("API 呼叫記錄: provider={}, input={}, output={}, cost=${:.4f}",
-                provider, inputTokens, outputTokens, cost);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("API 呼叫記錄: provider={}, input={}, cached={}, cacheWrite={}, output={}, cost=${}",
+                    provider, inputTokens, cachedInputTokens, cacheWriteInputTokens, outputTokens,
+                    String.format("%.4f", cost));
+        }
 
         // 檢查預算
         checkBudgetWarning();
     }
 
+    /**
+     * 依 AI 回應的實際 token 用量記錄 API 呼叫
+     *
+     * 提供者未回報輸入/輸出明細時，將總 token 數視為輸入 token。
+     *
+     * @param provider AI 供應商
+     * @param response AI 回應
+     */
+    public void recordResponse(AiProvider provider, AiResponse response) {
+        if (response.getInputTokens() == 0 && response.getOutputTokens() == 0) {
+            recordApiCall(provider, response.getTokensUsed(), 0, 0);
+            return;
+        }
+        recordApiCall(provider, response.getInputTokens(), response.getCachedInputTokens(),
+                response.getCacheWriteInputTokens(), response.getOutputTokens());
+    }
+
+    /**
+     * 依 AI 回應記錄 API 呼叫，並以實際輸入 token 數校正該供應商的估算
+     *
+     * @param provider AI 供應商
+     * @param response AI 回應
+     * @param rawEstimatedInputTokens 呼叫前以 {@link #countInputTokens(AiProvider, String)} 算出的輸入 token 數
+     */
+    public void recordResponse(AiProvider provider, AiResponse response, long rawEstimatedInputTokens) {
+        // 未回報輸入明細時總數含輸出 token，不可用於校正
+        if (response.getInputTokens() > 0) {
+            tokenCounters.get(provider).calibrate(rawEstimatedInputTokens, response.getInputTokens());
+        }
+        recordResponse(provider, response);
+    }
+
+    /**
+     * 以供應商對應的 Tokenizer 計算輸入 token 數（未校正，供呼叫後校正使用）
+     */
+    public long countInputTokens(AiProvider provider, String prompt) {
+        return tokenCounters.get(provider).count(prompt);
+    }
+
+    /**
+     * 估算輸入 token 數（已依實際用量校正）
+     */
+    public long estimateInputTokens(AiProvider provider, String prompt) {
+        TokenCounter counter = tokenCounters.get(provider);
+        return counter.estimate(counter.count(prompt));
+    }
+
+    /**
+     * 將原始 token 數換算為校正後的估計值
+     */
+    public long calibrateEstimate(AiProvider provider, long rawTokens) {
+        return tokenCounters.get(provider).estimate(rawTokens);
+    }
+
     /**
      * 計算成本
      *
@@ -133,16 +255,40 @@ public class CostEstimator {
      * @return 成本（美元）
      */
     public double calculateCost(AiProvider provider, long inputTokens, long outputTokens) {
+        return calculateCost(provider, inputTokens, 0, outputTokens);
+    }
+
+    /**
+     * 計算成本（快取命中的輸入 token 以快取讀取單價計算）
+     *
+     * @param provider AI 供應商
+     * @param inputTokens 輸入 token 數（包含快取命中部分）
+     * @param cachedInputTokens 自快取讀取的輸入 token 數
+     * @param outputTokens 輸出 token 數
+     * @return 成本（美元）
+     */
+    public double calculateCost(AiProvider provider, long inputTokens, long cachedInputTokens, long outputTokens) {
+        return calculateCost(provider, inputTokens, cachedInputTokens, 0, outputTokens);
+    }
+
+    /**
+     * 計算成本（快取讀取與寫入的輸入 token 分別以對應單價計算）
+     *
+     * @param provider AI 供應商
+     * @param inputTokens 輸入 token 數（包含快取讀取與寫入部分）
+     * @param cachedInputTokens 自快取讀取的輸入 token 數
+     * @param cacheWriteInputTokens 寫入快取的輸入 token 數
+     * @param outputTokens 輸出 token 數
+     * @return 成本（美元）
+     */
+    public double calculateCost(AiProvider provider, long inputTokens, long cachedInputTokens,
+                                long cacheWriteInputTokens, long outputTokens) {
         Pricing pricing = pricingTable.get(provider);
         if (pricing == null) {
             LOG.warn("未知的 AI 供應商: {}, 使用預設價格", provider);
-            pricing = new Pricing(0.01, 0.03); // 預設價格
+            pricing = new Pricing(0.01, 0.01, 0.03); // 預設價格
         }
-
-        double inputCost = (inputTokens / 1000.0) * pricing.inputPricePerK;
-        double outputCost = (outputTokens / 1000.0) * pricing.outputPricePerK;
-
-        return inputCost + outputCost;
+        return pricing.cost(inputTokens, cachedInputTokens, cacheWriteInputTokens, outputTokens);
     }
 
     /**
@@ -174,28 +320,124 @@ public class CostEstimator {
     }
 
     /**
-     * 取得目前總成本
+     * 以本機 Tokenizer 估算掃描成本
+     *
+     * 每個檔案的輸入 token 數為檔案內容的 token 數（已校正）加上固定的 prompt 額外負擔。
+     * 無法讀取的檔案不計入。
+     *
+     * @param provider AI 供應商
+     * @param files 要掃描的檔案
+     * @param promptOverheadTokensPerFile 每檔案的 prompt 額外 token 數（系統提示、規則說明等）
+     * @param outputTokensPerFile 每檔案預估輸出 token 數
+     * @return 批次估算結果
+     */
+    public BatchCostEstimate estimateScanCost(AiProvider provider, Collection<Path> files,
+                                              long promptOverheadTokensPerFile, long outputTokensPerFile) {
+        TokenCounter counter = tokenCounters.get(provider);
+        LongAdder inputTokens = new LongAdder();
+        LongAdder fileCount = new LongAdder();
+        files.parallelStream().forEach(file -> {
+            try {
+                inputTokens.add(counter.estimate(counter.countFile(file)) + promptOverheadTokensPerFile);
+                fileCount.increment();
+            } catch (IOException e) {
+                LOG.debug("估算時無法讀取檔案 {}: {}", file, e.getMessage());
+            }
+        });
+
+        int counted = fileCount.intValue();
+        long totalInput = inputTokens.sum();
+        long totalOutput = counted * outputTokensPerFile;
+        return new BatchCostEstimate(counted, totalInput, totalOutput,
+                calculateCost(provider, totalInput, totalOutput), provider);
+    }
+
+    /**
+     * 判斷預算是否足以執行下一項工作
+     *
+     * 預估成本在剩餘預算內時繼續；否則改用同一廠商中剩餘預算內最貴（品質最高）的較便宜模型；
+     * 仍不足時停止。
+     *
+     * @param provider 預定使用的 AI 供應商
+     * @param estimatedInputTokens 預估輸入 token 數
+     * @param estimatedOutputTokens 預估輸出 token 數
+     * @return 預算決策
+     */
+    public BudgetDecision evaluateBudget(AiProvider provider, long estimatedInputTokens, long estimatedOutputTokens) {
+        return evaluateBudget(provider, estimatedInputTokens, estimatedOutputTokens, getRemainingBudget());
+    }
+
+    /**
+     * 依指定的剩餘預算判斷是否足以執行下一項工作（規則同 {@link #evaluateBudget(AiProvider, long, long)}）
+     *
+     * @param provider 預定使用的 AI 供應商
+     * @param estimatedInputTokens 預估輸入 token 數
+     * @param estimatedOutputTokens 預估輸出 token 數
+     * @param remaining 剩餘預算，美元（例如單次掃描的成本上限扣除已用量）
+     * @return 預算決策
+     */
+    public BudgetDecision evaluateBudget(AiProvider provider, long estimatedInputTokens, long estimatedOutputTokens,
+                                         double remaining) {
+        double cost = calculateCost(provider, estimatedInputTokens, estimatedOutputTokens);
+        if (cost <= remaining) {
+            return new BudgetDecision(BudgetAction.PROCEED, provider, cost, remaining);
+        }
+
+        AiProvider fallback = null;
+        double fallbackCost = 0;
+        for (AiProvider candidate : AiProvider.values()) {
+            if (candidate == provider || !candidate.getVendor().equals(provider.getVendor())) {
+                continue;
+            }
+            double candidateCost = calculateCost(candidate, estimatedInputTokens, estimatedOutputTokens);
+            if (candidateCost <= remaining && (fallback == null || candidateCost > fallbackCost)) {
+                fallback = candidate;
+                fallbackCost = candidateCost;
+            }
+        }
+        if (fallback != null) {
+            return new BudgetDecision(BudgetAction.DOWNSHIFT, fallback, fallbackCost, remaining);
+        }
+        return new BudgetDecision(BudgetAction.STOP, provider, cost, remaining);
+    }
+
+    /**
+     * 取得目前總成本（以指定供應商價格計算全部 token）
      */
     public double getCurrentTotalCost(AiProvider provider) {
-        return calculateCost(provider, totalInputTokens.get(), totalOutputTokens.get());
+        return calculateCost(provider, totalInputTokens.sum(), totalCachedInputTokens.sum(),
+                totalCacheWriteInputTokens.sum(), totalOutputTokens.sum());
     }
 
     /**
-     * 檢查預算警告
+     * 取得實際已花費的成本（各次呼叫依其供應商價格累計）
+     */
+    public double getSpentCost() {
+        return spentCost.sum();
+    }
+
+    /**
+     * 取得剩餘預算
+     */
+    public double getRemainingBudget() {
+        return Math.max(0, budgetLimit - spentCost.sum());
+    }
+
+    /**
+     * 檢查預算警告（每次越過門檻只記錄一次）
      */
     private void checkBudgetWarning() {
-        // 使用 GPT-4 作為參考價格
-        double currentCost = getCurrentTotalCost(AiProvider.OPENAI_GPT4);
-        double usagePercentage = (currentCost / budgetLimit) * 100.0;
+        double currentCost = spentCost.sum();
+        double usagePercentage = budgetLimit == 0 ? 100.0 : (currentCost / budgetLimit) * 100.0;
 
-        if (usagePercentage >= warningThreshold * 100) {
-            LOG.warn("⚠️ 預算警告: 已使用 {:.2f}% (${:.2f}/${:.2f})",
-                    usagePercentage, currentCost, budgetLimit);
+        if (usagePercentage >= warningThreshold * 100 && warningLogged.compareAndSet(false, true)) {
+            LOG.warn("⚠️ 預算警告: 已使用 {}% (${}/${})", String.format("%.2f", usagePercentage),
+                    String.format("%.2f", currentCost), String.format("%.2f", budgetLimit));
         }
 
-        if (currentCost >= budgetLimit) {
-            LOG.error("🚨 預算超支: ${:.2f} / ${:.2f}",
-                    currentCost, budgetLimit);
+        if (currentCost >= budgetLimit && overspendLogged.compareAndSet(false, true)) {
+            LOG.error("🚨 預算超支: ${} / ${}", String.format("%.2f", currentCost),
+                    String.format("%.2f", budgetLimit));
         }
     }
 
@@ -204,9 +446,11 @@ public class CostEstimator {
      */
     public CostStatistics getStatistics() {
         return new CostStatistics(
-                totalApiCalls.get(),
-                totalInputTokens.get(),
-                totalOutputTokens.get(),
+                totalApiCalls.intValue(),
+                totalInputTokens.sum(),
+                totalCachedInputTokens.sum(),
+                totalCacheWriteInputTokens.sum(),
+                totalOutputTokens.sum(),
                 budgetLimit,
                 pricingTable
         );
@@ -216,9 +460,14 @@ public class CostEstimator {
      * 重置統計資料
      */
     public void reset() {
-        totalInputTokens.set(0);
-        totalOutputTokens.set(0);
-        totalApiCalls.set(0);
+        totalInputTokens.reset();
+        totalCachedInputTokens.reset();
+        totalCacheWriteInputTokens.reset();
+        totalOutputTokens.reset();
+        totalApiCalls.reset();
+        spentCost.reset();
+        warningLogged.set(false);
+        overspendLogged.set(false);
         LOG.info("成本統計已重置");
     }
 
@@ -227,7 +476,9 @@ public class CostEstimator {
      */
     public void setBudgetLimit(double budgetLimit) {
         this.budgetLimit = Math.max(0, budgetLimit);
-        LOG.info("預算限制已設為: ${:.2f}", this.budgetLimit);
+        warningLogged.set(false);
+        overspendLogged.set(false);
+        LOG.info("預算限制已設為: ${}", String.format("%.2f", this.budgetLimit));
     }
 
     /**
@@ -235,7 +486,7 @@ public class CostEstimator {
      */
     public void setWarningThreshold(double warningThreshold) {
         this.warningThreshold = Math.max(0, Math.min(1.0, warningThreshold));
-        LOG.info("警告閾值已設為: {:.0f}%", this.warningThreshold * 100);
+        LOG.info("警告閾值已設為: {}%", String.format("%.0f", this.warningThreshold * 100));
     }
 
     /**
@@ -256,24 +507,127 @@ public class CostEstimator {
      * AI 供應商枚舉
      */
     public enum AiProvider {
-        OPENAI_GPT4("OpenAI GPT-4"),
-        OPENAI_GPT4_TURBO("OpenAI GPT-4 Turbo"),
-        OPENAI_GPT35_TURBO("OpenAI GPT-3.5 Turbo"),
-        ANTHROPIC_CLAUDE3_OPUS("Anthropic Claude 3 Opus"),
-        ANTHROPIC_CLAUDE3_SONNET("Anthropic Claude 3 Sonnet"),
-        ANTHROPIC_CLAUDE3_HAIKU("Anthropic Claude 3 Haiku"),
-        GOOGLE_GEMINI_PRO("Google Gemini 1.5 Pro"),
-        GOOGLE_GEMINI_FLASH("Google Gemini 1.5 Flash");
+        OPENAI_GPT4("OpenAI GPT-4", "gpt-4"),
+        OPENAI_GPT4_TURBO("OpenAI GPT-4 Turbo", "gpt-4-turbo"),
+        OPENAI_GPT35_TURBO("OpenAI GPT-3.5 Turbo", "gpt-3.5-turbo"),
+        ANTHROPIC_CLAUDE3_OPUS("Anthropic Claude 3 Opus", "claude-3-opus-20240229"),
+        ANTHROPIC_CLAUDE3_SONNET("Anthropic Claude 3 Sonnet", "claude-3-sonnet-20240229"),
+        ANTHROPIC_CLAUDE3_HAIKU("Anthropic Claude 3 Haiku", "claude-3-haiku-20240307"),
+        GOOGLE_GEMINI_PRO("Google Gemini 1.5 Pro", "gemini-1.5-pro"),
+        GOOGLE_GEMINI_FLASH("Google Gemini 1.5 Flash", "gemini-1.5-flash");
 
         private final String displayName;
+        private final String modelId;
 
-        AiProvider(String displayName) {
+        AiProvider(String displayName, String modelId) {
             this.displayName = displayName;
+            this.modelId = modelId;
         }
 
         public String getDisplayName() {
             return displayName;
         }
+
+        /**
+         * 代表模型 ID（用於選擇 Tokenizer）
+         */
+        public String getModelId() {
+            return modelId;
+        }
+
+        /**
+         * 廠商（OPENAI、ANTHROPIC、GOOGLE），降級時只在同一廠商內選擇
+         */
+        public String getVendor() {
+            return name().substring(0, name().indexOf('_'));
+        }
+
+        /**
+         * 依模型 ID 對應價格等級（未知模型回傳 null）
+         *
+         * @param modelId 模型 ID（例：gpt-4o-mini、claude-3-5-sonnet-20241022、gemini-2.5-flash）
+         */
+        public static AiProvider fromModelId(String modelId) {
+            if (modelId == null) {
+                return null;
+            }
+            String id = modelId.toLowerCase(Locale.ROOT);
+            if (id.contains("gpt-3.5")) {
+                return OPENAI_GPT35_TURBO;
+            }
+            if (id.contains("gpt-4-turbo") || id.contains("gpt-4o")) {
+                return OPENAI_GPT4_TURBO;
+            }
+            if (id.contains("gpt-4")) {
+                return OPENAI_GPT4;
+            }
+            if (id.contains("claude")) {
+                return id.contains("opus") ? ANTHROPIC_CLAUDE3_OPUS
+                        : id.contains("haiku") ? ANTHROPIC_CLAUDE3_HAIKU : ANTHROPIC_CLAUDE3_SONNET;
+            }
+            if (id.contains("gemini")) {
+                return id.contains("flash") ? GOOGLE_GEMINI_FLASH : GOOGLE_GEMINI_PRO;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 預算決策動作
+     */
+    public enum BudgetAction {
+        /** 預算足夠，照原定模型執行 */
+        PROCEED,
+        /** 預算不足以使用原定模型，改用較便宜的模型 */
+        DOWNSHIFT,
+        /** 預算不足，停止 */
+        STOP
+    }
+
+    /**
+     * 預算決策結果
+     */
+    public static class BudgetDecision {
+        private final BudgetAction action;
+        private final AiProvider provider;
+        private final double estimatedCost;
+        private final double remainingBudget;
+
+        public BudgetDecision(BudgetAction action, AiProvider provider, double estimatedCost, double remainingBudget) {
+            this.action = action;
+            this.provider = provider;
+            this.estimatedCost = estimatedCost;
+            this.remainingBudget = remainingBudget;
+        }
+
+        public BudgetAction getAction() {
+            return action;
+        }
+
+        /**
+         * 應使用的供應商（DOWNSHIFT 時為降級後的供應商）
+         */
+        public AiProvider getProvider() {
+            return provider;
+        }
+
+        public double getEstimatedCost() {
+            return estimatedCost;
+        }
+
+        public double getRemainingBudget() {
+            return remainingBudget;
+        }
+
+        public boolean isAllowed() {
+            return action != BudgetAction.STOP;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("BudgetDecision{action=%s, provider=%s, estimatedCost=$%.4f, remaining=$%.4f}",
+                    action, provider, estimatedCost, remainingBudget);
+        }
     }
 
     /**
@@ -281,12 +635,35 @@ public class CostEstimator {
      */
     private static class Pricing {
         private final double inputPricePerK;  // 輸入 token 價格（每 1K）
+        private final double cachedInputPricePerK; // 快取命中輸入 token 價格（每 1K）
+        private final double cacheWriteInputPricePerK; // 寫入快取輸入 token 價格（每 1K）
         private final double outputPricePerK; // 輸出 token 價格（每 1K）
 
         public Pricing(double inputPricePerK, double outputPricePerK) {
+            this(inputPricePerK, inputPricePerK, outputPricePerK);
+        }
+
+        public Pricing(double inputPricePerK, double cachedInputPricePerK, double outputPricePerK) {
+            this(inputPricePerK, cachedInputPricePerK, inputPricePerK, outputPricePerK);
+        }
+
+        public Pricing(double inputPricePerK, double cachedInputPricePerK, double cacheWriteInputPricePerK,
+                       double outputPricePerK) {
             this.inputPricePerK = inputPricePerK;
+            this.cachedInputPricePerK = cachedInputPricePerK;
+            this.cacheWriteInputPricePerK = cacheWriteInputPricePerK;
             this.outputPricePerK = outputPricePerK;
         }
+
+        private double cost(long inputTokens, long cachedInputTokens, long cacheWriteInputTokens, long outputTokens) {
+            long cached = Math.min(Math.max(0, cachedInputTokens), inputTokens);
+            long written = Math.min(Math.max(0, cacheWriteInputTokens), inputTokens - cached);
+            double inputCost = ((inputTokens - cached - written) / 1000.0) * inputPricePerK;
+            double cachedCost = (cached / 1000.0) * cachedInputPricePerK;
+            double writeCost = (written / 1000.0) * cacheWriteInputPricePerK;
+            double outputCost = (outputTokens / 1000.0) * outputPricePerK;
+            return inputCost + cachedCost + writeCost + outputCost;
+        }
     }
 
     /**
@@ -347,14 +724,30 @@ public class CostEstimator {
     public static class CostStatistics {
         private final int totalApiCalls;
         private final long totalInputTokens;
+        private final long totalCachedInputTokens;
+        private final long totalCacheWriteInputTokens;
         private final long totalOutputTokens;
         private final double budgetLimit;
         private final Map<AiProvider, Pricing> pricingTable;
 
         public CostStatistics(int totalApiCalls, long totalInputTokens, long totalOutputTokens,
                               double budgetLimit, Map<AiProvider, Pricing> pricingTable) {
+            this(totalApiCalls, totalInputTokens, 0, totalOutputTokens, budgetLimit, pricingTable);
+        }
+
+        public CostStatistics(int totalApiCalls, long totalInputTokens, long totalCachedInputTokens,
+                              long totalOutputTokens, double budgetLimit, Map<AiProvider, Pricing> pricingTable) {
+            this(totalApiCalls, totalInputTokens, totalCachedInputTokens, 0, totalOutputTokens, budgetLimit,
+                    pricingTable);
+        }
+
+        public CostStatistics(int totalApiCalls, long totalInputTokens, long totalCachedInputTokens,
+                              long totalCacheWriteInputTokens, long totalOutputTokens, double budgetLimit,
+                              Map<AiProvider, Pricing> pricingTable) {
             this.totalApiCalls = totalApiCalls;
             this.totalInputTokens = totalInputTokens;
+            this.totalCachedInputTokens = totalCachedInputTokens;
+            this.totalCacheWriteInputTokens = totalCacheWriteInputTokens;
             this.totalOutputTokens = totalOutputTokens;
             this.budgetLimit = budgetLimit;
             this.pricingTable = pricingTable;
@@ -368,6 +761,21 @@ public class CostEstimator {
             return totalInputTokens;
         }
 
+        public long getTotalCachedInputTokens() {
+            return totalCachedInputTokens;
+        }
+
+        public long getTotalCacheWriteInputTokens() {
+            return totalCacheWriteInputTokens;
+        }
+
+        /**
+         * 計算輸入 token 的快取命中率
+         */
+        public double getCacheHitRatio() {
+            return totalInputTokens == 0 ? 0.0 : (double) totalCachedInputTokens / totalInputTokens;
+        }
+
         public long getTotalOutputTokens() {
             return totalOutputTokens;
         }
@@ -389,10 +797,7 @@ public class CostEstimator {
                 return 0.0;
             }
 
-            double inputCost = (totalInputTokens / 1000.0) * pricing.inputPricePerK;
-            double outputCost = (totalOutputTokens / 1000.0) * pricing.outputPricePerK;
-
-            return inputCost + outputCost;
+            return pricing.cost(totalInputTokens, totalCachedInputTokens, totalCacheWriteInputTokens, totalOutputTokens);
         }
 
         /**
@@ -413,8 +818,9 @@ public class CostEstimator {
         @Override
         public String toString() {
             return String.format(
-                    "CostStatistics{apiCalls=%d, inputTokens=%d, outputTokens=%d, totalTokens=%d, budget=$%.2f}",
-                    totalApiCalls, totalInputTokens, totalOutputTokens, getTotalTokens(), budgetLimit
+                    "CostStatistics{apiCalls=%d, inputTokens=%d, cachedInputTokens=%d, cacheWriteInputTokens=%d, outputTokens=%d, totalTokens=%d, budget=$%.2f}",
+                    totalApiCalls, totalInputTokens, totalCachedInputTokens, totalCacheWriteInputTokens,
+                    totalOutputTokens, getTotalTokens(), budgetLimit
             );
         }
     }
@@ -1,5 +1,9 @@
 package com.github.sonarqube.plugin.incremental;
 
+import com.github.sonarqube.shared.git.GitChange;
+import com.github.sonarqube.shared.git.GitRepository;
+import com.github.sonarqube.shared.path.GlobMatcher;
+import com.github.sonarqube.shared.path.ScopedFileWalker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -7,10 +11,10 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +30,9 @@ import java.util.stream.Collectors;
  * - 基準比較（與特定 commit/branch 比較）
  * - 統計資訊（變更檔案數、掃描節省比例）
  *
+ * 變更偵測優先以 {@link GitRepository} 直接讀取索引與物件資料庫（不啟動子行程），
+ * 倉庫設定不支援時才改用 git 指令。
+ *
  * 效能提升：
  * - 典型變更：5-10% 檔案修改
  * - 掃描時間節省：90-95%
@@ -45,10 +52,15 @@ public class IncrementalScanManager {
     // Git 可執行檔路徑
     private String gitExecutable = "git";
 
-    // 支援的程式碼檔案副檔名
-    private static final Set<String> CODE_EXTENSIONS = new HashSet<>(Arrays.asList(
+    // 支援的程式碼檔案副檔名（預先編譯為字尾表，忽略大小寫）
+    private static final GlobMatcher CODE_FILES = GlobMatcher.forExtensions(Arrays.asList(
             ".java", ".js", ".ts", ".jsx", ".tsx", ".py", ".go", ".rb", ".php",
             ".c", ".cpp", ".h", ".cs", ".kt", ".scala", ".swift", ".m", ".mm"
+    ), true);
+
+    // 統計時不走訪的目錄（版本控制、相依套件與建置輸出）
+    private static final GlobMatcher IGNORED_DIRECTORIES = GlobMatcher.compile(Arrays.asList(
+            ".git/**", "node_modules/**", "target/**", "build/**", "dist/**", "__pycache__/**", ".venv/**"
     ));
 
     /**
@@ -134,6 +146,11 @@ public class IncrementalScanManager {
      * 執行 git diff 取得變更檔案
      */
     private List<String> executeGitDiff(String projectPath, String baseline) throws IOException {
+        List<String> inProcess = diffInProcess(projectPath, baseline);
+        if (inProcess != null) {
+            return inProcess;
+        }
+
         List<String> changedFiles = new ArrayList<>();
 
         // 建構 git diff 命令
@@ -187,6 +204,33 @@ public class IncrementalScanManager {
         return changedFiles.stream().distinct().collect(Collectors.toList());
     }
 
+    /**
+     * 以行程內讀取器取得工作目錄與暫存區的變更檔案
+     *
+     * @return 相對路徑列表，倉庫設定不支援時回傳 null（改用 git 指令）
+     */
+    private List<String> diffInProcess(String projectPath, String baseline) {
+        long start = System.nanoTime();
+        try (GitRepository repository = GitRepository.open(Paths.get(projectPath)).orElse(null)) {
+            if (repository == null) {
+                return null;
+            }
+            Set<String> changedFiles = new TreeSet<>();
+            for (GitChange change : repository.diffWorkingTree(baseline, false)) {
+                changedFiles.add(change.getPath());
+            }
+            for (GitChange change : repository.diffIndex(false)) {
+                changedFiles.add(change.getPath());
+            }
+            LOG.debug("行程內 Git 變更偵測完成: {} 個檔案, {} ms",
+                    changedFiles.size(), (System.nanoTime() - start) / 1_000_000);
+            return new ArrayList<>(changedFiles);
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("行程內 Git 變更偵測不適用，改用 git 指令: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 取得 staged 變更檔案
      */
@@ -226,10 +270,7 @@ public class IncrementalScanManager {
      */
     private List<String> filterCodeFiles(List<String> files) {
         return files.stream()
-                .filter(file -> {
-                    String lower = file.toLowerCase();
-                    return CODE_EXTENSIONS.stream().anyMatch(lower::endsWith);
-                })
+                .filter(CODE_FILES::matches)
                 .collect(Collectors.toList());
     }
 
@@ -255,14 +296,14 @@ public class IncrementalScanManager {
      * 計算專案中程式碼檔案總數
      */
     private int countTotalCodeFiles(String projectPath) {
+        AtomicInteger count = new AtomicInteger();
         try {
-            return (int) Files.walk(Paths.get(projectPath))
-                    .filter(Files::isRegularFile)
-                    .filter(path -> {
-                        String fileName = path.getFileName().toString().toLowerCase();
-                        return CODE_EXTENSIONS.stream().anyMatch(fileName::endsWith);
-                    })
-                    .count();
+            ScopedFileWalker.builder(Paths.get(projectPath))
+                    .include(CODE_FILES)
+                    .exclude(IGNORED_DIRECTORIES)
+                    .build()
+                    .walk(file -> count.incrementAndGet());
+            return count.get();
         } catch (IOException e) {
             LOG.error("計算檔案總數時發生錯誤", e);
             return 0;
@@ -273,6 +314,14 @@ public class IncrementalScanManager {
      * 取得目前 Git 分支名稱
      */
     public String getCurrentBranch(String projectPath) {
+        try (GitRepository repository = GitRepository.open(Paths.get(projectPath)).orElse(null)) {
+            if (repository != null) {
+                return repository.getCurrentBranch();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("行程內讀取分支失敗，改用 git 指令: {}", e.getMessage());
+        }
+
         try {
             ProcessBuilder pb = new ProcessBuilder(
                     gitExecutable, "rev-parse", "--abbrev-ref", "HEAD"
@@ -297,6 +346,14 @@ public class IncrementalScanManager {
      * 取得最新 commit hash
      */
     public String getLatestCommit(String projectPath) {
+        try (GitRepository repository = GitRepository.open(Paths.get(projectPath)).orElse(null)) {
+            if (repository != null) {
+                return repository.resolve("HEAD").substring(0, 8);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("行程內讀取 commit 失敗，改用 git 指令: {}", e.getMessage());
+        }
+
         try {
             ProcessBuilder pb = new ProcessBuilder(
                     gitExecutable, "rev-parse", "HEAD"
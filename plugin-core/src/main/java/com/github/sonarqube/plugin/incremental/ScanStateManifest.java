@@ -0,0 +1,266 @@
+package com.github.sonarqube.plugin.incremental;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 掃描狀態清單
+ *
+ * 記錄上一次成功掃描時每個檔案的 stat 資訊（大小、修改時間）、內容 hash 與當時回報的問題，
+ * 以及規則集指紋、OWASP 版本與 AI 模型。下一次掃描時先比對 stat，只有 stat 不同才比對內容 hash；
+ * 未變更的檔案直接沿用先前的問題，不再呼叫 AI。規則集、OWASP 版本或 AI 模型任一不同時整份清單失效。
+ *
+ * <p>不依賴 Git 歷史，CI 中的全新 checkout 也適用（修改時間不同時退回內容 hash 比對）。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class ScanStateManifest {
+
+    /**
+     * 檔案格式標記與版本
+     */
+    private static final int MAGIC = 0x4f575353; // "OWSS"
+    private static final int FORMAT_VERSION = 1;
+
+    private final String rulesetFingerprint;
+    private final String owaspVersion;
+    private final String aiModel;
+    private final long scanStartedMillis;
+    private final Map<String, FileState> files;
+
+    private ScanStateManifest(String rulesetFingerprint, String owaspVersion, String aiModel,
+                              long scanStartedMillis, Map<String, FileState> files) {
+        this.rulesetFingerprint = rulesetFingerprint;
+        this.owaspVersion = owaspVersion;
+        this.aiModel = aiModel;
+        this.scanStartedMillis = scanStartedMillis;
+        this.files = Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * 建立新清單的 Builder
+     *
+     * @param rulesetFingerprint 規則集指紋
+     * @param owaspVersion OWASP 版本
+     * @param aiModel AI 模型 ID
+     * @param scanStartedMillis 本次掃描開始時間（晚於此時間修改的檔案下次不信任 stat）
+     */
+    public static Builder builder(String rulesetFingerprint, String owaspVersion, String aiModel,
+                                  long scanStartedMillis) {
+        return new Builder(rulesetFingerprint, owaspVersion, aiModel, scanStartedMillis);
+    }
+
+    /**
+     * 是否與本次掃描的規則集、OWASP 版本與 AI 模型相同（不同時先前的結果不可沿用）
+     */
+    public boolean isCompatibleWith(String rulesetFingerprint, String owaspVersion, String aiModel) {
+        return Objects.equals(this.rulesetFingerprint, rulesetFingerprint)
+            && Objects.equals(this.owaspVersion, owaspVersion)
+            && Objects.equals(this.aiModel, aiModel);
+    }
+
+    /**
+     * 判斷檔案自上次掃描後是否未變更
+     *
+     * 先比對大小與修改時間（修改時間早於上次掃描開始才信任），不符時才取得內容 hash 比對。
+     *
+     * @param path 相對路徑
+     * @param size 目前大小
+     * @param lastModifiedMillis 目前修改時間
+     * @param contentHash 目前內容 hash（僅在 stat 不符時呼叫）
+     * @return 未變更時回傳先前狀態（stat 已更新為目前值），否則回傳 null
+     */
+    public FileState findUnchanged(String path, long size, long lastModifiedMillis, Supplier<String> contentHash) {
+        FileState previous = files.get(path);
+        if (previous == null || previous.size != size) {
+            return null;
+        }
+        if (previous.lastModifiedMillis == lastModifiedMillis && lastModifiedMillis < scanStartedMillis) {
+            return previous;
+        }
+        return previous.contentHash.equals(contentHash.get())
+            ? new FileState(size, lastModifiedMillis, previous.contentHash, previous.issues)
+            : null;
+    }
+
+    public String getRulesetFingerprint() { return rulesetFingerprint; }
+    public String getOwaspVersion() { return owaspVersion; }
+    public String getAiModel() { return aiModel; }
+    public long getScanStartedMillis() { return scanStartedMillis; }
+
+    /**
+     * 相對路徑 → 檔案狀態（依路徑排序）
+     */
+    public Map<String, FileState> getFiles() { return files; }
+
+    /**
+     * 寫出清單（gzip 壓縮的二進位格式）
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(output);
+        DataOutputStream out = new DataOutputStream(gzip);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(rulesetFingerprint);
+        out.writeUTF(owaspVersion);
+        out.writeUTF(aiModel);
+        out.writeLong(scanStartedMillis);
+        out.writeInt(files.size());
+        for (Map.Entry<String, FileState> entry : files.entrySet()) {
+            FileState state = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeLong(state.size);
+            out.writeLong(state.lastModifiedMillis);
+            out.writeUTF(state.contentHash);
+            out.writeInt(state.issues.size());
+            for (RecordedIssue issue : state.issues) {
+                out.writeUTF(issue.ruleKey);
+                out.writeInt(issue.line);
+                writeLongString(out, issue.message);
+            }
+        }
+        out.flush();
+        gzip.finish();
+    }
+
+    /**
+     * 讀取清單
+     *
+     * @throws IOException 格式不符或版本不支援時
+     */
+    public static ScanStateManifest readFrom(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new GZIPInputStream(input));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a scan state manifest");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported scan state manifest version " + version);
+        }
+        Builder builder = new Builder(in.readUTF(), in.readUTF(), in.readUTF(), in.readLong());
+        int fileCount = in.readInt();
+        for (int i = 0; i < fileCount; i++) {
+            String path = in.readUTF();
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            String hash = in.readUTF();
+            int issueCount = in.readInt();
+            List<RecordedIssue> issues = new ArrayList<>(issueCount);
+            for (int j = 0; j < issueCount; j++) {
+                issues.add(new RecordedIssue(in.readUTF(), in.readInt(), readLongString(in)));
+            }
+            builder.put(path, new FileState(size, lastModified, hash, issues));
+        }
+        return builder.build();
+    }
+
+    /**
+     * writeUTF 上限 64KB，問題訊息可能包含程式碼範例，改用長度前綴的 UTF-8
+     */
+    private static void writeLongString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readLongString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 清單 Builder
+     */
+    public static final class Builder {
+        private final String rulesetFingerprint;
+        private final String owaspVersion;
+        private final String aiModel;
+        private final long scanStartedMillis;
+        private final Map<String, FileState> files = new TreeMap<>();
+
+        private Builder(String rulesetFingerprint, String owaspVersion, String aiModel, long scanStartedMillis) {
+            this.rulesetFingerprint = Objects.requireNonNull(rulesetFingerprint, "rulesetFingerprint");
+            this.owaspVersion = Objects.requireNonNull(owaspVersion, "owaspVersion");
+            this.aiModel = Objects.requireNonNull(aiModel, "aiModel");
+            this.scanStartedMillis = scanStartedMillis;
+        }
+
+        /**
+         * 記錄檔案狀態（同一路徑以最後一次為準）
+         */
+        public synchronized Builder put(String path, FileState state) {
+            files.put(path, state);
+            return this;
+        }
+
+        public synchronized ScanStateManifest build() {
+            return new ScanStateManifest(rulesetFingerprint, owaspVersion, aiModel, scanStartedMillis,
+                new TreeMap<>(files));
+        }
+    }
+
+    /**
+     * 單一檔案的掃描狀態
+     */
+    public static final class FileState {
+        private final long size;
+        private final long lastModifiedMillis;
+        private final String contentHash;
+        private final List<RecordedIssue> issues;
+
+        public FileState(long size, long lastModifiedMillis, String contentHash, List<RecordedIssue> issues) {
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.contentHash = Objects.requireNonNull(contentHash, "contentHash");
+            this.issues = List.copyOf(issues);
+        }
+
+        public long getSize() { return size; }
+        public long getLastModifiedMillis() { return lastModifiedMillis; }
+        public String getContentHash() { return contentHash; }
+
+        /**
+         * 上次掃描回報的問題
+         */
+        public List<RecordedIssue> getIssues() { return issues; }
+    }
+
+    /**
+     * 已回報的問題（完整規則鍵、行號與訊息，足以原樣重新回報）
+     */
+    public static final class RecordedIssue {
+        private final String ruleKey;
+        private final int line;
+        private final String message;
+
+        /**
+         * @param ruleKey 完整規則鍵（repository:rule）
+         * @param line 行號，0 表示檔案層級問題
+         * @param message 問題訊息
+         */
+        public RecordedIssue(String ruleKey, int line, String message) {
+            this.ruleKey = Objects.requireNonNull(ruleKey, "ruleKey");
+            this.line = line;
+            this.message = Objects.requireNonNull(message, "message");
+        }
+
+        public String getRuleKey() { return ruleKey; }
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+}
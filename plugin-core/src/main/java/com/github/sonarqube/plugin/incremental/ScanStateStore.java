@@ -0,0 +1,94 @@
+package com.github.sonarqube.plugin.incremental;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.sensor.SensorContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * 掃描狀態清單的存取
+ *
+ * 優先使用 SonarQube 分析快取（previousCache / nextCache，由伺服器保存，CI 全新 checkout 也能取得），
+ * 並同時寫入掃描工作目錄（.scannerwork）作為本機備援。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class ScanStateStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScanStateStore.class);
+
+    static final String CACHE_KEY = "aiowasp:scan-state:v1";
+    static final String LOCAL_FILE_NAME = "aiowasp-scan-state.bin";
+
+    private ScanStateStore() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 讀取上一次成功掃描的清單
+     *
+     * @return 清單，不存在或無法讀取時為空
+     */
+    public static Optional<ScanStateManifest> load(SensorContext context) {
+        if (context.isCacheEnabled() && context.previousCache().contains(CACHE_KEY)) {
+            try (InputStream in = context.previousCache().read(CACHE_KEY)) {
+                return Optional.of(ScanStateManifest.readFrom(in));
+            } catch (IOException e) {
+                LOG.warn("無法讀取分析快取中的掃描狀態，改用本機檔案: {}", e.getMessage());
+            }
+        }
+
+        Path local = localFile(context);
+        try (InputStream in = Files.newInputStream(local)) {
+            return Optional.of(ScanStateManifest.readFrom(in));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            LOG.warn("無法讀取掃描狀態檔 {}: {}", local, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 儲存本次掃描的清單
+     */
+    public static void save(SensorContext context, ScanStateManifest manifest) {
+        byte[] data;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            manifest.writeTo(out);
+            data = out.toByteArray();
+        } catch (IOException e) {
+            LOG.warn("無法序列化掃描狀態: {}", e.getMessage());
+            return;
+        }
+
+        if (context.isCacheEnabled()) {
+            context.nextCache().write(CACHE_KEY, data);
+        }
+
+        Path local = localFile(context);
+        try {
+            Files.createDirectories(local.getParent());
+            Path temp = Files.createTempFile(local.getParent(), LOCAL_FILE_NAME, ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, local, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("無法寫入掃描狀態檔 {}: {}", local, e.getMessage());
+        }
+        LOG.debug("掃描狀態已儲存: {} 個檔案, {} bytes", manifest.getFiles().size(), data.length);
+    }
+
+    private static Path localFile(SensorContext context) {
+        return context.fileSystem().workDir().toPath().resolve(LOCAL_FILE_NAME);
+    }
+}
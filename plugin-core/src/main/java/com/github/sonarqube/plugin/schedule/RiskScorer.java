@@ -0,0 +1,279 @@
+package com.github.sonarqube.plugin.schedule;
+
+import com.github.sonarqube.plugin.incremental.ScanStateManifest;
+import com.github.sonarqube.rules.OwaspRule;
+import com.github.sonarqube.rules.RuleContext;
+import com.github.sonarqube.rules.RuleResult;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 檔案風險評分器
+ *
+ * 在呼叫 AI 前以低成本訊號估算檔案含有安全問題的可能性，供 {@link ScanScheduler} 排序：
+ * <ul>
+ *   <li>靜態規則命中數（不需 AI 的 OWASP 規則）</li>
+ *   <li>危險呼叫點（SQL、命令執行、反序列化、動態執行等）的種類與數量</li>
+ *   <li>Git 變更量（近期修改較多的檔案較可能引入問題）</li>
+ *   <li>上一次掃描的問題密度（每千行問題數）</li>
+ * </ul>
+ *
+ * 評分器不可變，可由多個執行緒同時使用。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class RiskScorer {
+
+    private static final double STATIC_HIT_WEIGHT = 3.0;
+    private static final int MAX_STATIC_HITS = 10;
+    private static final double SINK_CATEGORY_WEIGHT = 2.0;
+    private static final double CHURN_WEIGHT = 0.5;
+    private static final double PAST_DENSITY_WEIGHT = 1.5;
+
+    /**
+     * 危險呼叫點（具名群組即分類，一次掃描取得所有分類）
+     */
+    private static final Pattern SINKS = Pattern.compile(
+        "(?<sql>\\b(?:executeQuery|executeUpdate|prepareStatement|createNativeQuery|createQuery|rawQuery|cursor\\.execute)\\s*\\("
+            + "|\\b(?:SELECT|INSERT|UPDATE|DELETE)\\b[^;\\n]{0,80}\\b(?:FROM|INTO|SET|WHERE)\\b[^;\\n]{0,80}[\"']\\s*\\+)"
+            + "|(?<command>\\bRuntime\\.getRuntime\\(\\)\\.exec\\s*\\(|\\bnew\\s+ProcessBuilder\\s*\\(|\\bchild_process\\b"
+            + "|\\b(?:os\\.system|subprocess\\.(?:call|run|Popen)|execSync|shell_exec|passthru)\\s*\\()"
+            + "|(?<deserialization>\\bObjectInputStream\\b|\\breadObject\\s*\\(|\\bXMLDecoder\\b|\\benableDefaultTyping\\b"
+            + "|\\bpickle\\.loads?\\s*\\(|\\byaml\\.load\\s*\\(|\\bunserialize\\s*\\()"
+            + "|(?<eval>\\beval\\s*\\(|\\bnew\\s+Function\\s*\\(|\\bScriptEngine\\b|\\bparseExpression\\s*\\()"
+            + "|(?<xss>\\binnerHTML\\s*=|\\bdocument\\.write\\s*\\(|\\bdangerouslySetInnerHTML\\b|\\bgetWriter\\(\\)\\.print)"
+            + "|(?<file>\\bnew\\s+File(?:InputStream|OutputStream|Reader|Writer)?\\s*\\([^)]*(?:request|param|input)"
+            + "|\\bPaths\\.get\\s*\\([^)]*(?:request|param|input))"
+            + "|(?<network>\\bnew\\s+URL\\s*\\(|\\bopenConnection\\s*\\(|\\bRestTemplate\\b|\\bHttpClient\\b|\\baxios\\.|\\bfetch\\s*\\()"
+            + "|(?<crypto>\\b(?:MD5|SHA-?1|DES|RC4)\\b|\\bECB\\b|\\bnew\\s+Random\\s*\\()"
+            + "|(?<secret>\\b(?:password|passwd|secret|api[_-]?key|token)\\s*[:=]\\s*[\"'][^\"']{4,})",
+        Pattern.CASE_INSENSITIVE
+    );
+
+    private static final String[] SINK_CATEGORIES = {
+        "sql", "command", "deserialization", "eval", "xss", "file", "network", "crypto", "secret"
+    };
+
+    private final List<OwaspRule> staticRules;
+    private final String owaspVersion;
+    private final Map<Path, Integer> churn;
+    private final ScanStateManifest previousState;
+
+    private RiskScorer(Builder builder) {
+        this.staticRules = Collections.unmodifiableList(new ArrayList<>(builder.staticRules));
+        this.owaspVersion = builder.owaspVersion;
+        this.churn = Collections.unmodifiableMap(new HashMap<>(builder.churn));
+        this.previousState = builder.previousState;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 計算檔案風險分數
+     *
+     * @param absolutePath 檔案絕對路徑（用於查詢變更量）
+     * @param relativePath 相對路徑（用於查詢上一次掃描結果）
+     * @param language 程式語言
+     * @param content 檔案內容
+     * @return 風險分數
+     */
+    public RiskScore score(Path absolutePath, String relativePath, String language, String content) {
+        int staticHits = countStaticHits(relativePath, language, content);
+
+        int sinkHits = 0;
+        boolean[] seen = new boolean[SINK_CATEGORIES.length];
+        Matcher matcher = SINKS.matcher(content);
+        while (matcher.find()) {
+            sinkHits++;
+            for (int i = 0; i < SINK_CATEGORIES.length; i++) {
+                if (matcher.start(SINK_CATEGORIES[i]) >= 0) {
+                    seen[i] = true;
+                    break;
+                }
+            }
+        }
+        int sinkCategories = 0;
+        for (boolean category : seen) {
+            if (category) {
+                sinkCategories++;
+            }
+        }
+
+        int changedLines = absolutePath == null ? 0 : churn.getOrDefault(absolutePath.toAbsolutePath().normalize(), 0);
+
+        int pastFindings = 0;
+        if (previousState != null && relativePath != null) {
+            ScanStateManifest.FileState previous = previousState.getFiles().get(relativePath);
+            if (previous != null) {
+                pastFindings = previous.getIssues().size();
+            }
+        }
+
+        double value = STATIC_HIT_WEIGHT * Math.min(staticHits, MAX_STATIC_HITS)
+            + SINK_CATEGORY_WEIGHT * sinkCategories
+            + log2(1 + sinkHits)
+            + CHURN_WEIGHT * log2(1 + changedLines)
+            + PAST_DENSITY_WEIGHT * log2(1 + pastFindings * 1000.0 / Math.max(1, countLines(content)));
+
+        return new RiskScore(value, staticHits, sinkHits, sinkCategories, changedLines, pastFindings);
+    }
+
+    private int countStaticHits(String relativePath, String language, String content) {
+        if (staticRules.isEmpty() || language == null) {
+            return 0;
+        }
+        RuleContext context = null;
+        int hits = 0;
+        for (OwaspRule rule : staticRules) {
+            if (!supports(rule, language)) {
+                continue;
+            }
+            if (context == null) {
+                context = RuleContext.builder(content, language)
+                    .fileName(relativePath)
+                    .owaspVersion(owaspVersion)
+                    .build();
+            }
+            RuleResult result = rule.execute(context);
+            if (result.isSuccess()) {
+                hits += result.getViolationCount();
+            }
+        }
+        return hits;
+    }
+
+    private static boolean supports(OwaspRule rule, String language) {
+        for (String supported : rule.getSupportedLanguages()) {
+            if (supported.equalsIgnoreCase(language)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countLines(String content) {
+        int lines = 1;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    /**
+     * 風險評分器建構器
+     */
+    public static final class Builder {
+        private final List<OwaspRule> staticRules = new ArrayList<>();
+        private String owaspVersion = "2021";
+        private final Map<Path, Integer> churn = new HashMap<>();
+        private ScanStateManifest previousState;
+
+        private Builder() {
+        }
+
+        /**
+         * 靜態規則（需要 AI 的規則會被略過）
+         */
+        public Builder staticRules(Collection<? extends OwaspRule> rules) {
+            for (OwaspRule rule : rules) {
+                if (!rule.requiresAi() && rule.isEnabled()) {
+                    staticRules.add(rule);
+                }
+            }
+            return this;
+        }
+
+        public Builder owaspVersion(String owaspVersion) {
+            this.owaspVersion = owaspVersion;
+            return this;
+        }
+
+        /**
+         * 各檔案的變更行數（以絕對路徑為鍵）
+         */
+        public Builder churn(Map<Path, Integer> churn) {
+            churn.forEach((path, lines) -> this.churn.put(path.toAbsolutePath().normalize(), lines));
+            return this;
+        }
+
+        /**
+         * 上一次掃描狀態（提供歷史問題密度，可為 null）
+         */
+        public Builder previousState(ScanStateManifest previousState) {
+            this.previousState = previousState;
+            return this;
+        }
+
+        public RiskScorer build() {
+            return new RiskScorer(this);
+        }
+    }
+
+    /**
+     * 風險分數與其組成
+     */
+    public static final class RiskScore {
+        private final double value;
+        private final int staticHits;
+        private final int sinkHits;
+        private final int sinkCategories;
+        private final int churn;
+        private final int pastFindings;
+
+        public RiskScore(double value, int staticHits, int sinkHits, int sinkCategories, int churn, int pastFindings) {
+            this.value = value;
+            this.staticHits = staticHits;
+            this.sinkHits = sinkHits;
+            this.sinkCategories = sinkCategories;
+            this.churn = churn;
+            this.pastFindings = pastFindings;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public int getStaticHits() {
+            return staticHits;
+        }
+
+        public int getSinkHits() {
+            return sinkHits;
+        }
+
+        public int getSinkCategories() {
+            return sinkCategories;
+        }
+
+        public int getChurn() {
+            return churn;
+        }
+
+        public int getPastFindings() {
+            return pastFindings;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RiskScore{value=%.2f, staticHits=%d, sinks=%d/%d, churn=%d, pastFindings=%d}",
+                value, staticHits, sinkCategories, sinkHits, churn, pastFindings);
+        }
+    }
+}
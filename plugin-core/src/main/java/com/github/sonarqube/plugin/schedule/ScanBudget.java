@@ -0,0 +1,221 @@
+package com.github.sonarqube.plugin.schedule;
+
+import com.github.sonarqube.plugin.cost.CostEstimator;
+import com.github.sonarqube.plugin.cost.CostEstimator.AiProvider;
+import com.github.sonarqube.plugin.cost.CostEstimator.BudgetAction;
+import com.github.sonarqube.plugin.cost.CostEstimator.BudgetDecision;
+
+/**
+ * 單次掃描的 AI 預算
+ *
+ * 可套用三種上限：本次掃描的 token 上限、本次掃描的成本上限，以及（啟用時）{@link CostEstimator} 的全域預算。
+ * 每項工作執行前以預估用量 {@link #admit(long, long) 預留}，完成後以實際用量 {@link #settle 結算}，
+ * 使後續判斷依據的是實際花費而非估計值；預留以外的追加呼叫以 {@link #charge} 記錄。上限為 0 表示不限制，
+ * 未設定任何成本上限時不做成本判斷。
+ *
+ * 預估成本超出剩餘成本額度時，先依 {@link CostEstimator#evaluateBudget(AiProvider, long, long, double)}
+ * 改用同一廠商中額度內的較便宜模型，仍不足時才略過。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class ScanBudget {
+
+    /**
+     * 略過原因
+     */
+    public enum SkipReason {
+        TOKEN_BUDGET("超出本次掃描 token 上限"),
+        COST_BUDGET("超出本次掃描成本上限"),
+        GLOBAL_BUDGET("超出 AI 成本預算");
+
+        private final String description;
+
+        SkipReason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final CostEstimator costEstimator;
+    private final AiProvider provider;
+    private final long maxTokens;
+    private final double maxCost;
+    private final boolean globalBudget;
+
+    private long usedTokens;
+    private double usedCost;
+
+    /**
+     * 不套用全域預算的掃描預算
+     *
+     * @param costEstimator 成本估算器（價格表）
+     * @param provider 價格等級（null 表示未知模型，只套用 token 上限）
+     * @param maxTokens 本次掃描 token 上限（0 表示不限制）
+     * @param maxCost 本次掃描成本上限，美元（0 表示不限制）
+     */
+    public ScanBudget(CostEstimator costEstimator, AiProvider provider, long maxTokens, double maxCost) {
+        this(costEstimator, provider, maxTokens, maxCost, false);
+    }
+
+    /**
+     * @param costEstimator 成本估算器（全域預算與價格表）
+     * @param provider 價格等級（null 表示未知模型，只套用 token 上限）
+     * @param maxTokens 本次掃描 token 上限（0 表示不限制）
+     * @param maxCost 本次掃描成本上限，美元（0 表示不限制）
+     * @param globalBudget 是否同時套用 {@link CostEstimator#getRemainingBudget() 全域剩餘預算}
+     */
+    public ScanBudget(CostEstimator costEstimator, AiProvider provider, long maxTokens, double maxCost,
+                      boolean globalBudget) {
+        this.costEstimator = costEstimator;
+        this.provider = provider;
+        this.maxTokens = Math.max(0, maxTokens);
+        this.maxCost = Math.max(0, maxCost);
+        this.globalBudget = globalBudget;
+    }
+
+    /**
+     * 不限制的預算（不會因預算略過任何工作）
+     */
+    public static ScanBudget unlimited(CostEstimator costEstimator, AiProvider provider) {
+        return new ScanBudget(costEstimator, provider, 0, 0);
+    }
+
+    /**
+     * 判斷並預留一項工作的預算
+     *
+     * @param inputTokens 預估輸入 token 數
+     * @param outputTokens 預估輸出 token 數
+     * @return 預留結果（略過時未預留；降級時以較便宜模型的價格預留）
+     */
+    public synchronized Admission admit(long inputTokens, long outputTokens) {
+        long tokens = inputTokens + outputTokens;
+        if (maxTokens > 0 && usedTokens + tokens > maxTokens) {
+            return Admission.skipped(SkipReason.TOKEN_BUDGET);
+        }
+        AiProvider admitted = provider;
+        double cost = 0;
+        if (provider != null) {
+            double scanRemaining = maxCost > 0 ? Math.max(0, maxCost - usedCost) : Double.POSITIVE_INFINITY;
+            double globalRemaining = globalBudget ? costEstimator.getRemainingBudget() : Double.POSITIVE_INFINITY;
+            double remaining = Math.min(scanRemaining, globalRemaining);
+            if (Double.isInfinite(remaining)) {
+                cost = costEstimator.calculateCost(provider, inputTokens, outputTokens);
+            } else {
+                BudgetDecision decision = costEstimator.evaluateBudget(provider, inputTokens, outputTokens, remaining);
+                if (decision.getAction() == BudgetAction.STOP) {
+                    return Admission.skipped(scanRemaining <= globalRemaining
+                        ? SkipReason.COST_BUDGET : SkipReason.GLOBAL_BUDGET);
+                }
+                admitted = decision.getProvider();
+                cost = decision.getEstimatedCost();
+            }
+        }
+        usedTokens += tokens;
+        usedCost += cost;
+        return new Admission(null, admitted, admitted != provider);
+    }
+
+    /**
+     * 以實際用量取代預留的估計值
+     *
+     * @param admittedProvider 預留時決定的價格等級（{@link Admission#getProvider()}）
+     * @param estimatedInputTokens 預留時的輸入 token 數
+     * @param estimatedOutputTokens 預留時的輸出 token 數
+     * @param actualInputTokens 實際輸入 token 數
+     * @param actualOutputTokens 實際輸出 token 數
+     */
+    public synchronized void settle(AiProvider admittedProvider, long estimatedInputTokens, long estimatedOutputTokens,
+                                    long actualInputTokens, long actualOutputTokens) {
+        usedTokens += (actualInputTokens + actualOutputTokens) - (estimatedInputTokens + estimatedOutputTokens);
+        if (admittedProvider != null) {
+            usedCost += costEstimator.calculateCost(admittedProvider, actualInputTokens, actualOutputTokens)
+                - costEstimator.calculateCost(admittedProvider, estimatedInputTokens, estimatedOutputTokens);
+        }
+    }
+
+    /**
+     * 記錄未預留的額外用量（例如模型串接升級至較貴模型的呼叫）
+     *
+     * @param actualProvider 實際使用的價格等級（null 時只計 token）
+     * @param inputTokens 輸入 token 數
+     * @param outputTokens 輸出 token 數
+     */
+    public synchronized void charge(AiProvider actualProvider, long inputTokens, long outputTokens) {
+        usedTokens += inputTokens + outputTokens;
+        if (actualProvider != null) {
+            usedCost += costEstimator.calculateCost(actualProvider, inputTokens, outputTokens);
+        }
+    }
+
+    public synchronized long getUsedTokens() {
+        return usedTokens;
+    }
+
+    public synchronized double getUsedCost() {
+        return usedCost;
+    }
+
+    public long getMaxTokens() {
+        return maxTokens;
+    }
+
+    public double getMaxCost() {
+        return maxCost;
+    }
+
+    public AiProvider getProvider() {
+        return provider;
+    }
+
+    public boolean isGlobalBudget() {
+        return globalBudget;
+    }
+
+    /**
+     * 預留結果
+     */
+    public static final class Admission {
+        private final SkipReason skipReason;
+        private final AiProvider provider;
+        private final boolean downshifted;
+
+        Admission(SkipReason skipReason, AiProvider provider, boolean downshifted) {
+            this.skipReason = skipReason;
+            this.provider = provider;
+            this.downshifted = downshifted;
+        }
+
+        static Admission skipped(SkipReason reason) {
+            return new Admission(reason, null, false);
+        }
+
+        public boolean isAdmitted() {
+            return skipReason == null;
+        }
+
+        /**
+         * 略過原因（已預留時為 null）
+         */
+        public SkipReason getSkipReason() {
+            return skipReason;
+        }
+
+        /**
+         * 應使用的價格等級（降級時為較便宜的模型；未知模型或略過時為 null）
+         */
+        public AiProvider getProvider() {
+            return provider;
+        }
+
+        /**
+         * 是否因成本額度不足而改用較便宜的模型
+         */
+        public boolean isDownshifted() {
+            return downshifted;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.sonarqube.plugin.schedule;
+
+import com.github.sonarqube.plugin.schedule.RiskScorer.RiskScore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 依風險排序、受預算限制的掃描排程器
+ *
+ * 以「每千個 token 的風險分數」由高到低處理候選檔案（固定預算下優先找出最多問題），
+ * 同分時風險高者優先、再以 token 少者優先。成本額度不足時由 {@link ScanBudget} 改用較便宜的模型；
+ * 預算仍不足以處理某個檔案時記錄為略過，並繼續嘗試後續較小的檔案，直到全部候選處理完畢。
+ *
+ * 排程器本身不是執行緒安全的；處理函式以排序後的順序依序呼叫。
+ *
+ * @param <T> 候選項目型別（例如 InputFile）
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class ScanScheduler<T> {
+
+    static final Comparator<Candidate<?>> PRIORITY_ORDER =
+        Comparator.<Candidate<?>>comparingDouble(Candidate::getPriority).reversed()
+            .thenComparing(Comparator.<Candidate<?>>comparingDouble(c -> c.getRisk().getValue()).reversed())
+            .thenComparingLong(Candidate::getEstimatedTokens)
+            .thenComparing(Candidate::getPath);
+
+    private final List<Candidate<T>> candidates = new ArrayList<>();
+
+    /**
+     * 加入候選項目
+     *
+     * @param item 項目
+     * @param path 相對路徑（用於報告與排序穩定性）
+     * @param risk 風險分數
+     * @param estimatedInputTokens 預估輸入 token 數
+     * @param estimatedOutputTokens 預估輸出 token 數
+     */
+    public ScanScheduler<T> add(T item, String path, RiskScore risk, long estimatedInputTokens,
+                                long estimatedOutputTokens) {
+        candidates.add(new Candidate<>(item, path, risk, estimatedInputTokens, estimatedOutputTokens));
+        return this;
+    }
+
+    public int size() {
+        return candidates.size();
+    }
+
+    /**
+     * 依優先順序排序後的候選項目
+     */
+    public List<Candidate<T>> ordered() {
+        List<Candidate<T>> ordered = new ArrayList<>(candidates);
+        ordered.sort(PRIORITY_ORDER);
+        return ordered;
+    }
+
+    /**
+     * 依優先順序在預算內處理候選項目
+     *
+     * 處理函式應使用預留結果指定的價格等級（可能已降級），完成後以實際用量呼叫 {@link ScanBudget#settle}。
+     *
+     * @param budget 掃描預算
+     * @param processor 處理函式（候選項目與其預留結果）
+     * @return 排程結果（含略過清單）
+     */
+    public ScheduleReport run(ScanBudget budget, BiConsumer<Candidate<T>, ScanBudget.Admission> processor) {
+        int processed = 0;
+        int downshifted = 0;
+        List<Skipped> skipped = new ArrayList<>();
+        for (Candidate<T> candidate : ordered()) {
+            ScanBudget.Admission admission =
+                budget.admit(candidate.getEstimatedInputTokens(), candidate.getEstimatedOutputTokens());
+            if (!admission.isAdmitted()) {
+                skipped.add(new Skipped(candidate.getPath(), candidate.getRisk(), candidate.getEstimatedTokens(),
+                    admission.getSkipReason()));
+                continue;
+            }
+            if (admission.isDownshifted()) {
+                downshifted++;
+            }
+            processor.accept(candidate, admission);
+            processed++;
+        }
+        return new ScheduleReport(processed, downshifted, skipped, budget.getUsedTokens(), budget.getUsedCost());
+    }
+
+    /**
+     * 候選項目
+     */
+    public static final class Candidate<T> {
+        private final T item;
+        private final String path;
+        private final RiskScore risk;
+        private final long estimatedInputTokens;
+        private final long estimatedOutputTokens;
+
+        Candidate(T item, String path, RiskScore risk, long estimatedInputTokens, long estimatedOutputTokens) {
+            this.item = item;
+            this.path = path;
+            this.risk = risk;
+            this.estimatedInputTokens = estimatedInputTokens;
+            this.estimatedOutputTokens = estimatedOutputTokens;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public RiskScore getRisk() {
+            return risk;
+        }
+
+        public long getEstimatedInputTokens() {
+            return estimatedInputTokens;
+        }
+
+        public long getEstimatedOutputTokens() {
+            return estimatedOutputTokens;
+        }
+
+        public long getEstimatedTokens() {
+            return estimatedInputTokens + estimatedOutputTokens;
+        }
+
+        /**
+         * 每千個 token 的風險分數
+         */
+        public double getPriority() {
+            return risk.getValue() * 1000.0 / Math.max(1, getEstimatedTokens());
+        }
+    }
+
+    /**
+     * 因預算不足而略過的項目
+     */
+    public static final class Skipped {
+        private final String path;
+        private final RiskScore risk;
+        private final long estimatedTokens;
+        private final ScanBudget.SkipReason reason;
+
+        public Skipped(String path, RiskScore risk, long estimatedTokens, ScanBudget.SkipReason reason) {
+            this.path = path;
+            this.risk = risk;
+            this.estimatedTokens = estimatedTokens;
+            this.reason = reason;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public RiskScore getRisk() {
+            return risk;
+        }
+
+        public long getEstimatedTokens() {
+            return estimatedTokens;
+        }
+
+        public ScanBudget.SkipReason getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * 排程結果
+     */
+    public static final class ScheduleReport {
+        private final int processedCount;
+        private final int downshiftedCount;
+        private final List<Skipped> skipped;
+        private final long usedTokens;
+        private final double usedCost;
+
+        public ScheduleReport(int processedCount, int downshiftedCount, List<Skipped> skipped, long usedTokens,
+                              double usedCost) {
+            this.processedCount = processedCount;
+            this.downshiftedCount = downshiftedCount;
+            this.skipped = Collections.unmodifiableList(new ArrayList<>(skipped));
+            this.usedTokens = usedTokens;
+            this.usedCost = usedCost;
+        }
+
+        public int getProcessedCount() {
+            return processedCount;
+        }
+
+        /**
+         * 改用較便宜模型處理的項目數（已含於處理數）
+         */
+        public int getDownshiftedCount() {
+            return downshiftedCount;
+        }
+
+        /**
+         * 略過的項目（依原優先順序）
+         */
+        public List<Skipped> getSkipped() {
+            return skipped;
+        }
+
+        public long getUsedTokens() {
+            return usedTokens;
+        }
+
+        public double getUsedCost() {
+            return usedCost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ScheduleReport{processed=%d, downshifted=%d, skipped=%d, tokens=%d, cost=$%.4f}",
+                processedCount, downshiftedCount, skipped.size(), usedTokens, usedCost);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -290,6 +291,92 @@ public class OwaspCategoryMapper {
     private static final Pattern OWASP_TAG_PATTERN = Pattern.compile("owasp(?:-2021)?-a(\\d{2})", Pattern.CASE_INSENSITIVE);
     private static final Pattern CWE_PATTERN = Pattern.compile("CWE-(\\d+)", Pattern.CASE_INSENSITIVE);
 
+    // 依版本預先展開的分類表（索引 1-10 對應 A01-A10）
+    private static final String[] OWASP_2021_TABLE = toTable(OWASP_2021_CATEGORIES);
+    private static final String[] OWASP_2017_TABLE = toTable(OWASP_2017_CATEGORIES);
+    private static final String[] OWASP_2025_TABLE = toTable(OWASP_2025_CATEGORIES);
+
+    // CWE 編號 → 分類編號（排序後以二分搜尋查詢）
+    private static final int[] CWE_NUMBERS;
+    private static final byte[] CWE_CATEGORY_CODES;
+
+    /**
+     * 關鍵字推斷順序：越前面的分類優先（同時命中多個分類時取最前者）
+     */
+    private static final String[][] INFERENCE_KEYWORDS = {
+        {"A03", "injection", "sql", "xss", "ldap", "xml", "command-injection", "code-injection"},
+        {"A02", "crypto", "cryptography", "encryption", "hash", "weak-cipher", "random", "ssl", "tls"},
+        {"A01", "access-control", "authorization", "permission", "csrf", "path-traversal", "directory-traversal"},
+        {"A07", "authentication", "credential", "password", "session", "cookie"},
+        {"A05", "configuration", "misconfiguration", "default", "debug", "error-handling"},
+        {"A08", "deserialization", "integrity", "insecure-deserialization", "untrusted-data"},
+        {"A09", "logging", "monitoring", "log-injection", "audit"},
+        {"A10", "ssrf", "server-side-request-forgery", "url-redirect"},
+        {"A06", "dependency", "vulnerable-dependency", "outdated", "cve"}
+    };
+    private static final Map<String, Integer> KEYWORD_RANKS;
+
+    /**
+     * tag 解析結果快取。tag 詞彙量有限，每個不同的 tag 只以正規表示式解析一次；
+     * 超過上限後不再快取，避免異常輸入使記憶體無限成長。
+     */
+    private static final int MAX_CACHED_TAGS = 4096;
+    private static final Map<String, TagClass> TAG_CACHE = new ConcurrentHashMap<>();
+
+    static {
+        int[] numbers = new int[CWE_TO_OWASP.size()];
+        byte[] codes = new byte[CWE_TO_OWASP.size()];
+        TreeMap<Integer, Integer> sorted = new TreeMap<>();
+        CWE_TO_OWASP.forEach((cweId, code) ->
+            sorted.put(Integer.parseInt(cweId.substring("CWE-".length())), Integer.parseInt(code.substring(1))));
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : sorted.entrySet()) {
+            numbers[i] = entry.getKey();
+            codes[i] = entry.getValue().byteValue();
+            i++;
+        }
+        CWE_NUMBERS = numbers;
+        CWE_CATEGORY_CODES = codes;
+
+        Map<String, Integer> ranks = new HashMap<>();
+        for (int rank = 0; rank < INFERENCE_KEYWORDS.length; rank++) {
+            for (int k = 1; k < INFERENCE_KEYWORDS[rank].length; k++) {
+                ranks.putIfAbsent(INFERENCE_KEYWORDS[rank][k], rank);
+            }
+        }
+        KEYWORD_RANKS = Collections.unmodifiableMap(ranks);
+
+        // 預先放入常見 tag，掃描期間大多直接命中
+        for (String keyword : KEYWORD_RANKS.keySet()) {
+            classify(keyword);
+        }
+        for (int code = 1; code <= 10; code++) {
+            classify(String.format("owasp-a%02d", code));
+            classify(String.format("owasp-2021-a%02d", code));
+        }
+        for (int cwe : CWE_NUMBERS) {
+            classify("cwe-" + cwe);
+        }
+    }
+
+    /**
+     * 單一 tag 的解析結果
+     */
+    private static final class TagClass {
+        /** owasp-aNN 中的 NN（未出現時為 -1） */
+        private final int owaspCode;
+        /** CWE 對應的分類編號（無 CWE 或無對應時為 0） */
+        private final int cweCategoryCode;
+        /** 關鍵字推斷順序（非關鍵字時為 Integer.MAX_VALUE） */
+        private final int keywordRank;
+
+        TagClass(int owaspCode, int cweCategoryCode, int keywordRank) {
+            this.owaspCode = owaspCode;
+            this.cweCategoryCode = cweCategoryCode;
+            this.keywordRank = keywordRank;
+        }
+    }
+
     /**
      * 從 SonarQube issue tags 和 rule key 映射到 OWASP 分類
      *
@@ -303,50 +390,40 @@ public class OwaspCategoryMapper {
             return null;
         }
 
-        // Select category map based on OWASP version
-        Map<String, String> categoryMap;
-        switch (owaspVersion) {
-            case "2017":
-                categoryMap = OWASP_2017_CATEGORIES;
-                break;
-            case "2025":
-                categoryMap = OWASP_2025_CATEGORIES;
-                break;
-            default:
-                categoryMap = OWASP_2021_CATEGORIES;
+        String[] categoryTable = categoryTableFor(owaspVersion);
+        int size = tags.size();
+        TagClass[] classes = new TagClass[size];
+        for (int i = 0; i < size; i++) {
+            classes[i] = classify(tags.get(i));
         }
 
         // 策略 1: 從 tags 中提取 OWASP 分類
-        for (String tag : tags) {
-            Matcher matcher = OWASP_TAG_PATTERN.matcher(tag);
-            if (matcher.find()) {
-                String categoryCode = "A" + matcher.group(1);
-                String category = categoryMap.get(categoryCode);
-                if (category != null) {
-                    LOG.debug("Mapped rule {} to OWASP category {} via tag: {}", ruleKey, category, tag);
-                    return category;
-                }
+        for (int i = 0; i < size; i++) {
+            String category = categoryOf(categoryTable, classes[i].owaspCode);
+            if (category != null) {
+                LOG.debug("Mapped rule {} to OWASP category {} via tag: {}", ruleKey, category, tags.get(i));
+                return category;
             }
         }
 
         // 策略 2: 從 tags 中提取 CWE ID 並映射
-        for (String tag : tags) {
-            Matcher matcher = CWE_PATTERN.matcher(tag);
-            if (matcher.find()) {
-                String cweId = "CWE-" + matcher.group(1);
-                String categoryCode = CWE_TO_OWASP.get(cweId);
-                if (categoryCode != null) {
-                    String category = categoryMap.get(categoryCode);
-                    LOG.debug("Mapped rule {} to OWASP category {} via CWE: {}", ruleKey, category, cweId);
-                    return category;
-                }
+        for (int i = 0; i < size; i++) {
+            if (classes[i].cweCategoryCode > 0) {
+                String category = categoryTable[classes[i].cweCategoryCode];
+                LOG.debug("Mapped rule {} to OWASP category {} via CWE tag: {}", ruleKey, category, tags.get(i));
+                return category;
             }
         }
 
         // 策略 3: 基於常見 tag 關鍵字推斷
-        String inferredCategory = inferCategoryFromTags(tags, ruleKey, categoryMap);
-        if (inferredCategory != null) {
-            return inferredCategory;
+        int bestRank = Integer.MAX_VALUE;
+        for (TagClass tagClass : classes) {
+            bestRank = Math.min(bestRank, tagClass.keywordRank);
+        }
+        if (bestRank != Integer.MAX_VALUE) {
+            String code = INFERENCE_KEYWORDS[bestRank][0];
+            LOG.debug("Inferred {} for rule {} via tags", code, ruleKey);
+            return categoryTable[Integer.parseInt(code.substring(1))];
         }
 
         LOG.debug("Could not map rule {} with tags {} to any OWASP category", ruleKey, tags);
@@ -354,81 +431,65 @@ public class OwaspCategoryMapper {
     }
 
     /**
-     * 從 tag 關鍵字推斷 OWASP 分類
+     * 解析 tag（結果快取）
      */
-    private static String inferCategoryFromTags(List<String> tags, String ruleKey, Map<String, String> categoryMap) {
-        Set<String> tagSet = new HashSet<>();
-        for (String tag : tags) {
-            tagSet.add(tag.toLowerCase());
-        }
-
-        // A03: Injection
-        if (containsAny(tagSet, "injection", "sql", "xss", "ldap", "xml", "command-injection", "code-injection")) {
-            LOG.debug("Inferred A03:Injection for rule {} via tags", ruleKey);
-            return categoryMap.get("A03");
-        }
-
-        // A02: Cryptographic Failures
-        if (containsAny(tagSet, "crypto", "cryptography", "encryption", "hash", "weak-cipher", "random", "ssl", "tls")) {
-            LOG.debug("Inferred A02:Cryptographic Failures for rule {} via tags", ruleKey);
-            return categoryMap.get("A02");
+    private static TagClass classify(String tag) {
+        TagClass cached = TAG_CACHE.get(tag);
+        if (cached != null) {
+            return cached;
         }
 
-        // A01: Broken Access Control
-        if (containsAny(tagSet, "access-control", "authorization", "permission", "csrf", "path-traversal", "directory-traversal")) {
-            LOG.debug("Inferred A01:Broken Access Control for rule {} via tags", ruleKey);
-            return categoryMap.get("A01");
-        }
-
-        // A07: Authentication Failures
-        if (containsAny(tagSet, "authentication", "credential", "password", "session", "cookie")) {
-            LOG.debug("Inferred A07:Authentication Failures for rule {} via tags", ruleKey);
-            return categoryMap.get("A07");
+        int owaspCode = -1;
+        Matcher owaspMatcher = OWASP_TAG_PATTERN.matcher(tag);
+        if (owaspMatcher.find()) {
+            owaspCode = Integer.parseInt(owaspMatcher.group(1));
         }
 
-        // A05: Security Misconfiguration
-        if (containsAny(tagSet, "configuration", "misconfiguration", "default", "debug", "error-handling")) {
-            LOG.debug("Inferred A05:Security Misconfiguration for rule {} via tags", ruleKey);
-            return categoryMap.get("A05");
+        int cweCategoryCode = 0;
+        Matcher cweMatcher = CWE_PATTERN.matcher(tag);
+        if (cweMatcher.find()) {
+            cweCategoryCode = cweCategoryCode(cweMatcher.group(1));
         }
 
-        // A08: Software and Data Integrity Failures
-        if (containsAny(tagSet, "deserialization", "integrity", "insecure-deserialization", "untrusted-data")) {
-            LOG.debug("Inferred A08:Software and Data Integrity Failures for rule {} via tags", ruleKey);
-            return categoryMap.get("A08");
+        Integer rank = KEYWORD_RANKS.get(tag.toLowerCase());
+        TagClass tagClass = new TagClass(owaspCode, cweCategoryCode, rank != null ? rank : Integer.MAX_VALUE);
+        if (TAG_CACHE.size() < MAX_CACHED_TAGS) {
+            TAG_CACHE.putIfAbsent(tag, tagClass);
         }
+        return tagClass;
+    }
 
-        // A09: Security Logging and Monitoring Failures
-        if (containsAny(tagSet, "logging", "monitoring", "log-injection", "audit")) {
-            LOG.debug("Inferred A09:Security Logging and Monitoring Failures for rule {} via tags", ruleKey);
-            return categoryMap.get("A09");
+    /**
+     * CWE 編號（數字字串）對應的分類編號，無對應時為 0
+     */
+    private static int cweCategoryCode(String digits) {
+        // 對照表中的鍵不含前導零，含前導零或過長的編號不會命中
+        if (digits.length() > 9 || (digits.length() > 1 && digits.charAt(0) == '0')) {
+            return 0;
         }
+        int index = Arrays.binarySearch(CWE_NUMBERS, Integer.parseInt(digits));
+        return index >= 0 ? CWE_CATEGORY_CODES[index] : 0;
+    }
 
-        // A10: SSRF
-        if (containsAny(tagSet, "ssrf", "server-side-request-forgery", "url-redirect")) {
-            LOG.debug("Inferred A10:SSRF for rule {} via tags", ruleKey);
-            return categoryMap.get("A10");
-        }
+    private static String categoryOf(String[] categoryTable, int code) {
+        return code >= 1 && code < categoryTable.length ? categoryTable[code] : null;
+    }
 
-        // A06: Vulnerable and Outdated Components
-        if (containsAny(tagSet, "dependency", "vulnerable-dependency", "outdated", "cve")) {
-            LOG.debug("Inferred A06:Vulnerable and Outdated Components for rule {} via tags", ruleKey);
-            return categoryMap.get("A06");
+    private static String[] categoryTableFor(String owaspVersion) {
+        switch (owaspVersion) {
+            case "2017":
+                return OWASP_2017_TABLE;
+            case "2025":
+                return OWASP_2025_TABLE;
+            default:
+                return OWASP_2021_TABLE;
         }
-
-        return null;
     }
 
-    /**
-     * 檢查集合是否包含任何指定的元素
-     */
-    private static boolean containsAny(Set<String> set, String... elements) {
-        for (String element : elements) {
-            if (set.contains(element)) {
-                return true;
-            }
-        }
-        return false;
+    private static String[] toTable(Map<String, String> categories) {
+        String[] table = new String[11];
+        categories.forEach((code, category) -> table[Integer.parseInt(code.substring(1))] = category);
+        return table;
     }
 
     /**
@@ -0,0 +1,189 @@
+package com.github.sonarqube.plugin.service;
+
+import com.github.sonarqube.plugin.AiOwaspPlugin;
+import com.github.sonarqube.plugin.cache.ReportResultCache;
+import com.github.sonarqube.report.ReportGenerator;
+import com.github.sonarqube.report.html.HtmlReportGenerator;
+import com.github.sonarqube.report.json.JsonReportGenerator;
+import com.github.sonarqube.report.markdown.MarkdownReportGenerator;
+import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.pdf.PdfReportGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.Startable;
+import org.sonar.api.ce.posttask.Analysis;
+import org.sonar.api.ce.posttask.Branch;
+import org.sonar.api.ce.posttask.PostProjectAnalysisTask;
+import org.sonar.api.config.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 報告背景預先渲染
+ *
+ * <p>專案分析完成（Compute Engine 處理完畢）後，在背景執行緒為設定的格式生成報告並寫入
+ * {@link ReportResultCache}，使用者第一次匯出即可命中快取。</p>
+ *
+ * <p>僅處理主分支，OWASP 版本使用匯出 API 的預設版本（2021）。
+ * 未設定 {@code sonar.aiowasp.report.prerender.formats} 時不做任何事。
+ * 背景執行緒隨元件停止而關閉（Compute Engine 關閉時放棄尚未開始的預先渲染）。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public class ReportPrerenderTask implements PostProjectAnalysisTask, Startable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportPrerenderTask.class);
+
+    /**
+     * 預先渲染使用的 OWASP 版本（與匯出 API 預設值一致）
+     */
+    static final String DEFAULT_OWASP_VERSION = "2021";
+
+    /**
+     * 停止時等待進行中渲染結束的時間
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final Configuration configuration;
+    private final SonarQubeDataService dataService;
+    private final ReportResultCache reportCache;
+
+    /**
+     * 單一背景執行緒：不佔用 Compute Engine 工作執行緒，也避免同時生成多份大型報告
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "owasp-report-prerender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReportPrerenderTask(Configuration configuration, SonarQubeDataService dataService,
+                               ReportResultCache reportCache) {
+        this.configuration = configuration;
+        this.dataService = dataService;
+        this.reportCache = reportCache;
+    }
+
+    @Override
+    public void start() {
+        // 背景執行緒於第一次提交工作時建立
+    }
+
+    @Override
+    public void stop() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Report pre-rendering did not stop within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Pre-render OWASP security reports";
+    }
+
+    @Override
+    public void finished(Context context) {
+        ProjectAnalysis projectAnalysis = context.getProjectAnalysis();
+
+        List<ReportGenerator> generators = createGenerators(
+                configuration.getStringArray(AiOwaspPlugin.PROPERTY_REPORT_PRERENDER_FORMATS));
+        if (generators.isEmpty() || !reportCache.isEnabled()) {
+            return;
+        }
+
+        Optional<Branch> branch = projectAnalysis.getBranch();
+        if (branch.isPresent() && !branch.get().isMain()) {
+            LOG.debug("Skipping report pre-rendering for non-main branch: {}", branch.get().getName().orElse(""));
+            return;
+        }
+
+        Optional<Analysis> analysis = projectAnalysis.getAnalysis();
+        if (analysis.isEmpty()) {
+            return;
+        }
+
+        String projectKey = projectAnalysis.getProject().getKey();
+        String analysisId = analysis.get().getAnalysisUuid();
+        String configHash = ReportResultCache.configurationHash(configuration);
+
+        try {
+            executor.execute(() -> prerender(projectKey, analysisId, configHash, generators));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Report pre-rendering rejected for project {}: {}", projectKey, e.getMessage());
+        }
+    }
+
+    private void prerender(String projectKey, String analysisId, String configHash, List<ReportGenerator> generators) {
+        long startTime = System.currentTimeMillis();
+        // 與匯出 API 相同：先取得 Issue 更新時間再查詢報告資料
+        Optional<String> issuesUpdatedAt = dataService.getLatestIssueUpdate(projectKey);
+        if (issuesUpdatedAt.isEmpty()) {
+            LOG.warn("Skipping report pre-rendering for project {}: issue state unavailable", projectKey);
+            return;
+        }
+        AnalysisReport report = dataService.createReport(projectKey, DEFAULT_OWASP_VERSION);
+
+        for (ReportGenerator generator : generators) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOG.debug("Report pre-rendering for project {} stopped", projectKey);
+                return;
+            }
+            ReportResultCache.Key key = new ReportResultCache.Key(projectKey, analysisId, issuesUpdatedAt.get(),
+                    DEFAULT_OWASP_VERSION, generator.getFormat(), configHash);
+            try (ReportResultCache.PendingEntry entry = reportCache.begin(key)) {
+                generator.generate(report, entry.output());
+                entry.commit();
+            } catch (Exception e) {
+                LOG.warn("Failed to pre-render {} report for project {}", generator.getFormat(), projectKey, e);
+            }
+        }
+
+        LOG.info("Pre-rendered {} report(s) for project {} (analysis {}) in {}ms",
+                generators.size(), projectKey, analysisId, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 依格式名稱建立生成器（格式名稱與匯出 API 的 format 參數相同）
+     */
+    static List<ReportGenerator> createGenerators(String[] formats) {
+        List<ReportGenerator> generators = new ArrayList<>();
+        for (String format : formats) {
+            switch (format.trim().toLowerCase(Locale.ROOT)) {
+                case "pdf":
+                    generators.add(new PdfReportGenerator());
+                    break;
+                case "html":
+                    generators.add(new HtmlReportGenerator());
+                    break;
+                case "json":
+                    generators.add(new JsonReportGenerator());
+                    break;
+                case "ndjson":
+                    generators.add(JsonReportGenerator.ndjson());
+                    break;
+                case "markdown":
+                    generators.add(new MarkdownReportGenerator());
+                    break;
+                case "":
+                    break;
+                default:
+                    LOG.warn("Unsupported pre-render report format: {}", format);
+                    break;
+            }
+        }
+        return generators;
+    }
+}
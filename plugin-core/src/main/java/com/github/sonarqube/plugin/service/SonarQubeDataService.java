@@ -1,13 +1,20 @@
 package com.github.sonarqube.plugin.service;
 
+import com.github.sonarqube.plugin.cache.SourceSnippetCache;
+import com.github.sonarqube.plugin.cache.SourceSnippetCache.IndexedSource;
+import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.model.FindingIndex;
 import com.github.sonarqube.report.model.ReportSummary;
 import com.github.sonarqube.report.model.SecurityFinding;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.api.Startable;
+import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.server.ServerSide;
 import org.sonarqube.ws.Common;
 import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.ProjectAnalyses;
 import org.sonarqube.ws.client.HttpConnector;
 import org.sonarqube.ws.client.WsClient;
 import org.sonarqube.ws.client.WsClientFactories;
@@ -15,6 +22,12 @@ import org.sonarqube.ws.client.issues.SearchRequest;
 import org.sonarqube.ws.client.sources.RawRequest;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -28,18 +41,60 @@ import java.util.stream.Collectors;
  *   <li>過濾包含安全相關 tags (owasp, security, cwe)</li>
  *   <li>僅查詢未解決的 Issues (OPEN, CONFIRMED, REOPENED)</li>
  *   <li>映射到 OWASP Top 10 2021 分類</li>
+ *   <li>完整分頁查詢，其餘頁面與原始碼下載並行（最多 4 個同時請求）</li>
  * </ul>
  *
+ * <p>請求執行緒池隨元件生命週期關閉（{@link #stop()}）。</p>
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.0.1
  */
 @ServerSide
-public class SonarQubeDataService {
+@ComputeEngineSide
+public class SonarQubeDataService implements Startable {
 
     private static final Logger LOG = LoggerFactory.getLogger(SonarQubeDataService.class);
 
+    /**
+     * issues/search 單頁上限
+     */
+    private static final int PAGE_SIZE = 500;
+
+    /**
+     * Elasticsearch 分頁上限（p × ps 不可超過此值）
+     */
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    /**
+     * 同時進行的 Web API 請求上限（避免壓垮 SonarQube 本身）
+     */
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    /**
+     * 停止時等待進行中請求結束的秒數
+     */
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private static final List<String> ISSUE_TYPES = List.of("VULNERABILITY", "BUG", "CODE_SMELL");
+    private static final List<String> ISSUE_STATUSES = List.of("OPEN", "CONFIRMED", "REOPENED");
+    private static final List<String> SEVERITIES = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
+
+    /**
+     * 代碼片段前後行數
+     */
+    private static final int SNIPPET_CONTEXT_LINES = 3;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
     private final Configuration configuration;
     private final WsClient wsClient;
+    private final SourceSnippetCache sourceCache = new SourceSnippetCache();
+
+    private final ExecutorService requestExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS, runnable -> {
+        Thread thread = new Thread(runnable, "owasp-sonarqube-ws-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * 建構函數
@@ -47,61 +102,356 @@ public class SonarQubeDataService {
      * @param configuration SonarQube 配置
      */
     public SonarQubeDataService(Configuration configuration) {
-        this.configuration = configuration;
-
         // 創建 WsClient，連接到本地 SonarQube 實例
         // 使用基本認證（插件內部調用本地 API）
         // TODO: 應該從配置中讀取認證資訊或使用 token
-        this.wsClient = WsClientFactories.getDefault().newClient(
+        this(configuration, WsClientFactories.getDefault().newClient(
             HttpConnector.newBuilder()
                 .url("http://localhost:9000")
                 .credentials("admin", "P@ssw0rd")  // 臨時硬編碼用於測試
                 .build()
-        );
+        ));
 
         LOG.info("SonarQubeDataService initialized with WsClient (using credentials)");
     }
 
+    /**
+     * 建構函數（測試用，注入 WsClient）
+     *
+     * @param configuration SonarQube 配置
+     * @param wsClient      Web Services 客戶端
+     */
+    SonarQubeDataService(Configuration configuration, WsClient wsClient) {
+        this.configuration = configuration;
+        this.wsClient = wsClient;
+    }
+
+    @Override
+    public void start() {
+        // 請求執行緒於第一次並行查詢時建立
+    }
+
+    @Override
+    public void stop() {
+        requestExecutor.shutdownNow();
+        try {
+            if (!requestExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("SonarQube web service requests did not stop within {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * 查詢專案的所有 OWASP 相關安全問題
      *
+     * <p>完整分頁查詢 Issues（第一頁取得總數後，其餘頁面並行查詢），
+     * 代碼片段依檔案批次取得：每個檔案只下載一次原始碼，再切出該檔所有 Issue 的行。</p>
+     *
      * @param projectKey 專案 key (例如: "NCCS2.CallCenterWeb.backend")
      * @return 安全發現列表
      */
     public List<SecurityFinding> getOwaspFindings(String projectKey, String owaspVersion) {
         LOG.info("Querying OWASP findings for project: {} (OWASP {})", projectKey, owaspVersion);
+        long startTime = System.currentTimeMillis();
 
         try {
-            // 建構 SearchRequest
-            SearchRequest request = new SearchRequest()
-                    .setComponentKeys(Collections.singletonList(projectKey))
-                    .setTypes(Arrays.asList("VULNERABILITY", "BUG", "CODE_SMELL"))
-                    .setStatuses(Arrays.asList("OPEN", "CONFIRMED", "REOPENED"))
-                    .setPs("500");
+            // 完整分頁查詢
+            List<Issues.Issue> issues = searchIssues(projectKey, null, ISSUE_TYPES);
 
-            // 執行查詢
-            Issues.SearchWsResponse response = wsClient.issues().search(request);
+            LOG.info("Found {} issues for project: {}", issues.size(), projectKey);
 
-            LOG.info("Found {} issues for project: {}", response.getIssuesCount(), projectKey);
+            List<Issues.Issue> securityIssues = issues.stream()
+                    .filter(this::isSecurityRelated)
+                    .collect(Collectors.toList());
+
+            // 依檔案批次取得代碼片段（原始碼依最新分析版本快取）
+            String revision = getLatestAnalysisId(projectKey).orElse(null);
+            Map<String, String> snippets = fetchCodeSnippets(securityIssues, revision);
 
             // 映射到 SecurityFinding 模型
             final String version = owaspVersion;  // Capture for lambda
-        List<SecurityFinding> findings = response.getIssuesList().stream()
-                    .filter(this::isSecurityRelated)
-                    .map(issue -> mapToSecurityFinding(issue, version))
+            List<SecurityFinding> findings = securityIssues.stream()
+                    .map(issue -> mapToSecurityFinding(issue, version, snippets.get(issue.getKey())))
                     .filter(Objects::nonNull)
                     .collect(Collectors.toList());
 
-            LOG.info("Mapped {} issues to SecurityFindings (after OWASP filtering)", findings.size());
+            LOG.info("Mapped {} issues to SecurityFindings (after OWASP filtering) in {}ms",
+                    findings.size(), System.currentTimeMillis() - startTime);
 
             return findings;
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while querying OWASP findings for project: {}", projectKey);
+            return Collections.emptyList();
         } catch (Exception e) {
             LOG.error("Failed to query OWASP findings for project: {}", projectKey, e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * 分頁查詢 Issues
+     *
+     * <p>先查第一頁取得總數，其餘頁面並行查詢並依頁碼順序合併。
+     * 結果超過 Elasticsearch 分頁上限（{@value #MAX_RESULT_WINDOW} 筆）時，
+     * 依嚴重性、再依類型拆分查詢，避免超出上限的結果被截斷。</p>
+     *
+     * @param projectKey 專案 key
+     * @param severities 嚴重性過濾（null 表示不過濾）
+     * @param types      Issue 類型過濾
+     * @return Issues（依 key 去重）
+     */
+    private List<Issues.Issue> searchIssues(String projectKey, List<String> severities, List<String> types)
+            throws InterruptedException, ExecutionException {
+        Issues.SearchWsResponse firstPage = wsClient.issues().search(
+                createSearchRequest(projectKey, severities, types, 1));
+        int total = firstPage.getPaging().getTotal();
+
+        if (total > MAX_RESULT_WINDOW) {
+            if (severities == null) {
+                LOG.info("{} issues exceed the search window, splitting query by severity", total);
+                return searchPartitions(SEVERITIES.stream().map(List::of).collect(Collectors.toList()),
+                        partition -> searchIssues(projectKey, partition, types));
+            }
+            if (types.size() > 1) {
+                LOG.info("{} {} issues exceed the search window, splitting query by type", total, severities);
+                return searchPartitions(types.stream().map(List::of).collect(Collectors.toList()),
+                        partition -> searchIssues(projectKey, severities, partition));
+            }
+            LOG.warn("{} {} {} issues exceed the search window of {}, results are truncated",
+                    total, severities, types, MAX_RESULT_WINDOW);
+        }
+
+        int pageCount = Math.min((total + PAGE_SIZE - 1) / PAGE_SIZE, MAX_RESULT_WINDOW / PAGE_SIZE);
+
+        List<Future<Issues.SearchWsResponse>> pages = new ArrayList<>(Math.max(0, pageCount - 1));
+        for (int page = 2; page <= pageCount; page++) {
+            SearchRequest request = createSearchRequest(projectKey, severities, types, page);
+            pages.add(requestExecutor.submit(() -> wsClient.issues().search(request)));
+        }
+
+        // 依頁碼順序合併；並行查詢期間若有新 Issue 造成頁面位移，以 key 去重
+        // 容量依實際可取得的筆數（截斷後最多 MAX_RESULT_WINDOW 筆），而非伺服器回報的總數
+        int expected = Math.min(total, pageCount * PAGE_SIZE);
+        Map<String, Issues.Issue> issues = new LinkedHashMap<>(expected * 4 / 3 + 1);
+        firstPage.getIssuesList().forEach(issue -> issues.putIfAbsent(issue.getKey(), issue));
+        try {
+            for (Future<Issues.SearchWsResponse> page : pages) {
+                page.get().getIssuesList().forEach(issue -> issues.putIfAbsent(issue.getKey(), issue));
+            }
+        } finally {
+            pages.forEach(page -> page.cancel(true));
+        }
+
+        LOG.debug("Fetched {} issues in {} pages (severities={}, types={})",
+                issues.size(), Math.max(pageCount, 1), severities, types);
+        return new ArrayList<>(issues.values());
+    }
+
+    /**
+     * 依序查詢各分割並合併結果（每個分割內部已並行分頁）
+     */
+    private List<Issues.Issue> searchPartitions(List<List<String>> partitions, PartitionSearch search)
+            throws InterruptedException, ExecutionException {
+        List<Issues.Issue> issues = new ArrayList<>();
+        for (List<String> partition : partitions) {
+            issues.addAll(search.apply(partition));
+        }
+        return issues;
+    }
+
+    @FunctionalInterface
+    private interface PartitionSearch {
+        List<Issues.Issue> apply(List<String> partition) throws InterruptedException, ExecutionException;
+    }
+
+    private SearchRequest createSearchRequest(String projectKey, List<String> severities, List<String> types, int page) {
+        SearchRequest request = new SearchRequest()
+                .setComponentKeys(Collections.singletonList(projectKey))
+                .setTypes(types)
+                .setStatuses(ISSUE_STATUSES)
+                .setS("FILE_LINE")
+                .setAsc("true")
+                .setP(String.valueOf(page))
+                .setPs(String.valueOf(PAGE_SIZE));
+        if (severities != null) {
+            request.setSeverities(severities);
+        }
+        return request;
+    }
+
+    /**
+     * 依檔案批次取得代碼片段
+     *
+     * <p>每個檔案只呼叫一次 {@code sources/raw}（並行），原始碼連同行索引存入 {@link SourceSnippetCache}，
+     * 同一分析版本的後續匯出直接由快取切出片段。</p>
+     *
+     * @param issues   Issues
+     * @param revision 分析版本（null 表示無法判斷版本，不使用快取）
+     * @return Issue key → 代碼片段（取不到的 Issue 不在 Map 中）
+     */
+    private Map<String, String> fetchCodeSnippets(List<Issues.Issue> issues, String revision)
+            throws InterruptedException {
+        Map<String, List<Issues.Issue>> issuesByComponent = new LinkedHashMap<>();
+        for (Issues.Issue issue : issues) {
+            if (issue.hasLine()) {
+                issuesByComponent.computeIfAbsent(issue.getComponent(), component -> new ArrayList<>()).add(issue);
+            }
+        }
+
+        List<Future<Map<String, String>>> results = new ArrayList<>(issuesByComponent.size());
+        for (Map.Entry<String, List<Issues.Issue>> entry : issuesByComponent.entrySet()) {
+            results.add(requestExecutor.submit(() -> sliceCodeSnippets(entry.getKey(), revision, entry.getValue())));
+        }
+
+        Map<String, String> snippets = new HashMap<>();
+        try {
+            for (Future<Map<String, String>> result : results) {
+                try {
+                    snippets.putAll(result.get());
+                } catch (ExecutionException e) {
+                    LOG.warn("Failed to get code snippets: {}", e.getCause().getMessage());
+                }
+            }
+        } finally {
+            results.forEach(result -> result.cancel(true));
+        }
+
+        LOG.debug("Fetched code snippets for {} issues from {} files", snippets.size(), issuesByComponent.size());
+        return snippets;
+    }
+
+    /**
+     * 取得單一檔案原始碼並切出各 Issue 的片段
+     *
+     * @param component 元件 key
+     * @param revision  分析版本（null 表示不使用快取）
+     * @param issues    該檔案中有行號的 Issues
+     * @return Issue key → 代碼片段（前後各 3 行），取不到原始碼時為空 Map
+     */
+    private Map<String, String> sliceCodeSnippets(String component, String revision, List<Issues.Issue> issues) {
+        IndexedSource source;
+        try {
+            source = revision != null
+                    ? sourceCache.get(component, revision, this::downloadSource)
+                    : indexSource(downloadSource(component));
+        } catch (Exception e) {
+            LOG.warn("Failed to get source for component {} ({} issues): {}",
+                    component, issues.size(), e.getMessage());
+            return Collections.emptyMap();
+        }
+
+        if (source == null) {
+            LOG.debug("No source code found for component: {}", component);
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> snippets = new HashMap<>();
+        for (Issues.Issue issue : issues) {
+            snippets.put(issue.getKey(), source.snippet(issue.getLine(), SNIPPET_CONTEXT_LINES));
+        }
+        return snippets;
+    }
+
+    /**
+     * 使用 WsClient 的 sources().raw() API 下載原始碼
+     */
+    private String downloadSource(String component) {
+        return wsClient.sources().raw(new RawRequest().setKey(component));
+    }
+
+    private static IndexedSource indexSource(String content) {
+        return content == null || content.isEmpty() ? null : IndexedSource.of(content);
+    }
+
+    /**
+     * 查詢專案最新一次分析的 ID
+     *
+     * <p>用於判斷專案自上次產生報告後是否重新分析過（報告快取鍵）。</p>
+     *
+     * @param projectKey 專案 key
+     * @return 最新分析 ID，查無分析或查詢失敗時為 empty
+     */
+    public Optional<String> getLatestAnalysisId(String projectKey) {
+        try {
+            ProjectAnalyses.SearchResponse response = wsClient.projectAnalyses().search(
+                    new org.sonarqube.ws.client.projectanalyses.SearchRequest()
+                            .setProject(projectKey)
+                            .setPs("1"));
+
+            if (response.getAnalysesCount() == 0) {
+                LOG.debug("No analysis found for project: {}", projectKey);
+                return Optional.empty();
+            }
+            return Optional.of(response.getAnalyses(0).getKey());
+
+        } catch (Exception e) {
+            LOG.warn("Failed to query latest analysis for project {}: {}", projectKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 查詢專案 Issue 的最後更新時間
+     *
+     * <p>Issue 狀態變更（確認、標記誤報、解決、重新開啟等）不會產生新的分析，
+     * 報告快取鍵需同時包含此時間才能反映這類變更。查詢不限狀態，已解決的 Issue 同樣計入。</p>
+     *
+     * @param projectKey 專案 key
+     * @return 最後更新時間（專案沒有 Issue 時為空字串），查詢失敗時為 empty
+     */
+    public Optional<String> getLatestIssueUpdate(String projectKey) {
+        try {
+            Issues.SearchWsResponse response = wsClient.issues().search(new SearchRequest()
+                    .setComponentKeys(Collections.singletonList(projectKey))
+                    .setTypes(ISSUE_TYPES)
+                    .setS("UPDATE_DATE")
+                    .setAsc("false")
+                    .setPs("1"));
+            return Optional.of(response.getIssuesCount() == 0 ? "" : response.getIssues(0).getUpdateDate());
+        } catch (Exception e) {
+            LOG.warn("Failed to query latest issue update for project {}: {}", projectKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 查詢安全問題並建立分析報告
+     *
+     * @param projectKey   專案 key
+     * @param owaspVersion OWASP 版本
+     * @return 分析報告（包含實際的安全發現）
+     */
+    public AnalysisReport createReport(String projectKey, String owaspVersion) {
+        LOG.info("Retrieving actual analysis data from SonarQube for project: {} (OWASP {})",
+             projectKey, owaspVersion);
+
+        // 查詢安全問題
+        List<SecurityFinding> findings = getOwaspFindings(projectKey, owaspVersion);
+
+        // 單次走訪建立索引，摘要與報告共用
+        FindingIndex index = FindingIndex.of(findings);
+        ReportSummary summary = ReportSummary.fromIndex(index);
+
+        LOG.info("Report created: {} total findings, {} BLOCKER, {} CRITICAL, {} MAJOR",
+                summary.getTotalFindings(),
+                summary.getBlockerCount(),
+                summary.getCriticalCount(),
+                summary.getMajorCount());
+
+        return AnalysisReport.builder()
+                .projectName(projectKey)
+                .owaspVersion(owaspVersion)
+                .analysisTime(java.time.LocalDateTime.now())
+                .findings(findings)
+                .index(index)
+                .summary(summary)
+                .build();
+    }
+
     /**
      * 計算報告摘要統計
      *
@@ -153,9 +503,10 @@ public class SonarQubeDataService {
      * 映射 SonarQube Issue 到 SecurityFinding 模型
      *
      * @param issue SonarQube Issue 物件
+     * @param codeSnippet 代碼片段（可為 null）
      * @return SecurityFinding 或 null（若無法映射到 OWASP 分類）
      */
-    private SecurityFinding mapToSecurityFinding(Issues.Issue issue, String owaspVersion) {
+    private SecurityFinding mapToSecurityFinding(Issues.Issue issue, String owaspVersion, String codeSnippet) {
         try {
             // 提取 tags
             List<String> tags = issue.getTagsList();
@@ -176,12 +527,6 @@ public class SonarQubeDataService {
             // 映射嚴重性
             String severity = mapSeverity(issue.getSeverity().name());
 
-            // 獲取代碼片段
-            String codeSnippet = null;
-            if (issue.hasLine()) {
-                codeSnippet = getCodeSnippet(issue.getComponent(), issue.getLine());
-            }
-
             // 建構 SecurityFinding
             return SecurityFinding.builder()
                     .ruleKey(ruleKey)
@@ -194,6 +539,7 @@ public class SonarQubeDataService {
                     .description(issue.getMessage())
                     .fixSuggestion(null)
                     .codeSnippet(codeSnippet)
+                    .lineHash(issue.hasHash() ? issue.getHash() : null)
                     .build();
 
         } catch (Exception e) {
@@ -314,45 +660,4 @@ public class SonarQubeDataService {
                 return "INFO";
         }
     }
-
-    /**
-     * 獲取代碼片段
-     *
-     * @param component 元件 key
-     * @param line 行號
-     * @return 代碼片段（前後各 3 行），失敗則返回 null
-     */
-    private String getCodeSnippet(String component, int line) {
-        try {
-            // 計算開始和結束行（前後各 3 行）
-            int fromLine = Math.max(1, line - 3);
-            int toLine = line + 3;
-
-            // 使用 WsClient 的 sources().raw() API
-            String rawSource = wsClient.sources().raw(new RawRequest().setKey(component));
-
-            if (rawSource == null || rawSource.isEmpty()) {
-                LOG.debug("No source code found for component: {}", component);
-                return null;
-            }
-
-            // 分割成行
-            String[] lines = rawSource.split("\r?\n");
-
-            // 提取相關行
-            StringBuilder snippet = new StringBuilder();
-            for (int i = fromLine - 1; i < Math.min(toLine, lines.length); i++) {
-                if (i >= 0 && i < lines.length) {
-                    snippet.append(lines[i]).append("\n");
-                }
-            }
-
-            return snippet.toString().trim();
-
-        } catch (Exception e) {
-            LOG.warn("Failed to get code snippet for component {} at line {}: {}", 
-                    component, line, e.getMessage());
-            return null;
-        }
-    }
 }
@@ -0,0 +1,135 @@
+package com.github.sonarqube.plugin.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP Content-Encoding 協商工具
+ *
+ * 依 {@code Accept-Encoding} 標頭（含 q 值）選擇回應壓縮方式，支援 gzip 與 deflate；
+ * 兩者皆由 JDK 內建實作，不需額外依賴。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public class ContentEncodingNegotiator {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    /**
+     * 壓縮輸出緩衝區大小（位元組）
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * 私有建構函數（工具類別）
+     */
+    private ContentEncodingNegotiator() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * 從 Accept-Encoding 標頭選擇壓縮方式
+     *
+     * <p>q 值最高者優先，相同時 gzip 優先於 deflate；{@code q=0} 表示拒絕該編碼，
+     * {@code *} 適用於未列出的編碼。</p>
+     *
+     * @param acceptEncoding Accept-Encoding 標頭值（可為 null）
+     * @return {@link #GZIP}、{@link #DEFLATE}，或 null（不壓縮）
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+
+        double gzipQ = -1;
+        double deflateQ = -1;
+        double wildcardQ = -1;
+
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = parseQuality(tokens);
+
+            switch (coding) {
+                case GZIP:
+                case "x-gzip":
+                    gzipQ = Math.max(gzipQ, q);
+                    break;
+                case DEFLATE:
+                    deflateQ = Math.max(deflateQ, q);
+                    break;
+                case "*":
+                    wildcardQ = Math.max(wildcardQ, q);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (gzipQ < 0) {
+            gzipQ = wildcardQ;
+        }
+        if (deflateQ < 0) {
+            deflateQ = wildcardQ;
+        }
+
+        if (gzipQ > 0 && gzipQ >= deflateQ) {
+            return GZIP;
+        }
+        if (deflateQ > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * 以指定壓縮方式包裝輸出流
+     *
+     * <p>回傳的串流在 {@code finish()}（或 close）時寫出壓縮尾端資料；close 時一併釋放壓縮器的原生記憶體。</p>
+     *
+     * @param output   原始輸出流
+     * @param encoding {@link #GZIP} 或 {@link #DEFLATE}
+     * @return 壓縮輸出流
+     * @throws IOException 如果無法寫入壓縮標頭
+     */
+    public static DeflaterOutputStream wrap(OutputStream output, String encoding) throws IOException {
+        if (GZIP.equals(encoding)) {
+            return new GZIPOutputStream(output, BUFFER_SIZE);
+        }
+        if (DEFLATE.equals(encoding)) {
+            // HTTP "deflate" 為 zlib 格式（RFC 1950），即 Deflater 預設（非 nowrap）輸出
+            // 自行建立的 Deflater 不會由 DeflaterOutputStream.close() 釋放，需自行 end()
+            return new DeflaterOutputStream(output, new Deflater(Deflater.DEFAULT_COMPRESSION), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+    }
+
+    private static double parseQuality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.sonarqube.plugin;
+
+import com.github.sonarqube.ai.AiService;
+import com.github.sonarqube.ai.model.AiConfig;
+import com.github.sonarqube.ai.model.AiModel;
+import com.github.sonarqube.ai.routing.LoadBalancedAiService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.config.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OwaspSensor 負載平衡端點配置單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("OwaspSensor Load Balancing Tests")
+class OwaspSensorLoadBalanceTest {
+
+    private static final AiConfig PRIMARY = AiConfig.builder()
+        .model(AiModel.GPT_4)
+        .apiKey("sk-primary")
+        .apiEndpoint("https://api.openai.com/v1/chat/completions")
+        .build();
+
+    @Test
+    @DisplayName("未設定端點時直接使用主要模型服務")
+    void testWithoutEndpointsUsesPrimaryService() {
+        AiService service = new OwaspSensor(configuration(Map.of())).createPrimaryService(PRIMARY);
+
+        assertThat(service).isNotInstanceOf(LoadBalancedAiService.class);
+        assertThat(service.getModelName()).isEqualTo("gpt-4");
+    }
+
+    @Test
+    @DisplayName("設定端點時組成負載平衡服務並略過無效端點")
+    void testEndpointsBuildLoadBalancedService() {
+        Map<String, String> settings = new HashMap<>();
+        settings.put(AiOwaspPlugin.PROPERTY_OPENAI_API_KEY, "sk-openai");
+        settings.put(AiOwaspPlugin.PROPERTY_ANTHROPIC_API_KEY, "sk-ant");
+        settings.put(AiOwaspPlugin.PROPERTY_AI_HEDGING_ENABLED, "true");
+        // 未知模型、非正整數權重與缺少 API Key 的 Gemini 端點皆略過
+        settings.put(AiOwaspPlugin.PROPERTY_AI_ENDPOINT_POOL,
+            "claude-3-5-haiku-20241022:2, gpt-4o-mini,unknown-model,gpt-3.5-turbo:0,gemini-2.5-flash");
+
+        AiService service = new OwaspSensor(configuration(settings)).createPrimaryService(PRIMARY);
+
+        assertThat(service).isInstanceOf(LoadBalancedAiService.class);
+        assertThat(service.getModelName()).isEqualTo("gpt-4,claude-3-5-haiku-20241022,gpt-4o-mini");
+        service.close();
+    }
+
+    private static Configuration configuration(Map<String, String> settings) {
+        return new Configuration() {
+            @Override
+            public Optional<String> get(String key) {
+                return Optional.ofNullable(settings.get(key));
+            }
+
+            @Override
+            public boolean hasKey(String key) {
+                return settings.containsKey(key);
+            }
+
+            @Override
+            public String[] getStringArray(String key) {
+                String value = settings.get(key);
+                return value == null ? new String[0] : value.split(",");
+            }
+        };
+    }
+}
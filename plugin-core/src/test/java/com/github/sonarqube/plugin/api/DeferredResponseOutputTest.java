@@ -0,0 +1,82 @@
+package com.github.sonarqube.plugin.api;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.server.ws.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PdfReportApiController 延遲送出回應的單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("DeferredResponseOutput Unit Tests")
+class DeferredResponseOutputTest {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final Response.Stream stream = mock(Response.Stream.class);
+    private final Response response = mock(Response.class);
+
+    DeferredResponseOutputTest() {
+        when(response.stream()).thenReturn(stream);
+        when(stream.output()).thenReturn(body);
+    }
+
+    @Test
+    @DisplayName("第一次寫入前不設定狀態碼與標頭")
+    void testNothingCommittedBeforeFirstWrite() throws IOException {
+        PdfReportApiController.DeferredResponseOutput output =
+            new PdfReportApiController.DeferredResponseOutput(response, "text/html", true, "gzip");
+
+        output.flush();
+        output.write(new byte[0], 0, 0);
+
+        assertThat(output.isStarted()).isFalse();
+        verify(stream, never()).setStatus(200);
+        verify(response, never()).setHeader("Content-Encoding", "gzip");
+        assertThat(body.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("寫入時送出標頭並以協商的編碼壓縮")
+    void testCompressesAfterFirstWrite() throws IOException {
+        PdfReportApiController.DeferredResponseOutput output =
+            new PdfReportApiController.DeferredResponseOutput(response, "text/html", true, "gzip");
+
+        output.write("<html></html>".getBytes(StandardCharsets.UTF_8));
+        output.finish();
+
+        assertThat(output.isStarted()).isTrue();
+        verify(stream).setStatus(200);
+        verify(stream).setMediaType("text/html");
+        verify(response).setHeader("Content-Encoding", "gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("<html></html>");
+        }
+    }
+
+    @Test
+    @DisplayName("空報告完成時仍送出標頭")
+    void testEmptyBodyStillCommits() throws IOException {
+        PdfReportApiController.DeferredResponseOutput output =
+            new PdfReportApiController.DeferredResponseOutput(response, "application/pdf", false, null);
+
+        output.finish();
+
+        verify(stream).setStatus(200);
+        verify(response, never()).setHeader("Vary", "Accept-Encoding");
+        assertThat(body.size()).isZero();
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.sonarqube.plugin.api;
+
+import com.github.sonarqube.plugin.api.ScanProgressApiController.ScanProgress;
+import com.github.sonarqube.plugin.api.ScanProgressApiController.ScanStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ScanProgress 單元測試（原子計數器、增量回應與長輪詢）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.7.0
+ */
+@DisplayName("ScanProgress Unit Tests")
+class ScanProgressTest {
+
+    @Test
+    @DisplayName("並行更新計數器不遺失")
+    void testConcurrentCountersAreExact() throws Exception {
+        ScanProgress progress = new ScanProgress("app");
+        progress.start(8_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<?>[] tasks = new CompletableFuture<?>[8];
+            for (int t = 0; t < tasks.length; t++) {
+                tasks[t] = CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        progress.aiRequestStarted();
+                        progress.aiRequestFinished(10);
+                        progress.fileProcessed("src/F.java");
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(tasks).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(progress.getProcessedFiles()).isEqualTo(8_000);
+        assertThat(progress.getAiRequestsCompleted()).isEqualTo(8_000);
+        assertThat(progress.getAiRequestsInFlight()).isZero();
+        assertThat(progress.getTotalTokens()).isEqualTo(80_000);
+        assertThat(progress.getProgressPercentage()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("增量回應只在生命週期變更後附帶狀態欄位")
+    void testDeltaOmitsUnchangedLifecycleFields() {
+        ScanProgress progress = new ScanProgress("app");
+        progress.start(10);
+        long afterStart = progress.getVersion();
+
+        progress.update("src/A.java", 1, 10);
+
+        String delta = progress.toJson(afterStart);
+        assertThat(delta).contains("\"full\": false", "\"processedFiles\": 1", "\"currentFile\": \"src/A.java\"");
+        assertThat(delta).doesNotContain("\"status\"");
+
+        long beforeComplete = progress.getVersion();
+        progress.complete();
+        assertThat(progress.toJson(beforeComplete)).contains("\"full\": true", "\"status\": \"COMPLETED\"");
+        assertThat(progress.toJson()).contains("\"full\": true");
+    }
+
+    @Test
+    @DisplayName("長輪詢在進度變更時立即返回")
+    void testAwaitChangeWakesOnUpdate() throws Exception {
+        ScanProgress progress = new ScanProgress("app");
+        long version = progress.getVersion();
+
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return progress.awaitChange(version, TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        progress.start(5);
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isGreaterThan(version);
+        assertThat(progress.getStatus()).isEqualTo(ScanStatus.IN_PROGRESS);
+    }
+
+    @Test
+    @DisplayName("長輪詢逾時時返回原版本")
+    void testAwaitChangeTimesOut() throws InterruptedException {
+        ScanProgress progress = new ScanProgress("app");
+        long version = progress.getVersion();
+
+        long start = System.nanoTime();
+        assertThat(progress.awaitChange(version, 50)).isEqualTo(version);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(45);
+        // 已落後的版本立即返回
+        progress.fileProcessed("src/A.java");
+        assertThat(progress.awaitChange(version, 10_000)).isEqualTo(version + 1);
+    }
+}
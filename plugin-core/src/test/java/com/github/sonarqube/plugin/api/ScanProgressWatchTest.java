@@ -0,0 +1,125 @@
+package com.github.sonarqube.plugin.api;
+
+import com.github.sonarqube.plugin.api.ScanProgressApiController.ScanProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 掃描進度長輪詢端點單元測試（未知專案與等待者上限）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("ScanProgress Watch Unit Tests")
+class ScanProgressWatchTest {
+
+    private static final String PROJECT = "watch-test-project";
+
+    private final ScanProgressApiController controller = new ScanProgressApiController();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        progressMap().remove(PROJECT);
+    }
+
+    @Test
+    @DisplayName("未知專案立即回應未開始狀態且不建立進度資料")
+    void testUnknownProjectIsNotStored() throws Exception {
+        Map<String, ScanProgress> map = progressMap();
+        for (int i = 0; i < 100; i++) {
+            Reply reply = watch("unknown-" + i, 0, 30);
+            assertThat(reply.body()).contains("NOT_STARTED");
+            verify(reply.stream).setStatus(200);
+        }
+        assertThat(map.keySet()).noneMatch(key -> key.startsWith("unknown-"));
+    }
+
+    @Test
+    @DisplayName("等待者達上限時回應 429")
+    void testWatchersAreCapped() throws Exception {
+        ScanProgress progress = new ScanProgress(PROJECT);
+        progress.start(10);
+        progressMap().put(PROJECT, progress);
+        long version = progress.getVersion();
+
+        ExecutorService executor = Executors.newFixedThreadPool(ScanProgressApiController.MAX_CONCURRENT_WATCHERS);
+        try {
+            List<Future<Reply>> waiting = new ArrayList<>();
+            for (int i = 0; i < ScanProgressApiController.MAX_CONCURRENT_WATCHERS; i++) {
+                waiting.add(executor.submit(() -> watch(PROJECT, version, 30)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (progress.getWaiterCount() < ScanProgressApiController.MAX_CONCURRENT_WATCHERS
+                && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            Reply rejected = watch(PROJECT, version, 30);
+            verify(rejected.stream).setStatus(429);
+            verify(rejected.response).setHeader("Retry-After",
+                String.valueOf(ScanProgressApiController.WATCH_RETRY_AFTER_SECONDS));
+
+            progress.fileProcessed("A.java");
+            for (Future<Reply> future : waiting) {
+                verify(future.get(10, TimeUnit.SECONDS).stream).setStatus(200);
+            }
+
+            // 等待者釋放後可再次等待
+            Reply accepted = watch(PROJECT, 0, 30);
+            verify(accepted.stream).setStatus(200);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Reply watch(String project, long since, int timeoutSeconds) throws Exception {
+        Request request = mock(Request.class);
+        when(request.mandatoryParam("project")).thenReturn(project);
+        when(request.mandatoryParam("since")).thenReturn(String.valueOf(since));
+        when(request.mandatoryParam("timeout")).thenReturn(String.valueOf(timeoutSeconds));
+        Reply reply = new Reply();
+        controller.new WatchProgressHandler().handle(request, reply.response);
+        return reply;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ScanProgress> progressMap() throws Exception {
+        Field field = ScanProgressApiController.class.getDeclaredField("progressMap");
+        field.setAccessible(true);
+        return (Map<String, ScanProgress>) field.get(null);
+    }
+
+    private static final class Reply {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final Response.Stream stream = mock(Response.Stream.class);
+        final Response response = mock(Response.class);
+
+        Reply() {
+            when(response.stream()).thenReturn(stream);
+            when(stream.output()).thenReturn(output);
+        }
+
+        String body() {
+            return output.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.sonarqube.plugin.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Report Result Cache 單元測試
+ *
+ * 測試範圍：
+ * - 快取存取（begin/commit/open）
+ * - 分析 ID 或 Issue 更新時間變更後失效
+ * - 未 commit 的項目不可見、遺留暫存檔清除
+ * - 容量淘汰（LRU），已開啟的項目可讀完
+ *
+ * @since 2.0.0
+ */
+@DisplayName("ReportResultCache Unit Tests")
+public class ReportResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static ReportResultCache.Key key(String analysisId, String format) {
+        return key(analysisId, "2026-01-01T00:00:00+0000", format);
+    }
+
+    private static ReportResultCache.Key key(String analysisId, String issuesUpdatedAt, String format) {
+        return new ReportResultCache.Key("com.example:app", analysisId, issuesUpdatedAt, "2021", format, "cfg");
+    }
+
+    private static Optional<String> read(ReportResultCache cache, ReportResultCache.Key key) throws IOException {
+        Optional<InputStream> input = cache.open(key);
+        if (input.isEmpty()) {
+            return Optional.empty();
+        }
+        try (InputStream in = input.get()) {
+            return Optional.of(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private Path entryFile(ReportResultCache.Key key) {
+        return tempDir.resolve(key.digest() + ".report");
+    }
+
+    private static void put(ReportResultCache cache, ReportResultCache.Key key, String content) throws IOException {
+        try (ReportResultCache.PendingEntry entry = cache.begin(key)) {
+            entry.output().write(content.getBytes(StandardCharsets.UTF_8));
+            entry.commit();
+        }
+    }
+
+    @Test
+    @DisplayName("測試快取存取 - commit 後可讀取")
+    void testCommitAndGet() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, true);
+
+        assertFalse(read(cache, key("AX1", "html")).isPresent());
+
+        put(cache, key("AX1", "html"), "<html>report</html>");
+
+        Optional<String> cached = read(cache, key("AX1", "html"));
+        assertTrue(cached.isPresent());
+        assertEquals("<html>report</html>", cached.get());
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(1, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    @DisplayName("測試新分析 ID 與其他格式不命中")
+    void testDifferentAnalysisOrFormatMisses() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, true);
+        put(cache, key("AX1", "html"), "v1");
+
+        assertFalse(read(cache, key("AX2", "html")).isPresent());
+        assertFalse(read(cache, key("AX1", "json")).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試 Issue 狀態變更後不命中")
+    void testIssueUpdateMisses() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, true);
+        put(cache, key("AX1", "2026-01-01T00:00:00+0000", "html"), "v1");
+
+        assertTrue(read(cache, key("AX1", "2026-01-01T00:00:00+0000", "html")).isPresent());
+        assertFalse(read(cache, key("AX1", "2026-01-02T08:30:00+0000", "html")).isPresent());
+    }
+
+    @Test
+    @DisplayName("測試 tee 同時寫入下游與快取")
+    void testTeeWritesBothStreams() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, true);
+        ByteArrayOutputStream downstream = new ByteArrayOutputStream();
+
+        try (ReportResultCache.PendingEntry entry = cache.begin(key("AX1", "json"))) {
+            OutputStream tee = entry.tee(downstream);
+            tee.write("{\"findings\":[]}".getBytes(StandardCharsets.UTF_8));
+            tee.close();
+            entry.commit();
+        }
+
+        assertEquals("{\"findings\":[]}", downstream.toString(StandardCharsets.UTF_8));
+        assertEquals("{\"findings\":[]}", read(cache, key("AX1", "json")).get());
+    }
+
+    @Test
+    @DisplayName("測試未 commit 的項目被捨棄")
+    void testAbortedEntryIsDiscarded() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, true);
+
+        try (ReportResultCache.PendingEntry entry = cache.begin(key("AX1", "pdf"))) {
+            entry.output().write(new byte[100]);
+            // 生成失敗，未 commit
+        }
+
+        assertFalse(read(cache, key("AX1", "pdf")).isPresent());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("測試遺留的暫存檔逾時後清除")
+    void testStaleTempFilesArePurged() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, true);
+        Path stale = Files.writeString(tempDir.resolve("crashed-1.tmp"), "partial");
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(
+                System.currentTimeMillis() - ReportResultCache.STALE_TEMP_MILLIS - 1000));
+        Path recent = Files.writeString(tempDir.resolve("rendering-2.tmp"), "partial");
+
+        put(cache, key("AX1", "html"), "report");
+
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(recent));
+    }
+
+    @Test
+    @DisplayName("測試容量淘汰 - 移除最久未使用的項目")
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 250, true);
+        String content = "x".repeat(100);
+
+        put(cache, key("A1", "html"), content);
+        put(cache, key("A2", "html"), content);
+        Files.setLastModifiedTime(entryFile(key("A1", "html")), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(entryFile(key("A2", "html")), FileTime.fromMillis(2000));
+
+        put(cache, key("A3", "html"), content);
+
+        assertFalse(read(cache, key("A1", "html")).isPresent());
+        assertTrue(read(cache, key("A2", "html")).isPresent());
+        assertTrue(read(cache, key("A3", "html")).isPresent());
+        assertEquals(1, cache.getStatistics().getEvictions());
+    }
+
+    @Test
+    @DisplayName("測試已開啟的項目被淘汰後仍可讀完")
+    void testOpenedEntrySurvivesEviction() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 150, true);
+        String content = "x".repeat(100);
+        put(cache, key("A1", "html"), content);
+
+        try (InputStream input = cache.open(key("A1", "html")).get()) {
+            Files.setLastModifiedTime(entryFile(key("A1", "html")), FileTime.fromMillis(1000));
+            put(cache, key("A2", "html"), content);
+
+            assertEquals(content, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("測試停用時不命中")
+    void testDisabledCache() throws IOException {
+        ReportResultCache cache = new ReportResultCache(tempDir, 1024 * 1024, false);
+        put(cache, key("AX1", "html"), "report");
+
+        assertFalse(cache.isEnabled());
+        assertFalse(read(cache, key("AX1", "html")).isPresent());
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.sonarqube.plugin.cache;
+
+import com.github.sonarqube.plugin.cache.SourceSnippetCache.IndexedSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Source Snippet Cache 單元測試
+ *
+ * 測試範圍：
+ * - 行索引（LF / CRLF / 結尾空行）
+ * - 行範圍切片
+ * - 快取命中與分析版本
+ * - 載入失敗不快取
+ *
+ * @since 2.0.0
+ */
+@DisplayName("SourceSnippetCache Unit Tests")
+public class SourceSnippetCacheTest {
+
+    @Test
+    @DisplayName("測試行索引 - LF 與 CRLF")
+    void testLineIndex() {
+        IndexedSource source = IndexedSource.of("first\r\nsecond\nthird\r\n\n");
+
+        assertEquals(3, source.getLineCount());
+        assertEquals("first", source.getLine(1));
+        assertEquals("second", source.getLine(2));
+        assertEquals("third", source.getLine(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> source.getLine(4));
+    }
+
+    @Test
+    @DisplayName("測試片段切片 - 前後行數超出檔案範圍")
+    void testSnippetClampedToFile() {
+        IndexedSource source = IndexedSource.of("l1\nl2\nl3\nl4\nl5\nl6\nl7\nl8\nl9");
+
+        assertEquals("l1\nl2\nl3\nl4", source.snippet(1, 3));
+        assertEquals("l2\nl3\nl4\nl5\nl6\nl7\nl8", source.snippet(5, 3));
+        assertEquals("l6\nl7\nl8\nl9", source.snippet(9, 3));
+    }
+
+    @Test
+    @DisplayName("測試快取命中 - 同一版本只載入一次")
+    void testLoadsOncePerRevision() {
+        SourceSnippetCache cache = new SourceSnippetCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        IndexedSource first = cache.get("proj:A.java", "AX1", component -> {
+            loads.incrementAndGet();
+            return "a\nb";
+        });
+        IndexedSource second = cache.get("proj:A.java", "AX1", component -> {
+            loads.incrementAndGet();
+            return "a\nb";
+        });
+        cache.get("proj:A.java", "AX2", component -> {
+            loads.incrementAndGet();
+            return "a\nb\nc";
+        });
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStatistics().hitCount());
+    }
+
+    @Test
+    @DisplayName("測試空原始碼不快取")
+    void testEmptySourceNotCached() {
+        SourceSnippetCache cache = new SourceSnippetCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get("proj:A.java", "AX1", component -> {
+            loads.incrementAndGet();
+            return "";
+        }));
+        assertNull(cache.get("proj:A.java", "AX1", component -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("測試容量上限 - 依位元組淘汰")
+    void testWeightBound() {
+        SourceSnippetCache cache = new SourceSnippetCache(10_000);
+        String content = "x".repeat(2_000);
+
+        for (int i = 0; i < 20; i++) {
+            cache.get("proj:F" + i + ".java", "AX1", component -> content);
+        }
+
+        assertTrue(cache.getStatistics().evictionCount() > 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.sonarqube.plugin.cost;
+
+import com.github.sonarqube.ai.model.AiResponse;
+import com.github.sonarqube.plugin.cost.CostEstimator.AiProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Prompt 快取計價單元測試（快取讀取折扣與 Anthropic 快取寫入加價）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("Prompt Cache Pricing Unit Tests")
+class PromptCachePricingTest {
+
+    private final CostEstimator estimator = CostEstimator.getInstance();
+
+    @Test
+    @DisplayName("OpenAI 快取命中以半價計費")
+    void testOpenAiCachedInputIsHalfPrice() {
+        double uncached = estimator.calculateCost(AiProvider.OPENAI_GPT4_TURBO, 2000, 0, 0);
+        double cached = estimator.calculateCost(AiProvider.OPENAI_GPT4_TURBO, 2000, 1000, 0);
+
+        assertThat(uncached).isCloseTo(0.02, within(1e-9));
+        assertThat(cached).isCloseTo(0.015, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Anthropic 快取寫入以 1.25 倍、讀取以 0.1 倍輸入單價計費")
+    void testClaudeCacheWriteAndRead() {
+        // Sonnet: $0.003/1K input
+        double written = estimator.calculateCost(AiProvider.ANTHROPIC_CLAUDE3_SONNET, 2000, 0, 1000, 0);
+        double read = estimator.calculateCost(AiProvider.ANTHROPIC_CLAUDE3_SONNET, 2000, 1000, 0, 0);
+
+        assertThat(written).isCloseTo(0.003 + 0.00375, within(1e-9));
+        assertThat(read).isCloseTo(0.003 + 0.0003, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("其他供應商寫入快取不加價")
+    void testGeminiCacheWriteAtInputPrice() {
+        double plain = estimator.calculateCost(AiProvider.GOOGLE_GEMINI_FLASH, 2000, 0, 0, 0);
+        double written = estimator.calculateCost(AiProvider.GOOGLE_GEMINI_FLASH, 2000, 0, 1000, 0);
+
+        assertThat(written).isCloseTo(plain, within(1e-12));
+    }
+
+    @Test
+    @DisplayName("依回應記錄時計入快取寫入 token")
+    void testRecordResponseBillsCacheWrites() {
+        AiResponse response = AiResponse.success()
+                .inputTokens(1500)
+                .cacheWriteInputTokens(1200)
+                .outputTokens(100)
+                .build();
+        long before = estimator.getStatistics().getTotalCacheWriteInputTokens();
+        double spentBefore = estimator.getSpentCost();
+
+        estimator.recordResponse(AiProvider.ANTHROPIC_CLAUDE3_HAIKU, response);
+
+        assertThat(estimator.getStatistics().getTotalCacheWriteInputTokens() - before).isEqualTo(1200);
+        assertThat(estimator.getSpentCost() - spentBefore).isCloseTo(
+                0.3 * 0.00025 + 1.2 * 0.0003125 + 0.1 * 0.00125, within(1e-9));
+    }
+}
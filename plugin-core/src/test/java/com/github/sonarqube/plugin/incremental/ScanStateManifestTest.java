@@ -0,0 +1,110 @@
+package com.github.sonarqube.plugin.incremental;
+
+import com.github.sonarqube.plugin.incremental.ScanStateManifest.FileState;
+import com.github.sonarqube.plugin.incremental.ScanStateManifest.RecordedIssue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ScanStateManifest 單元測試（stat 優先比對、內容 hash 備援、序列化）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("ScanStateManifest Unit Tests")
+class ScanStateManifestTest {
+
+    private static final long SCAN_STARTED = 1_700_000_000_000L;
+
+    private ScanStateManifest manifest() {
+        return ScanStateManifest.builder("rules-v1", "2021", "gpt-4", SCAN_STARTED)
+            .put("src/A.java", new FileState(120, SCAN_STARTED - 60_000, "hash-a",
+                List.of(new RecordedIssue("owasp-java:sql-injection", 12, "SQL Injection"))))
+            .put("src/B.java", new FileState(80, SCAN_STARTED - 60_000, "hash-b", List.of()))
+            .build();
+    }
+
+    @Test
+    @DisplayName("stat 相同時不計算內容 hash")
+    void testStatMatchSkipsHashing() {
+        AtomicInteger hashed = new AtomicInteger();
+        FileState state = manifest().findUnchanged("src/A.java", 120, SCAN_STARTED - 60_000,
+            () -> { hashed.incrementAndGet(); return "other"; });
+
+        assertThat(state).isNotNull();
+        assertThat(state.getIssues()).extracting(RecordedIssue::getRuleKey).containsExactly("owasp-java:sql-injection");
+        assertThat(hashed).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("修改時間不同時以內容 hash 判斷（CI 全新 checkout）")
+    void testHashFallbackWhenMtimeDiffers() {
+        ScanStateManifest manifest = manifest();
+
+        FileState same = manifest.findUnchanged("src/A.java", 120, SCAN_STARTED + 5_000, () -> "hash-a");
+        assertThat(same).isNotNull();
+        assertThat(same.getLastModifiedMillis()).isEqualTo(SCAN_STARTED + 5_000);
+        assertThat(same.getIssues()).hasSize(1);
+
+        assertThat(manifest.findUnchanged("src/A.java", 120, SCAN_STARTED + 5_000, () -> "changed")).isNull();
+        assertThat(manifest.findUnchanged("src/A.java", 121, SCAN_STARTED - 60_000, () -> "hash-a")).isNull();
+        assertThat(manifest.findUnchanged("src/New.java", 10, SCAN_STARTED - 60_000, () -> "x")).isNull();
+    }
+
+    @Test
+    @DisplayName("掃描開始後才修改的檔案不信任 stat")
+    void testRacyModificationIsHashed() {
+        ScanStateManifest manifest = ScanStateManifest.builder("rules-v1", "2021", "gpt-4", SCAN_STARTED)
+            .put("src/A.java", new FileState(120, SCAN_STARTED + 10, "hash-a", List.of()))
+            .build();
+
+        assertThat(manifest.findUnchanged("src/A.java", 120, SCAN_STARTED + 10, () -> "edited")).isNull();
+    }
+
+    @Test
+    @DisplayName("規則集、OWASP 版本或 AI 模型不同時清單不相容")
+    void testCompatibility() {
+        ScanStateManifest manifest = manifest();
+
+        assertThat(manifest.isCompatibleWith("rules-v1", "2021", "gpt-4")).isTrue();
+        assertThat(manifest.isCompatibleWith("rules-v2", "2021", "gpt-4")).isFalse();
+        assertThat(manifest.isCompatibleWith("rules-v1", "2025", "gpt-4")).isFalse();
+        assertThat(manifest.isCompatibleWith("rules-v1", "2021", "claude-3-opus")).isFalse();
+    }
+
+    @Test
+    @DisplayName("序列化後可完整還原")
+    void testRoundTrip() throws IOException {
+        String longMessage = "x".repeat(70_000);
+        ScanStateManifest original = ScanStateManifest.builder("rules-v1", "2021", "gpt-4", SCAN_STARTED)
+            .put("src/A.java", new FileState(120, 5L, "hash-a",
+                List.of(new RecordedIssue("owasp-java:xss", 0, longMessage))))
+            .build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        original.writeTo(out);
+        ScanStateManifest restored = ScanStateManifest.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(restored.isCompatibleWith("rules-v1", "2021", "gpt-4")).isTrue();
+        assertThat(restored.getScanStartedMillis()).isEqualTo(SCAN_STARTED);
+        FileState state = restored.getFiles().get("src/A.java");
+        assertThat(state.getSize()).isEqualTo(120);
+        assertThat(state.getContentHash()).isEqualTo("hash-a");
+        assertThat(state.getIssues()).singleElement().satisfies(issue -> {
+            assertThat(issue.getLine()).isZero();
+            assertThat(issue.getMessage()).isEqualTo(longMessage);
+        });
+
+        assertThatThrownBy(() -> ScanStateManifest.readFrom(new ByteArrayInputStream(new byte[]{1, 2, 3})))
+            .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.sonarqube.plugin.schedule;
+
+import com.github.sonarqube.plugin.cost.CostEstimator;
+import com.github.sonarqube.plugin.cost.CostEstimator.AiProvider;
+import com.github.sonarqube.plugin.incremental.ScanStateManifest;
+import com.github.sonarqube.plugin.schedule.RiskScorer.RiskScore;
+import com.github.sonarqube.rules.owasp2021.InjectionRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ScanScheduler / RiskScorer 單元測試（風險排序、預算內處理與略過報告）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("ScanScheduler Unit Tests")
+class ScanSchedulerTest {
+
+    private static final String PLAIN = "public class Plain {\n    int add(int a, int b) { return a + b; }\n}\n";
+    private static final String RISKY = "public class Dao {\n"
+        + "    void find(HttpServletRequest request) throws Exception {\n"
+        + "        Statement st = conn.createStatement();\n"
+        + "        st.executeQuery(\"SELECT * FROM users WHERE id = '\" + request.getParameter(\"id\") + \"'\");\n"
+        + "        Runtime.getRuntime().exec(request.getParameter(\"cmd\"));\n"
+        + "        new ObjectInputStream(request.getInputStream()).readObject();\n"
+        + "    }\n"
+        + "}\n";
+
+    private static RiskScore risk(double value) {
+        return new RiskScore(value, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("含危險呼叫點與靜態規則命中的檔案風險較高")
+    void testRiskScoreSignals() {
+        RiskScorer scorer = RiskScorer.builder().staticRules(List.of(new InjectionRule())).build();
+
+        RiskScore plain = scorer.score(null, "src/Plain.java", "java", PLAIN);
+        RiskScore risky = scorer.score(null, "src/Dao.java", "java", RISKY);
+
+        assertThat(plain.getValue()).isZero();
+        assertThat(risky.getSinkCategories()).isGreaterThanOrEqualTo(3);
+        assertThat(risky.getValue()).isGreaterThan(plain.getValue());
+    }
+
+    @Test
+    @DisplayName("變更量與歷史問題提高風險分數")
+    void testChurnAndPastFindings() {
+        Path file = Paths.get("src/Plain.java").toAbsolutePath();
+        ScanStateManifest previous = ScanStateManifest.builder("rules", "2021", "gpt-4", 0)
+            .put("src/Plain.java", new ScanStateManifest.FileState(10, 0, "h",
+                List.of(new ScanStateManifest.RecordedIssue("owasp-java:x", 2, "m"))))
+            .build();
+
+        RiskScore withChurn = RiskScorer.builder().churn(Map.of(file, 40)).build()
+            .score(file, "src/Plain.java", "java", PLAIN);
+        RiskScore withHistory = RiskScorer.builder().previousState(previous).build()
+            .score(file, "src/Plain.java", "java", PLAIN);
+
+        assertThat(withChurn.getChurn()).isEqualTo(40);
+        assertThat(withChurn.getValue()).isPositive();
+        assertThat(withHistory.getPastFindings()).isEqualTo(1);
+        assertThat(withHistory.getValue()).isPositive();
+    }
+
+    @Test
+    @DisplayName("依每千 token 風險由高到低排序")
+    void testOrdersByRiskPerToken() {
+        ScanScheduler<String> scheduler = new ScanScheduler<String>()
+            .add("low", "low.java", risk(1), 1_000, 0)
+            .add("dense", "dense.java", risk(5), 500, 0)
+            .add("big", "big.java", risk(8), 4_000, 0);
+
+        assertThat(scheduler.ordered()).extracting(ScanScheduler.Candidate::getItem)
+            .containsExactly("dense", "big", "low");
+    }
+
+    @Test
+    @DisplayName("預算不足時略過並繼續嘗試較小的檔案")
+    void testSkipsOverBudgetAndContinues() {
+        ScanScheduler<String> scheduler = new ScanScheduler<String>()
+            .add("first", "first.java", risk(10), 600, 0)
+            .add("huge", "huge.java", risk(9), 900, 0)
+            .add("small", "small.java", risk(0.5), 300, 0);
+        ScanBudget budget = new ScanBudget(CostEstimator.getInstance(), null, 1_000, 0);
+
+        List<String> processed = new ArrayList<>();
+        ScanScheduler.ScheduleReport report = scheduler.run(budget, (candidate, admission) -> processed.add(candidate.getItem()));
+
+        assertThat(processed).containsExactly("first", "small");
+        assertThat(report.getProcessedCount()).isEqualTo(2);
+        assertThat(report.getSkipped()).extracting(ScanScheduler.Skipped::getPath).containsExactly("huge.java");
+        assertThat(report.getSkipped().get(0).getReason()).isEqualTo(ScanBudget.SkipReason.TOKEN_BUDGET);
+        assertThat(report.getUsedTokens()).isEqualTo(900);
+    }
+
+    @Test
+    @DisplayName("結算以實際用量取代預留額度")
+    void testSettleUsesActualUsage() {
+        CostEstimator estimator = CostEstimator.getInstance();
+        ScanBudget budget = new ScanBudget(estimator, AiProvider.OPENAI_GPT35_TURBO, 0, 0.002);
+
+        assertThat(budget.admit(1_000, 0).isAdmitted()).isTrue();
+        assertThat(budget.admit(1_000, 0).getSkipReason()).isEqualTo(ScanBudget.SkipReason.COST_BUDGET);
+
+        budget.settle(AiProvider.OPENAI_GPT35_TURBO, 1_000, 0, 200, 0);
+        assertThat(budget.getUsedTokens()).isEqualTo(200);
+        assertThat(budget.admit(1_000, 0).isAdmitted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("未設定任何上限時不會略過檔案（即使全域預算已用盡）")
+    void testUnconfiguredBudgetNeverSkips() {
+        CostEstimator estimator = CostEstimator.getInstance();
+        double originalLimit = estimator.getStatistics().getBudgetLimit();
+        estimator.setBudgetLimit(0);
+        try {
+            ScanScheduler<String> scheduler = new ScanScheduler<String>()
+                .add("a", "a.java", risk(3), 200_000, 4_000)
+                .add("b", "b.java", risk(2), 500_000, 4_000)
+                .add("c", "c.java", risk(1), 1_000_000, 4_000);
+            ScanBudget budget = new ScanBudget(estimator, AiProvider.OPENAI_GPT4, 0, 0);
+
+            List<AiProvider> providers = new ArrayList<>();
+            ScanScheduler.ScheduleReport report =
+                scheduler.run(budget, (candidate, admission) -> providers.add(admission.getProvider()));
+
+            assertThat(report.getProcessedCount()).isEqualTo(3);
+            assertThat(report.getSkipped()).isEmpty();
+            assertThat(report.getDownshiftedCount()).isZero();
+            assertThat(providers).containsOnly(AiProvider.OPENAI_GPT4);
+        } finally {
+            estimator.setBudgetLimit(originalLimit);
+        }
+    }
+
+    @Test
+    @DisplayName("成本額度不足時改用同廠商較便宜的模型，仍不足才略過")
+    void testDownshiftsBeforeSkipping() {
+        ScanScheduler<String> scheduler = new ScanScheduler<String>()
+            .add("first", "first.java", risk(10), 1_000, 0)
+            .add("second", "second.java", risk(9), 1_000, 0);
+        // GPT-4 1K 輸入約 $0.03，超出 $0.01 額度；GPT-4 Turbo 恰好 $0.01
+        ScanBudget budget = new ScanBudget(CostEstimator.getInstance(), AiProvider.OPENAI_GPT4, 0, 0.01);
+
+        List<ScanBudget.Admission> admissions = new ArrayList<>();
+        ScanScheduler.ScheduleReport report = scheduler.run(budget, (candidate, admission) -> admissions.add(admission));
+
+        assertThat(admissions).hasSize(1);
+        assertThat(admissions.get(0).isDownshifted()).isTrue();
+        assertThat(admissions.get(0).getProvider()).isEqualTo(AiProvider.OPENAI_GPT4_TURBO);
+        assertThat(report.getDownshiftedCount()).isEqualTo(1);
+        assertThat(report.getSkipped()).extracting(ScanScheduler.Skipped::getReason)
+            .containsExactly(ScanBudget.SkipReason.COST_BUDGET);
+    }
+
+    @Test
+    @DisplayName("啟用全域預算時依剩餘全域預算判斷")
+    void testGlobalBudgetWhenEnabled() {
+        CostEstimator estimator = CostEstimator.getInstance();
+        double originalLimit = estimator.getStatistics().getBudgetLimit();
+        estimator.setBudgetLimit(0);
+        try {
+            ScanBudget budget = new ScanBudget(estimator, AiProvider.OPENAI_GPT4, 0, 0, true);
+
+            assertThat(budget.admit(1_000, 0).getSkipReason()).isEqualTo(ScanBudget.SkipReason.GLOBAL_BUDGET);
+            assertThat(budget.getUsedTokens()).isZero();
+        } finally {
+            estimator.setBudgetLimit(originalLimit);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.sonarqube.plugin.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OwaspCategoryMapper 單元測試（tag 映射策略與優先順序）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("OwaspCategoryMapper Unit Tests")
+class OwaspCategoryMapperTest {
+
+    @Test
+    @DisplayName("OWASP tag 優先於 CWE 與關鍵字")
+    void testOwaspTagFirst() {
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("sql", "cwe-89", "OWASP-2021-A01"), "java:S1", "2021"))
+            .isEqualTo("A01:2021-Broken Access Control");
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("owasp-a03"), "java:S1", "2017"))
+            .isEqualTo("A3:2017-Sensitive Data Exposure");
+    }
+
+    @Test
+    @DisplayName("無效的 OWASP tag 改以 CWE 映射")
+    void testCweTag() {
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("owasp-a99", "cwe-918"), "java:S1", "2025"))
+            .isEqualTo("A10:2025-Insecure Use of AI");
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("cwe-089"), "java:S1", "2021")).isNull();
+    }
+
+    @Test
+    @DisplayName("關鍵字推斷依分類優先順序而非 tag 順序")
+    void testKeywordPriority() {
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("cookie", "Crypto", "SQL"), "java:S1", "2021"))
+            .isEqualTo("A03:2021-Injection");
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("audit"), "java:S1", "2021"))
+            .isEqualTo("A09:2021-Security Logging and Monitoring Failures");
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of("performance"), "java:S1", "2021")).isNull();
+        assertThat(OwaspCategoryMapper.mapToOwaspCategory(List.of(), "java:S1", "2021")).isNull();
+    }
+
+    @Test
+    @DisplayName("CWE ID 直接映射")
+    void testMapCweToOwasp() {
+        assertThat(OwaspCategoryMapper.mapCweToOwasp("CWE-89", "2021")).isEqualTo("A03:2021-Injection");
+        assertThat(OwaspCategoryMapper.mapCweToOwasp("CWE-1", "2021")).isNull();
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.sonarqube.plugin.service;
+
+import com.github.sonarqube.report.model.SecurityFinding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.config.Configuration;
+import org.sonarqube.ws.Common;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.ProjectAnalyses;
+import org.sonarqube.ws.client.WsClient;
+import org.sonarqube.ws.client.issues.IssuesService;
+import org.sonarqube.ws.client.issues.SearchRequest;
+import org.sonarqube.ws.client.projectanalyses.ProjectAnalysesService;
+import org.sonarqube.ws.client.sources.RawRequest;
+import org.sonarqube.ws.client.sources.SourcesService;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * SonarQubeDataService 單元測試（分頁查詢與批次代碼片段）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+@DisplayName("SonarQubeDataService Unit Tests")
+class SonarQubeDataServiceTest {
+
+    private static final String PROJECT = "com.example:app";
+
+    private IssuesService issuesService;
+    private SourcesService sourcesService;
+    private ProjectAnalysesService projectAnalysesService;
+    private SonarQubeDataService service;
+    private final Set<String> requestedPages = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        WsClient wsClient = mock(WsClient.class);
+        issuesService = mock(IssuesService.class);
+        sourcesService = mock(SourcesService.class);
+        when(wsClient.issues()).thenReturn(issuesService);
+        when(wsClient.sources()).thenReturn(sourcesService);
+        projectAnalysesService = mock(ProjectAnalysesService.class);
+        when(wsClient.projectAnalyses()).thenReturn(projectAnalysesService);
+        service = new SonarQubeDataService(mock(Configuration.class), wsClient);
+    }
+
+    private static Issues.Issue issue(String key, String file, int line, Common.Severity severity) {
+        return Issues.Issue.newBuilder()
+                .setKey(key)
+                .setRule("java:S3649")
+                .setComponent(PROJECT + ":" + file)
+                .setLine(line)
+                .setType(Common.RuleType.VULNERABILITY)
+                .setSeverity(severity)
+                .setMessage("SQL injection")
+                .build();
+    }
+
+    /**
+     * 模擬 issues/search：依 p/ps 與嚴重性過濾回傳對應頁面
+     */
+    private void stubIssues(List<Issues.Issue> all) {
+        when(issuesService.search(any(SearchRequest.class))).thenAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            List<Issues.Issue> matching = all.stream()
+                    .filter(i -> request.getSeverities() == null || request.getSeverities().contains(i.getSeverity().name()))
+                    .collect(Collectors.toList());
+            int page = Integer.parseInt(request.getP());
+            int pageSize = Integer.parseInt(request.getPs());
+            requestedPages.add(request.getSeverities() + "#" + page);
+            int from = Math.min((page - 1) * pageSize, matching.size());
+            int to = Math.min(page * pageSize, matching.size());
+            return Issues.SearchWsResponse.newBuilder()
+                    .setPaging(Common.Paging.newBuilder().setPageIndex(page).setPageSize(pageSize).setTotal(matching.size()))
+                    .addAllIssues(matching.subList(from, to))
+                    .build();
+        });
+    }
+
+    @Test
+    @DisplayName("超過單頁上限時查詢所有頁面")
+    void testFetchesAllPages() {
+        List<Issues.Issue> all = IntStream.range(0, 1234)
+                .mapToObj(i -> issue("I" + i, "src/F" + (i % 10) + ".java", i % 50 + 1, Common.Severity.MAJOR))
+                .collect(Collectors.toList());
+        stubIssues(all);
+        when(sourcesService.raw(any(RawRequest.class))).thenReturn("line");
+
+        List<SecurityFinding> findings = service.getOwaspFindings(PROJECT, "2021");
+
+        assertThat(findings).hasSize(1234);
+        assertThat(requestedPages).containsExactlyInAnyOrder("null#1", "null#2", "null#3");
+    }
+
+    @Test
+    @DisplayName("停止後不再送出並行請求")
+    void testStopShutsDownRequestExecutor() {
+        List<Issues.Issue> all = IntStream.range(0, 1234)
+                .mapToObj(i -> issue("I" + i, "src/F.java", 1, Common.Severity.MAJOR))
+                .collect(Collectors.toList());
+        stubIssues(all);
+
+        service.stop();
+        List<SecurityFinding> findings = service.getOwaspFindings(PROJECT, "2021");
+
+        assertThat(findings).isEmpty();
+        assertThat(requestedPages).containsExactly("null#1");
+    }
+
+    @Test
+    @DisplayName("每個檔案只下載一次原始碼")
+    void testFetchesEachSourceOnce() {
+        stubIssues(List.of(
+                issue("I1", "src/A.java", 2, Common.Severity.MAJOR),
+                issue("I2", "src/A.java", 8, Common.Severity.MAJOR),
+                issue("I3", "src/B.java", 1, Common.Severity.MAJOR)));
+        String source = IntStream.rangeClosed(1, 12).mapToObj(i -> "line" + i).collect(Collectors.joining("\n"));
+        when(sourcesService.raw(any(RawRequest.class))).thenReturn(source);
+
+        List<SecurityFinding> findings = service.getOwaspFindings(PROJECT, "2021");
+
+        verify(sourcesService, times(2)).raw(any(RawRequest.class));
+        assertThat(findings).extracting(SecurityFinding::getCodeSnippet).containsExactly(
+                "line1\nline2\nline3\nline4\nline5",
+                "line5\nline6\nline7\nline8\nline9\nline10\nline11",
+                "line1\nline2\nline3\nline4");
+    }
+
+    @Test
+    @DisplayName("超過搜尋視窗時依嚴重性拆分查詢")
+    void testSplitsBySeverityBeyondSearchWindow() {
+        List<Issues.Issue> all = IntStream.range(0, 10_500)
+                .mapToObj(i -> issue("I" + i, "src/F.java", 1,
+                        i % 2 == 0 ? Common.Severity.CRITICAL : Common.Severity.MAJOR))
+                .collect(Collectors.toList());
+        stubIssues(all);
+        when(sourcesService.raw(any(RawRequest.class))).thenReturn("line");
+
+        List<SecurityFinding> findings = service.getOwaspFindings(PROJECT, "2021");
+
+        assertThat(findings).hasSize(10_500);
+        assertThat(requestedPages).contains("[CRITICAL]#11", "[MAJOR]#11");
+    }
+
+    @Test
+    @DisplayName("同一分析版本重複查詢時由快取取得原始碼")
+    void testSourceCachedPerAnalysis() {
+        stubIssues(List.of(
+                issue("I1", "src/A.java", 2, Common.Severity.MAJOR),
+                issue("I2", "src/B.java", 1, Common.Severity.MAJOR)));
+        when(sourcesService.raw(any(RawRequest.class))).thenReturn("line1\nline2");
+        when(projectAnalysesService.search(any())).thenReturn(analysis("AX1"));
+
+        service.getOwaspFindings(PROJECT, "2021");
+        service.getOwaspFindings(PROJECT, "2021");
+        verify(sourcesService, times(2)).raw(any(RawRequest.class));
+
+        // 新分析後重新下載
+        when(projectAnalysesService.search(any())).thenReturn(analysis("AX2"));
+        List<SecurityFinding> findings = service.getOwaspFindings(PROJECT, "2021");
+
+        verify(sourcesService, times(4)).raw(any(RawRequest.class));
+        assertThat(findings).extracting(SecurityFinding::getCodeSnippet).containsExactly("line1\nline2", "line1\nline2");
+    }
+
+    private static ProjectAnalyses.SearchResponse analysis(String key) {
+        return ProjectAnalyses.SearchResponse.newBuilder()
+                .addAnalyses(ProjectAnalyses.Analysis.newBuilder().setKey(key))
+                .build();
+    }
+}
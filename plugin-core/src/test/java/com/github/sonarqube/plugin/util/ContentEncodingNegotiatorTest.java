@@ -0,0 +1,70 @@
+package com.github.sonarqube.plugin.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ContentEncodingNegotiator 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@DisplayName("ContentEncodingNegotiator Unit Tests")
+class ContentEncodingNegotiatorTest {
+
+    private static final String TEXT = "{\"findings\":[]}".repeat(100);
+
+    @Test
+    @DisplayName("依 q 值選擇壓縮方式")
+    void testNegotiate() {
+        assertThat(ContentEncodingNegotiator.negotiate(null)).isNull();
+        assertThat(ContentEncodingNegotiator.negotiate("gzip, deflate")).isEqualTo("gzip");
+        assertThat(ContentEncodingNegotiator.negotiate("gzip;q=0.5, deflate")).isEqualTo("deflate");
+        assertThat(ContentEncodingNegotiator.negotiate("gzip;q=0, *")).isEqualTo("deflate");
+        assertThat(ContentEncodingNegotiator.negotiate("br, identity")).isNull();
+    }
+
+    @Test
+    @DisplayName("gzip 與 deflate 壓縮後可還原")
+    void testWrapRoundTrip() throws IOException {
+        assertThat(roundTrip("gzip")).isEqualTo(TEXT);
+        assertThat(roundTrip("deflate")).isEqualTo(TEXT);
+    }
+
+    @Test
+    @DisplayName("deflate 串流關閉後釋放壓縮器")
+    void testDeflateCloseEndsDeflater() throws IOException {
+        DeflaterOutputStream out = ContentEncodingNegotiator.wrap(new ByteArrayOutputStream(), "deflate");
+        out.write(TEXT.getBytes(StandardCharsets.UTF_8));
+        out.close();
+
+        // Deflater 已 end()，再寫入時原生資源已釋放
+        assertThatThrownBy(() -> {
+            out.write(1);
+            out.finish();
+        }).isInstanceOfAny(IOException.class, NullPointerException.class);
+    }
+
+    private static String roundTrip(String encoding) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = ContentEncodingNegotiator.wrap(compressed, encoding)) {
+            out.write(TEXT.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayInputStream source = new ByteArrayInputStream(compressed.toByteArray());
+        try (InputStream in = "gzip".equals(encoding) ? new GZIPInputStream(source) : new InflaterInputStream(source)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.github.sonarqube.config;
 
+import com.github.sonarqube.shared.path.GlobMatcher;
+import com.github.sonarqube.shared.path.ScopedFileWalker;
+
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -10,6 +14,8 @@ import java.util.Set;
  *
  * 用戶可選擇全專案、增量掃描或手動選擇檔案。
  * 支援排除規則、檔案類型過濾和路徑模式匹配。
+ * 排除模式於建構時一次編譯：含 {@code **} 的模式為 glob（{@code **} 匹配任意層目錄，{@code *} 不跨越目錄）；
+ * 其餘模式維持舊版語意，以整條路徑比對且 {@code *} 可跨越目錄（例：{@code node_modules/*}）。
  *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.5.0 (Epic 7, Story 7.3)
@@ -22,14 +28,26 @@ public class ScanScopeConfiguration {
     public static final boolean DEFAULT_SKIP_TESTS = true;
     public static final boolean DEFAULT_SKIP_GENERATED = true;
 
+    // 測試檔案與生成檔案判斷（忽略大小寫）
+    private static final GlobMatcher TEST_FILES = GlobMatcher.compile(Arrays.asList(
+        "test/**", "tests/**",
+        "*.test.js", "*.test.ts", "*.spec.js", "*.spec.ts", "*test.java", "*test.py"
+    ), true);
+    private static final GlobMatcher GENERATED_FILES = GlobMatcher.compile(Arrays.asList(
+        "generated/**", "dist/**", "build/**", "target/**", "node_modules/**",
+        "*.min.js", "*.bundle.js"
+    ), true);
+
     private final ScanMode scanMode;
     private final Set<Path> includedPaths;          // 包含的路徑（手動選擇模式）
-    private final Set<String> excludedPatterns;     // 排除的模式（例：*.test.js, node_modules/*）
+    private final Set<String> excludedPatterns;     // 排除的模式（例：*.test.js, **/node_modules/**）
     private final Set<String> includedExtensions;   // 包含的副檔名（例：.java, .js, .py）
     private final int maxFileSizeMb;                // 最大檔案大小（MB）
     private final boolean skipTests;                // 是否跳過測試檔案
     private final boolean skipGenerated;            // 是否跳過生成的檔案
     private final String gitBaseBranch;             // 增量掃描基準分支（例：main）
+    private final GlobMatcher exclusionMatcher;
+    private final GlobMatcher extensionMatcher;
 
     private ScanScopeConfiguration(Builder builder) {
         this.scanMode = builder.scanMode;
@@ -40,6 +58,8 @@ public class ScanScopeConfiguration {
         this.skipTests = builder.skipTests;
         this.skipGenerated = builder.skipGenerated;
         this.gitBaseBranch = builder.gitBaseBranch;
+        this.exclusionMatcher = GlobMatcher.compileCompatible(excludedPatterns);
+        this.extensionMatcher = GlobMatcher.forExtensions(includedExtensions, false);
     }
 
     // Getters
@@ -90,31 +110,24 @@ public class ScanScopeConfiguration {
         }
 
         String filePathStr = filePath.toString();
-        String fileName = filePath.getFileName().toString();
 
         // 檢查副檔名
-        if (!includedExtensions.isEmpty()) {
-            boolean hasValidExtension = includedExtensions.stream()
-                .anyMatch(ext -> fileName.endsWith(ext));
-            if (!hasValidExtension) {
-                return false;
-            }
+        if (!extensionMatcher.isEmpty() && !extensionMatcher.matches(filePathStr)) {
+            return false;
         }
 
         // 檢查排除模式
-        for (String pattern : excludedPatterns) {
-            if (matchesPattern(filePathStr, pattern)) {
-                return false;
-            }
+        if (exclusionMatcher.matches(filePathStr)) {
+            return false;
         }
 
         // 檢查測試檔案
-        if (skipTests && isTestFile(filePathStr)) {
+        if (skipTests && TEST_FILES.matches(filePathStr)) {
             return false;
         }
 
         // 檢查生成的檔案
-        if (skipGenerated && isGeneratedFile(filePathStr)) {
+        if (skipGenerated && GENERATED_FILES.matches(filePathStr)) {
             return false;
         }
 
@@ -122,60 +135,26 @@ public class ScanScopeConfiguration {
     }
 
     /**
-     * 檢查路徑是否符合模式
+     * 建立依此範圍剪枝的目錄走訪器
      *
-     * @param path 路徑
-     * @param pattern 模式（支援 * 萬用字元）
-     * @return true 若符合
-     */
-    private boolean matchesPattern(String path, String pattern) {
-        // 簡化的模式匹配（支援 * 萬用字元）
-        String regex = pattern
-            .replace(".", "\\.")
-            .replace("*", ".*")
-            .replace("?", ".");
-        return path.matches(regex);
-    }
-
-    /**
-     * 檢查是否為測試檔案
-     *
-     * @param path 檔案路徑
-     * @return true 若為測試檔案
-     */
-    private boolean isTestFile(String path) {
-        String lowerPath = path.toLowerCase();
-        return lowerPath.contains("/test/")
-            || lowerPath.contains("\\test\\")
-            || lowerPath.contains("/tests/")
-            || lowerPath.contains("\\tests\\")
-            || lowerPath.endsWith(".test.js")
-            || lowerPath.endsWith(".test.ts")
-            || lowerPath.endsWith(".spec.js")
-            || lowerPath.endsWith(".spec.ts")
-            || lowerPath.endsWith("test.java")
-            || lowerPath.endsWith("test.py");
-    }
-
-    /**
-     * 檢查是否為生成的檔案
+     * 排除模式、測試檔案與生成檔案的目錄（例：{@code **}{@code /node_modules/**}）在走訪時直接略過，
+     * 副檔名與檔案大小於列舉當下過濾，結果與逐檔呼叫 {@link #shouldScanFile(Path, long)} 相同。
      *
-     * @param path 檔案路徑
-     * @return true 若為生成的檔案
+     * @param projectRoot 專案根目錄
+     * @return 走訪器
      */
-    private boolean isGeneratedFile(String path) {
-        String lowerPath = path.toLowerCase();
-        return lowerPath.contains("/generated/")
-            || lowerPath.contains("\\generated\\")
-            || lowerPath.contains("/dist/")
-            || lowerPath.contains("\\dist\\")
-            || lowerPath.contains("/build/")
-            || lowerPath.contains("\\build\\")
-            || lowerPath.contains("/target/")
-            || lowerPath.contains("\\target\\")
-            || lowerPath.contains("node_modules")
-            || lowerPath.contains(".min.js")
-            || lowerPath.contains(".bundle.js");
+    public ScopedFileWalker newFileWalker(Path projectRoot) {
+        ScopedFileWalker.Builder builder = ScopedFileWalker.builder(projectRoot)
+            .include(extensionMatcher)
+            .exclude(exclusionMatcher)
+            .maxFileSizeBytes((long) maxFileSizeMb * 1024 * 1024);
+        if (skipTests) {
+            builder.exclude(TEST_FILES);
+        }
+        if (skipGenerated) {
+            builder.exclude(GENERATED_FILES);
+        }
+        return builder.build();
     }
 
     /**
@@ -292,8 +271,8 @@ public class ScanScopeConfiguration {
          */
         public Builder withJavaDefaults() {
             this.includeExtension(".java");
-            this.excludePattern("*/target/*");
-            this.excludePattern("*/build/*");
+            this.excludePattern("**/target/**");
+            this.excludePattern("**/build/**");
             return this;
         }
 
@@ -305,8 +284,8 @@ public class ScanScopeConfiguration {
             this.includeExtension(".ts");
             this.includeExtension(".jsx");
             this.includeExtension(".tsx");
-            this.excludePattern("*/node_modules/*");
-            this.excludePattern("*/dist/*");
+            this.excludePattern("**/node_modules/**");
+            this.excludePattern("**/dist/**");
             this.excludePattern("*.min.js");
             return this;
         }
@@ -316,9 +295,9 @@ public class ScanScopeConfiguration {
          */
         public Builder withPythonDefaults() {
             this.includeExtension(".py");
-            this.excludePattern("*/__pycache__/*");
-            this.excludePattern("*/venv/*");
-            this.excludePattern("*/.venv/*");
+            this.excludePattern("**/__pycache__/**");
+            this.excludePattern("**/venv/**");
+            this.excludePattern("**/.venv/**");
             return this;
         }
 
@@ -0,0 +1,182 @@
+package com.github.sonarqube.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 報告區段並行渲染工具
+ *
+ * <p>報告中彼此獨立的區段（圖表點陣化、摘要表格、各嚴重性的發現區塊）在共用執行緒池中預先準備，
+ * 再由呼叫端依原順序組裝輸出。</p>
+ *
+ * <p>大量發現以固定大小的分塊渲染，同時最多只有 {@code 2 × 執行緒數} 個分塊在途，
+ * 輸出仍為串流且記憶體用量與報告大小無關；分塊少於兩個時直接在呼叫端執行緒渲染。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class ParallelSectionRenderer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelSectionRenderer.class);
+
+    /**
+     * 預設分塊大小（每塊發現數）
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 200;
+
+    private static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 同時在途的分塊上限（限制預先渲染的記憶體）
+     */
+    private static final int MAX_CHUNKS_IN_FLIGHT = PARALLELISM * 2;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ExecutorService RENDER_POOL = Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+        Thread thread = new Thread(runnable, "report-render-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 分塊渲染函式
+     *
+     * @param <T> 項目型別
+     * @param <R> 渲染結果型別
+     */
+    @FunctionalInterface
+    public interface ChunkRenderer<T, R> {
+        /**
+         * 渲染一個分塊
+         *
+         * @param chunk  分塊內的項目
+         * @param offset 分塊第一個項目在完整列表中的索引
+         * @return 渲染結果
+         * @throws IOException 渲染失敗時拋出
+         */
+        R render(List<T> chunk, int offset) throws IOException;
+    }
+
+    /**
+     * 依序接收渲染結果
+     *
+     * @param <R> 渲染結果型別
+     */
+    @FunctionalInterface
+    public interface ChunkSink<R> {
+        void accept(R rendered) throws IOException;
+    }
+
+    private ParallelSectionRenderer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 在共用執行緒池中提交獨立區段的準備工作
+     *
+     * @param task 區段準備工作
+     * @param <V>  結果型別
+     * @return Future（以 {@link #await(Future)} 取得結果）
+     */
+    public static <V> Future<V> submit(Callable<V> task) {
+        return RENDER_POOL.submit(task);
+    }
+
+    /**
+     * 等待區段準備完成
+     *
+     * @param future 由 {@link #submit(Callable)} 回傳的 Future
+     * @param <V>    結果型別
+     * @return 區段結果
+     * @throws IOException 區段準備失敗或等待被中斷時拋出
+     */
+    public static <V> V await(Future<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for report section");
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Report section rendering was cancelled");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * 並行渲染分塊並依原順序交給 sink
+     *
+     * @param items     所有項目
+     * @param chunkSize 分塊大小
+     * @param renderer  分塊渲染函式（於工作執行緒執行，不得存取共享的可變狀態）
+     * @param sink      結果接收者（於呼叫端執行緒依順序執行）
+     * @param <T>       項目型別
+     * @param <R>       渲染結果型別
+     * @throws IOException 渲染或輸出失敗時拋出
+     */
+    public static <T, R> void renderInOrder(List<T> items, int chunkSize,
+                                            ChunkRenderer<T, R> renderer, ChunkSink<R> sink) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        int size = items.size();
+        if (size <= chunkSize) {
+            // 單一分塊不值得切換執行緒
+            sink.accept(renderer.render(items, 0));
+            return;
+        }
+
+        Deque<Future<R>> inFlight = new ArrayDeque<>();
+        int nextOffset = 0;
+        try {
+            while (nextOffset < size || !inFlight.isEmpty()) {
+                while (nextOffset < size && inFlight.size() < MAX_CHUNKS_IN_FLIGHT) {
+                    int offset = nextOffset;
+                    List<T> chunk = items.subList(offset, Math.min(offset + chunkSize, size));
+                    inFlight.addLast(RENDER_POOL.submit(() -> renderer.render(chunk, offset)));
+                    nextOffset += chunk.size();
+                }
+                sink.accept(await(inFlight.removeFirst()));
+            }
+        } finally {
+            if (!inFlight.isEmpty()) {
+                LOG.debug("Cancelling {} pending report chunks", inFlight.size());
+                inFlight.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException("Report section rendering failed", cause);
+    }
+}
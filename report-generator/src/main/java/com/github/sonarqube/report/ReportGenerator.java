@@ -2,16 +2,30 @@ package com.github.sonarqube.report;
 
 import com.github.sonarqube.report.model.AnalysisReport;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * 報告生成器介面
  *
  * 定義報告生成的統一介面，支援多種格式輸出。
+ * 除了回傳完整內容的 {@link #generate(AnalysisReport)}，亦提供直接寫入輸出流的串流版本，
+ * 大型報告可邊生成邊送出，不需在記憶體中保留完整文件。
  *
  * @author SonarQube AI OWASP Plugin Team
  * @since 1.0.0
  */
 public interface ReportGenerator {
 
+    /**
+     * 串流寫入時的緩衝區大小（字元）
+     */
+    int STREAM_BUFFER_SIZE = 16 * 1024;
+
     /**
      * 生成報告
      *
@@ -20,6 +34,36 @@ public interface ReportGenerator {
      */
     String generate(AnalysisReport report);
 
+    /**
+     * 生成報告並逐步寫入字元輸出
+     *
+     * <p>預設實作寫入 {@link #generate(AnalysisReport)} 的完整結果，
+     * 文字格式生成器應覆寫此方法以實現真正的串流輸出。</p>
+     *
+     * @param report 分析報告數據
+     * @param writer 輸出目標（呼叫端負責關閉）
+     * @throws IOException 當寫入失敗時拋出
+     */
+    default void generate(AnalysisReport report, Writer writer) throws IOException {
+        writer.write(generate(report));
+    }
+
+    /**
+     * 生成報告並逐步寫入位元組輸出（UTF-8）
+     *
+     * <p>輸出經固定大小緩衝區寫入，完成後 flush 但不關閉輸出流。
+     * 二進位格式（PDF）應覆寫此方法。</p>
+     *
+     * @param report 分析報告數據
+     * @param output 輸出流（呼叫端負責關閉）
+     * @throws IOException 當寫入失敗時拋出
+     */
+    default void generate(AnalysisReport report, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+        generate(report, writer);
+        writer.flush();
+    }
+
     /**
      * 獲取報告格式
      *
@@ -0,0 +1,158 @@
+package com.github.sonarqube.report.chart;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 圖表資產服務
+ *
+ * <p>由同一份 {@link ChartSpec} 產生向量（SVG）與點陣（PNG）圖表，以及 HTML 報告使用的圖表片段，
+ * 並以資料指紋為鍵快取於所有報告生成器與請求之間：相同資料的圖表只繪製一次，
+ * 重複匯出時不再執行任何圖表繪製。</p>
+ *
+ * <p>快取特性：</p>
+ * <ul>
+ *   <li>依位元組計重的容量上限（Caffeine maximumWeight，圖表與片段各自計算）</li>
+ *   <li>圖表（PNG/SVG）與片段分置兩個快取，片段產生時可取得圖表而不會巢狀載入同一快取</li>
+ *   <li>同一鍵並行請求時只繪製一次</li>
+ *   <li>快取內容為不可變的位元組/字串，可安全地跨 PDF 文件與執行緒共用</li>
+ * </ul>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public class ChartAssetService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChartAssetService.class);
+
+    /**
+     * 預設容量上限（位元組）
+     */
+    public static final long DEFAULT_MAX_WEIGHT_BYTES = 16L * 1024 * 1024;
+
+    private static final ChartAssetService SHARED = new ChartAssetService(DEFAULT_MAX_WEIGHT_BYTES);
+
+    private final Cache<String, byte[]> assets;
+    private final Cache<String, byte[]> fragments;
+
+    /**
+     * 自訂容量建構子
+     *
+     * @param maxWeightBytes 容量上限（位元組，圖表與片段各自套用）
+     */
+    public ChartAssetService(long maxWeightBytes) {
+        this.assets = newCache(maxWeightBytes);
+        this.fragments = newCache(maxWeightBytes);
+    }
+
+    private static Cache<String, byte[]> newCache(long maxWeightBytes) {
+        return Caffeine.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((String key, byte[] asset) -> asset.length)
+            // 淘汰在呼叫端執行緒完成，不使用 ForkJoinPool.commonPool()
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * 取得全域共用的服務（HTML 與 PDF 生成器預設使用）
+     */
+    public static ChartAssetService getShared() {
+        return SHARED;
+    }
+
+    /**
+     * 取得 PNG 圖表
+     *
+     * @param spec 圖表規格
+     * @return PNG 位元組（呼叫端不可修改）
+     * @throws IOException 繪製失敗時
+     */
+    public byte[] getPng(ChartSpec spec) throws IOException {
+        return load(assets, spec, "png", () -> ChartRenderer.renderPng(spec));
+    }
+
+    /**
+     * 取得 SVG 圖表（不含 XML 宣告，可直接內嵌於 HTML）
+     *
+     * @param spec 圖表規格
+     * @return SVG 標記
+     * @throws IOException 繪製失敗時
+     */
+    public String getSvg(ChartSpec spec) throws IOException {
+        return new String(load(assets, spec, "svg",
+            () -> ChartRenderer.renderSvg(spec).getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 取得以圖表資料衍生的文字片段（例如 HTML 報告的圖表區塊）
+     *
+     * @param spec     圖表規格
+     * @param variant  片段種類（與指紋共同組成快取鍵）
+     * @param renderer 未命中時產生片段（可取得圖表，不可再取得片段）
+     * @return 片段內容
+     * @throws IOException 產生失敗時
+     */
+    public String getFragment(ChartSpec spec, String variant, FragmentRenderer renderer) throws IOException {
+        return new String(load(fragments, spec, variant,
+            () -> renderer.render(spec).getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] load(Cache<String, byte[]> cache, ChartSpec spec, String variant, AssetLoader loader)
+            throws IOException {
+        try {
+            return cache.get(variant + ':' + spec.getFingerprint(), key -> {
+                long startTime = System.currentTimeMillis();
+                try {
+                    byte[] asset = loader.load();
+                    LOG.debug("Rendered {} chart asset {} ({} bytes) in {}ms",
+                        variant, spec, asset.length, System.currentTimeMillis() - startTime);
+                    return asset;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 清除所有快取
+     */
+    public void clearAll() {
+        assets.invalidateAll();
+        fragments.invalidateAll();
+    }
+
+    /**
+     * 取得快取統計資訊（圖表與片段合計）
+     */
+    public CacheStats getStatistics() {
+        return assets.stats().plus(fragments.stats());
+    }
+
+    /**
+     * 圖表片段產生器
+     *
+     * <p>於片段快取載入期間執行：可呼叫 {@link #getSvg}/{@link #getPng}，但不可再呼叫
+     * {@link #getFragment}（巢狀載入同一快取可能拋出 {@code IllegalStateException: Recursive update}）。</p>
+     */
+    @FunctionalInterface
+    public interface FragmentRenderer {
+        String render(ChartSpec spec) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface AssetLoader {
+        byte[] load() throws IOException;
+    }
+}
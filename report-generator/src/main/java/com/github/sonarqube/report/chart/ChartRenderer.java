@@ -0,0 +1,124 @@
+package com.github.sonarqube.report.chart;
+
+import org.knowm.xchart.BitmapEncoder;
+import org.knowm.xchart.CategoryChart;
+import org.knowm.xchart.CategoryChartBuilder;
+import org.knowm.xchart.PieChart;
+import org.knowm.xchart.PieChartBuilder;
+import org.knowm.xchart.VectorGraphicsEncoder;
+import org.knowm.xchart.internal.chartpart.Chart;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 以 XChart 將 {@link ChartSpec} 繪製為 PNG 或 SVG
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+final class ChartRenderer {
+
+    /**
+     * 嚴重性顏色（BLOCKER, CRITICAL, MAJOR, MINOR, INFO）
+     */
+    private static final Color[] SEVERITY_COLORS = {
+        new Color(212, 51, 63),   // BLOCKER - Red (#D4333F)
+        new Color(255, 165, 0),   // CRITICAL - Orange (#FFA500)
+        new Color(255, 215, 0),   // MAJOR - Yellow (#FFD700)
+        new Color(75, 159, 213),  // MINOR - Blue (#4B9FD5)
+        new Color(0, 170, 0)      // INFO - Green (#00AA00)
+    };
+
+    private static final Color CATEGORY_BAR_COLOR = new Color(0, 63, 127); // #003F7F
+
+    private ChartRenderer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    static byte[] renderPng(ChartSpec spec) throws IOException {
+        return BitmapEncoder.getBitmapBytes(createChart(spec), BitmapEncoder.BitmapFormat.PNG);
+    }
+
+    /**
+     * 繪製 SVG，去除 XML 宣告與 DOCTYPE 以便直接內嵌於 HTML
+     */
+    static String renderSvg(ChartSpec spec) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VectorGraphicsEncoder.saveVectorGraphic(createChart(spec), out, VectorGraphicsEncoder.VectorGraphicsFormat.SVG);
+        String svg = out.toString(StandardCharsets.UTF_8);
+        int start = svg.indexOf("<svg");
+        return start > 0 ? svg.substring(start) : svg;
+    }
+
+    private static Chart<?, ?> createChart(ChartSpec spec) {
+        switch (spec.getKind()) {
+            case SEVERITY_PIE:
+                return createSeverityPieChart(spec);
+            case CATEGORY_BAR:
+                return createCategoryBarChart(spec);
+            default:
+                throw new IllegalArgumentException("Unsupported chart kind: " + spec.getKind());
+        }
+    }
+
+    private static PieChart createSeverityPieChart(ChartSpec spec) {
+        PieChart chart = new PieChartBuilder()
+                .width(spec.getKind().getWidth())
+                .height(spec.getKind().getHeight())
+                .title(spec.getKind().getTitle())
+                .build();
+
+        // 標籤顯示嚴重性名稱和數量，例如 "BLOCKER (5)"
+        for (int i = 0; i < spec.getLabels().size(); i++) {
+            chart.addSeries(spec.getLabels().get(i) + " (" + spec.getValues().get(i) + ")", spec.getValues().get(i));
+        }
+
+        chart.getStyler().setSeriesColors(severityColors(spec));
+        chart.getStyler().setLegendVisible(true);
+        chart.getStyler().setLabelsVisible(true);
+        chart.getStyler().setChartBackgroundColor(Color.WHITE);
+        chart.getStyler().setPlotBackgroundColor(Color.WHITE);
+        return chart;
+    }
+
+    private static CategoryChart createCategoryBarChart(ChartSpec spec) {
+        CategoryChart chart = new CategoryChartBuilder()
+                .width(spec.getKind().getWidth())
+                .height(spec.getKind().getHeight())
+                .title(spec.getKind().getTitle())
+                .xAxisTitle("OWASP Category")
+                .yAxisTitle("Issue Count")
+                .build();
+
+        chart.addSeries("Issues", spec.getLabels(), spec.getValues());
+
+        chart.getStyler().setSeriesColors(new Color[]{CATEGORY_BAR_COLOR});
+        chart.getStyler().setLegendVisible(false);
+        chart.getStyler().setLabelsVisible(true);
+        chart.getStyler().setLabelsPosition(0.98);
+        chart.getStyler().setChartBackgroundColor(Color.WHITE);
+        chart.getStyler().setPlotBackgroundColor(Color.WHITE);
+        chart.getStyler().setPlotGridLinesVisible(true);
+        return chart;
+    }
+
+    /**
+     * 依實際出現的嚴重性挑選顏色，數量為 0 的嚴重性不佔用顏色
+     */
+    private static Color[] severityColors(ChartSpec spec) {
+        String[] order = {"BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO"};
+        Color[] colors = new Color[Math.max(1, spec.getLabels().size())];
+        colors[0] = SEVERITY_COLORS[0];
+        for (int i = 0; i < spec.getLabels().size(); i++) {
+            for (int s = 0; s < order.length; s++) {
+                if (order[s].equals(spec.getLabels().get(i))) {
+                    colors[i] = SEVERITY_COLORS[s];
+                }
+            }
+        }
+        return colors;
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.sonarqube.report.chart;
+
+import com.github.sonarqube.report.model.FindingSeverity;
+import com.github.sonarqube.report.model.ReportSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 圖表資料規格
+ *
+ * <p>描述一張圖表的類型與（已排序的）資料點，與輸出格式無關。
+ * {@link #getFingerprint()} 由類型與資料點計算，相同資料在 HTML 與 PDF 報告中得到相同指紋，
+ * 作為 {@link ChartAssetService} 的快取鍵。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class ChartSpec {
+
+    /**
+     * 圖表類型（決定尺寸、標題與配色）
+     */
+    public enum Kind {
+        SEVERITY_PIE(400, 300, "Severity Distribution"),
+        CATEGORY_BAR(600, 400, "OWASP Category Distribution");
+
+        private final int width;
+        private final int height;
+        private final String title;
+
+        Kind(int width, int height, String title) {
+            this.width = width;
+            this.height = height;
+            this.title = title;
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public String getTitle() { return title; }
+    }
+
+    /**
+     * 嚴重性圓餅圖使用的嚴重性順序
+     */
+    private static final List<FindingSeverity> PIE_SEVERITIES = List.of(
+        FindingSeverity.BLOCKER, FindingSeverity.CRITICAL, FindingSeverity.MAJOR,
+        FindingSeverity.MINOR, FindingSeverity.INFO);
+
+    private final Kind kind;
+    private final List<String> labels;
+    private final List<Long> values;
+    private final String fingerprint;
+
+    private ChartSpec(Kind kind, List<String> labels, List<Long> values) {
+        this.kind = kind;
+        this.labels = Collections.unmodifiableList(labels);
+        this.values = Collections.unmodifiableList(values);
+        this.fingerprint = computeFingerprint();
+    }
+
+    /**
+     * 嚴重性分布圓餅圖（僅包含數量 > 0 的嚴重性，依 BLOCKER → INFO 排序）
+     *
+     * @param summary 報告摘要
+     * @return 圖表規格
+     */
+    public static ChartSpec severityPie(ReportSummary summary) {
+        return severityPie(summary.getSeverityCounts());
+    }
+
+    /**
+     * 嚴重性分布圓餅圖
+     *
+     * @param severityCounts 嚴重性 → 數量
+     * @return 圖表規格
+     */
+    public static ChartSpec severityPie(Map<String, ? extends Number> severityCounts) {
+        List<String> labels = new ArrayList<>();
+        List<Long> values = new ArrayList<>();
+        for (FindingSeverity severity : PIE_SEVERITIES) {
+            Number count = severityCounts.get(severity.name());
+            if (count != null && count.longValue() > 0) {
+                labels.add(severity.name());
+                values.add(count.longValue());
+            }
+        }
+        return new ChartSpec(Kind.SEVERITY_PIE, labels, values);
+    }
+
+    /**
+     * OWASP 分類分布長條圖（依數量降序，數量相同時依分類名稱排序）
+     *
+     * @param categoryCounts 分類 → 數量
+     * @return 圖表規格
+     */
+    public static ChartSpec categoryBar(Map<String, ? extends Number> categoryCounts) {
+        List<Map.Entry<String, ? extends Number>> entries = new ArrayList<>(categoryCounts.entrySet());
+        entries.sort(Comparator.<Map.Entry<String, ? extends Number>>comparingLong(e -> e.getValue().longValue())
+            .reversed()
+            .thenComparing(Map.Entry::getKey));
+
+        List<String> labels = new ArrayList<>(entries.size());
+        List<Long> values = new ArrayList<>(entries.size());
+        for (Map.Entry<String, ? extends Number> entry : entries) {
+            labels.add(entry.getKey());
+            values.add(entry.getValue().longValue());
+        }
+        return new ChartSpec(Kind.CATEGORY_BAR, labels, values);
+    }
+
+    public Kind getKind() { return kind; }
+    public List<String> getLabels() { return labels; }
+    public List<Long> getValues() { return values; }
+
+    public boolean isEmpty() {
+        return labels.isEmpty();
+    }
+
+    /**
+     * 資料指紋（類型 + 資料點的 SHA-256）
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    private String computeFingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(kind.name().getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < labels.size(); i++) {
+                digest.update((byte) 0);
+                digest.update(labels.get(i).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Long.toString(values.get(i)).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChartSpec)) return false;
+        ChartSpec that = (ChartSpec) o;
+        return kind == that.kind && labels.equals(that.labels) && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return fingerprint.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return kind + "[" + fingerprint.substring(0, 12) + "]";
+    }
+}
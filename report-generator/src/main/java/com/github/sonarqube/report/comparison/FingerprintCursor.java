@@ -0,0 +1,21 @@
+package com.github.sonarqube.report.comparison;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 已排序的指紋流（依 {@link FingerprintRecord} 自然順序遞增）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public interface FingerprintCursor extends Closeable {
+
+    /**
+     * 讀取下一筆紀錄
+     *
+     * @return 下一筆紀錄，已讀完時回傳 null
+     * @throws IOException 讀取失敗時
+     */
+    FingerprintRecord next() throws IOException;
+}
@@ -0,0 +1,113 @@
+package com.github.sonarqube.report.comparison;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 兩個指紋流的比對結果
+ *
+ * - 新增：只出現在目標版本的指紋
+ * - 移除：只出現在來源版本的指紋
+ * - 變更：兩邊都有但 OWASP 分類不同的指紋（記錄「來源分類 → 目標分類」轉換次數）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class FingerprintDiff {
+
+    /**
+     * 無分類發現在分類統計中使用的鍵
+     */
+    public static final String UNCATEGORIZED = "Uncategorized";
+
+    private int fromTotal;
+    private int toTotal;
+    private int added;
+    private int removed;
+    private int changed;
+    private final Map<String, Integer> addedByCategory = new TreeMap<>();
+    private final Map<String, Integer> removedByCategory = new TreeMap<>();
+    private final Map<String, Integer> categoryTransitions = new LinkedHashMap<>();
+
+    FingerprintDiff() {
+    }
+
+    void recordAdded(FingerprintRecord record) {
+        added++;
+        toTotal++;
+        addedByCategory.merge(categoryKey(record.getCategory()), 1, Integer::sum);
+    }
+
+    void recordRemoved(FingerprintRecord record) {
+        removed++;
+        fromTotal++;
+        removedByCategory.merge(categoryKey(record.getCategory()), 1, Integer::sum);
+    }
+
+    void recordMatched(FingerprintRecord from, FingerprintRecord to) {
+        fromTotal++;
+        toTotal++;
+        String fromCategory = categoryKey(from.getCategory());
+        String toCategory = categoryKey(to.getCategory());
+        if (!fromCategory.equals(toCategory)) {
+            changed++;
+            categoryTransitions.merge(fromCategory + " → " + toCategory, 1, Integer::sum);
+        }
+    }
+
+    private static String categoryKey(String category) {
+        return category == null || category.isEmpty() ? UNCATEGORIZED : category;
+    }
+
+    public int getFromTotal() { return fromTotal; }
+    public int getToTotal() { return toTotal; }
+    public int getAdded() { return added; }
+    public int getRemoved() { return removed; }
+    public int getChanged() { return changed; }
+
+    /**
+     * 未變更（兩邊都有且分類相同）的發現數
+     */
+    public int getUnchanged() {
+        return fromTotal - removed - changed;
+    }
+
+    /**
+     * 新增發現的分類分佈（分類名稱排序）
+     */
+    public Map<String, Integer> getAddedByCategory() {
+        return Collections.unmodifiableMap(addedByCategory);
+    }
+
+    /**
+     * 移除發現的分類分佈（分類名稱排序）
+     */
+    public Map<String, Integer> getRemovedByCategory() {
+        return Collections.unmodifiableMap(removedByCategory);
+    }
+
+    /**
+     * 分類轉換次數（"來源分類 → 目標分類" → 次數，依首次出現順序）
+     */
+    public Map<String, Integer> getCategoryTransitions() {
+        return Collections.unmodifiableMap(categoryTransitions);
+    }
+
+    /**
+     * 合規性變化百分比（發現總數的相對變化）
+     */
+    public double getComplianceChangePercent() {
+        if (fromTotal == 0) {
+            return toTotal > 0 ? 100.0 : 0.0;
+        }
+        return ((double) (toTotal - fromTotal) / fromTotal) * 100.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FingerprintDiff{added=%d, removed=%d, changed=%d, unchanged=%d}",
+            added, removed, changed, getUnchanged());
+    }
+}
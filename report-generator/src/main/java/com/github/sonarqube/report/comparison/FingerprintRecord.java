@@ -0,0 +1,59 @@
+package com.github.sonarqube.report.comparison;
+
+import java.util.Objects;
+
+/**
+ * 指紋紀錄（指紋 + OWASP 分類）
+ *
+ * 依指紋、再依分類排序；指紋流必須以此順序提供才能進行合併比對。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class FingerprintRecord implements Comparable<FingerprintRecord> {
+
+    private final String fingerprint;
+    private final String category;
+
+    /**
+     * @param fingerprint 發現指紋
+     * @param category    OWASP 分類（可為 null）
+     */
+    public FingerprintRecord(String fingerprint, String category) {
+        this.fingerprint = Objects.requireNonNull(fingerprint, "fingerprint");
+        this.category = category;
+    }
+
+    public String getFingerprint() { return fingerprint; }
+    public String getCategory() { return category; }
+
+    @Override
+    public int compareTo(FingerprintRecord other) {
+        int result = fingerprint.compareTo(other.fingerprint);
+        if (result != 0) {
+            return result;
+        }
+        if (category == null || other.category == null) {
+            return category == null ? (other.category == null ? 0 : -1) : 1;
+        }
+        return category.compareTo(other.category);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FingerprintRecord)) return false;
+        FingerprintRecord that = (FingerprintRecord) o;
+        return fingerprint.equals(that.fingerprint) && Objects.equals(category, that.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fingerprint, category);
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint + " " + category;
+    }
+}
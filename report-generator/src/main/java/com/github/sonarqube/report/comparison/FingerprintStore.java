@@ -0,0 +1,257 @@
+package com.github.sonarqube.report.comparison;
+
+import com.github.sonarqube.report.model.SecurityFinding;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 指紋儲存
+ *
+ * 將一個 OWASP 版本的發現存成已排序的指紋檔（每行 {@code 指紋\t分類}），
+ * 比較時以 {@link FingerprintCursor} 逐行讀取，記憶體用量與發現數量無關。
+ *
+ * 寫入時超過緩衝上限的資料先排序後寫成暫存 run 檔，關閉時以 k 路合併產生最終檔案
+ * （外部排序），因此寫入大型專案的指紋也只需固定大小的緩衝區。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class FingerprintStore {
+
+    /**
+     * 預設緩衝筆數（約 10 MB 堆積）
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 100_000;
+
+    private static final char SEPARATOR = '\t';
+
+    private FingerprintStore() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 建立記憶體中的指紋流
+     *
+     * @param findings 發現列表
+     * @return 已排序的指紋流
+     */
+    public static FingerprintCursor inMemory(Collection<SecurityFinding> findings) {
+        List<FingerprintRecord> records = new ArrayList<>(findings.size());
+        for (SecurityFinding finding : findings) {
+            records.add(new FingerprintRecord(finding.getFingerprint(), finding.getOwaspCategory()));
+        }
+        Collections.sort(records);
+        Iterator<FingerprintRecord> iterator = records.iterator();
+        return new FingerprintCursor() {
+            @Override
+            public FingerprintRecord next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void close() {
+                // 無資源需要釋放
+            }
+        };
+    }
+
+    /**
+     * 開啟已排序的指紋檔
+     *
+     * @param file 由 {@link #write} 或 {@link Writer} 產生的指紋檔
+     * @return 指紋流（使用後需關閉）
+     * @throws IOException 開啟失敗時
+     */
+    public static FingerprintCursor open(Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        return new FingerprintCursor() {
+            @Override
+            public FingerprintRecord next() throws IOException {
+                String line = reader.readLine();
+                return line == null ? null : parse(line);
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    /**
+     * 將發現寫成已排序的指紋檔
+     *
+     * @param file     目標檔案（已存在時覆寫）
+     * @param findings 發現
+     * @throws IOException 寫入失敗時
+     */
+    public static void write(Path file, Iterable<SecurityFinding> findings) throws IOException {
+        try (Writer writer = new Writer(file)) {
+            for (SecurityFinding finding : findings) {
+                writer.add(finding);
+            }
+        }
+    }
+
+    private static FingerprintRecord parse(String line) throws IOException {
+        int separator = line.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IOException("Malformed fingerprint record: " + line);
+        }
+        String category = line.substring(separator + 1);
+        return new FingerprintRecord(line.substring(0, separator), category.isEmpty() ? null : category);
+    }
+
+    private static void writeRecord(BufferedWriter out, FingerprintRecord record) throws IOException {
+        out.write(record.getFingerprint());
+        out.write(SEPARATOR);
+        String category = record.getCategory();
+        if (category != null) {
+            // 分類中的分隔字元與換行不可出現在行格式中
+            out.write(category.replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+        }
+        out.newLine();
+    }
+
+    /**
+     * 外部排序指紋寫入器
+     *
+     * 加入的紀錄可為任意順序；{@link #close()} 時才產生最終的已排序檔案。
+     * 暫存 run 檔建立於目標檔案所在目錄，完成或失敗後都會刪除。
+     */
+    public static final class Writer implements Closeable {
+        private final Path target;
+        private final int bufferSize;
+        private final List<FingerprintRecord> buffer = new ArrayList<>();
+        private final List<Path> runs = new ArrayList<>();
+        private boolean closed;
+
+        public Writer(Path target) {
+            this(target, DEFAULT_BUFFER_SIZE);
+        }
+
+        public Writer(Path target, int bufferSize) {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+            }
+            this.target = target.toAbsolutePath();
+            this.bufferSize = bufferSize;
+        }
+
+        public void add(SecurityFinding finding) throws IOException {
+            add(new FingerprintRecord(finding.getFingerprint(), finding.getOwaspCategory()));
+        }
+
+        public void add(FingerprintRecord record) throws IOException {
+            if (closed) {
+                throw new IllegalStateException("Writer already closed");
+            }
+            buffer.add(record);
+            if (buffer.size() >= bufferSize) {
+                spill();
+            }
+        }
+
+        private void spill() throws IOException {
+            Path run = Files.createTempFile(target.getParent(), "fingerprints-", ".run");
+            runs.add(run);
+            writeSorted(run);
+        }
+
+        private void writeSorted(Path file) throws IOException {
+            Collections.sort(buffer);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (FingerprintRecord record : buffer) {
+                    writeRecord(out, record);
+                }
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (runs.isEmpty()) {
+                    writeSorted(target);
+                    return;
+                }
+                if (!buffer.isEmpty()) {
+                    spill();
+                }
+                Path merged = Files.createTempFile(target.getParent(), "fingerprints-", ".tmp");
+                runs.add(merged);
+                merge(merged);
+                Files.move(merged, target, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                for (Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+            }
+        }
+
+        /**
+         * k 路合併所有 run 檔（最後一個 run 為輸出檔本身，不參與合併）
+         */
+        private void merge(Path output) throws IOException {
+            PriorityQueue<Head> heads = new PriorityQueue<>();
+            List<FingerprintCursor> cursors = new ArrayList<>();
+            try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+                for (Path run : runs.subList(0, runs.size() - 1)) {
+                    FingerprintCursor cursor = open(run);
+                    cursors.add(cursor);
+                    Head head = new Head(cursor);
+                    if (head.advance()) {
+                        heads.add(head);
+                    }
+                }
+                while (!heads.isEmpty()) {
+                    Head head = heads.poll();
+                    writeRecord(out, head.current);
+                    if (head.advance()) {
+                        heads.add(head);
+                    }
+                }
+            } finally {
+                for (FingerprintCursor cursor : cursors) {
+                    cursor.close();
+                }
+            }
+        }
+    }
+
+    private static final class Head implements Comparable<Head> {
+        private final FingerprintCursor cursor;
+        private FingerprintRecord current;
+
+        private Head(FingerprintCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        private boolean advance() throws IOException {
+            current = cursor.next();
+            return current != null;
+        }
+
+        @Override
+        public int compareTo(Head other) {
+            return current.compareTo(other.current);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.github.sonarqube.report.comparison;
 
 import com.github.sonarqube.report.model.AnalysisReport;
-import com.github.sonarqube.report.model.SecurityFinding;
 import com.github.sonarqube.report.model.VersionComparisonReport;
 import com.github.sonarqube.rules.OwaspVersionMappingService;
 import com.github.sonarqube.rules.OwaspVersionMappingService.CategoryMapping;
+import com.github.sonarqube.rules.RuleCatalog;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -14,6 +17,9 @@ import java.util.stream.Collectors;
  *
  * 分析多個 OWASP 版本之間的差異，包含類別映射、新增/移除/變更的發現。
  *
+ * 發現以穩定指紋（規則 + 檔案 + 被標記行）識別，相鄰版本的已排序指紋流以合併比對（merge-join）
+ * 逐筆比較；指紋流可來自記憶體中的報告或 {@link FingerprintStore} 儲存的檔案。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.3.0 (Epic 5, Story 5.4)
  */
@@ -22,7 +28,14 @@ public class VersionComparisonEngine {
     private final OwaspVersionMappingService mappingService;
 
     public VersionComparisonEngine() {
-        this.mappingService = new OwaspVersionMappingService();
+        this(RuleCatalog.getInstance().getVersionMappings());
+    }
+
+    /**
+     * @param mappingService OWASP 版本映射服務（通常為 {@link RuleCatalog} 的共用實例）
+     */
+    public VersionComparisonEngine(OwaspVersionMappingService mappingService) {
+        this.mappingService = mappingService;
     }
 
     /**
@@ -66,10 +79,37 @@ public class VersionComparisonEngine {
     }
 
     /**
-     * 分析版本間差異
+     * 分析版本間差異（記憶體中的報告）
      */
     private VersionComparisonReport.DifferenceAnalysis analyzeDifferences(
             Map<String, AnalysisReport> reports, List<String> versions) {
+        try {
+            return analyzeDifferences(versions, version -> FingerprintStore.inMemory(reports.get(version).getFindings()));
+        } catch (IOException e) {
+            // 記憶體指紋流不會拋出 IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 分析已儲存指紋檔的版本間差異
+     *
+     * 每次只開啟相鄰兩個版本的指紋檔並逐行合併比對，不需載入任何版本的完整報告，
+     * 適用於大型專案的 2017/2021/2025 多版本比較。
+     *
+     * @param fingerprintFiles 各版本的指紋檔（version → 由 {@link FingerprintStore} 產生的檔案）
+     * @return 差異分析
+     * @throws IOException 讀取指紋檔失敗時
+     */
+    public VersionComparisonReport.DifferenceAnalysis analyzeStoredDifferences(Map<String, Path> fingerprintFiles)
+            throws IOException {
+        List<String> versions = new ArrayList<>(fingerprintFiles.keySet());
+        Collections.sort(versions);
+        return analyzeDifferences(versions, version -> FingerprintStore.open(fingerprintFiles.get(version)));
+    }
+
+    private VersionComparisonReport.DifferenceAnalysis analyzeDifferences(
+            List<String> versions, CursorSource source) throws IOException {
 
         VersionComparisonReport.DifferenceAnalysis.Builder builder =
             VersionComparisonReport.DifferenceAnalysis.builder();
@@ -78,101 +118,85 @@ public class VersionComparisonEngine {
             return builder.build();
         }
 
+        Map<String, Integer> added = new LinkedHashMap<>();
+        Map<String, Integer> removed = new LinkedHashMap<>();
+        Map<String, Integer> changed = new LinkedHashMap<>();
+        Map<String, Double> complianceChange = new LinkedHashMap<>();
+        Map<String, Map<String, Integer>> addedByCategory = new LinkedHashMap<>();
+        Map<String, Map<String, Integer>> removedByCategory = new LinkedHashMap<>();
+        Map<String, Map<String, Integer>> transitions = new LinkedHashMap<>();
+
         // 比較相鄰版本
         for (int i = 0; i < versions.size() - 1; i++) {
             String fromVersion = versions.get(i);
             String toVersion = versions.get(i + 1);
 
-            AnalysisReport fromReport = reports.get(fromVersion);
-            AnalysisReport toReport = reports.get(toVersion);
-
-            // 計算新增的發現
-            int addedCount = calculateAddedFindings(fromReport, toReport);
-            builder.addedFindings(Collections.singletonMap(toVersion, addedCount));
-
-            // 計算移除的發現
-            int removedCount = calculateRemovedFindings(fromReport, toReport);
-            builder.removedFindings(Collections.singletonMap(toVersion, removedCount));
+            FingerprintDiff diff;
+            try (FingerprintCursor from = source.open(fromVersion);
+                 FingerprintCursor to = source.open(toVersion)) {
+                diff = diff(from, to);
+            }
 
-            // 計算變更的發現
-            int changedCount = calculateChangedFindings(fromReport, toReport);
-            builder.changedFindings(Collections.singletonMap(toVersion, changedCount));
-
-            // 計算合規性變化百分比
-            double changePercent = calculateComplianceChange(fromReport, toReport);
-            builder.complianceChangePercent(Collections.singletonMap(toVersion, changePercent));
+            added.put(toVersion, diff.getAdded());
+            removed.put(toVersion, diff.getRemoved());
+            changed.put(toVersion, diff.getChanged());
+            complianceChange.put(toVersion, diff.getComplianceChangePercent());
+            addedByCategory.put(toVersion, diff.getAddedByCategory());
+            removedByCategory.put(toVersion, diff.getRemovedByCategory());
+            transitions.put(toVersion, diff.getCategoryTransitions());
 
             // 生成遷移建議
-            generateMigrationRecommendations(builder, fromVersion, toVersion, addedCount, removedCount);
+            generateMigrationRecommendations(builder, fromVersion, toVersion, diff);
         }
 
-        return builder.build();
-    }
-
-    /**
-     * 計算新增的發現
-     */
-    private int calculateAddedFindings(AnalysisReport fromReport, AnalysisReport toReport) {
-        Set<String> fromCategories = fromReport.getFindings().stream()
-            .map(SecurityFinding::getOwaspCategory)
-            .collect(Collectors.toSet());
-
-        long addedCount = toReport.getFindings().stream()
-            .filter(f -> !fromCategories.contains(f.getOwaspCategory()))
-            .count();
-
-        return (int) addedCount;
-    }
-
-    /**
-     * 計算移除的發現
-     */
-    private int calculateRemovedFindings(AnalysisReport fromReport, AnalysisReport toReport) {
-        Set<String> toCategories = toReport.getFindings().stream()
-            .map(SecurityFinding::getOwaspCategory)
-            .collect(Collectors.toSet());
-
-        long removedCount = fromReport.getFindings().stream()
-            .filter(f -> !toCategories.contains(f.getOwaspCategory()))
-            .count();
-
-        return (int) removedCount;
-    }
-
-    /**
-     * 計算變更的發現
-     */
-    private int calculateChangedFindings(AnalysisReport fromReport, AnalysisReport toReport) {
-        // 計算同一檔案但分類改變的發現
-        Map<String, String> fromFileCategories = fromReport.getFindings().stream()
-            .collect(Collectors.toMap(
-                SecurityFinding::getFilePath,
-                SecurityFinding::getOwaspCategory,
-                (a, b) -> a
-            ));
-
-        long changedCount = toReport.getFindings().stream()
-            .filter(f -> {
-                String fromCategory = fromFileCategories.get(f.getFilePath());
-                return fromCategory != null && !fromCategory.equals(f.getOwaspCategory());
-            })
-            .count();
-
-        return (int) changedCount;
+        return builder
+            .addedFindings(added)
+            .removedFindings(removed)
+            .changedFindings(changed)
+            .complianceChangePercent(complianceChange)
+            .addedByCategory(addedByCategory)
+            .removedByCategory(removedByCategory)
+            .categoryTransitions(transitions)
+            .build();
     }
 
     /**
-     * 計算合規性變化百分比
+     * 合併比對兩個已排序的指紋流
+     *
+     * 指紋相同的發現視為同一問題：分類不同時計為變更，否則為未變更；
+     * 只出現在來源的為移除，只出現在目標的為新增。同一指紋出現多次時依序一對一配對。
+     *
+     * @param from 來源版本指紋流
+     * @param to   目標版本指紋流
+     * @return 比對結果
+     * @throws IOException 讀取指紋流失敗時
      */
-    private double calculateComplianceChange(AnalysisReport fromReport, AnalysisReport toReport) {
-        int fromTotal = fromReport.getTotalFindings();
-        int toTotal = toReport.getTotalFindings();
-
-        if (fromTotal == 0) {
-            return toTotal > 0 ? 100.0 : 0.0;
+    public FingerprintDiff diff(FingerprintCursor from, FingerprintCursor to) throws IOException {
+        FingerprintDiff diff = new FingerprintDiff();
+        FingerprintRecord left = from.next();
+        FingerprintRecord right = to.next();
+
+        while (left != null && right != null) {
+            int order = left.getFingerprint().compareTo(right.getFingerprint());
+            if (order == 0) {
+                diff.recordMatched(left, right);
+                left = from.next();
+                right = to.next();
+            } else if (order < 0) {
+                diff.recordRemoved(left);
+                left = from.next();
+            } else {
+                diff.recordAdded(right);
+                right = to.next();
+            }
         }
-
-        return ((double) (toTotal - fromTotal) / fromTotal) * 100.0;
+        for (; left != null; left = from.next()) {
+            diff.recordRemoved(left);
+        }
+        for (; right != null; right = to.next()) {
+            diff.recordAdded(right);
+        }
+        return diff;
     }
 
     /**
@@ -180,19 +204,26 @@ public class VersionComparisonEngine {
      */
     private void generateMigrationRecommendations(
             VersionComparisonReport.DifferenceAnalysis.Builder builder,
-            String fromVersion, String toVersion, int addedCount, int removedCount) {
+            String fromVersion, String toVersion, FingerprintDiff diff) {
 
-        if (addedCount > 0) {
+        if (diff.getAdded() > 0) {
             builder.addRecommendation(String.format(
                 "OWASP %s 新增了 %d 個安全發現，建議優先處理這些新識別的風險",
-                toVersion, addedCount
+                toVersion, diff.getAdded()
             ));
         }
 
-        if (removedCount > 0) {
+        if (diff.getRemoved() > 0) {
             builder.addRecommendation(String.format(
-                "%d 個 OWASP %s 的發現在 %s 中已被重新分類，請檢查新的分類標準",
-                removedCount, fromVersion, toVersion
+                "%d 個 OWASP %s 的發現在 %s 中已不存在（已修正或不再被偵測）",
+                diff.getRemoved(), fromVersion, toVersion
+            ));
+        }
+
+        if (diff.getChanged() > 0) {
+            builder.addRecommendation(String.format(
+                "%d 個發現在 OWASP %s 中被重新分類（%s），請檢查新的分類標準",
+                diff.getChanged(), toVersion, describeTransitions(diff.getCategoryTransitions())
             ));
         }
 
@@ -204,6 +235,18 @@ public class VersionComparisonEngine {
         }
     }
 
+    /**
+     * 列出最常見的分類轉換（最多 3 項）
+     */
+    private static String describeTransitions(Map<String, Integer> transitions) {
+        String top = transitions.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .limit(3)
+            .map(entry -> entry.getKey() + " ×" + entry.getValue())
+            .collect(Collectors.joining("、"));
+        return transitions.size() > 3 ? top + " 等" : top;
+    }
+
     /**
      * 比較兩個版本的發現
      *
@@ -212,14 +255,25 @@ public class VersionComparisonEngine {
      * @return 比較結果摘要
      */
     public String compareVersions(AnalysisReport version1Report, AnalysisReport version2Report) {
-        int added = calculateAddedFindings(version1Report, version2Report);
-        int removed = calculateRemovedFindings(version1Report, version2Report);
-        int changed = calculateChangedFindings(version1Report, version2Report);
-        double changePercent = calculateComplianceChange(version1Report, version2Report);
+        FingerprintDiff diff;
+        try (FingerprintCursor from = FingerprintStore.inMemory(version1Report.getFindings());
+             FingerprintCursor to = FingerprintStore.inMemory(version2Report.getFindings())) {
+            diff = diff(from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
         return String.format(
             "版本比較：新增 %d 個發現，移除 %d 個發現，變更 %d 個發現，合規性變化 %.2f%%",
-            added, removed, changed, changePercent
+            diff.getAdded(), diff.getRemoved(), diff.getChanged(), diff.getComplianceChangePercent()
         );
     }
+
+    /**
+     * 依版本開啟指紋流
+     */
+    @FunctionalInterface
+    private interface CursorSource {
+        FingerprintCursor open(String version) throws IOException;
+    }
 }
@@ -1,14 +1,21 @@
 package com.github.sonarqube.report.html;
 
+import com.github.sonarqube.report.ParallelSectionRenderer;
 import com.github.sonarqube.report.ReportGenerator;
+import com.github.sonarqube.report.chart.ChartAssetService;
+import com.github.sonarqube.report.chart.ChartSpec;
 import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.model.FindingIndex;
+import com.github.sonarqube.report.model.FindingSeverity;
 import com.github.sonarqube.report.model.ReportSummary;
 import com.github.sonarqube.report.model.SecurityFinding;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * HTML 格式報告生成器
@@ -18,7 +25,8 @@ import java.util.stream.Collectors;
  * <p><strong>功能特性：</strong></p>
  * <ul>
  *   <li>響應式設計，支援桌面和平板裝置</li>
- *   <li>內嵌 Chart.js 生成互動式圖表（嚴重性圓餅圖、OWASP 分類長條圖）</li>
+ *   <li>內嵌 Chart.js 生成互動式圖表（嚴重性圓餅圖、OWASP 分類長條圖），並附靜態 SVG 後備圖表</li>
+ *   <li>圖表區塊由 {@link ChartAssetService} 依資料指紋快取，與 PDF 報告共用</li>
  *   <li>語法高亮的代碼片段顯示（Prism.js）</li>
  *   <li>過濾和搜尋功能（依嚴重性、OWASP 分類）</li>
  *   <li>符合 WCAG 2.1 AA 無障礙標準</li>
@@ -32,10 +40,50 @@ public class HtmlReportGenerator implements ReportGenerator {
     private static final DateTimeFormatter DATE_FORMATTER =
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 圖表區塊在 {@link ChartAssetService} 中的片段種類
+     */
+    private static final String CHART_FRAGMENT_VARIANT = "html";
+
+    private final ChartAssetService chartAssets;
+
+    /**
+     * 建構子（使用全域共用的圖表資產服務）
+     */
+    public HtmlReportGenerator() {
+        this(ChartAssetService.getShared());
+    }
+
+    /**
+     * 建構子
+     *
+     * @param chartAssets 圖表資產服務
+     */
+    public HtmlReportGenerator(ChartAssetService chartAssets) {
+        this.chartAssets = chartAssets;
+    }
+
     @Override
     public String generate(AnalysisReport report) {
-        StringBuilder html = new StringBuilder();
+        StringWriter html = new StringWriter();
+        try {
+            generate(report, html);
+        } catch (IOException e) {
+            // StringWriter 不會拋出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return html.toString();
+    }
 
+    /**
+     * 生成 HTML 報告並逐段寫入輸出，不在記憶體中保留完整文件
+     *
+     * @param report 分析報告數據
+     * @param html   輸出目標
+     * @throws IOException 當寫入失敗時拋出
+     */
+    @Override
+    public void generate(AnalysisReport report, Writer html) throws IOException {
         // HTML 文件結構
         appendHtmlHeader(html, report);
         appendBodyStart(html);
@@ -50,18 +98,16 @@ public class HtmlReportGenerator implements ReportGenerator {
         appendCharts(html, report.getSummary());
 
         // 詳細發現
-        appendFindings(html, report.getFindings());
+        appendFindings(html, report.getIndex());
 
         // 頁尾
         appendFooter(html, report);
 
         appendBodyEnd(html);
         appendHtmlFooter(html);
-
-        return html.toString();
     }
 
-    private void appendHtmlHeader(StringBuilder html, AnalysisReport report) {
+    private void appendHtmlHeader(Writer html, AnalysisReport report) throws IOException {
         html.append("<!DOCTYPE html>\n");
         html.append("<html lang=\"zh-TW\">\n");
         html.append("<head>\n");
@@ -81,7 +127,7 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("</head>\n");
     }
 
-    private void appendStyles(StringBuilder html) {
+    private void appendStyles(Writer html) throws IOException {
         html.append("  <style>\n");
         html.append("    * { margin: 0; padding: 0; box-sizing: border-box; }\n");
         html.append("    body { font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, 'Helvetica Neue', Arial, sans-serif; ");
@@ -156,12 +202,12 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("  <script src=\"https://cdn.jsdelivr.net/npm/chart.js@4.4.0/dist/chart.umd.min.js\"></script>\n");
     }
 
-    private void appendBodyStart(StringBuilder html) {
+    private void appendBodyStart(Writer html) throws IOException {
         html.append("<body>\n");
         html.append("  <div class=\"container\">\n");
     }
 
-    private void appendReportHeader(StringBuilder html, AnalysisReport report) {
+    private void appendReportHeader(Writer html, AnalysisReport report) throws IOException {
         html.append("    <h1>🛡️ 安全分析報告</h1>\n");
         html.append("    <div class=\"meta-info\">\n");
 
@@ -190,41 +236,41 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("    </div>\n");
     }
 
-    private void appendSummary(StringBuilder html, ReportSummary summary) {
+    private void appendSummary(Writer html, ReportSummary summary) throws IOException {
         html.append("    <h2>📊 執行摘要</h2>\n");
         html.append("    <div class=\"summary-cards\">\n");
 
         html.append("      <div class=\"summary-card\">\n");
         html.append("        <div class=\"summary-label\">總發現數</div>\n");
-        html.append("        <div class=\"summary-number\">").append(summary.getTotalFindings()).append("</div>\n");
+        html.append("        <div class=\"summary-number\">").append(String.valueOf(summary.getTotalFindings())).append("</div>\n");
         html.append("      </div>\n");
 
         html.append("      <div class=\"summary-card blocker\">\n");
         html.append("        <div class=\"summary-label\">🚨 阻斷性</div>\n");
-        html.append("        <div class=\"summary-number\">").append(summary.getBlockerCount()).append("</div>\n");
+        html.append("        <div class=\"summary-number\">").append(String.valueOf(summary.getBlockerCount())).append("</div>\n");
         html.append("      </div>\n");
 
         html.append("      <div class=\"summary-card critical\">\n");
         html.append("        <div class=\"summary-label\">🔴 嚴重</div>\n");
-        html.append("        <div class=\"summary-number\">").append(summary.getCriticalCount()).append("</div>\n");
+        html.append("        <div class=\"summary-number\">").append(String.valueOf(summary.getCriticalCount())).append("</div>\n");
         html.append("      </div>\n");
 
         html.append("      <div class=\"summary-card major\">\n");
         html.append("        <div class=\"summary-label\">🟠 主要</div>\n");
-        html.append("        <div class=\"summary-number\">").append(summary.getMajorCount()).append("</div>\n");
+        html.append("        <div class=\"summary-number\">").append(String.valueOf(summary.getMajorCount())).append("</div>\n");
         html.append("      </div>\n");
 
         if (summary.getFilesAnalyzed() > 0) {
             html.append("      <div class=\"summary-card info\">\n");
             html.append("        <div class=\"summary-label\">分析檔案數</div>\n");
-            html.append("        <div class=\"summary-number\">").append(summary.getFilesAnalyzed()).append("</div>\n");
+            html.append("        <div class=\"summary-number\">").append(String.valueOf(summary.getFilesAnalyzed())).append("</div>\n");
             html.append("      </div>\n");
         }
 
         html.append("    </div>\n");
     }
 
-    private void appendCharts(StringBuilder html, ReportSummary summary) {
+    private void appendCharts(Writer html, ReportSummary summary) throws IOException {
         html.append("    <h2>📈 資料視覺化</h2>\n");
         html.append("    <div class=\"charts\">\n");
 
@@ -237,12 +283,19 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("    </div>\n");
     }
 
-    private void appendSeverityPieChart(StringBuilder html, ReportSummary summary) {
-        Map<String, Integer> counts = summary.getSeverityCounts();
-        if (counts.isEmpty()) {
+    private void appendSeverityPieChart(Writer html, ReportSummary summary) throws IOException {
+        ChartSpec spec = ChartSpec.severityPie(summary);
+        if (spec.isEmpty()) {
             return;
         }
+        // 先取得 SVG 再進入片段產生（不可在快取載入函式中再次存取同一快取）
+        String staticChart = chartAssets.getSvg(spec);
+        html.append(chartAssets.getFragment(spec, CHART_FRAGMENT_VARIANT,
+            s -> renderSeverityPieChart(s, staticChart)));
+    }
 
+    private String renderSeverityPieChart(ChartSpec spec, String staticChart) {
+        StringBuilder html = new StringBuilder();
         html.append("      <div class=\"chart-container\">\n");
         html.append("        <h3>嚴重性分布</h3>\n");
         html.append("        <canvas id=\"severityChart\"></canvas>\n");
@@ -252,14 +305,11 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("            data: {\n");
         html.append("              labels: [");
 
-        List<String> severities = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
         boolean first = true;
-        for (String severity : severities) {
-            if (counts.getOrDefault(severity, 0) > 0) {
-                if (!first) html.append(", ");
-                html.append("'").append(severity).append("'");
-                first = false;
-            }
+        for (String severity : spec.getLabels()) {
+            if (!first) html.append(", ");
+            html.append("'").append(severity).append("'");
+            first = false;
         }
 
         html.append("],\n");
@@ -267,13 +317,10 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("                data: [");
 
         first = true;
-        for (String severity : severities) {
-            int count = counts.getOrDefault(severity, 0);
-            if (count > 0) {
-                if (!first) html.append(", ");
-                html.append(count);
-                first = false;
-            }
+        for (Long count : spec.getValues()) {
+            if (!first) html.append(", ");
+            html.append(count);
+            first = false;
         }
 
         html.append("],\n");
@@ -283,15 +330,23 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("            options: { responsive: true, plugins: { legend: { position: 'bottom' } } }\n");
         html.append("          });\n");
         html.append("        </script>\n");
+        appendStaticChart(html, staticChart);
         html.append("      </div>\n");
+        return html.toString();
     }
 
-    private void appendCategoryBarChart(StringBuilder html, ReportSummary summary) {
-        Map<String, Integer> counts = summary.getCategoryCounts();
-        if (counts.isEmpty()) {
+    private void appendCategoryBarChart(Writer html, ReportSummary summary) throws IOException {
+        ChartSpec spec = ChartSpec.categoryBar(summary.getCategoryCounts());
+        if (spec.isEmpty()) {
             return;
         }
+        String staticChart = chartAssets.getSvg(spec);
+        html.append(chartAssets.getFragment(spec, CHART_FRAGMENT_VARIANT,
+            s -> renderCategoryBarChart(s, staticChart)));
+    }
 
+    private String renderCategoryBarChart(ChartSpec spec, String staticChart) {
+        StringBuilder html = new StringBuilder();
         html.append("      <div class=\"chart-container\">\n");
         html.append("        <h3>OWASP 分類分布</h3>\n");
         html.append("        <canvas id=\"categoryChart\"></canvas>\n");
@@ -301,14 +356,10 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("            data: {\n");
         html.append("              labels: [");
 
-        List<Map.Entry<String, Integer>> sortedCategories = counts.entrySet().stream()
-            .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-            .collect(Collectors.toList());
-
         boolean first = true;
-        for (Map.Entry<String, Integer> entry : sortedCategories) {
+        for (String category : spec.getLabels()) {
             if (!first) html.append(", ");
-            html.append("'").append(escapeJs(entry.getKey())).append("'");
+            html.append("'").append(escapeJs(category)).append("'");
             first = false;
         }
 
@@ -318,9 +369,9 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("                data: [");
 
         first = true;
-        for (Map.Entry<String, Integer> entry : sortedCategories) {
+        for (Long count : spec.getValues()) {
             if (!first) html.append(", ");
-            html.append(entry.getValue());
+            html.append(count);
             first = false;
         }
 
@@ -332,11 +383,20 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("plugins: { legend: { display: false } } }\n");
         html.append("          });\n");
         html.append("        </script>\n");
+        appendStaticChart(html, staticChart);
         html.append("      </div>\n");
+        return html.toString();
+    }
+
+    /**
+     * 無法載入 Chart.js（離線檢視、停用 JavaScript）時顯示的靜態 SVG 圖表
+     */
+    private static void appendStaticChart(StringBuilder html, String svg) {
+        html.append("        <noscript>").append(svg).append("</noscript>\n");
     }
 
-    private void appendFindings(StringBuilder html, List<SecurityFinding> findings) {
-        if (findings.isEmpty()) {
+    private void appendFindings(Writer html, FindingIndex findingIndex) throws IOException {
+        if (findingIndex.getTotalFindings() == 0) {
             html.append("    <h2>🔍 詳細發現</h2>\n");
             html.append("    <p style=\"text-align: center; color: #27ae60; font-size: 1.2rem; margin: 40px 0;\">");
             html.append("✅ 未發現安全問題，專案通過所有 OWASP 檢查！</p>\n");
@@ -345,29 +405,34 @@ public class HtmlReportGenerator implements ReportGenerator {
 
         html.append("    <h2>🔍 詳細發現</h2>\n");
 
-        // 依嚴重性分組
-        Map<String, List<SecurityFinding>> grouped = findings.stream()
-            .collect(Collectors.groupingBy(SecurityFinding::getSeverity));
-
-        List<String> severities = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
-
-        for (String severity : severities) {
-            List<SecurityFinding> findingsInSeverity = grouped.get(severity);
-            if (findingsInSeverity == null || findingsInSeverity.isEmpty()) {
+        // 依嚴重性分組（索引已分桶）
+        for (FindingSeverity severityLevel : FindingSeverity.REPORT_ORDER) {
+            List<SecurityFinding> findingsInSeverity = findingIndex.getFindingsBySeverity(severityLevel);
+            if (findingsInSeverity.isEmpty()) {
                 continue;
             }
+            String severity = severityLevel.name();
 
             String emoji = getSeverityEmoji(severity);
             html.append("    <h3>").append(emoji).append(" ").append(severity)
-                .append(" (").append(findingsInSeverity.size()).append(" 個)</h3>\n");
+                .append(" (").append(String.valueOf(findingsInSeverity.size())).append(" 個)</h3>\n");
 
-            for (SecurityFinding finding : findingsInSeverity) {
-                appendFinding(html, finding, severity);
-            }
+            // 發現區塊於背景執行緒分塊渲染，依原順序寫出
+            ParallelSectionRenderer.renderInOrder(findingsInSeverity, ParallelSectionRenderer.DEFAULT_CHUNK_SIZE,
+                (chunk, offset) -> renderFindings(chunk, severity),
+                html::write);
+        }
+    }
+
+    private String renderFindings(List<SecurityFinding> findings, String severity) throws IOException {
+        StringWriter chunk = new StringWriter();
+        for (SecurityFinding finding : findings) {
+            appendFinding(chunk, finding, severity);
         }
+        return chunk.toString();
     }
 
-    private void appendFinding(StringBuilder html, SecurityFinding finding, String severity) {
+    private void appendFinding(Writer html, SecurityFinding finding, String severity) throws IOException {
         html.append("    <div class=\"finding\">\n");
 
         // 標題與嚴重性徽章
@@ -381,7 +446,7 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("      <div class=\"finding-meta\">\n");
         html.append("        <span><strong>位置:</strong> <code>").append(escapeHtml(finding.getFilePath()));
         if (finding.getLineNumber() != null) {
-            html.append(":").append(finding.getLineNumber());
+            html.append(":").append(String.valueOf(finding.getLineNumber()));
         }
         html.append("</code></span>\n");
 
@@ -423,7 +488,7 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("    </div>\n");
     }
 
-    private void appendFooter(StringBuilder html, AnalysisReport report) {
+    private void appendFooter(Writer html, AnalysisReport report) throws IOException {
         html.append("    <div class=\"footer\">\n");
         html.append("      <p>此報告由 <strong>SonarQube AI OWASP Plugin</strong> 自動生成</p>\n");
         html.append("      <p>分析時間: ").append(report.getAnalysisTime().format(DATE_FORMATTER));
@@ -435,7 +500,7 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("    </div>\n");
     }
 
-    private void appendBodyEnd(StringBuilder html) {
+    private void appendBodyEnd(Writer html) throws IOException {
         html.append("  </div>\n");
 
         // Highlight.js 初始化
@@ -449,7 +514,7 @@ public class HtmlReportGenerator implements ReportGenerator {
         html.append("</body>\n");
     }
 
-    private void appendHtmlFooter(StringBuilder html) {
+    private void appendHtmlFooter(Writer html) throws IOException {
         html.append("</html>\n");
     }
 
@@ -160,6 +160,26 @@ public class VersionComparisonHtmlGenerator {
             html.append("      <span class=\"metric-value\">").append(String.format("%.2f", entry.getValue())).append("%</span>\n");
             html.append("    </div>\n");
         }
+
+        appendCategoryBreakdown(html, "新增發現分類", diff.getAddedByCategory());
+        appendCategoryBreakdown(html, "移除發現分類", diff.getRemovedByCategory());
+        appendCategoryBreakdown(html, "分類轉換", diff.getCategoryTransitions());
+    }
+
+    private void appendCategoryBreakdown(StringBuilder html, String title, Map<String, Map<String, Integer>> byVersion) {
+        if (byVersion.values().stream().allMatch(Map::isEmpty)) {
+            return;
+        }
+        html.append("    <h3>").append(title).append("</h3>\n");
+        html.append("    <table>\n");
+        html.append("      <thead>\n        <tr><th>版本</th><th>分類</th><th>數量</th></tr>\n      </thead>\n      <tbody>\n");
+        for (Map.Entry<String, Map<String, Integer>> version : byVersion.entrySet()) {
+            for (Map.Entry<String, Integer> entry : version.getValue().entrySet()) {
+                html.append("        <tr><td>OWASP ").append(version.getKey()).append("</td><td>")
+                    .append(escapeHtml(entry.getKey())).append("</td><td>").append(entry.getValue()).append("</td></tr>\n");
+            }
+        }
+        html.append("      </tbody>\n    </table>\n");
     }
 
     private void appendCategoryMappings(StringBuilder html, VersionComparisonReport report) {
@@ -5,6 +5,20 @@ import com.github.sonarqube.report.model.AnalysisReport;
 import com.github.sonarqube.report.model.ReportSummary;
 import com.github.sonarqube.report.model.SecurityFinding;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.Separators;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +46,11 @@ import java.util.Map;
  * }
  * </pre>
  *
+ * <p><strong>NDJSON 模式：</strong>以 {@link #ndjson()} 建立時，每行輸出一個完整的 finding 物件
+ * （不含 metadata/summary），方便下游逐行匯入。</p>
+ *
+ * <p>輸出透過 Jackson {@link JsonGenerator} 直接寫入目標串流，字串轉義由 Jackson 處理。</p>
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.0.0 (Story 5.3 - Epic 5)
  */
@@ -40,243 +59,254 @@ public class JsonReportGenerator implements ReportGenerator {
     private static final DateTimeFormatter ISO_FORMATTER =
         DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
-    @Override
-    public String generate(AnalysisReport report) {
-        StringBuilder json = new StringBuilder();
+    /**
+     * JsonFactory 為執行緒安全且建立成本高，全域共用（NDJSON 換行由生成器自行寫入）
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactoryBuilder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .rootValueSeparator("")
+        .build();
 
-        json.append("{\n");
+    private final boolean lineDelimited;
 
-        // Metadata 區塊
-        appendMetadata(json, report);
-        json.append(",\n");
+    /**
+     * 建立標準 JSON 報告生成器
+     */
+    public JsonReportGenerator() {
+        this(false);
+    }
 
-        // Summary 區塊
-        appendSummary(json, report.getSummary());
-        json.append(",\n");
+    private JsonReportGenerator(boolean lineDelimited) {
+        this.lineDelimited = lineDelimited;
+    }
 
-        // Findings 區塊
-        appendFindings(json, report.getFindings());
+    /**
+     * 建立 NDJSON（每行一個 finding）報告生成器
+     *
+     * @return NDJSON 生成器
+     */
+    public static JsonReportGenerator ndjson() {
+        return new JsonReportGenerator(true);
+    }
 
-        json.append("\n}");
+    /**
+     * 是否為 NDJSON 模式
+     */
+    public boolean isLineDelimited() {
+        return lineDelimited;
+    }
 
+    @Override
+    public String generate(AnalysisReport report) {
+        StringWriter json = new StringWriter();
+        try {
+            generate(report, json);
+        } catch (IOException e) {
+            // StringWriter 不會拋出 IOException
+            throw new UncheckedIOException(e);
+        }
         return json.toString();
     }
 
-    private void appendMetadata(StringBuilder json, AnalysisReport report) {
-        json.append("  \"metadata\": {\n");
-        json.append("    \"projectName\": ").append(escapeJson(report.getProjectName())).append(",\n");
-        json.append("    \"owaspVersion\": ").append(escapeJson(report.getOwaspVersion())).append(",\n");
-        json.append("    \"analysisTime\": ").append(escapeJson(report.getAnalysisTime().format(ISO_FORMATTER))).append(",\n");
-        json.append("    \"generatedBy\": \"SonarQube AI OWASP Plugin\"");
-
-        if (report.getAiModel() != null) {
-            json.append(",\n");
-            json.append("    \"aiModel\": ").append(escapeJson(report.getAiModel()));
+    /**
+     * 生成 JSON 報告並寫入字元輸出
+     *
+     * @param report 分析報告數據
+     * @param writer 輸出目標（不會被關閉）
+     * @throws IOException 當寫入失敗時拋出
+     */
+    @Override
+    public void generate(AnalysisReport report, Writer writer) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(writer)) {
+            write(json, report);
         }
+    }
 
-        json.append("\n  }");
+    /**
+     * 生成 JSON 報告並直接以 UTF-8 位元組寫入輸出流
+     *
+     * @param report 分析報告數據
+     * @param output 輸出流（不會被關閉）
+     * @throws IOException 當寫入失敗時拋出
+     */
+    @Override
+    public void generate(AnalysisReport report, OutputStream output) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8)) {
+            write(json, report);
+        }
     }
 
-    private void appendSummary(StringBuilder json, ReportSummary summary) {
-        json.append("  \"summary\": {\n");
-        json.append("    \"totalFindings\": ").append(summary.getTotalFindings()).append(",\n");
-        json.append("    \"blockerCount\": ").append(summary.getBlockerCount()).append(",\n");
-        json.append("    \"criticalCount\": ").append(summary.getCriticalCount()).append(",\n");
-        json.append("    \"majorCount\": ").append(summary.getMajorCount()).append(",\n");
-        json.append("    \"minorCount\": ").append(summary.getMinorCount()).append(",\n");
-        json.append("    \"infoCount\": ").append(summary.getInfoCount()).append(",\n");
-        json.append("    \"filesAnalyzed\": ").append(summary.getFilesAnalyzed()).append(",\n");
+    private void write(JsonGenerator json, AnalysisReport report) throws IOException {
+        if (lineDelimited) {
+            writeFindingLines(json, report.getFindings());
+            return;
+        }
 
-        // 嚴重性分布
-        json.append("    \"severityCounts\": {\n");
-        appendMapAsJson(json, summary.getSeverityCounts(), 6);
-        json.append("    },\n");
+        json.setPrettyPrinter(new ReportPrettyPrinter());
+        json.writeStartObject();
 
-        // OWASP 分類分布
-        json.append("    \"categoryCounts\": {\n");
-        appendMapAsJson(json, summary.getCategoryCounts(), 6);
-        json.append("    }\n");
+        // Metadata 區塊
+        writeMetadata(json, report);
 
-        json.append("  }");
-    }
+        // Summary 區塊
+        writeSummary(json, report.getSummary());
 
-    private void appendFindings(StringBuilder json, List<SecurityFinding> findings) {
-        json.append("  \"findings\": [\n");
+        // Findings 區塊
+        json.writeArrayFieldStart("findings");
+        for (SecurityFinding finding : report.getFindings()) {
+            writeFinding(json, finding);
+        }
+        json.writeEndArray();
 
-        if (findings.isEmpty()) {
-            json.append("  ]");
-            return;
+        json.writeEndObject();
+    }
+
+    private void writeFindingLines(JsonGenerator json, List<SecurityFinding> findings) throws IOException {
+        for (SecurityFinding finding : findings) {
+            writeFinding(json, finding);
+            json.writeRaw('\n');
         }
+    }
 
-        for (int i = 0; i < findings.size(); i++) {
-            SecurityFinding finding = findings.get(i);
-            appendFinding(json, finding, 4);
+    private void writeMetadata(JsonGenerator json, AnalysisReport report) throws IOException {
+        json.writeObjectFieldStart("metadata");
+        json.writeStringField("projectName", report.getProjectName());
+        json.writeStringField("owaspVersion", report.getOwaspVersion());
+        json.writeStringField("analysisTime", report.getAnalysisTime().format(ISO_FORMATTER));
+        json.writeStringField("generatedBy", "SonarQube AI OWASP Plugin");
 
-            if (i < findings.size() - 1) {
-                json.append(",\n");
-            } else {
-                json.append("\n");
-            }
+        if (report.getAiModel() != null) {
+            json.writeStringField("aiModel", report.getAiModel());
         }
 
-        json.append("  ]");
+        json.writeEndObject();
     }
 
-    private void appendFinding(StringBuilder json, SecurityFinding finding, int indent) {
-        String indentStr = " ".repeat(indent);
+    private void writeSummary(JsonGenerator json, ReportSummary summary) throws IOException {
+        json.writeObjectFieldStart("summary");
+        json.writeNumberField("totalFindings", summary.getTotalFindings());
+        json.writeNumberField("blockerCount", summary.getBlockerCount());
+        json.writeNumberField("criticalCount", summary.getCriticalCount());
+        json.writeNumberField("majorCount", summary.getMajorCount());
+        json.writeNumberField("minorCount", summary.getMinorCount());
+        json.writeNumberField("infoCount", summary.getInfoCount());
+        json.writeNumberField("filesAnalyzed", summary.getFilesAnalyzed());
+
+        // 嚴重性分布
+        writeCounts(json, "severityCounts", summary.getSeverityCounts());
+
+        // OWASP 分類分布
+        writeCounts(json, "categoryCounts", summary.getCategoryCounts());
+
+        json.writeEndObject();
+    }
 
-        json.append(indentStr).append("{\n");
+    private void writeFinding(JsonGenerator json, SecurityFinding finding) throws IOException {
+        json.writeStartObject();
 
         // 基本資訊
-        json.append(indentStr).append("  \"ruleName\": ").append(escapeJson(finding.getRuleName())).append(",\n");
-        json.append(indentStr).append("  \"ruleKey\": ").append(escapeJson(finding.getRuleKey())).append(",\n");
-        json.append(indentStr).append("  \"severity\": ").append(escapeJson(finding.getSeverity())).append(",\n");
-        json.append(indentStr).append("  \"owaspCategory\": ").append(escapeJson(finding.getOwaspCategory())).append(",\n");
+        json.writeStringField("ruleName", finding.getRuleName());
+        json.writeStringField("ruleKey", finding.getRuleKey());
+        json.writeStringField("severity", finding.getSeverity());
+        json.writeStringField("owaspCategory", finding.getOwaspCategory());
 
         // CWE IDs
-        json.append(indentStr).append("  \"cweIds\": [\n");
-        List<String> cweIds = finding.getCweIds();
-        for (int i = 0; i < cweIds.size(); i++) {
-            json.append(indentStr).append("    ").append(escapeJson(cweIds.get(i)));
-            if (i < cweIds.size() - 1) {
-                json.append(",");
-            }
-            json.append("\n");
+        json.writeArrayFieldStart("cweIds");
+        for (String cweId : finding.getCweIds()) {
+            json.writeString(cweId);
         }
-        json.append(indentStr).append("  ],\n");
+        json.writeEndArray();
 
         // 檔案位置
-        json.append(indentStr).append("  \"filePath\": ").append(escapeJson(finding.getFilePath())).append(",\n");
+        json.writeStringField("filePath", finding.getFilePath());
 
         if (finding.getLineNumber() != null) {
-            json.append(indentStr).append("  \"lineNumber\": ").append(finding.getLineNumber()).append(",\n");
+            json.writeNumberField("lineNumber", finding.getLineNumber());
         }
 
         // 描述
         if (finding.getDescription() != null) {
-            json.append(indentStr).append("  \"description\": ").append(escapeJson(finding.getDescription())).append(",\n");
+            json.writeStringField("description", finding.getDescription());
         }
 
         // 代碼片段
         if (finding.getCodeSnippet() != null) {
-            json.append(indentStr).append("  \"codeSnippet\": ").append(escapeJson(finding.getCodeSnippet())).append(",\n");
+            json.writeStringField("codeSnippet", finding.getCodeSnippet());
         }
 
-        // 修復建議（最後一個欄位，無逗號）
+        // 修復建議
         if (finding.getFixSuggestion() != null) {
-            json.append(indentStr).append("  \"fixSuggestion\": ").append(escapeJson(finding.getFixSuggestion())).append("\n");
-        } else {
-            // 移除最後一個逗號
-            int lastComma = json.lastIndexOf(",");
-            if (lastComma > 0 && json.substring(lastComma).trim().equals(",")) {
-                json.deleteCharAt(lastComma);
-                json.append("\n");
-            }
+            json.writeStringField("fixSuggestion", finding.getFixSuggestion());
         }
 
-        json.append(indentStr).append("}");
+        json.writeEndObject();
     }
 
-    private void appendMapAsJson(StringBuilder json, Map<String, Integer> map, int indent) {
-        String indentStr = " ".repeat(indent);
-
-        if (map.isEmpty()) {
-            return;
-        }
+    private void writeCounts(JsonGenerator json, String fieldName, Map<String, Integer> counts) throws IOException {
+        json.writeObjectFieldStart(fieldName);
 
-        List<Map.Entry<String, Integer>> entries = map.entrySet().stream()
+        List<Map.Entry<String, Integer>> entries = counts.entrySet().stream()
             .sorted(Map.Entry.comparingByKey())
             .toList();
+        for (Map.Entry<String, Integer> entry : entries) {
+            json.writeNumberField(entry.getKey(), entry.getValue());
+        }
 
-        for (int i = 0; i < entries.size(); i++) {
-            Map.Entry<String, Integer> entry = entries.get(i);
-            json.append(indentStr).append(escapeJson(entry.getKey())).append(": ").append(entry.getValue());
+        json.writeEndObject();
+    }
 
-            if (i < entries.size() - 1) {
-                json.append(",\n");
-            } else {
-                json.append("\n");
-            }
-        }
+    @Override
+    public String getFormat() {
+        return lineDelimited ? "ndjson" : "json";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return lineDelimited ? ".ndjson" : ".json";
     }
 
     /**
-     * 轉義 JSON 字串
-     *
-     * <p>根據 RFC 8259 規範轉義特殊字元：</p>
-     * <ul>
-     *   <li>\" (quotation mark)</li>
-     *   <li>\\ (reverse solidus)</li>
-     *   <li>\/ (solidus)</li>
-     *   <li>\b (backspace)</li>
-     *   <li>\f (form feed)</li>
-     *   <li>\n (line feed)</li>
-     *   <li>\r (carriage return)</li>
-     *   <li>\t (tab)</li>
-     *   <li>\\uXXXX (unicode)</li>
-     * </ul>
-     *
-     * @param text 原始字串
-     * @return 轉義後的 JSON 字串（包含引號）
+     * 報告排版：兩格縮排、陣列逐行、{@code "key": value}，空容器輸出為 {@code []}/{@code {}}
      */
-    private String escapeJson(String text) {
-        if (text == null) {
-            return "null";
-        }
+    private static final class ReportPrettyPrinter extends DefaultPrettyPrinter {
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("\"");
-
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-
-            switch (c) {
-                case '\"':
-                    sb.append("\\\"");
-                    break;
-                case '\\':
-                    sb.append("\\\\");
-                    break;
-                case '/':
-                    sb.append("\\/");
-                    break;
-                case '\b':
-                    sb.append("\\b");
-                    break;
-                case '\f':
-                    sb.append("\\f");
-                    break;
-                case '\n':
-                    sb.append("\\n");
-                    break;
-                case '\r':
-                    sb.append("\\r");
-                    break;
-                case '\t':
-                    sb.append("\\t");
-                    break;
-                default:
-                    // 處理控制字元 (0x00-0x1F)
-                    if (c < 0x20) {
-                        sb.append(String.format("\\u%04x", (int) c));
-                    } else {
-                        sb.append(c);
-                    }
-                    break;
-            }
+        private static final long serialVersionUID = 1L;
+
+        ReportPrettyPrinter() {
+            super(Separators.createDefaultInstance()
+                .withObjectFieldValueSpacing(Separators.Spacing.AFTER));
+            DefaultIndenter indenter = new DefaultIndenter("  ", "\n");
+            indentObjectsWith(indenter);
+            indentArraysWith(indenter);
         }
 
-        sb.append("\"");
-        return sb.toString();
-    }
+        @Override
+        public DefaultPrettyPrinter createInstance() {
+            return new ReportPrettyPrinter();
+        }
 
-    @Override
-    public String getFormat() {
-        return "json";
-    }
+        @Override
+        public void writeEndObject(JsonGenerator g, int nrOfEntries) throws IOException {
+            if (nrOfEntries > 0) {
+                super.writeEndObject(g, nrOfEntries);
+                return;
+            }
+            if (!_objectIndenter.isInline()) {
+                --_nesting;
+            }
+            g.writeRaw('}');
+        }
 
-    @Override
-    public String getFileExtension() {
-        return ".json";
+        @Override
+        public void writeEndArray(JsonGenerator g, int nrOfValues) throws IOException {
+            if (nrOfValues > 0) {
+                super.writeEndArray(g, nrOfValues);
+                return;
+            }
+            if (!_arrayIndenter.isInline()) {
+                --_nesting;
+            }
+            g.writeRaw(']');
+        }
     }
 }
@@ -126,6 +126,17 @@ public class VersionComparisonJsonGenerator {
         appendMap(json, diff.getChangedFindings());
         json.append(",\n");
 
+        // Per-category breakdown
+        json.append("    \"addedByCategory\": ");
+        appendNestedMap(json, diff.getAddedByCategory());
+        json.append(",\n");
+        json.append("    \"removedByCategory\": ");
+        appendNestedMap(json, diff.getRemovedByCategory());
+        json.append(",\n");
+        json.append("    \"categoryTransitions\": ");
+        appendNestedMap(json, diff.getCategoryTransitions());
+        json.append(",\n");
+
         // Compliance Change Percent
         json.append("    \"complianceChangePercent\": ");
         appendDoubleMap(json, diff.getComplianceChangePercent());
@@ -186,6 +197,24 @@ public class VersionComparisonJsonGenerator {
         json.append("}");
     }
 
+    private void appendNestedMap(StringBuilder json, Map<String, Map<String, Integer>> map) {
+        json.append("{");
+        int index = 0;
+        for (Map.Entry<String, Map<String, Integer>> entry : map.entrySet()) {
+            if (index > 0) json.append(", ");
+            json.append("\"").append(escapeJson(entry.getKey())).append("\": {");
+            int inner = 0;
+            for (Map.Entry<String, Integer> count : entry.getValue().entrySet()) {
+                if (inner > 0) json.append(", ");
+                json.append("\"").append(escapeJson(count.getKey())).append("\": ").append(count.getValue());
+                inner++;
+            }
+            json.append("}");
+            index++;
+        }
+        json.append("}");
+    }
+
     private void appendDoubleMap(StringBuilder json, Map<String, Double> map) {
         json.append("{");
         int index = 0;
@@ -2,9 +2,15 @@ package com.github.sonarqube.report.markdown;
 
 import com.github.sonarqube.report.ReportGenerator;
 import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.model.FindingIndex;
+import com.github.sonarqube.report.model.FindingSeverity;
 import com.github.sonarqube.report.model.ReportSummary;
 import com.github.sonarqube.report.model.SecurityFinding;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
@@ -25,8 +31,25 @@ public class MarkdownReportGenerator implements ReportGenerator {
 
     @Override
     public String generate(AnalysisReport report) {
-        StringBuilder md = new StringBuilder();
+        StringWriter md = new StringWriter();
+        try {
+            generate(report, md);
+        } catch (IOException e) {
+            // StringWriter 不會拋出 IOException
+            throw new UncheckedIOException(e);
+        }
+        return md.toString();
+    }
 
+    /**
+     * 生成 Markdown 報告並逐段寫入輸出
+     *
+     * @param report 分析報告數據
+     * @param md     輸出目標
+     * @throws IOException 當寫入失敗時拋出
+     */
+    @Override
+    public void generate(AnalysisReport report, Writer md) throws IOException {
         // 標題與基本資訊
         appendHeader(md, report);
 
@@ -40,15 +63,13 @@ public class MarkdownReportGenerator implements ReportGenerator {
         appendCategoryBreakdown(md, report.getSummary());
 
         // 詳細發現
-        appendFindings(md, report.getFindings());
+        appendFindings(md, report.getIndex());
 
         // 頁尾
         appendFooter(md, report);
-
-        return md.toString();
     }
 
-    private void appendHeader(StringBuilder md, AnalysisReport report) {
+    private void appendHeader(Writer md, AnalysisReport report) throws IOException {
         md.append("# 安全分析報告\n\n");
         md.append("## 專案資訊\n\n");
         md.append("| 項目 | 值 |\n");
@@ -64,24 +85,24 @@ public class MarkdownReportGenerator implements ReportGenerator {
         md.append("\n---\n\n");
     }
 
-    private void appendSummary(StringBuilder md, ReportSummary summary) {
+    private void appendSummary(Writer md, ReportSummary summary) throws IOException {
         md.append("## 📊 執行摘要\n\n");
 
         md.append("| 指標 | 數量 |\n");
         md.append("|------|------|\n");
-        md.append("| **總發現數** | ").append(summary.getTotalFindings()).append(" |\n");
-        md.append("| **🚨 阻斷性 (BLOCKER)** | ").append(summary.getBlockerCount()).append(" |\n");
-        md.append("| **🔴 嚴重 (CRITICAL)** | ").append(summary.getCriticalCount()).append(" |\n");
-        md.append("| **🟠 主要 (MAJOR)** | ").append(summary.getMajorCount()).append(" |\n");
+        md.append("| **總發現數** | ").append(String.valueOf(summary.getTotalFindings())).append(" |\n");
+        md.append("| **🚨 阻斷性 (BLOCKER)** | ").append(String.valueOf(summary.getBlockerCount())).append(" |\n");
+        md.append("| **🔴 嚴重 (CRITICAL)** | ").append(String.valueOf(summary.getCriticalCount())).append(" |\n");
+        md.append("| **🟠 主要 (MAJOR)** | ").append(String.valueOf(summary.getMajorCount())).append(" |\n");
 
         if (summary.getFilesAnalyzed() > 0) {
-            md.append("| **分析檔案數** | ").append(summary.getFilesAnalyzed()).append(" |\n");
+            md.append("| **分析檔案數** | ").append(String.valueOf(summary.getFilesAnalyzed())).append(" |\n");
         }
 
         md.append("\n");
     }
 
-    private void appendSeverityBreakdown(StringBuilder md, ReportSummary summary) {
+    private void appendSeverityBreakdown(Writer md, ReportSummary summary) throws IOException {
         md.append("## 🎯 嚴重性分布\n\n");
 
         Map<String, Integer> counts = summary.getSeverityCounts();
@@ -98,14 +119,14 @@ public class MarkdownReportGenerator implements ReportGenerator {
             if (count > 0) {
                 String emoji = getSeverityEmoji(severity);
                 md.append("- ").append(emoji).append(" **").append(severity).append("**: ")
-                  .append(count).append(" 個問題\n");
+                  .append(String.valueOf(count)).append(" 個問題\n");
             }
         }
 
         md.append("\n");
     }
 
-    private void appendCategoryBreakdown(StringBuilder md, ReportSummary summary) {
+    private void appendCategoryBreakdown(Writer md, ReportSummary summary) throws IOException {
         md.append("## 🏷️ OWASP 分類分布\n\n");
 
         Map<String, Integer> counts = summary.getCategoryCounts();
@@ -115,38 +136,35 @@ public class MarkdownReportGenerator implements ReportGenerator {
         }
 
         // 按數量降序排列
-        counts.entrySet().stream()
+        List<Map.Entry<String, Integer>> sorted = counts.entrySet().stream()
             .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-            .forEach(entry -> {
-                md.append("- **").append(entry.getKey()).append("**: ")
-                  .append(entry.getValue()).append(" 個問題\n");
-            });
+            .collect(Collectors.toList());
+        for (Map.Entry<String, Integer> entry : sorted) {
+            md.append("- **").append(entry.getKey()).append("**: ")
+              .append(String.valueOf(entry.getValue())).append(" 個問題\n");
+        }
 
         md.append("\n");
     }
 
-    private void appendFindings(StringBuilder md, List<SecurityFinding> findings) {
-        if (findings.isEmpty()) {
+    private void appendFindings(Writer md, FindingIndex findingIndex) throws IOException {
+        if (findingIndex.getTotalFindings() == 0) {
             return;
         }
 
         md.append("## 🔍 詳細發現\n\n");
 
-        // 依嚴重性分組
-        Map<String, List<SecurityFinding>> grouped = findings.stream()
-            .collect(Collectors.groupingBy(SecurityFinding::getSeverity));
-
-        List<String> severities = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
-
-        for (String severity : severities) {
-            List<SecurityFinding> findingsInSeverity = grouped.get(severity);
-            if (findingsInSeverity == null || findingsInSeverity.isEmpty()) {
+        // 依嚴重性分組（索引已分桶）
+        for (FindingSeverity severityLevel : FindingSeverity.REPORT_ORDER) {
+            List<SecurityFinding> findingsInSeverity = findingIndex.getFindingsBySeverity(severityLevel);
+            if (findingsInSeverity.isEmpty()) {
                 continue;
             }
+            String severity = severityLevel.name();
 
             String emoji = getSeverityEmoji(severity);
             md.append("### ").append(emoji).append(" ").append(severity)
-              .append(" (").append(findingsInSeverity.size()).append(" 個)\n\n");
+              .append(" (").append(String.valueOf(findingsInSeverity.size())).append(" 個)\n\n");
 
             int index = 1;
             for (SecurityFinding finding : findingsInSeverity) {
@@ -155,13 +173,13 @@ public class MarkdownReportGenerator implements ReportGenerator {
         }
     }
 
-    private void appendFinding(StringBuilder md, SecurityFinding finding, int index) {
-        md.append("#### ").append(index).append(". ").append(finding.getRuleName()).append("\n\n");
+    private void appendFinding(Writer md, SecurityFinding finding, int index) throws IOException {
+        md.append("#### ").append(String.valueOf(index)).append(". ").append(finding.getRuleName()).append("\n\n");
 
         // 基本資訊
         md.append("**位置**: `").append(finding.getFilePath());
         if (finding.getLineNumber() != null) {
-            md.append(":").append(finding.getLineNumber());
+            md.append(":").append(String.valueOf(finding.getLineNumber()));
         }
         md.append("`\n\n");
 
@@ -195,7 +213,7 @@ public class MarkdownReportGenerator implements ReportGenerator {
         md.append("---\n\n");
     }
 
-    private void appendFooter(StringBuilder md, AnalysisReport report) {
+    private void appendFooter(Writer md, AnalysisReport report) throws IOException {
         md.append("## 📝 備註\n\n");
         md.append("此報告由 SonarQube AI OWASP Plugin 自動生成。\n\n");
         md.append("- 分析時間: ").append(report.getAnalysisTime().format(DATE_FORMATTER)).append("\n");
@@ -21,12 +21,14 @@ public class AnalysisReport {
     private final List<SecurityFinding> findings;
     private final ReportSummary summary;
     private final String aiModel;
+    private final FindingIndex index;
 
     private AnalysisReport(Builder builder) {
         this.projectName = builder.projectName;
         this.owaspVersion = builder.owaspVersion;
         this.analysisTime = builder.analysisTime;
         this.findings = Collections.unmodifiableList(new ArrayList<>(builder.findings));
+        this.index = builder.index;
         this.summary = builder.summary;
         this.aiModel = builder.aiModel;
     }
@@ -42,6 +44,7 @@ public class AnalysisReport {
         private List<SecurityFinding> findings = new ArrayList<>();
         private ReportSummary summary;
         private String aiModel;
+        private FindingIndex index;
 
         public Builder projectName(String projectName) {
             this.projectName = projectName;
@@ -80,9 +83,21 @@ public class AnalysisReport {
             return this;
         }
 
+        /**
+         * 使用呼叫端已建立的索引（必須由同一份發現列表建立），避免重複走訪
+         */
+        public Builder index(FindingIndex index) {
+            this.index = index;
+            return this;
+        }
+
         public AnalysisReport build() {
+            // 單次走訪建立索引，摘要與各生成器皆由索引取得統計
+            if (this.index == null || this.index.getTotalFindings() != this.findings.size()) {
+                this.index = FindingIndex.of(this.findings);
+            }
             if (this.summary == null) {
-                this.summary = ReportSummary.fromFindings(this.findings);
+                this.summary = ReportSummary.fromIndex(this.index);
             }
             return new AnalysisReport(this);
         }
@@ -96,6 +111,11 @@ public class AnalysisReport {
     public ReportSummary getSummary() { return summary; }
     public String getAiModel() { return aiModel; }
 
+    /**
+     * 發現預先彙總索引（建立報告時一次計算）
+     */
+    public FindingIndex getIndex() { return index; }
+
     // Convenience methods for backward compatibility
     public int getTotalFindings() {
         return summary != null ? summary.getTotalFindings() : 0;
@@ -0,0 +1,97 @@
+package com.github.sonarqube.report.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 發現指紋計算
+ *
+ * 指紋由（規則、檔案路徑、定位文字）的 SHA-256 前 128 位元組成，不含行號與 OWASP 分類：
+ * 程式碼上下移動或以不同 OWASP 版本分類時，同一發現仍得到相同指紋。
+ *
+ * 定位文字應只涵蓋被標記的那一行（或其雜湊），不含前後文；前後文中無關的修改不應改變指紋。
+ * 定位文字先正規化：連續空白（含換行）視為單一空格並去除首尾空白，縮排改變不影響指紋。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class FindingFingerprint {
+
+    /**
+     * 指紋長度（hex 字元）
+     */
+    public static final int LENGTH = 32;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private FindingFingerprint() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 計算指紋
+     *
+     * @param ruleKey  規則 key（可為 null）
+     * @param filePath 檔案路徑（可為 null）
+     * @param anchor   定位文字：被標記行的內容或雜湊（可為 null）
+     * @return 32 字元 hex 指紋
+     */
+    public static String of(String ruleKey, String filePath, String anchor) {
+        MessageDigest digest = sha256();
+        update(digest, ruleKey);
+        update(digest, filePath);
+        update(digest, normalizeSnippet(anchor));
+        byte[] hash = digest.digest();
+
+        char[] hex = new char[LENGTH];
+        for (int i = 0; i < LENGTH / 2; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * 正規化文字：連續空白壓縮為單一空格並去除首尾空白
+     *
+     * @param codeSnippet 文字（可為 null）
+     * @return 正規化後的文字（null 視為空字串）
+     */
+    public static String normalizeSnippet(String codeSnippet) {
+        if (codeSnippet == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(codeSnippet.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < codeSnippet.length(); i++) {
+            char c = codeSnippet.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // 欄位分隔，避免 ("ab", "c") 與 ("a", "bc") 產生相同輸入
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.github.sonarqube.report.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 發現預先彙總索引
+ *
+ * 以單次走訪將發現依嚴重性、OWASP 分類、CWE 與檔案分桶。嚴重性計數以
+ * {@link FindingSeverity} ordinal 為索引的 int 陣列保存；分類、CWE 與檔案
+ * 則先映射為密集編號，計數同樣存於 int 陣列。桶內保持原始發現順序。
+ *
+ * 索引建立後不可變，可由多個生成器（含背景執行緒）共用。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public final class FindingIndex {
+
+    private static final FindingIndex EMPTY = new FindingIndex(Collections.emptyList());
+
+    private final int totalFindings;
+    private final int[] severityCounts = new int[FindingSeverity.values().length];
+    private final List<List<SecurityFinding>> severityBuckets;
+    private final Map<String, Integer> otherSeverityCounts = new LinkedHashMap<>();
+    private final Buckets categories = new Buckets();
+    private final Buckets cwes = new Buckets();
+    private final Buckets files = new Buckets();
+    private int uncategorizedCount;
+
+    private FindingIndex(List<SecurityFinding> findings) {
+        this.totalFindings = findings.size();
+
+        List<List<SecurityFinding>> buckets = new ArrayList<>(severityCounts.length);
+        for (int i = 0; i < severityCounts.length; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.severityBuckets = buckets;
+
+        for (SecurityFinding finding : findings) {
+            // 嚴重性
+            String severityName = finding.getSeverity();
+            FindingSeverity severity = FindingSeverity.fromName(severityName);
+            if (severity != null) {
+                severityCounts[severity.ordinal()]++;
+                buckets.get(severity.ordinal()).add(finding);
+            } else if (severityName != null) {
+                otherSeverityCounts.merge(severityName, 1, Integer::sum);
+            }
+
+            // OWASP 分類
+            String category = finding.getOwaspCategory();
+            if (category != null) {
+                categories.add(category, finding);
+            } else {
+                uncategorizedCount++;
+            }
+
+            // CWE
+            for (String cweId : finding.getCweIds()) {
+                cwes.add(cweId, finding);
+            }
+
+            // 檔案
+            if (finding.getFilePath() != null) {
+                files.add(finding.getFilePath(), finding);
+            }
+        }
+    }
+
+    /**
+     * 以單次走訪建立索引
+     *
+     * @param findings 發現列表（可為 null）
+     * @return 索引
+     */
+    public static FindingIndex of(List<SecurityFinding> findings) {
+        if (findings == null || findings.isEmpty()) {
+            return EMPTY;
+        }
+        return new FindingIndex(findings);
+    }
+
+    public int getTotalFindings() {
+        return totalFindings;
+    }
+
+    // ===== 嚴重性 =====
+
+    public int getSeverityCount(FindingSeverity severity) {
+        return severityCounts[severity.ordinal()];
+    }
+
+    /**
+     * 依名稱取得嚴重性計數（含非標準名稱）
+     */
+    public int getSeverityCount(String severityName) {
+        FindingSeverity severity = FindingSeverity.fromName(severityName);
+        if (severity != null) {
+            return severityCounts[severity.ordinal()];
+        }
+        return otherSeverityCounts.getOrDefault(severityName, 0);
+    }
+
+    public List<SecurityFinding> getFindingsBySeverity(FindingSeverity severity) {
+        return Collections.unmodifiableList(severityBuckets.get(severity.ordinal()));
+    }
+
+    /**
+     * 嚴重性計數（僅含出現過的等級，依 {@link FindingSeverity} 順序）
+     */
+    public Map<String, Integer> getSeverityCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (FindingSeverity severity : FindingSeverity.values()) {
+            int count = severityCounts[severity.ordinal()];
+            if (count > 0) {
+                counts.put(severity.name(), count);
+            }
+        }
+        counts.putAll(otherSeverityCounts);
+        return counts;
+    }
+
+    // ===== OWASP 分類 =====
+
+    public int getCategoryCount(String category) {
+        return categories.count(category);
+    }
+
+    public List<SecurityFinding> getFindingsByCategory(String category) {
+        return categories.findings(category);
+    }
+
+    /**
+     * 分類計數（依首次出現順序）
+     */
+    public Map<String, Integer> getCategoryCounts() {
+        return categories.toCountMap();
+    }
+
+    public List<String> getCategories() {
+        return categories.keys();
+    }
+
+    /**
+     * 沒有 OWASP 分類的發現數
+     */
+    public int getUncategorizedCount() {
+        return uncategorizedCount;
+    }
+
+    // ===== CWE =====
+
+    public int getCweCount(String cweId) {
+        return cwes.count(cweId);
+    }
+
+    public List<SecurityFinding> getFindingsByCwe(String cweId) {
+        return cwes.findings(cweId);
+    }
+
+    public Map<String, Integer> getCweCounts() {
+        return cwes.toCountMap();
+    }
+
+    // ===== 檔案 =====
+
+    public int getFileCount(String filePath) {
+        return files.count(filePath);
+    }
+
+    public List<SecurityFinding> getFindingsByFile(String filePath) {
+        return files.findings(filePath);
+    }
+
+    public List<String> getFilePaths() {
+        return files.keys();
+    }
+
+    /**
+     * 有發現的檔案數
+     */
+    public int getDistinctFileCount() {
+        return files.size();
+    }
+
+    /**
+     * 字串鍵 → 密集編號的分桶（計數存於 int 陣列）
+     */
+    private static final class Buckets {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<List<SecurityFinding>> findings = new ArrayList<>();
+        private int[] counts = new int[16];
+
+        void add(String key, SecurityFinding finding) {
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = keys.size();
+                ids.put(key, id);
+                keys.add(key);
+                findings.add(new ArrayList<>());
+                if (id == counts.length) {
+                    counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+            }
+            counts[id]++;
+            findings.get(id).add(finding);
+        }
+
+        int count(String key) {
+            Integer id = ids.get(key);
+            return id != null ? counts[id] : 0;
+        }
+
+        List<SecurityFinding> findings(String key) {
+            Integer id = ids.get(key);
+            return id != null ? Collections.unmodifiableList(findings.get(id)) : Collections.emptyList();
+        }
+
+        List<String> keys() {
+            return Collections.unmodifiableList(keys);
+        }
+
+        int size() {
+            return keys.size();
+        }
+
+        Map<String, Integer> toCountMap() {
+            Map<String, Integer> map = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                map.put(keys.get(i), counts[i]);
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.sonarqube.report.model;
+
+import java.util.List;
+
+/**
+ * 報告中使用的嚴重性等級
+ *
+ * 包含 SonarQube 標準等級（BLOCKER ~ INFO）與 AI 分析使用的等級（HIGH/MEDIUM/LOW），
+ * ordinal 作為 {@link FindingIndex} 計數陣列的索引。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+public enum FindingSeverity {
+    BLOCKER,
+    CRITICAL,
+    MAJOR,
+    MINOR,
+    INFO,
+    HIGH,
+    MEDIUM,
+    LOW;
+
+    /**
+     * 報告中詳細發現章節的嚴重性順序
+     */
+    public static final List<FindingSeverity> REPORT_ORDER = List.of(BLOCKER, CRITICAL, MAJOR, MINOR, INFO);
+
+    private static final FindingSeverity[] VALUES = values();
+
+    /**
+     * 依名稱解析嚴重性（區分大小寫，與 SonarQube 一致）
+     *
+     * @param name 嚴重性名稱
+     * @return 對應等級，未知名稱或 null 時回傳 null
+     */
+    public static FindingSeverity fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (FindingSeverity severity : VALUES) {
+            if (severity.name().equals(name)) {
+                return severity;
+            }
+        }
+        return null;
+    }
+}
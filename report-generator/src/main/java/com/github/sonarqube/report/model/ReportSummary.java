@@ -63,29 +63,17 @@ public class ReportSummary {
      * 從發現列表自動計算摘要
      */
     public static ReportSummary fromFindings(List<SecurityFinding> findings) {
-        if (findings == null || findings.isEmpty()) {
-            return builder().totalFindings(0).build();
-        }
-
-        Map<String, Integer> severityCounts = new HashMap<>();
-        Map<String, Integer> categoryCounts = new HashMap<>();
-
-        for (SecurityFinding finding : findings) {
-            // 統計嚴重性
-            String severity = finding.getSeverity();
-            severityCounts.put(severity, severityCounts.getOrDefault(severity, 0) + 1);
-
-            // 統計 OWASP 分類
-            String category = finding.getOwaspCategory();
-            if (category != null) {
-                categoryCounts.put(category, categoryCounts.getOrDefault(category, 0) + 1);
-            }
-        }
+        return fromIndex(FindingIndex.of(findings));
+    }
 
+    /**
+     * 從預先彙總索引建立摘要（不再走訪發現）
+     */
+    public static ReportSummary fromIndex(FindingIndex index) {
         return builder()
-            .totalFindings(findings.size())
-            .severityCounts(severityCounts)
-            .categoryCounts(categoryCounts)
+            .totalFindings(index.getTotalFindings())
+            .severityCounts(index.getSeverityCounts())
+            .categoryCounts(index.getCategoryCounts())
             .build();
     }
 
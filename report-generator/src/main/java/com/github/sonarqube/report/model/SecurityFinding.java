@@ -20,6 +20,12 @@ public class SecurityFinding {
     private final String description;
     private final String fixSuggestion;
     private final String codeSnippet;
+    private final String lineHash;
+
+    /**
+     * 指紋（首次取用時計算；計算結果固定，競爭時重複計算無害）
+     */
+    private String fingerprint;
 
     private SecurityFinding(Builder builder) {
         this.ruleKey = builder.ruleKey;
@@ -32,6 +38,7 @@ public class SecurityFinding {
         this.description = builder.description;
         this.fixSuggestion = builder.fixSuggestion;
         this.codeSnippet = builder.codeSnippet;
+        this.lineHash = builder.lineHash;
     }
 
     public static Builder builder() {
@@ -49,6 +56,7 @@ public class SecurityFinding {
         private String description;
         private String fixSuggestion;
         private String codeSnippet;
+        private String lineHash;
 
         public Builder ruleKey(String ruleKey) {
             this.ruleKey = ruleKey;
@@ -100,6 +108,14 @@ public class SecurityFinding {
             return this;
         }
 
+        /**
+         * 被標記行的內容雜湊（SonarQube issue 的 {@code hash}），用於計算指紋
+         */
+        public Builder lineHash(String lineHash) {
+            this.lineHash = lineHash;
+            return this;
+        }
+
         public SecurityFinding build() {
             return new SecurityFinding(this);
         }
@@ -116,6 +132,26 @@ public class SecurityFinding {
     public String getDescription() { return description; }
     public String getFixSuggestion() { return fixSuggestion; }
     public String getCodeSnippet() { return codeSnippet; }
+    public String getLineHash() { return lineHash; }
+
+    /**
+     * 穩定指紋（規則 + 檔案 + 被標記行），用於跨版本、跨分析比對同一發現
+     *
+     * 被標記行以 {@link #getLineHash()} 表示；沒有行雜湊時（例：檔案層級的問題）改用問題描述。
+     * 前後文代碼片段不列入，附近程式碼的修改不會讓同一發現變成「移除 + 新增」。
+     *
+     * @return 32 字元 hex 指紋
+     * @see FindingFingerprint
+     */
+    public String getFingerprint() {
+        String value = fingerprint;
+        if (value == null) {
+            value = FindingFingerprint.of(ruleKey, filePath,
+                lineHash != null && !lineHash.isEmpty() ? lineHash : description);
+            fingerprint = value;
+        }
+        return value;
+    }
 
     // Convenience method for backward compatibility
     public String getCweId() {
@@ -60,6 +60,9 @@ public class VersionComparisonReport {
         private final Map<String, Integer> removedFindings;
         private final Map<String, Integer> changedFindings;
         private final Map<String, Double> complianceChangePercent;
+        private final Map<String, Map<String, Integer>> addedByCategory;
+        private final Map<String, Map<String, Integer>> removedByCategory;
+        private final Map<String, Map<String, Integer>> categoryTransitions;
         private final List<String> migrationRecommendations;
 
         private DifferenceAnalysis(Builder builder) {
@@ -67,6 +70,9 @@ public class VersionComparisonReport {
             this.removedFindings = Collections.unmodifiableMap(new HashMap<>(builder.removedFindings));
             this.changedFindings = Collections.unmodifiableMap(new HashMap<>(builder.changedFindings));
             this.complianceChangePercent = Collections.unmodifiableMap(new HashMap<>(builder.complianceChangePercent));
+            this.addedByCategory = copyNested(builder.addedByCategory);
+            this.removedByCategory = copyNested(builder.removedByCategory);
+            this.categoryTransitions = copyNested(builder.categoryTransitions);
             this.migrationRecommendations = Collections.unmodifiableList(new ArrayList<>(builder.migrationRecommendations));
         }
 
@@ -76,6 +82,28 @@ public class VersionComparisonReport {
         public Map<String, Double> getComplianceChangePercent() { return complianceChangePercent; }
         public List<String> getMigrationRecommendations() { return migrationRecommendations; }
 
+        /**
+         * 各版本新增發現的分類分佈（目標版本 → 分類 → 數量）
+         */
+        public Map<String, Map<String, Integer>> getAddedByCategory() { return addedByCategory; }
+
+        /**
+         * 各版本移除發現的分類分佈（目標版本 → 分類 → 數量）
+         */
+        public Map<String, Map<String, Integer>> getRemovedByCategory() { return removedByCategory; }
+
+        /**
+         * 各版本同一發現的分類轉換（目標版本 → "來源分類 → 目標分類" → 數量）
+         */
+        public Map<String, Map<String, Integer>> getCategoryTransitions() { return categoryTransitions; }
+
+        private static Map<String, Map<String, Integer>> copyNested(Map<String, Map<String, Integer>> source) {
+            Map<String, Map<String, Integer>> copy = new LinkedHashMap<>();
+            source.forEach((version, counts) ->
+                copy.put(version, Collections.unmodifiableMap(new LinkedHashMap<>(counts))));
+            return Collections.unmodifiableMap(copy);
+        }
+
         public static Builder builder() {
             return new Builder();
         }
@@ -85,6 +113,9 @@ public class VersionComparisonReport {
             private Map<String, Integer> removedFindings = new HashMap<>();
             private Map<String, Integer> changedFindings = new HashMap<>();
             private Map<String, Double> complianceChangePercent = new HashMap<>();
+            private Map<String, Map<String, Integer>> addedByCategory = new LinkedHashMap<>();
+            private Map<String, Map<String, Integer>> removedByCategory = new LinkedHashMap<>();
+            private Map<String, Map<String, Integer>> categoryTransitions = new LinkedHashMap<>();
             private List<String> migrationRecommendations = new ArrayList<>();
 
             public Builder addedFindings(Map<String, Integer> addedFindings) {
@@ -107,6 +138,21 @@ public class VersionComparisonReport {
                 return this;
             }
 
+            public Builder addedByCategory(Map<String, Map<String, Integer>> addedByCategory) {
+                this.addedByCategory = addedByCategory;
+                return this;
+            }
+
+            public Builder removedByCategory(Map<String, Map<String, Integer>> removedByCategory) {
+                this.removedByCategory = removedByCategory;
+                return this;
+            }
+
+            public Builder categoryTransitions(Map<String, Map<String, Integer>> categoryTransitions) {
+                this.categoryTransitions = categoryTransitions;
+                return this;
+            }
+
             public Builder migrationRecommendations(List<String> migrationRecommendations) {
                 this.migrationRecommendations = migrationRecommendations;
                 return this;
@@ -225,15 +225,17 @@ public class PdfLayoutManager {
      * @param projectName 專案名稱（顯示於頁首右側）
      * @param owaspVersion OWASP 版本（顯示於頁尾右側）
      * @param generationTime 報表生成時間（顯示於頁尾左側，ISO 8601 格式）
+     * @return 已註冊的事件處理器（文件關閉前需呼叫 {@link PdfPageEventHandler#writeTotalPageCount}），
+     *         停用頁首頁尾時回傳 null
      */
-    public void addHeaderFooter(PdfDocument pdfDoc, PdfReportConfig config,
+    public PdfPageEventHandler addHeaderFooter(PdfDocument pdfDoc, PdfReportConfig config,
                                  String projectName, String owaspVersion,
                                  String generationTime) {
         LOG.info("Registering header/footer event handler");
 
         if (!config.isHeaderFooterEnabled()) {
             LOG.info("Header/footer disabled by configuration");
-            return;
+            return null;
         }
 
         int skipPages = 2; // 封面頁 + 目錄頁
@@ -243,6 +245,7 @@ public class PdfLayoutManager {
         pdfDoc.addEventHandler(PdfDocumentEvent.END_PAGE, eventHandler);
 
         LOG.info("Header/footer event handler registered (skip first {} pages)", skipPages);
+        return eventHandler;
     }
 
     /**
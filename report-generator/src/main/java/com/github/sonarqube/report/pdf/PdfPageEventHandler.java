@@ -12,6 +12,8 @@ import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
@@ -20,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
 
 /**
  * PDF 頁面事件處理器
@@ -40,6 +43,9 @@ import java.io.IOException;
  * pdfDoc.addEventHandler(PdfDocumentEvent.END_PAGE, eventHandler);
  * }</pre>
  *
+ * <p><strong>總頁數：</strong>頁面在生成過程中即被寫出，頁尾的總頁數 Y 以共用的 Form XObject 佔位，
+ * 文件關閉前呼叫 {@link #writeTotalPageCount(PdfDocument)} 填入。</p>
+ *
  * <p><strong>線程安全性：</strong>此類別在單一 PDF 文件生成期間使用，設計為線程安全。</p>
  *
  * @author SonarQube AI OWASP Plugin Team
@@ -51,6 +57,13 @@ public class PdfPageEventHandler implements IEventHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(PdfPageEventHandler.class);
 
+    /**
+     * 總頁數佔位區尺寸與基線位移（pt）
+     */
+    private static final float TOTAL_PAGES_WIDTH = 30f;
+    private static final float TOTAL_PAGES_HEIGHT = 12f;
+    private static final float TOTAL_PAGES_DESCENT = 3f;
+
     private final PdfReportConfig config;
     private final int skipPages;
     private final String projectName;
@@ -60,6 +73,18 @@ public class PdfPageEventHandler implements IEventHandler {
     private PdfFont headerFont;
     private PdfFont footerFont;
 
+    /**
+     * 所有頁面共用的總頁數佔位（關閉前填入）
+     */
+    private final PdfFormXObject totalPagesPlaceholder =
+            new PdfFormXObject(new Rectangle(0, 0, TOTAL_PAGES_WIDTH, TOTAL_PAGES_HEIGHT));
+
+    /**
+     * 所有頁面共用的 Logo 影像（首次使用時載入，避免每頁嵌入一份）
+     */
+    private PdfImageXObject logoXObject;
+    private boolean logoLoadFailed;
+
     /**
      * 建構子
      *
@@ -142,15 +167,16 @@ public class PdfPageEventHandler implements IEventHandler {
 
         try (Canvas canvas = new Canvas(pdfCanvas, pageSize)) {
             // 左側：Logo（若有）
-            if (config.getLogoPath() != null) {
+            if (config.getLogoPath() != null && !logoLoadFailed) {
                 try {
-                    Image logo = new Image(ImageDataFactory.create(config.getLogoPath()));
+                    Image logo = new Image(getLogoXObject());
                     logo.setWidth(PdfStyleConstants.HEADER_LOGO_WIDTH);
                     logo.setHeight(PdfStyleConstants.HEADER_LOGO_HEIGHT);
                     logo.setFixedPosition(leftX, headerY - PdfStyleConstants.HEADER_LOGO_HEIGHT);
                     canvas.add(logo);
                     LOG.debug("Header logo added from: {}", config.getLogoPath());
                 } catch (Exception e) {
+                    logoLoadFailed = true;
                     LOG.warn("Failed to load header logo: {}, using text-only header", config.getLogoPath());
                 }
             }
@@ -224,18 +250,20 @@ public class PdfPageEventHandler implements IEventHandler {
                     .setFixedPosition(leftX, footerY, 200);
             canvas.add(timestamp);
 
-            // 中間：頁碼（扣除封面和目錄頁）
+            // 中間：頁碼（扣除封面和目錄頁），總頁數由佔位 XObject 於文件關閉前填入
             int contentPageNum = pageNum - skipPages;
-            int totalContentPages = pdfDoc.getNumberOfPages() - skipPages;
-            String pageText = String.format("Page %d of %d", contentPageNum, totalContentPages);
+            String pageText = String.format("Page %d of", contentPageNum);
+            float pageTextWidth = footerFont.getWidth(pageText, PdfStyleConstants.PAGE_NUMBER_SIZE);
+            float spaceWidth = footerFont.getWidth(" ", PdfStyleConstants.PAGE_NUMBER_SIZE);
+            float pageTextX = centerX - (pageTextWidth + spaceWidth + TOTAL_PAGES_WIDTH) / 2 + pageTextWidth;
+            float baselineY = footerY + 1; // 與左右兩側固定位置文字的基線對齊
 
             Paragraph pageNumber = new Paragraph(pageText)
                     .setFont(footerFont)
                     .setFontSize(PdfStyleConstants.PAGE_NUMBER_SIZE)
-                    .setFontColor(PdfStyleConstants.FOOTER_TEXT_COLOR)
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setFixedPosition(centerX - 50, footerY, 100);
-            canvas.add(pageNumber);
+                    .setFontColor(PdfStyleConstants.FOOTER_TEXT_COLOR);
+            canvas.showTextAligned(pageNumber, pageTextX, baselineY, TextAlignment.RIGHT);
+            pdfCanvas.addXObjectAt(totalPagesPlaceholder, pageTextX + spaceWidth, baselineY - TOTAL_PAGES_DESCENT);
 
             // 右側：OWASP 版本
             Paragraph owasp = new Paragraph("OWASP " + owaspVersion)
@@ -248,6 +276,34 @@ public class PdfPageEventHandler implements IEventHandler {
         }
     }
 
+    /**
+     * 寫入總頁數至頁尾佔位區
+     *
+     * <p>須於所有內容加入後、文件關閉前呼叫；已寫出的頁面透過共用 XObject 取得正確的總頁數。</p>
+     *
+     * @param pdfDoc PDF 文件
+     */
+    public void writeTotalPageCount(PdfDocument pdfDoc) {
+        int totalContentPages = Math.max(0, pdfDoc.getNumberOfPages() - skipPages);
+
+        try (Canvas canvas = new Canvas(totalPagesPlaceholder, pdfDoc)) {
+            Paragraph total = new Paragraph(String.valueOf(totalContentPages))
+                    .setFont(footerFont)
+                    .setFontSize(PdfStyleConstants.PAGE_NUMBER_SIZE)
+                    .setFontColor(PdfStyleConstants.FOOTER_TEXT_COLOR);
+            canvas.showTextAligned(total, 0, TOTAL_PAGES_DESCENT, TextAlignment.LEFT);
+        }
+
+        LOG.debug("Total page count written: {}", totalContentPages);
+    }
+
+    private PdfImageXObject getLogoXObject() throws MalformedURLException {
+        if (logoXObject == null) {
+            logoXObject = new PdfImageXObject(ImageDataFactory.create(config.getLogoPath()));
+        }
+        return logoXObject;
+    }
+
     /**
      * 獲取配置的跳過頁數
      *
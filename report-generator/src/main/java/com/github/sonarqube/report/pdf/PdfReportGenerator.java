@@ -1,8 +1,11 @@
 package com.github.sonarqube.report.pdf;
 
+import com.github.sonarqube.report.ParallelSectionRenderer;
 import com.github.sonarqube.report.ReportGenerator;
 import com.github.sonarqube.report.exception.ReportGenerationException;
 import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.model.FindingIndex;
+import com.github.sonarqube.report.model.FindingSeverity;
 import com.github.sonarqube.report.model.ReportSummary;
 import com.github.sonarqube.report.model.SecurityFinding;
 import com.itextpdf.kernel.font.PdfFont;
@@ -15,6 +18,7 @@ import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
@@ -26,13 +30,15 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * PDF 報表生成器
@@ -171,6 +177,58 @@ public class PdfReportGenerator implements ReportGenerator {
         }
     }
 
+    /**
+     * 生成 PDF 報告並直接寫入輸出流（不經過暫存檔）
+     *
+     * <p>在呼叫端執行緒上排版與寫出：輸出流通常是 Web 回應，寫入速度取決於用戶端，
+     * 因此不套用 {@link #generate(AnalysisReport)} 的超時控制；若交由背景執行緒並在超時後放棄，
+     * 無法中斷的 iText 仍會繼續寫入呼叫端已不再擁有的輸出流。失敗時以 IOException 回報，
+     * 原因為對應錯誤代碼的 {@link ReportGenerationException}。輸出流不會被關閉。</p>
+     *
+     * @param report 分析報告數據，不可為 null
+     * @param output 輸出流（例如 Web 回應）
+     * @throws IOException 當生成或寫入失敗時拋出
+     */
+    @Override
+    public void generate(AnalysisReport report, OutputStream output) throws IOException {
+        if (report == null) {
+            throw new IOException(new ReportGenerationException(
+                    ReportGenerationException.ErrorCode.INVALID_INPUT, "AnalysisReport cannot be null"));
+        }
+
+        LOG.info("Starting streaming PDF generation for project: {}", report.getProjectName());
+        long startTime = System.currentTimeMillis();
+
+        try {
+            writeDocument(report, output);
+            output.flush();
+            LOG.info("PDF streamed successfully in {}ms", System.currentTimeMillis() - startTime);
+
+        } catch (OutOfMemoryError e) {
+            throw new IOException(new ReportGenerationException(
+                    ReportGenerationException.ErrorCode.OUT_OF_MEMORY, e));
+
+        } catch (RuntimeException e) {
+            // iText 以 PdfException 包裝寫入失敗；保留原始 IOException 讓呼叫端辨識連線中斷
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(new ReportGenerationException(
+                    ReportGenerationException.ErrorCode.PDF_GENERATION_FAILED, e));
+        }
+    }
+
+    /**
+     * PDF 為二進位格式，不支援字元輸出
+     *
+     * @throws UnsupportedOperationException 永遠拋出，請改用 {@link #generate(AnalysisReport, OutputStream)}
+     */
+    @Override
+    public void generate(AnalysisReport report, Writer writer) {
+        throw new UnsupportedOperationException(
+                "PDF is a binary format; use generate(AnalysisReport, OutputStream)");
+    }
+
     /**
      * 內部 PDF 生成方法（由 ExecutorService 執行）
      *
@@ -186,6 +244,24 @@ public class PdfReportGenerator implements ReportGenerator {
         String outputPath = tempFile.toAbsolutePath().toString();
         LOG.info("Creating PDF report at temporary location: {}", outputPath);
 
+        try (OutputStream output = java.nio.file.Files.newOutputStream(tempFile)) {
+            writeDocument(report, output);
+        }
+
+        LOG.debug("PDF report written to: {}", outputPath);
+        return outputPath;
+    }
+
+    /**
+     * 將 PDF 文件直接寫入輸出流
+     *
+     * <p>PdfWriter 直接包裝呼叫端的輸出流，頁面完成即寫出；輸出流不會被關閉。</p>
+     *
+     * @param report 分析報告
+     * @param output 輸出流
+     * @throws IOException 如果寫入失敗
+     */
+    private void writeDocument(AnalysisReport report, OutputStream output) throws IOException {
         PdfReportConfig config = PdfReportConfig.builder().build(); // 預設配置
 
         // Story 1.7: 檢查是否為空報告
@@ -195,11 +271,17 @@ public class PdfReportGenerator implements ReportGenerator {
                     report.getProjectName());
         }
 
+        // 圖表點陣化、統計表格與嚴重性分組彼此獨立，先交給背景執行緒準備，與封面/目錄排版重疊
+        PreparedSections prepared = isEmptyReport ? null : prepareSections(report);
+
+        PdfWriter writer = new PdfWriter(output);
+        writer.setCloseStream(false); // 輸出流由呼叫端管理
+
         // Story 1.7: 使用 try-with-resources 確保資源正確釋放（串流寫入優化）
         // Note: 使用標準 PDF 而非 PDF/A，因為缺少必要的 ICC color profile 資源檔案
-        try (PdfWriter writer = new PdfWriter(outputPath);
-             PdfDocument pdfDoc = new PdfDocument(writer);
-             Document document = new Document(pdfDoc)) {
+        try (PdfDocument pdfDoc = new PdfDocument(writer);
+             // immediateFlush：每個區塊加入後即完成排版，已完成的頁面隨即寫出並釋放
+             Document document = new Document(pdfDoc, pdfDoc.getDefaultPageSize(), true)) {
 
             // Note: Compression is enabled by default in iText 7.2.5
 
@@ -213,7 +295,7 @@ public class PdfReportGenerator implements ReportGenerator {
             // Story 1.2: 註冊頁首頁尾事件處理器
             String generationTime = LocalDateTime.now()
                     .format(DateTimeFormatter.ISO_DATE_TIME);
-            layoutManager.addHeaderFooter(
+            PdfPageEventHandler pageEvents = layoutManager.addHeaderFooter(
                     pdfDoc,
                     config,
                     report.getProjectName(),
@@ -226,23 +308,57 @@ public class PdfReportGenerator implements ReportGenerator {
                 createEmptyReportContent(document);
             } else {
                 // Story 1.3: 建立執行摘要與統計表格
-                createExecutiveSummary(document, report);
+                createExecutiveSummary(document, prepared);
 
                 // Story 1.4: 建立嚴重性分布圓餅圖
-                createSeverityDistributionSection(document, report);
+                createSeverityDistributionSection(document, prepared);
 
                 // Story 1.4: 建立 OWASP 分類分布長條圖
-                createOwaspCategorySection(document, report);
+                createOwaspCategorySection(document, prepared);
 
                 // Story 1.5: 建立詳細發現區段
-                createDetailedFindingsSection(document, report);
+                createDetailedFindingsSection(document, prepared);
+            }
+
+            // 頁面已逐頁寫出，總頁數最後才填入頁尾佔位
+            if (pageEvents != null) {
+                pageEvents.writeTotalPageCount(pdfDoc);
             }
 
             LOG.debug("PDF document structure created (Stories 1.1-1.7 complete)");
+        } finally {
+            if (prepared != null) {
+                prepared.cancel();
+            }
         }
+    }
 
-        LOG.debug("PDF report written to: {}", outputPath);
-        return outputPath;
+    /**
+     * 並行準備各獨立區段的中間結果
+     *
+     * @param report 分析報告
+     * @return 各區段的 Future
+     */
+    private PreparedSections prepareSections(AnalysisReport report) {
+        ReportSummary summary = report.getReportSummary();
+        FindingIndex index = report.getIndex();
+
+        Future<SummarySection> summarySection = ParallelSectionRenderer.submit(
+                () -> new SummarySection(createStatisticsTable(summary), generateSummaryText(summary)));
+
+        Future<Image> severityChart = ParallelSectionRenderer.submit(
+                () -> chartGenerator.generateSeverityPieChart(summary));
+
+        Future<Image> owaspChart = ParallelSectionRenderer.submit(() -> {
+            // OWASP 分類分布（取自預先彙總的索引）
+            Map<String, Long> categoryDistribution = new LinkedHashMap<>();
+            index.getCategoryCounts().forEach((category, count) -> categoryDistribution.put(category, count.longValue()));
+            return categoryDistribution.isEmpty()
+                    ? null
+                    : chartGenerator.generateOwaspCategoryBarChart(categoryDistribution);
+        });
+
+        return new PreparedSections(summarySection, severityChart, owaspChart, index);
     }
 
     /**
@@ -346,18 +462,14 @@ public class PdfReportGenerator implements ReportGenerator {
         sections.add(new PdfLayoutManager.TocSection("Severity Distribution", 1));
         sections.add(new PdfLayoutManager.TocSection("OWASP Category Distribution", 1));
 
-        // 依嚴重性分組的發現（動態生成）
-        Map<String, Long> severityGroups = report.getFindings().stream()
-                .collect(Collectors.groupingBy(
-                        SecurityFinding::getSeverity,
-                        Collectors.counting()));
+        // 依嚴重性分組的發現（動態生成，計數取自預先彙總的索引）
+        FindingIndex index = report.getIndex();
 
         // 按照嚴重性排序（BLOCKER, CRITICAL, MAJOR, MINOR, INFO）
-        List<String> severityOrder = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
-        for (String severity : severityOrder) {
-            Long count = severityGroups.get(severity);
-            if (count != null && count > 0) {
-                String title = String.format("%s Issues (%d)", severity, count);
+        for (FindingSeverity severity : FindingSeverity.REPORT_ORDER) {
+            int count = index.getSeverityCount(severity);
+            if (count > 0) {
+                String title = String.format("%s Issues (%d)", severity.name(), count);
                 sections.add(new PdfLayoutManager.TocSection(title, 1));
             }
         }
@@ -378,14 +490,13 @@ public class PdfReportGenerator implements ReportGenerator {
      * </ul>
      *
      * @param doc iText Document 物件
-     * @param report 分析報告
-     * @throws IOException 若字型載入失敗
+     * @param prepared 預先準備的區段
+     * @throws IOException 若字型載入或區段準備失敗
      * @since 2.0.0 (Story 1.3)
      */
-    private void createExecutiveSummary(Document doc, AnalysisReport report) throws IOException {
+    private void createExecutiveSummary(Document doc, PreparedSections prepared) throws IOException {
         LOG.info("Creating executive summary");
 
-        ReportSummary summary = report.getReportSummary();
         PdfDocument pdfDoc = doc.getPdfDocument();
 
         // 新增 PDF 書籤（目錄導航）
@@ -403,13 +514,10 @@ public class PdfReportGenerator implements ReportGenerator {
                 .setMarginBottom(20f);
         doc.add(title);
 
-        // 統計表格
-        Table statisticsTable = createStatisticsTable(summary);
-        doc.add(statisticsTable);
-
-        // 自動生成的摘要文字
-        Paragraph summaryText = generateSummaryText(summary);
-        doc.add(summaryText);
+        // 統計表格與自動生成的摘要文字（背景準備）
+        SummarySection summarySection = ParallelSectionRenderer.await(prepared.summarySection);
+        doc.add(summarySection.statisticsTable);
+        doc.add(summarySection.summaryText);
 
         // 分頁
         doc.add(new AreaBreak());
@@ -622,15 +730,14 @@ public class PdfReportGenerator implements ReportGenerator {
      * </ul>
      *
      * @param doc iText Document 物件
-     * @param report 分析報告
+     * @param prepared 預先準備的區段
      * @throws IOException 若圖表生成失敗
      * @since 2.0.0 (Story 1.4)
      */
-    private void createSeverityDistributionSection(Document doc, AnalysisReport report) throws IOException {
+    private void createSeverityDistributionSection(Document doc, PreparedSections prepared) throws IOException {
         LOG.info("Creating severity distribution chart section");
 
         PdfDocument pdfDoc = doc.getPdfDocument();
-        ReportSummary summary = report.getReportSummary();
 
         // 新增 PDF 書籤（目錄導航）
         PdfOutline rootOutline = pdfDoc.getOutlines(false);
@@ -647,8 +754,8 @@ public class PdfReportGenerator implements ReportGenerator {
                 .setMarginBottom(20f);
         doc.add(title);
 
-        // 生成圓餅圖
-        com.itextpdf.layout.element.Image severityChart = chartGenerator.generateSeverityPieChart(summary);
+        // 圓餅圖（背景點陣化）
+        Image severityChart = ParallelSectionRenderer.await(prepared.severityChart);
         severityChart.setHorizontalAlignment(com.itextpdf.layout.properties.HorizontalAlignment.CENTER);
         severityChart.setMarginTop(10f);
         severityChart.setMarginBottom(30f);
@@ -673,11 +780,11 @@ public class PdfReportGenerator implements ReportGenerator {
      * </ul>
      *
      * @param doc iText Document 物件
-     * @param report 分析報告
+     * @param prepared 預先準備的區段
      * @throws IOException 若圖表生成失敗
      * @since 2.0.0 (Story 1.4)
      */
-    private void createOwaspCategorySection(Document doc, AnalysisReport report) throws IOException {
+    private void createOwaspCategorySection(Document doc, PreparedSections prepared) throws IOException {
         LOG.info("Creating OWASP category distribution chart section");
 
         PdfDocument pdfDoc = doc.getPdfDocument();
@@ -697,14 +804,10 @@ public class PdfReportGenerator implements ReportGenerator {
                 .setMarginBottom(20f);
         doc.add(title);
 
-        // 計算 OWASP 分類分布
-        Map<String, Long> categoryDistribution = report.getFindings().stream()
-                .filter(finding -> finding.getOwaspCategory() != null)
-                .collect(Collectors.groupingBy(
-                        SecurityFinding::getOwaspCategory,
-                        Collectors.counting()));
+        // 長條圖（背景點陣化；無 OWASP 分類資料時為 null）
+        Image owaspChart = ParallelSectionRenderer.await(prepared.owaspChart);
 
-        if (categoryDistribution.isEmpty()) {
+        if (owaspChart == null) {
             // 無 OWASP 分類資料
             PdfFont textFont = PdfFontFactory.createFont(PdfStyleConstants.FONT_HELVETICA);
             Paragraph noData = new Paragraph("No OWASP category data available.")
@@ -714,8 +817,6 @@ public class PdfReportGenerator implements ReportGenerator {
                     .setMarginTop(20f);
             doc.add(noData);
         } else {
-            // 生成長條圖
-            com.itextpdf.layout.element.Image owaspChart = chartGenerator.generateOwaspCategoryBarChart(categoryDistribution);
             owaspChart.setHorizontalAlignment(com.itextpdf.layout.properties.HorizontalAlignment.CENTER);
             owaspChart.setMarginTop(10f);
             owaspChart.setMarginBottom(30f);
@@ -739,34 +840,34 @@ public class PdfReportGenerator implements ReportGenerator {
      *   <li>使用 KeepTogether 防止代碼片段被分頁切斷</li>
      * </ul>
      *
+     * <p>發現區塊以分塊方式在背景執行緒建立，依原順序加入文件（排版仍在呼叫端執行緒）。</p>
+     *
      * @param doc iText Document 物件
-     * @param report 分析報告
+     * @param prepared 預先準備的區段
      * @throws IOException 若字型載入失敗
      * @since 2.0.0 (Story 1.5)
      */
-    private void createDetailedFindingsSection(Document doc, AnalysisReport report) throws IOException {
+    private void createDetailedFindingsSection(Document doc, PreparedSections prepared) throws IOException {
         LOG.info("Creating detailed findings section");
 
-        List<SecurityFinding> findings = report.getFindings();
-        if (findings == null || findings.isEmpty()) {
+        FindingIndex index = prepared.index;
+        if (index.getTotalFindings() == 0) {
             LOG.info("No security findings to display");
             return;
         }
 
-        // 依嚴重性分組
-        Map<String, List<SecurityFinding>> groupedBySeverity = findings.stream()
-                .collect(Collectors.groupingBy(SecurityFinding::getSeverity));
+        // 字型於整份文件共用：每次 createFont 都會產生新的字型物件，直到文件關閉才釋放
+        FindingFonts fonts = new FindingFonts();
 
         // 依嚴重性順序處理（BLOCKER, CRITICAL, MAJOR, MINOR, INFO）
-        List<String> severityOrder = List.of("BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO");
-        for (String severity : severityOrder) {
-            List<SecurityFinding> severityFindings = groupedBySeverity.get(severity);
-            if (severityFindings != null && !severityFindings.isEmpty()) {
-                addSeverityGroupSection(doc, severity, severityFindings);
+        for (FindingSeverity severity : FindingSeverity.REPORT_ORDER) {
+            List<SecurityFinding> severityFindings = index.getFindingsBySeverity(severity);
+            if (!severityFindings.isEmpty()) {
+                addSeverityGroupSection(doc, severity.name(), severityFindings, fonts);
             }
         }
 
-        LOG.info("Detailed findings section created successfully ({} findings)", findings.size());
+        LOG.info("Detailed findings section created successfully ({} severity groups)", index.getSeverityCounts().size());
     }
 
     /**
@@ -777,10 +878,11 @@ public class PdfReportGenerator implements ReportGenerator {
      * @param doc iText Document 物件
      * @param severity 嚴重性等級（BLOCKER, CRITICAL, MAJOR, MINOR, INFO）
      * @param findings 該嚴重性的發現列表
-     * @throws IOException 若字型載入失敗
+     * @param fonts 共用字型
+     * @throws IOException 若發現區塊建立失敗
      */
-    private void addSeverityGroupSection(Document doc, String severity, List<SecurityFinding> findings)
-            throws IOException {
+    private void addSeverityGroupSection(Document doc, String severity, List<SecurityFinding> findings,
+                                         FindingFonts fonts) throws IOException {
         LOG.debug("Adding {} severity group ({} findings)", severity, findings.size());
 
         PdfDocument pdfDoc = doc.getPdfDocument();
@@ -792,21 +894,26 @@ public class PdfReportGenerator implements ReportGenerator {
         severityOutline.addDestination(PdfExplicitDestination.createFit(pdfDoc.getLastPage()));
 
         // 章節標題（使用嚴重性顏色）
-        PdfFont titleFont = PdfFontFactory.createFont(PdfStyleConstants.FONT_HELVETICA_BOLD);
         com.itextpdf.kernel.colors.Color severityColor = getSeverityColorByName(severity);
 
         Paragraph title = new Paragraph(sectionTitle)
-                .setFont(titleFont)
+                .setFont(fonts.title)
                 .setFontSize(PdfStyleConstants.SECTION_TITLE_SIZE)
                 .setFontColor(severityColor)
                 .setBold()
                 .setMarginBottom(20f);
         doc.add(title);
 
-        // 逐一新增發現
-        for (int i = 0; i < findings.size(); i++) {
-            addFinding(doc, findings.get(i), i + 1);
-        }
+        // 逐一新增發現（區塊於背景執行緒分塊建立，依順序排版）
+        ParallelSectionRenderer.renderInOrder(findings, ParallelSectionRenderer.DEFAULT_CHUNK_SIZE,
+                (chunk, offset) -> {
+                    List<Div> blocks = new ArrayList<>(chunk.size());
+                    for (int i = 0; i < chunk.size(); i++) {
+                        blocks.add(createFindingBlock(chunk.get(i), offset + i + 1, fonts));
+                    }
+                    return blocks;
+                },
+                blocks -> blocks.forEach(doc::add));
 
         // 分頁（進入下一個嚴重性分組）
         doc.add(new AreaBreak());
@@ -815,7 +922,7 @@ public class PdfReportGenerator implements ReportGenerator {
     }
 
     /**
-     * 新增單一安全發現
+     * 建立單一安全發現區塊
      *
      * <p><strong>發現區塊結構：</strong></p>
      * <ul>
@@ -829,17 +936,17 @@ public class PdfReportGenerator implements ReportGenerator {
      *
      * <p>使用 KeepTogether 確保代碼片段不被分頁切斷。</p>
      *
-     * @param doc iText Document 物件
      * @param finding 安全發現
      * @param index 編號（從 1 開始）
-     * @throws IOException 若字型載入失敗
+     * @param fonts 共用字型
+     * @return 發現區塊
      */
-    private void addFinding(Document doc, SecurityFinding finding, int index) throws IOException {
-        LOG.debug("Adding finding #{}: {}", index, finding.getRuleName());
+    private Div createFindingBlock(SecurityFinding finding, int index, FindingFonts fonts) {
+        LOG.debug("Building finding #{}: {}", index, finding.getRuleName());
 
-        PdfFont titleFont = PdfFontFactory.createFont(PdfStyleConstants.FONT_HELVETICA_BOLD);
-        PdfFont textFont = PdfFontFactory.createFont(PdfStyleConstants.FONT_HELVETICA);
-        PdfFont codeFont = PdfFontFactory.createFont(PdfStyleConstants.FONT_COURIER);
+        PdfFont titleFont = fonts.title;
+        PdfFont textFont = fonts.text;
+        PdfFont codeFont = fonts.code;
 
         // 建立發現區塊容器（KeepTogether 防止分頁切斷）
         Div findingBlock = new Div();
@@ -943,9 +1050,7 @@ public class PdfReportGenerator implements ReportGenerator {
             findingBlock.add(fixBlock);
         }
 
-        doc.add(findingBlock);
-
-        LOG.debug("Finding #{} added successfully", index);
+        return findingBlock;
     }
 
     /**
@@ -984,4 +1089,59 @@ public class PdfReportGenerator implements ReportGenerator {
     public String getFileExtension() {
         return ".pdf";
     }
+
+    /**
+     * 並行準備中的區段（依文件順序取用）
+     */
+    private static final class PreparedSections {
+        private final Future<SummarySection> summarySection;
+        private final Future<Image> severityChart;
+        private final Future<Image> owaspChart;
+        private final FindingIndex index;
+
+        PreparedSections(Future<SummarySection> summarySection, Future<Image> severityChart,
+                         Future<Image> owaspChart, FindingIndex index) {
+            this.summarySection = summarySection;
+            this.severityChart = severityChart;
+            this.owaspChart = owaspChart;
+            this.index = index;
+        }
+
+        /**
+         * 取消尚未完成的準備工作（生成失敗或超時時）
+         */
+        void cancel() {
+            summarySection.cancel(true);
+            severityChart.cancel(true);
+            owaspChart.cancel(true);
+        }
+    }
+
+    /**
+     * 執行摘要的統計表格與摘要文字
+     */
+    private static final class SummarySection {
+        private final Table statisticsTable;
+        private final Paragraph summaryText;
+
+        SummarySection(Table statisticsTable, Paragraph summaryText) {
+            this.statisticsTable = statisticsTable;
+            this.summaryText = summaryText;
+        }
+    }
+
+    /**
+     * 詳細發現區段共用的字型（每份文件建立一次）
+     */
+    private static final class FindingFonts {
+        private final PdfFont title;
+        private final PdfFont text;
+        private final PdfFont code;
+
+        FindingFonts() throws IOException {
+            this.title = PdfFontFactory.createFont(PdfStyleConstants.FONT_HELVETICA_BOLD);
+            this.text = PdfFontFactory.createFont(PdfStyleConstants.FONT_HELVETICA);
+            this.code = PdfFontFactory.createFont(PdfStyleConstants.FONT_COURIER);
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.github.sonarqube.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ParallelSectionRenderer 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+class ParallelSectionRendererTest {
+
+    @Test
+    void testRenderInOrderPreservesOrder() throws IOException {
+        List<Integer> items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<String> output = new ArrayList<>();
+
+        ParallelSectionRenderer.renderInOrder(items, 7,
+            (chunk, offset) -> {
+                // 讓後面的分塊有機會先完成
+                if (offset % 2 == 0) {
+                    Thread.yield();
+                }
+                List<String> rendered = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    rendered.add((offset + i) + "=" + chunk.get(i));
+                }
+                return rendered;
+            },
+            output::addAll);
+
+        assertThat(output).hasSize(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(output.get(i)).isEqualTo(i + "=" + i);
+        }
+    }
+
+    @Test
+    void testSingleChunkRendersOnCallerThread() throws IOException {
+        Thread caller = Thread.currentThread();
+        List<Thread> renderThreads = new ArrayList<>();
+
+        ParallelSectionRenderer.renderInOrder(List.of("a", "b"), 10,
+            (chunk, offset) -> {
+                renderThreads.add(Thread.currentThread());
+                return String.join("", chunk);
+            },
+            rendered -> assertThat(rendered).isEqualTo("ab"));
+
+        assertThat(renderThreads).containsExactly(caller);
+    }
+
+    @Test
+    void testRendererFailureIsPropagated() {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+        assertThatThrownBy(() -> ParallelSectionRenderer.renderInOrder(items, 10,
+            (chunk, offset) -> {
+                if (offset == 50) {
+                    throw new IOException("chunk failed");
+                }
+                return chunk.size();
+            },
+            rendered -> { }))
+            .isInstanceOf(IOException.class)
+            .hasMessage("chunk failed");
+    }
+
+    @Test
+    void testSubmitAndAwait() throws IOException {
+        Future<String> section = ParallelSectionRenderer.submit(() -> "chart");
+
+        assertThat(ParallelSectionRenderer.await(section)).isEqualTo("chart");
+    }
+
+    @Test
+    void testRejectsInvalidChunkSize() {
+        assertThatThrownBy(() -> ParallelSectionRenderer.renderInOrder(List.of(1), 0,
+            (chunk, offset) -> chunk, rendered -> { }))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
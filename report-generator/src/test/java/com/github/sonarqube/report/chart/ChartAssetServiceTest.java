@@ -0,0 +1,143 @@
+package com.github.sonarqube.report.chart;
+
+import com.github.sonarqube.report.html.HtmlReportGenerator;
+import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.model.SecurityFinding;
+import com.github.sonarqube.report.pdf.PdfChartGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ChartAssetService 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+class ChartAssetServiceTest {
+
+    private final ChartAssetService service = new ChartAssetService(ChartAssetService.DEFAULT_MAX_WEIGHT_BYTES);
+
+    @Test
+    void testFingerprintDependsOnDataOnly() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("A01:2021-Broken Access Control", 3);
+        counts.put("A03:2021-Injection", 7);
+        Map<String, Long> reordered = new LinkedHashMap<>();
+        reordered.put("A03:2021-Injection", 7L);
+        reordered.put("A01:2021-Broken Access Control", 3L);
+
+        ChartSpec spec = ChartSpec.categoryBar(counts);
+
+        assertThat(spec.getLabels()).containsExactly("A03:2021-Injection", "A01:2021-Broken Access Control");
+        assertThat(spec.getFingerprint()).isEqualTo(ChartSpec.categoryBar(reordered).getFingerprint());
+        assertThat(spec.getFingerprint()).isNotEqualTo(ChartSpec.categoryBar(Map.of("A03:2021-Injection", 8)).getFingerprint());
+        assertThat(ChartSpec.severityPie(Map.of("INFO", 1, "BLOCKER", 2, "MAJOR", 0)).getLabels())
+            .containsExactly("BLOCKER", "INFO");
+    }
+
+    @Test
+    void testPngAndSvgRenderedOncePerFingerprint() throws IOException {
+        ChartSpec spec = ChartSpec.severityPie(Map.of("BLOCKER", 2, "MAJOR", 5));
+
+        byte[] png = service.getPng(spec);
+        String svg = service.getSvg(spec);
+
+        assertThat(service.getPng(ChartSpec.severityPie(Map.of("MAJOR", 5, "BLOCKER", 2)))).isSameAs(png);
+        assertThat(svg).startsWith("<svg");
+        assertThat(service.getSvg(spec)).isEqualTo(svg);
+        assertThat(service.getStatistics().missCount()).isEqualTo(2);
+        assertThat(service.getStatistics().hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testFragmentRendererCalledOnce() throws IOException {
+        ChartSpec spec = ChartSpec.categoryBar(Map.of("A03:2021-Injection", 1));
+        AtomicInteger renders = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            String fragment = service.getFragment(spec, "html", s -> "chart-" + renders.incrementAndGet());
+            assertThat(fragment).isEqualTo("chart-1");
+        }
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void testEvictsByWeight() throws IOException {
+        ChartAssetService small = new ChartAssetService(64);
+
+        small.getFragment(ChartSpec.categoryBar(Map.of("A", 1)), "html", s -> "x".repeat(40));
+        small.getFragment(ChartSpec.categoryBar(Map.of("B", 1)), "html", s -> "y".repeat(40));
+
+        assertThat(small.getStatistics().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testHtmlAndPdfShareChartAssets() throws IOException {
+        AnalysisReport report = AnalysisReport.builder()
+            .projectName("app")
+            .owaspVersion("2021")
+            .findings(List.of(SecurityFinding.builder()
+                .ruleKey("java:S3649")
+                .owaspCategory("A03:2021-Injection")
+                .severity("CRITICAL")
+                .filePath("src/A.java")
+                .lineNumber(1)
+                .build()))
+            .build();
+
+        String first = new HtmlReportGenerator(service).generate(report);
+        long misses = service.getStatistics().missCount();
+        String second = new HtmlReportGenerator(service).generate(report);
+        new PdfChartGenerator(service).generateSeverityPieChart(report.getSummary());
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first).contains("new Chart", "<noscript><svg");
+        // 第二次匯出不再繪製任何圖表；PDF 圓餅圖只新增 PNG 一項
+        assertThat(service.getStatistics().missCount()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void testFragmentRendererMayLoadSvg() throws IOException {
+        for (int i = 1; i <= 200; i++) {
+            ChartAssetService fresh = new ChartAssetService(ChartAssetService.DEFAULT_MAX_WEIGHT_BYTES);
+            ChartSpec spec = ChartSpec.severityPie(Map.of("BLOCKER", i, "MAJOR", i * 3 % 17));
+
+            String fragment = fresh.getFragment(spec, "html", s -> "<div>" + fresh.getSvg(s) + "</div>");
+
+            assertThat(fragment).startsWith("<div><svg");
+        }
+    }
+
+    @Test
+    void testHtmlChartsForManyDatasetsDoNotNestCacheLoads() throws IOException {
+        // 每組資料使用新的快取：表格小時片段與 SVG 的鍵較容易落在同一個 bin
+        for (int i = 1; i <= 200; i++) {
+            HtmlReportGenerator generator = new HtmlReportGenerator(
+                new ChartAssetService(ChartAssetService.DEFAULT_MAX_WEIGHT_BYTES));
+            List<SecurityFinding> findings = new java.util.ArrayList<>();
+            for (int j = 0; j < i % 7 + 1; j++) {
+                findings.add(SecurityFinding.builder()
+                    .ruleKey("java:S" + j)
+                    .owaspCategory("A0" + (j % 9 + 1) + ":2021")
+                    .severity(j % 2 == 0 ? "CRITICAL" : "MAJOR")
+                    .filePath("src/F" + i + ".java")
+                    .lineNumber(i + j)
+                    .build());
+            }
+            AnalysisReport report = AnalysisReport.builder()
+                .projectName("app" + i)
+                .owaspVersion("2021")
+                .findings(findings)
+                .build();
+
+            assertThat(generator.generate(report)).contains("<noscript><svg");
+        }
+    }
+}
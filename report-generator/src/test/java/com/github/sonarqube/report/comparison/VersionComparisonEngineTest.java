@@ -0,0 +1,190 @@
+package com.github.sonarqube.report.comparison;
+
+import com.github.sonarqube.report.model.AnalysisReport;
+import com.github.sonarqube.report.model.SecurityFinding;
+import com.github.sonarqube.report.model.VersionComparisonReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * VersionComparisonEngine 單元測試（指紋合併比對）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.0.0
+ */
+class VersionComparisonEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final VersionComparisonEngine engine = new VersionComparisonEngine();
+
+    private static SecurityFinding finding(String rule, String file, int line, String lineHash, String category) {
+        return SecurityFinding.builder()
+            .ruleKey(rule)
+            .filePath(file)
+            .lineNumber(line)
+            .lineHash(lineHash)
+            .owaspCategory(category)
+            .severity("MAJOR")
+            .build();
+    }
+
+    private static AnalysisReport report(String version, List<SecurityFinding> findings) {
+        return AnalysisReport.builder()
+            .projectName("app")
+            .owaspVersion(version)
+            .findings(findings)
+            .build();
+    }
+
+    @Test
+    void testFingerprintIgnoresLineAndWhitespace() {
+        SecurityFinding original = finding("java:S3649", "src/A.java", 10, "query(\"SELECT \" + id);", "A03:2021-Injection");
+        SecurityFinding moved = finding("java:S3649", "src/A.java", 42, "  query(\"SELECT \"  +\n id);  ", "A1:2017-Injection");
+        SecurityFinding otherFile = finding("java:S3649", "src/B.java", 10, "query(\"SELECT \" + id);", "A03:2021-Injection");
+
+        assertThat(moved.getFingerprint()).isEqualTo(original.getFingerprint());
+        assertThat(otherFile.getFingerprint()).isNotEqualTo(original.getFingerprint());
+        assertThat(original.getFingerprint()).hasSize(32);
+    }
+
+    @Test
+    void testFingerprintIgnoresSurroundingContext() {
+        SecurityFinding original = SecurityFinding.builder()
+            .ruleKey("java:S3649").filePath("src/A.java").lineNumber(10).lineHash("a1b2c3")
+            .codeSnippet("int id = read();\nquery(\"SELECT \" + id);\nlog(id);")
+            .build();
+        SecurityFinding editedNearby = SecurityFinding.builder()
+            .ruleKey("java:S3649").filePath("src/A.java").lineNumber(11).lineHash("a1b2c3")
+            .codeSnippet("int id = parse(read());\nquery(\"SELECT \" + id);\naudit(id);")
+            .build();
+        SecurityFinding flaggedLineChanged = SecurityFinding.builder()
+            .ruleKey("java:S3649").filePath("src/A.java").lineNumber(10).lineHash("ffee00")
+            .codeSnippet("int id = read();\nquery(\"SELECT \" + id);\nlog(id);")
+            .build();
+
+        assertThat(editedNearby.getFingerprint()).isEqualTo(original.getFingerprint());
+        assertThat(flaggedLineChanged.getFingerprint()).isNotEqualTo(original.getFingerprint());
+    }
+
+    @Test
+    void testFingerprintFallsBackToDescriptionWithoutLineHash() {
+        SecurityFinding first = SecurityFinding.builder()
+            .ruleKey("java:S4507").filePath("pom.xml").description("Debug mode enabled").build();
+        SecurityFinding same = SecurityFinding.builder()
+            .ruleKey("java:S4507").filePath("pom.xml").description("Debug  mode enabled ").build();
+        SecurityFinding other = SecurityFinding.builder()
+            .ruleKey("java:S4507").filePath("pom.xml").description("Weak TLS version").build();
+
+        assertThat(same.getFingerprint()).isEqualTo(first.getFingerprint());
+        assertThat(other.getFingerprint()).isNotEqualTo(first.getFingerprint());
+    }
+
+    @Test
+    void testDifferenceAnalysisCarriesCategoryBreakdown() {
+        Map<String, AnalysisReport> reports = new LinkedHashMap<>();
+        reports.put("2017", report("2017", List.of(
+            finding("java:S5131", "src/B.java", 5, "xss", "A7:2017-XSS"),
+            finding("java:S2068", "src/C.java", 1, "pwd", "A2:2017-Broken Authentication"))));
+        reports.put("2021", report("2021", List.of(
+            finding("java:S5131", "src/B.java", 5, "xss", "A03:2021-Injection"),
+            finding("java:S5144", "src/D.java", 3, "ssrf", "A10:2021-SSRF"))));
+
+        VersionComparisonReport.DifferenceAnalysis analysis =
+            engine.createComparisonReport(reports, "app").getDifferenceAnalysis();
+
+        assertThat(analysis.getAddedByCategory()).containsExactly(Map.entry("2021", Map.of("A10:2021-SSRF", 1)));
+        assertThat(analysis.getRemovedByCategory())
+            .containsExactly(Map.entry("2021", Map.of("A2:2017-Broken Authentication", 1)));
+        assertThat(analysis.getCategoryTransitions())
+            .containsExactly(Map.entry("2021", Map.of("A7:2017-XSS → A03:2021-Injection", 1)));
+        assertThat(analysis.getMigrationRecommendations())
+            .anyMatch(text -> text.startsWith("1 個 OWASP 2017 的發現在 2021 中已不存在"))
+            .anyMatch(text -> text.startsWith("1 個發現在 OWASP 2021 中被重新分類（A7:2017-XSS → A03:2021-Injection ×1）"))
+            .noneMatch(text -> text.contains("已被重新分類"));
+    }
+
+    @Test
+    void testDiffReportsAddedRemovedAndChanged() throws IOException {
+        List<SecurityFinding> from = List.of(
+            finding("java:S3649", "src/A.java", 10, "sql", "A1:2017-Injection"),
+            finding("java:S5131", "src/B.java", 5, "xss", "A7:2017-XSS"),
+            finding("java:S2068", "src/C.java", 1, "pwd", "A2:2017-Broken Authentication"));
+        List<SecurityFinding> to = List.of(
+            finding("java:S3649", "src/A.java", 12, "sql", "A1:2017-Injection"),
+            finding("java:S5131", "src/B.java", 5, "xss", "A03:2021-Injection"),
+            finding("java:S5144", "src/D.java", 3, "ssrf", "A10:2021-SSRF"));
+
+        FingerprintDiff diff = engine.diff(FingerprintStore.inMemory(from), FingerprintStore.inMemory(to));
+
+        assertThat(diff.getAdded()).isEqualTo(1);
+        assertThat(diff.getRemoved()).isEqualTo(1);
+        assertThat(diff.getChanged()).isEqualTo(1);
+        assertThat(diff.getUnchanged()).isEqualTo(1);
+        assertThat(diff.getAddedByCategory()).containsExactly(Map.entry("A10:2021-SSRF", 1));
+        assertThat(diff.getRemovedByCategory()).containsExactly(Map.entry("A2:2017-Broken Authentication", 1));
+        assertThat(diff.getCategoryTransitions()).containsExactly(Map.entry("A7:2017-XSS → A03:2021-Injection", 1));
+    }
+
+    @Test
+    void testDuplicateFingerprintsPairedOneToOne() throws IOException {
+        SecurityFinding duplicate = finding("java:S3649", "src/A.java", 1, "sql", "A1:2017-Injection");
+        FingerprintDiff diff = engine.diff(
+            FingerprintStore.inMemory(List.of(duplicate, duplicate, duplicate)),
+            FingerprintStore.inMemory(List.of(duplicate)));
+
+        assertThat(diff.getRemoved()).isEqualTo(2);
+        assertThat(diff.getUnchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void testStoredFingerprintsMatchInMemoryComparison() throws IOException {
+        Map<String, AnalysisReport> reports = new LinkedHashMap<>();
+        Map<String, Path> stored = new LinkedHashMap<>();
+        String[] versions = {"2017", "2021", "2025"};
+        for (int v = 0; v < versions.length; v++) {
+            List<SecurityFinding> findings = new ArrayList<>();
+            for (int i = v * 100; i < 1000 + v * 50; i++) {
+                findings.add(finding("rule" + (i % 7), "src/F" + i + ".java", i, "code " + i,
+                    "A" + ((i + v) % 10) + ":" + versions[v]));
+            }
+            reports.put(versions[v], report(versions[v], findings));
+
+            Path file = tempDir.resolve(versions[v] + ".fp");
+            try (FingerprintStore.Writer writer = new FingerprintStore.Writer(file, 64)) {
+                for (SecurityFinding finding : findings) {
+                    writer.add(finding);
+                }
+            }
+            stored.put(versions[v], file);
+        }
+
+        VersionComparisonReport.DifferenceAnalysis inMemory =
+            engine.createComparisonReport(reports, "app").getDifferenceAnalysis();
+        VersionComparisonReport.DifferenceAnalysis streamed = engine.analyzeStoredDifferences(stored);
+
+        assertThat(inMemory.getAddedFindings()).containsExactly(Map.entry("2021", 50), Map.entry("2025", 50));
+        assertThat(inMemory.getRemovedFindings()).containsExactly(Map.entry("2021", 100), Map.entry("2025", 100));
+        assertThat(streamed.getAddedFindings()).isEqualTo(inMemory.getAddedFindings());
+        assertThat(streamed.getRemovedFindings()).isEqualTo(inMemory.getRemovedFindings());
+        assertThat(streamed.getChangedFindings()).isEqualTo(inMemory.getChangedFindings());
+        assertThat(streamed.getComplianceChangePercent()).isEqualTo(inMemory.getComplianceChangePercent());
+
+        // 外部排序的暫存 run 檔已刪除
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).hasSize(3);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.sonarqube.report.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * FindingIndex 單元測試
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+class FindingIndexTest {
+
+    private final SecurityFinding sqlInjection = finding("java:S3649", "CRITICAL", "A03", "src/Dao.java",
+        List.of("CWE-89"));
+    private final SecurityFinding commandInjection = finding("java:S2076", "CRITICAL", "A03", "src/Shell.java",
+        List.of("CWE-78", "CWE-77"));
+    private final SecurityFinding weakHash = finding("java:S4790", "MAJOR", "A02", "src/Dao.java",
+        List.of("CWE-328"));
+    private final SecurityFinding aiFinding = finding("ai:xss", "HIGH", null, "web/app.js", List.of("CWE-79"));
+    private final SecurityFinding customSeverity = finding("custom:rule", "URGENT", "A03", null, List.of());
+
+    private final List<SecurityFinding> findings =
+        List.of(sqlInjection, commandInjection, weakHash, aiFinding, customSeverity);
+
+    @Test
+    void testSeverityCountsAndBuckets() {
+        FindingIndex index = FindingIndex.of(findings);
+
+        assertThat(index.getTotalFindings()).isEqualTo(5);
+        assertThat(index.getSeverityCount(FindingSeverity.CRITICAL)).isEqualTo(2);
+        assertThat(index.getSeverityCount(FindingSeverity.BLOCKER)).isZero();
+        assertThat(index.getSeverityCount("HIGH")).isEqualTo(1);
+        assertThat(index.getSeverityCount("URGENT")).isEqualTo(1);
+        assertThat(index.getSeverityCount("critical")).isZero();
+        assertThat(index.getFindingsBySeverity(FindingSeverity.CRITICAL))
+            .containsExactly(sqlInjection, commandInjection);
+        // 標準等級依列舉順序，非標準等級排在最後
+        assertThat(index.getSeverityCounts())
+            .containsExactly(entry("CRITICAL", 2), entry("MAJOR", 1), entry("HIGH", 1), entry("URGENT", 1));
+    }
+
+    @Test
+    void testCategoryGroupingKeepsFirstSeenOrder() {
+        FindingIndex index = FindingIndex.of(findings);
+
+        assertThat(index.getCategories()).containsExactly("A03", "A02");
+        assertThat(index.getCategoryCounts()).containsExactly(entry("A03", 3), entry("A02", 1));
+        assertThat(index.getFindingsByCategory("A03"))
+            .containsExactly(sqlInjection, commandInjection, customSeverity);
+        assertThat(index.getCategoryCount("A10")).isZero();
+        assertThat(index.getFindingsByCategory("A10")).isEmpty();
+        assertThat(index.getUncategorizedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testCweGroupingCountsEveryId() {
+        FindingIndex index = FindingIndex.of(findings);
+
+        assertThat(index.getCweCounts()).containsExactly(entry("CWE-89", 1), entry("CWE-78", 1),
+            entry("CWE-77", 1), entry("CWE-328", 1), entry("CWE-79", 1));
+        assertThat(index.getFindingsByCwe("CWE-77")).containsExactly(commandInjection);
+        assertThat(index.getCweCount("CWE-22")).isZero();
+    }
+
+    @Test
+    void testFileGroupingSkipsFindingsWithoutPath() {
+        FindingIndex index = FindingIndex.of(findings);
+
+        assertThat(index.getFilePaths()).containsExactly("src/Dao.java", "src/Shell.java", "web/app.js");
+        assertThat(index.getDistinctFileCount()).isEqualTo(3);
+        assertThat(index.getFileCount("src/Dao.java")).isEqualTo(2);
+        assertThat(index.getFindingsByFile("src/Dao.java")).containsExactly(sqlInjection, weakHash);
+    }
+
+    @Test
+    void testManyDistinctKeysGrowCounts() {
+        List<SecurityFinding> many = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            many.add(finding("rule" + i, "MINOR", "A0" + (i % 10), "src/File" + i + ".java", List.of()));
+            many.add(finding("rule" + i, "MINOR", "A0" + (i % 10), "src/File" + i + ".java", List.of()));
+        }
+
+        FindingIndex index = FindingIndex.of(many);
+
+        assertThat(index.getDistinctFileCount()).isEqualTo(100);
+        assertThat(index.getFileCount("src/File99.java")).isEqualTo(2);
+        assertThat(index.getCategoryCount("A05")).isEqualTo(20);
+        assertThat(index.getSeverityCount(FindingSeverity.MINOR)).isEqualTo(200);
+    }
+
+    @Test
+    void testEmptyAndNullFindings() {
+        for (FindingIndex index : List.of(FindingIndex.of(null), FindingIndex.of(List.of()))) {
+            assertThat(index.getTotalFindings()).isZero();
+            assertThat(index.getSeverityCounts()).isEmpty();
+            assertThat(index.getCategoryCounts()).isEmpty();
+            assertThat(index.getFilePaths()).isEmpty();
+            assertThat(index.getFindingsBySeverity(FindingSeverity.BLOCKER)).isEmpty();
+        }
+    }
+
+    @Test
+    void testSummaryFromIndexMatchesFindings() {
+        FindingIndex index = FindingIndex.of(findings);
+
+        ReportSummary fromIndex = ReportSummary.fromIndex(index);
+        ReportSummary fromFindings = ReportSummary.fromFindings(findings);
+
+        assertThat(fromIndex.getTotalFindings()).isEqualTo(5);
+        assertThat(fromIndex.getCriticalCount()).isEqualTo(2);
+        assertThat(fromIndex.getSeverityCounts()).isEqualTo(fromFindings.getSeverityCounts());
+        assertThat(fromIndex.getCategoryCounts()).isEqualTo(fromFindings.getCategoryCounts());
+    }
+
+    @Test
+    void testReportReusesProvidedIndex() {
+        FindingIndex index = FindingIndex.of(findings);
+
+        AnalysisReport report = AnalysisReport.builder()
+            .projectName("demo")
+            .findings(findings)
+            .index(index)
+            .build();
+
+        assertThat(report.getIndex()).isSameAs(index);
+        assertThat(report.getSummary().getCategoryCounts()).isEqualTo(index.getCategoryCounts());
+    }
+
+    @Test
+    void testReportRebuildsMismatchedIndex() {
+        AnalysisReport report = AnalysisReport.builder()
+            .findings(findings)
+            .index(FindingIndex.of(List.of(sqlInjection)))
+            .build();
+
+        assertThat(report.getIndex().getTotalFindings()).isEqualTo(5);
+    }
+
+    private static SecurityFinding finding(String ruleKey, String severity, String category, String filePath,
+                                           List<String> cweIds) {
+        return SecurityFinding.builder()
+            .ruleKey(ruleKey)
+            .severity(severity)
+            .owaspCategory(category)
+            .filePath(filePath)
+            .cweIds(cweIds)
+            .description(ruleKey + " finding")
+            .build();
+    }
+}
@@ -6,10 +6,16 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -144,6 +150,61 @@ class PdfReportGeneratorTest {
         }
     }
 
+    /**
+     * 測試：串流輸出在呼叫端執行緒寫入，回傳後不再有任何寫入
+     */
+    @Test
+    void shouldStreamPdfOnCallerThread() throws Exception {
+        // Given
+        PdfReportGenerator generator = new PdfReportGenerator();
+        Set<Thread> writers = ConcurrentHashMap.newKeySet();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream output = new FilterOutputStream(buffer) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                writers.add(Thread.currentThread());
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                writers.add(Thread.currentThread());
+                out.write(b);
+            }
+        };
+
+        // When
+        generator.generate(createMockReport(), output);
+        int size = buffer.size();
+        Thread.sleep(100);
+
+        // Then
+        assertThat(writers).containsExactly(Thread.currentThread());
+        assertThat(buffer.size()).isEqualTo(size);
+        try (PDDocument doc = PDDocument.load(buffer.toByteArray())) {
+            assertThat(doc.getNumberOfPages()).isGreaterThanOrEqualTo(1);
+        }
+    }
+
+    /**
+     * 測試：輸出流寫入失敗時以 IOException 回報
+     */
+    @Test
+    void shouldReportStreamWriteFailure() {
+        // Given
+        PdfReportGenerator generator = new PdfReportGenerator();
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then
+        assertThatThrownBy(() -> generator.generate(createMockReport(), broken))
+                .isInstanceOf(IOException.class);
+    }
+
     /**
      * 測試：PdfReportConfig Builder Pattern
      */
@@ -1,12 +1,12 @@
 package com.github.sonarqube.analysis;
 
+import com.github.sonarqube.ai.token.TokenCounter;
 import com.github.sonarqube.rules.OwaspRule;
 import com.github.sonarqube.rules.RuleRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +17,7 @@ import java.util.stream.Collectors;
  *
  * 掃描前顯示預估的 AI API 調用成本，包含 token 數量和費用估算。
  * 支援多種 AI 供應商的定價模型（OpenAI, Claude）。
+ * 程式碼 token 數以模型對應的本機 Tokenizer 計算（見 {@link TokenCounter}），同一檔案未變更時不重新計算。
  *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.4.0 (Epic 6, Story 6.7)
@@ -37,6 +38,7 @@ public class CostEstimator {
     private final RuleRegistry registry;
     private final String aiModel;
     private final double tokenMultiplier; // Token 估算倍數（考慮 prompt engineering）
+    private final TokenCounter tokenCounter;
 
     /**
      * 建構子
@@ -46,9 +48,22 @@ public class CostEstimator {
      * @param tokenMultiplier Token 估算倍數（預設 1.5，考慮 prompt overhead）
      */
     public CostEstimator(RuleRegistry registry, String aiModel, double tokenMultiplier) {
+        this(registry, aiModel, tokenMultiplier, TokenCounter.forModel(aiModel));
+    }
+
+    /**
+     * 建構子（指定 Token 計數器）
+     *
+     * @param registry 規則註冊表
+     * @param aiModel AI 模型名稱
+     * @param tokenMultiplier Token 估算倍數
+     * @param tokenCounter Token 計數器（可與 AI 呼叫端共用以取得校正）
+     */
+    public CostEstimator(RuleRegistry registry, String aiModel, double tokenMultiplier, TokenCounter tokenCounter) {
         this.registry = registry;
         this.aiModel = aiModel;
         this.tokenMultiplier = tokenMultiplier;
+        this.tokenCounter = tokenCounter;
     }
 
     /**
@@ -69,12 +84,12 @@ public class CostEstimator {
      * @return 成本估算結果
      */
     public CostEstimate estimateFileCost(Path filePath, String owaspVersion) {
-        try {
-            String code = Files.readString(filePath);
-            int codeTokens = estimateTokens(code);
+        return estimateFileCost(filePath, countAiRequiredRules(owaspVersion));
+    }
 
-            // 取得需要 AI 的規則數量
-            int aiRulesCount = countAiRequiredRules(owaspVersion);
+    private CostEstimate estimateFileCost(Path filePath, int aiRulesCount) {
+        try {
+            int codeTokens = (int) tokenCounter.estimate(tokenCounter.countFile(filePath));
 
             // 計算總 input tokens（程式碼 + prompt × 規則數）
             int inputTokens = codeTokens + (500 * aiRulesCount); // 假設每個規則 prompt 500 tokens
@@ -114,23 +129,20 @@ public class CostEstimator {
         logger.info("Estimating cost for {} files using {} (version: {})",
             filePaths.size(), aiModel, owaspVersion);
 
-        List<CostEstimate> fileEstimates = filePaths.stream()
-            .map(path -> estimateFileCost(path, owaspVersion))
+        // 規則數量與檔案無關，只計算一次；各檔案的 token 計數可平行進行
+        int aiRulesCount = countAiRequiredRules(owaspVersion);
+        List<CostEstimate> fileEstimates = filePaths.parallelStream()
+            .map(path -> estimateFileCost(path, aiRulesCount))
             .collect(Collectors.toList());
 
         return new BatchCostEstimate(fileEstimates, aiModel);
     }
 
     /**
-     * 估算程式碼的 token 數量（使用簡化算法）
-     *
-     * @param code 程式碼內容
-     * @return 估算的 token 數量
+     * 取得 Token 計數器（AI 呼叫完成後可呼叫 {@link TokenCounter#calibrate(long, long)} 回饋實際用量）
      */
-    private int estimateTokens(String code) {
-        // 簡化算法：英文約 0.75 tokens/word，中文約 1.5-2 tokens/char
-        // 這裡採用保守估算：4 chars/token（適用於程式碼）
-        return Math.max(1, code.length() / 4);
+    public TokenCounter getTokenCounter() {
+        return tokenCounter;
     }
 
     /**
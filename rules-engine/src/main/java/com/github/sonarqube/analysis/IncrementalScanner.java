@@ -1,5 +1,7 @@
 package com.github.sonarqube.analysis;
 
+import com.github.sonarqube.shared.git.GitChange;
+import com.github.sonarqube.shared.git.GitRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,7 +12,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -21,6 +26,10 @@ import java.util.stream.Collectors;
  * 整合 Git diff，僅分析變更的檔案，大幅減少掃描時間。
  * 支援多種比較模式（工作目錄、暫存區、分支、提交）。
  *
+ * 變更清單與行數統計優先由 {@link GitRepository} 直接讀取索引與物件資料庫一次算出，
+ * 不再每個查詢（或每個檔案）啟動一次 git 子行程；倉庫設定不支援時改用 git 指令。
+ * 檔案狀態（{@link #getFileChangeStatuses()}）需要 .gitignore 規則判斷未追蹤檔案，仍使用 git status。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.4.0 (Epic 6, Story 6.6)
  */
@@ -49,7 +58,8 @@ public class IncrementalScanner {
      * @return 變更檔案路徑列表
      */
     public List<Path> getModifiedFilesInWorkingDirectory() {
-        return executeGitCommand("git diff --name-only HEAD");
+        return changedFiles(repository -> repository.diffWorkingTree("HEAD", false),
+            "git diff --name-only HEAD");
     }
 
     /**
@@ -58,7 +68,8 @@ public class IncrementalScanner {
      * @return 變更檔案路徑列表
      */
     public List<Path> getModifiedFilesInStagingArea() {
-        return executeGitCommand("git diff --name-only --cached");
+        return changedFiles(repository -> repository.diffIndex(false),
+            "git diff --name-only --cached");
     }
 
     /**
@@ -70,7 +81,7 @@ public class IncrementalScanner {
      */
     public List<Path> getModifiedFilesBetweenCommits(String fromCommit, String toCommit) {
         String command = String.format("git diff --name-only %s %s", fromCommit, toCommit);
-        return executeGitCommand(command);
+        return changedFiles(repository -> repository.diffCommits(fromCommit, toCommit, false), command);
     }
 
     /**
@@ -81,7 +92,7 @@ public class IncrementalScanner {
      */
     public List<Path> getModifiedFilesAgainstBranch(String branchName) {
         String command = String.format("git diff --name-only %s", branchName);
-        return executeGitCommand(command);
+        return changedFiles(repository -> repository.diffWorkingTree(branchName, false), command);
     }
 
     /**
@@ -92,7 +103,7 @@ public class IncrementalScanner {
      */
     public List<Path> getModifiedFilesSince(String sinceCommit) {
         String command = String.format("git diff --name-only %s..HEAD", sinceCommit);
-        return executeGitCommand(command);
+        return changedFiles(repository -> repository.diffCommits(sinceCommit, "HEAD", false), command);
     }
 
     /**
@@ -117,6 +128,17 @@ public class IncrementalScanner {
      * @return 變更統計（新增行數、刪除行數）
      */
     public FileChangeStatistics getFileChangeStatistics(Path filePath) {
+        Optional<List<GitChange>> inProcess = queryInProcess(repository -> {
+            String relativePath = relativize(repository, filePath);
+            return repository.diffWorkingTree("HEAD", true, relativePath::equals);
+        });
+        if (inProcess.isPresent()) {
+            List<GitChange> changes = inProcess.get();
+            return changes.isEmpty()
+                ? new FileChangeStatistics(filePath, 0, 0)
+                : new FileChangeStatistics(filePath, changes.get(0).getAddedLines(), changes.get(0).getDeletedLines());
+        }
+
         String command = String.format("git diff --numstat HEAD -- %s", filePath);
         List<String> output = executeGitCommandRaw(command);
 
@@ -134,12 +156,44 @@ public class IncrementalScanner {
         return new FileChangeStatistics(filePath, 0, 0);
     }
 
+    /**
+     * 一次取得工作目錄相對於 HEAD 所有變更檔案的統計（等同 git diff --numstat HEAD）
+     *
+     * @return 檔案路徑 → 變更統計（依路徑排序）
+     */
+    public Map<Path, FileChangeStatistics> getAllFileChangeStatistics() {
+        Map<Path, FileChangeStatistics> statistics = new LinkedHashMap<>();
+        Optional<List<GitChange>> inProcess = queryInProcess(repository -> repository.diffWorkingTree("HEAD", true));
+        if (inProcess.isPresent()) {
+            for (GitChange change : inProcess.get()) {
+                Path path = repositoryRoot.resolve(change.getPath());
+                statistics.put(path, new FileChangeStatistics(path, change.getAddedLines(), change.getDeletedLines()));
+            }
+            return statistics;
+        }
+
+        for (String line : executeGitCommandRaw("git diff --numstat HEAD")) {
+            String[] parts = line.split("\\s+", 3);
+            if (parts.length == 3) {
+                Path path = repositoryRoot.resolve(parts[2]);
+                statistics.put(path, new FileChangeStatistics(path, parseIntSafe(parts[0]), parseIntSafe(parts[1])));
+            }
+        }
+        return statistics;
+    }
+
     /**
      * 檢查是否為 Git 倉庫
      *
      * @return true 若為 Git 倉庫
      */
     public boolean isGitRepository() {
+        try (GitRepository repository = GitRepository.open(repositoryRoot).orElse(null)) {
+            return repository != null;
+        } catch (IOException | RuntimeException e) {
+            logger.debug("In-process Git detection failed, falling back to git CLI: {}", e.getMessage());
+        }
+
         try {
             ProcessBuilder pb = new ProcessBuilder("git", "rev-parse", "--is-inside-work-tree");
             pb.directory(repositoryRoot.toFile());
@@ -152,6 +206,59 @@ public class IncrementalScanner {
         }
     }
 
+    /**
+     * 取得變更檔案：優先行程內讀取，不支援時執行 Git 指令
+     *
+     * @param query 行程內查詢
+     * @param fallbackCommand 備援 Git 指令
+     * @return 檔案路徑列表
+     */
+    private List<Path> changedFiles(GitQuery query, String fallbackCommand) {
+        Optional<List<GitChange>> inProcess = queryInProcess(query);
+        if (inProcess.isPresent()) {
+            return inProcess.get().stream()
+                .map(change -> repositoryRoot.resolve(change.getPath()))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        return executeGitCommand(fallbackCommand);
+    }
+
+    /**
+     * 以行程內讀取器執行查詢
+     *
+     * @param query 查詢
+     * @return 查詢結果，非 Git 倉庫或倉庫設定不支援時為空
+     */
+    private Optional<List<GitChange>> queryInProcess(GitQuery query) {
+        long start = System.nanoTime();
+        try (GitRepository repository = GitRepository.open(repositoryRoot).orElse(null)) {
+            if (repository == null) {
+                return Optional.empty();
+            }
+            List<GitChange> changes = query.run(repository);
+            logger.debug("In-process Git query: {} changes in {} ms",
+                changes.size(), (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(changes);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("In-process Git query not applicable, falling back to git CLI: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String relativize(GitRepository repository, Path filePath) {
+        Path absolute = repositoryRoot.toAbsolutePath().resolve(filePath).normalize();
+        return repository.getWorkTree().relativize(absolute).toString().replace('\\', '/');
+    }
+
+    /**
+     * 行程內 Git 查詢
+     */
+    @FunctionalInterface
+    private interface GitQuery {
+        List<GitChange> run(GitRepository repository) throws IOException;
+    }
+
     /**
      * 執行 Git 指令並返回檔案路徑列表
      *
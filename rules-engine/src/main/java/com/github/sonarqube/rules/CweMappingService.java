@@ -2,6 +2,7 @@ package com.github.sonarqube.rules;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * CWE 映射服務
@@ -9,19 +10,54 @@ import java.util.concurrent.ConcurrentHashMap;
  * 管理 OWASP 類別與 CWE ID 之間的映射關係。
  * 提供快速查詢功能，支援雙向查詢（OWASP → CWE, CWE → OWASP）。
  *
+ * 預設的 OWASP 2021 對照表在第一次使用時建立一次，所有實例共用；
+ * 實例第一次呼叫 {@link #registerMapping} 時才複製成自己的對照表，不影響其他實例。
+ *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.1.0 (Epic 3, Story 3.12)
  */
 public class CweMappingService {
 
-    private final Map<String, Set<String>> owaspToCweMap = new ConcurrentHashMap<>();
-    private final Map<String, String> cweToOwaspMap = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<String>> owaspToCweMap;
+    private volatile Map<String, String> cweToOwaspMap;
+    private boolean shared = true; // 是否仍指向共用的預設對照表
+    private final boolean readOnly;
 
     /**
-     * 預設建構子 - 初始化 OWASP 2021 映射
+     * 預設 OWASP 2021 對照表（延遲建立，不可變）
+     */
+    private static final class DefaultMappings {
+        private static final Map<String, Set<String>> OWASP_TO_CWE;
+        private static final Map<String, String> CWE_TO_OWASP;
+
+        static {
+            Map<String, Set<String>> owaspToCwe = new ConcurrentHashMap<>();
+            Map<String, String> cweToOwasp = new ConcurrentHashMap<>();
+            initializeOwasp2021Mappings((owaspCategory, cweIds) -> {
+                owaspToCwe.put(owaspCategory, Collections.unmodifiableSet(new HashSet<>(cweIds)));
+                for (String cweId : cweIds) {
+                    cweToOwasp.put(cweId, owaspCategory);
+                }
+            });
+            OWASP_TO_CWE = Collections.unmodifiableMap(owaspToCwe);
+            CWE_TO_OWASP = Collections.unmodifiableMap(cweToOwasp);
+        }
+    }
+
+    /**
+     * 預設建構子 - 使用 OWASP 2021 映射
      */
     public CweMappingService() {
-        initializeOwasp2021Mappings();
+        this(false);
+    }
+
+    /**
+     * @param readOnly true 時不允許 {@link #registerMapping}（供共用實例使用）
+     */
+    CweMappingService(boolean readOnly) {
+        this.owaspToCweMap = DefaultMappings.OWASP_TO_CWE;
+        this.cweToOwaspMap = DefaultMappings.CWE_TO_OWASP;
+        this.readOnly = readOnly;
     }
 
     /**
@@ -78,20 +114,35 @@ public class CweMappingService {
      *
      * @param owaspCategory OWASP 類別
      * @param cweIds CWE ID 集合
+     * @throws UnsupportedOperationException 共用的唯讀實例
      */
-    public void registerMapping(String owaspCategory, Set<String> cweIds) {
-        owaspToCweMap.put(owaspCategory, new HashSet<>(cweIds));
+    public synchronized void registerMapping(String owaspCategory, Set<String> cweIds) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Shared CWE mapping is read-only");
+        }
+        Map<String, Set<String>> owaspToCwe = owaspToCweMap;
+        Map<String, String> cweToOwasp = cweToOwaspMap;
+        if (shared) {
+            owaspToCwe = new ConcurrentHashMap<>(owaspToCwe);
+            cweToOwasp = new ConcurrentHashMap<>(cweToOwasp);
+        }
+        owaspToCwe.put(owaspCategory, new HashSet<>(cweIds));
         for (String cweId : cweIds) {
-            cweToOwaspMap.put(cweId, owaspCategory);
+            cweToOwasp.put(cweId, owaspCategory);
+        }
+        if (shared) {
+            owaspToCweMap = owaspToCwe;
+            cweToOwaspMap = cweToOwasp;
+            shared = false;
         }
     }
 
     /**
      * 初始化 OWASP 2021 映射
      */
-    private void initializeOwasp2021Mappings() {
+    private static void initializeOwasp2021Mappings(BiConsumer<String, Set<String>> registerMapping) {
         // A01: Broken Access Control (33 CWEs)
-        registerMapping("A01", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A01", new HashSet<>(Arrays.asList(
             "CWE-22", "CWE-23", "CWE-35", "CWE-59", "CWE-200", "CWE-201", "CWE-219", "CWE-264",
             "CWE-275", "CWE-284", "CWE-285", "CWE-352", "CWE-359", "CWE-377", "CWE-402", "CWE-425",
             "CWE-441", "CWE-497", "CWE-538", "CWE-540", "CWE-548", "CWE-552", "CWE-566", "CWE-601",
@@ -100,7 +151,7 @@ public class CweMappingService {
         )));
 
         // A02: Cryptographic Failures (29 CWEs)
-        registerMapping("A02", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A02", new HashSet<>(Arrays.asList(
             "CWE-261", "CWE-296", "CWE-310", "CWE-319", "CWE-321", "CWE-322", "CWE-323", "CWE-324",
             "CWE-325", "CWE-326", "CWE-327", "CWE-328", "CWE-329", "CWE-330", "CWE-331", "CWE-335",
             "CWE-336", "CWE-337", "CWE-338", "CWE-340", "CWE-347", "CWE-523", "CWE-720", "CWE-757",
@@ -108,7 +159,7 @@ public class CweMappingService {
         )));
 
         // A03: Injection (33 CWEs)
-        registerMapping("A03", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A03", new HashSet<>(Arrays.asList(
             "CWE-20", "CWE-74", "CWE-75", "CWE-77", "CWE-78", "CWE-79", "CWE-80", "CWE-83",
             "CWE-87", "CWE-88", "CWE-89", "CWE-90", "CWE-91", "CWE-93", "CWE-94", "CWE-95",
             "CWE-96", "CWE-97", "CWE-98", "CWE-99", "CWE-100", "CWE-113", "CWE-116", "CWE-138",
@@ -117,7 +168,7 @@ public class CweMappingService {
         )));
 
         // A04: Insecure Design (40 CWEs)
-        registerMapping("A04", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A04", new HashSet<>(Arrays.asList(
             "CWE-73", "CWE-183", "CWE-209", "CWE-213", "CWE-235", "CWE-256", "CWE-257", "CWE-266",
             "CWE-269", "CWE-280", "CWE-311", "CWE-312", "CWE-313", "CWE-316", "CWE-419", "CWE-430",
             "CWE-434", "CWE-444", "CWE-451", "CWE-472", "CWE-501", "CWE-522", "CWE-525", "CWE-539",
@@ -126,37 +177,37 @@ public class CweMappingService {
         )));
 
         // A05: Security Misconfiguration (20 CWEs)
-        registerMapping("A05", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A05", new HashSet<>(Arrays.asList(
             "CWE-2", "CWE-11", "CWE-13", "CWE-15", "CWE-16", "CWE-260", "CWE-315", "CWE-520",
             "CWE-526", "CWE-537", "CWE-541", "CWE-547", "CWE-611", "CWE-614", "CWE-756", "CWE-776",
             "CWE-942", "CWE-1004", "CWE-1032", "CWE-1174"
         )));
 
         // A06: Vulnerable and Outdated Components (2 CWEs)
-        registerMapping("A06", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A06", new HashSet<>(Arrays.asList(
             "CWE-1035", "CWE-1104"
         )));
 
         // A07: Identification and Authentication Failures (22 CWEs)
-        registerMapping("A07", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A07", new HashSet<>(Arrays.asList(
             "CWE-255", "CWE-259", "CWE-287", "CWE-288", "CWE-290", "CWE-294", "CWE-295", "CWE-297",
             "CWE-300", "CWE-302", "CWE-304", "CWE-306", "CWE-307", "CWE-346", "CWE-384", "CWE-521",
             "CWE-613", "CWE-620", "CWE-640", "CWE-798", "CWE-940", "CWE-1216"
         )));
 
         // A08: Software and Data Integrity Failures (10 CWEs)
-        registerMapping("A08", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A08", new HashSet<>(Arrays.asList(
             "CWE-345", "CWE-353", "CWE-426", "CWE-494", "CWE-502", "CWE-565", "CWE-784", "CWE-829",
             "CWE-830", "CWE-915"
         )));
 
         // A09: Security Logging and Monitoring Failures (4 CWEs)
-        registerMapping("A09", new HashSet<>(Arrays.asList(
+        registerMapping.accept("A09", new HashSet<>(Arrays.asList(
             "CWE-117", "CWE-223", "CWE-532", "CWE-778"
         )));
 
         // A10: Server-Side Request Forgery (1 CWE)
-        registerMapping("A10", new HashSet<>(Collections.singletonList(
+        registerMapping.accept("A10", new HashSet<>(Collections.singletonList(
             "CWE-918"
         )));
     }
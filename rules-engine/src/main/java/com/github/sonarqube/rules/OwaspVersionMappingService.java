@@ -7,6 +7,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * OWASP 版本映射服務
  *
  * 管理 OWASP 2017 與 2021 版本之間的類別對應關係和差異說明。
+ * 映射表在第一次使用時建立一次，所有實例共用（建立後不可變）。
  *
  * @author SonarQube AI OWASP Plugin Team
  * @since 2.2.0 (Epic 4, Story 4.3)
@@ -79,74 +80,89 @@ public class OwaspVersionMappingService {
         }
     }
 
-    private final Map<String, List<CategoryMapping>> mappings = new ConcurrentHashMap<>();
+    /**
+     * 2017 ↔ 2021 映射表（延遲建立）
+     */
+    private static final class DefaultMappings {
+        private static final Map<String, List<CategoryMapping>> MAPPINGS = build();
+
+        private static Map<String, List<CategoryMapping>> build() {
+            Map<String, List<CategoryMapping>> mappings = new ConcurrentHashMap<>();
+            initialize2017To2021Mappings(mappings);
+            mappings.replaceAll((key, list) -> List.copyOf(list));
+            return Collections.unmodifiableMap(mappings);
+        }
+    }
+
+    private final Map<String, List<CategoryMapping>> mappings;
 
     /**
-     * 預設建構子 - 初始化 2017 ↔ 2021 映射
+     * 預設建構子 - 使用 2017 ↔ 2021 映射
      */
     public OwaspVersionMappingService() {
-        initialize2017To2021Mappings();
+        this.mappings = DefaultMappings.MAPPINGS;
     }
 
     /**
      * 初始化 OWASP 2017 → 2021 映射
      */
-    private void initialize2017To2021Mappings() {
+    private static void initialize2017To2021Mappings(Map<String, List<CategoryMapping>> mappings) {
         // A1:2017 Injection → A03:2021 Injection (DIRECT)
-        addMapping("2017", "A1", "Injection", "2021", "A03", "Injection",
+        addMapping(mappings, "2017", "A1", "Injection", "2021", "A03", "Injection",
             MappingType.DIRECT, "直接映射：注入攻擊類別在兩版本中保持一致");
 
         // A2:2017 Broken Authentication → A07:2021 Identification and Authentication Failures (DIRECT)
-        addMapping("2017", "A2", "Broken Authentication", "2021", "A07", "Identification and Authentication Failures",
+        addMapping(mappings, "2017", "A2", "Broken Authentication", "2021", "A07", "Identification and Authentication Failures",
             MappingType.DIRECT, "直接映射：擴展為識別與認證失敗，範圍更廣");
 
         // A3:2017 Sensitive Data Exposure → A02:2021 Cryptographic Failures (DIRECT)
-        addMapping("2017", "A3", "Sensitive Data Exposure", "2021", "A02", "Cryptographic Failures",
+        addMapping(mappings, "2017", "A3", "Sensitive Data Exposure", "2021", "A02", "Cryptographic Failures",
             MappingType.DIRECT, "直接映射：聚焦於加密失敗，而非廣泛的資料曝露");
 
         // A4:2017 XXE → A05:2021 Security Misconfiguration (MERGED)
-        addMapping("2017", "A4", "XML External Entities (XXE)", "2021", "A05", "Security Misconfiguration",
+        addMapping(mappings, "2017", "A4", "XML External Entities (XXE)", "2021", "A05", "Security Misconfiguration",
             MappingType.MERGED, "合併映射：XXE 被視為安全配置錯誤的一部分");
 
         // A5:2017 Broken Access Control → A01:2021 Broken Access Control (DIRECT)
-        addMapping("2017", "A5", "Broken Access Control", "2021", "A01", "Broken Access Control",
+        addMapping(mappings, "2017", "A5", "Broken Access Control", "2021", "A01", "Broken Access Control",
             MappingType.DIRECT, "直接映射：升至第一位，反映其嚴重性與普遍性");
 
         // A6:2017 Security Misconfiguration → A05:2021 Security Misconfiguration (DIRECT)
-        addMapping("2017", "A6", "Security Misconfiguration", "2021", "A05", "Security Misconfiguration",
+        addMapping(mappings, "2017", "A6", "Security Misconfiguration", "2021", "A05", "Security Misconfiguration",
             MappingType.DIRECT, "直接映射：安全配置錯誤保持一致");
 
         // A7:2017 XSS → A03:2021 Injection (MERGED)
-        addMapping("2017", "A7", "Cross-Site Scripting (XSS)", "2021", "A03", "Injection",
+        addMapping(mappings, "2017", "A7", "Cross-Site Scripting (XSS)", "2021", "A03", "Injection",
             MappingType.MERGED, "合併映射：XSS 被納入注入攻擊類別");
 
         // A8:2017 Insecure Deserialization → A08:2021 Software and Data Integrity Failures (DIRECT)
-        addMapping("2017", "A8", "Insecure Deserialization", "2021", "A08", "Software and Data Integrity Failures",
+        addMapping(mappings, "2017", "A8", "Insecure Deserialization", "2021", "A08", "Software and Data Integrity Failures",
             MappingType.DIRECT, "直接映射：擴展為軟體與資料完整性失敗");
 
         // A9:2017 Using Components with Known Vulnerabilities → A06:2021 Vulnerable and Outdated Components (DIRECT)
-        addMapping("2017", "A9", "Using Components with Known Vulnerabilities", "2021", "A06", "Vulnerable and Outdated Components",
+        addMapping(mappings, "2017", "A9", "Using Components with Known Vulnerabilities", "2021", "A06", "Vulnerable and Outdated Components",
             MappingType.DIRECT, "直接映射：重新命名為過時元件");
 
         // A10:2017 Insufficient Logging & Monitoring → A09:2021 Security Logging and Monitoring Failures (DIRECT)
-        addMapping("2017", "A10", "Insufficient Logging & Monitoring", "2021", "A09", "Security Logging and Monitoring Failures",
+        addMapping(mappings, "2017", "A10", "Insufficient Logging & Monitoring", "2021", "A09", "Security Logging and Monitoring Failures",
             MappingType.DIRECT, "直接映射：重新命名為安全日誌與監控失敗");
 
         // NEW in 2021: A04 Insecure Design
-        addMapping("2021", "A04", "Insecure Design", "2017", null, null,
+        addMapping(mappings, "2021", "A04", "Insecure Design", "2017", null, null,
             MappingType.NEW, "新增類別：2021 新增的不安全設計類別");
 
         // NEW in 2021: A10 Server-Side Request Forgery (SSRF)
-        addMapping("2021", "A10", "Server-Side Request Forgery (SSRF)", "2017", null, null,
+        addMapping(mappings, "2021", "A10", "Server-Side Request Forgery (SSRF)", "2017", null, null,
             MappingType.NEW, "新增類別：2021 新增的 SSRF 類別");
     }
 
     /**
      * 新增映射關係
      */
-    private void addMapping(String sourceVersion, String sourceCategory, String sourceName,
-                            String targetVersion, String targetCategory, String targetName,
-                            MappingType mappingType, String explanation) {
+    private static void addMapping(Map<String, List<CategoryMapping>> mappings,
+                                   String sourceVersion, String sourceCategory, String sourceName,
+                                   String targetVersion, String targetCategory, String targetName,
+                                   MappingType mappingType, String explanation) {
         String key = sourceVersion + ":" + sourceCategory;
         mappings.computeIfAbsent(key, k -> new ArrayList<>())
             .add(new CategoryMapping(sourceVersion, sourceCategory, sourceName,
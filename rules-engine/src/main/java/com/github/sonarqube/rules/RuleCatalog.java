@@ -0,0 +1,157 @@
+package com.github.sonarqube.rules;
+
+import com.github.sonarqube.rules.java.JavaSecurityRules;
+import com.github.sonarqube.rules.javascript.JavaScriptSecurityRules;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.scanner.ScannerSide;
+import org.sonar.api.server.ServerSide;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 規則目錄
+ *
+ * 集中提供 Java / JavaScript 安全規則、規則查詢表、規則集指紋，以及 CWE 與 OWASP 版本映射服務。
+ * 整個插件共用單一實例（於 SonarQube 容器註冊一次），各項內容在第一次使用時才建立，建立後不可變，
+ * 可在多個執行緒間共用；感測器、規則定義、品質設定檔與報告比較不再各自重建相同的資料。
+ *
+ * 共用的 {@link CweMappingService} 為唯讀；需要自訂映射時請另行建立實例。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+@ScannerSide
+@ServerSide
+@ComputeEngineSide
+public final class RuleCatalog {
+
+    private static final RuleCatalog INSTANCE = new RuleCatalog();
+
+    private RuleCatalog() {
+    }
+
+    /**
+     * 取得共用的規則目錄
+     */
+    public static RuleCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 規則清單與衍生的查詢資料（延遲建立）
+     */
+    private static final class Rules {
+        private static final List<RuleDefinition> JAVA = List.copyOf(JavaSecurityRules.getAllRules());
+        private static final List<RuleDefinition> JAVASCRIPT = List.copyOf(JavaScriptSecurityRules.getAllRules());
+        private static final List<RuleDefinition> ALL;
+        private static final Map<String, RuleDefinition> BY_KEY;
+        private static final RuleLookupTable LOOKUP;
+        private static final String FINGERPRINT;
+
+        static {
+            List<RuleDefinition> all = new ArrayList<>(JAVA.size() + JAVASCRIPT.size());
+            all.addAll(JAVA);
+            all.addAll(JAVASCRIPT);
+            ALL = Collections.unmodifiableList(all);
+            // 查詢表沿用規則鍵映射表的迭代順序，同一 CWE 對應多條規則時的選擇與既有行為一致
+            BY_KEY = Collections.unmodifiableMap(Stream.concat(JAVA.stream(), JAVASCRIPT.stream())
+                .collect(Collectors.toMap(RuleDefinition::getRuleKey, rule -> rule)));
+            LOOKUP = RuleLookupTable.of(BY_KEY.values());
+            FINGERPRINT = computeFingerprint(ALL);
+        }
+    }
+
+    private static final class CweMappings {
+        private static final CweMappingService SERVICE = new CweMappingService(true);
+    }
+
+    private static final class VersionMappings {
+        private static final OwaspVersionMappingService SERVICE = new OwaspVersionMappingService();
+    }
+
+    /**
+     * Java 安全規則
+     */
+    public List<RuleDefinition> getJavaRules() {
+        return Rules.JAVA;
+    }
+
+    /**
+     * JavaScript 安全規則
+     */
+    public List<RuleDefinition> getJavaScriptRules() {
+        return Rules.JAVASCRIPT;
+    }
+
+    /**
+     * 所有規則（Java 在前、JavaScript 在後）
+     */
+    public List<RuleDefinition> getAllRules() {
+        return Rules.ALL;
+    }
+
+    /**
+     * 依規則鍵取得規則
+     *
+     * @param ruleKey 規則鍵
+     * @return 規則，不存在時為 null
+     */
+    public RuleDefinition getRule(String ruleKey) {
+        return Rules.BY_KEY.get(ruleKey);
+    }
+
+    /**
+     * CWE / OWASP 分類到規則的查詢表
+     */
+    public RuleLookupTable getLookupTable() {
+        return Rules.LOOKUP;
+    }
+
+    /**
+     * 規則集指紋（規則鍵、名稱、嚴重度、OWASP 分類與 CWE 任一變動都會改變指紋）
+     */
+    public String getRulesetFingerprint() {
+        return Rules.FINGERPRINT;
+    }
+
+    /**
+     * 共用的 CWE 映射服務（唯讀）
+     */
+    public CweMappingService getCweMappings() {
+        return CweMappings.SERVICE;
+    }
+
+    /**
+     * 共用的 OWASP 版本映射服務
+     */
+    public OwaspVersionMappingService getVersionMappings() {
+        return VersionMappings.SERVICE;
+    }
+
+    private static String computeFingerprint(List<RuleDefinition> rules) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            rules.stream()
+                .sorted(Comparator.comparing(RuleDefinition::getRuleKey))
+                .forEach(rule -> {
+                    String line = rule.getRuleKey() + '\u0000' + rule.getName() + '\u0000' + rule.getSeverity()
+                        + '\u0000' + (rule.getOwaspCategory() != null ? rule.getOwaspCategory().getCategoryId() : "")
+                        + '\u0000' + rule.getCweIds() + '\n';
+                    digest.update(line.getBytes(StandardCharsets.UTF_8));
+                });
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
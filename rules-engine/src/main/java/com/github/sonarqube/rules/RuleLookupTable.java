@@ -0,0 +1,194 @@
+package com.github.sonarqube.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 預先建立的規則查詢表
+ *
+ * 以 CWE 編號與 OWASP 分類編號（A01 → 1）為整數鍵，將 AI 回報的問題對應到規則，
+ * 取代逐條掃描所有規則的比對。建立後不可變，可在多個執行緒間共用。
+ *
+ * 查詢語意與逐條比對相同：同一鍵有多條規則時，以建立時迭代順序中的第一條為準；
+ * CWE 找不到對應規則時再以 OWASP 分類查詢。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class RuleLookupTable {
+
+    private static final String CWE_PREFIX = "CWE-";
+    private static final int MAX_CATEGORY = 10;
+
+    private final List<RuleDefinition> rules;
+    private final int[] cweKeys;
+    private final RuleDefinition[] cweRules;
+    private final RuleDefinition[] categoryRules = new RuleDefinition[MAX_CATEGORY + 1];
+
+    private RuleLookupTable(List<RuleDefinition> rules) {
+        this.rules = Collections.unmodifiableList(rules);
+
+        // 先收集 (CWE, 規則) 配對並保留第一條規則，再依 CWE 排序以二分搜尋查詢
+        int[] keys = new int[16];
+        RuleDefinition[] values = new RuleDefinition[16];
+        int size = 0;
+        for (RuleDefinition rule : rules) {
+            if (rule.getCweIds() != null) {
+                for (String cweId : rule.getCweIds()) {
+                    int cwe = parseCweNumber(cweId);
+                    if (cwe < 0 || indexOf(keys, size, cwe) >= 0) {
+                        continue;
+                    }
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    keys[size] = cwe;
+                    values[size] = rule;
+                    size++;
+                }
+            }
+            if (rule.getOwaspCategory() != null) {
+                int category = parseCategoryNumber(rule.getOwaspCategory().getCategoryId().split(":")[0]);
+                if (category > 0 && categoryRules[category] == null) {
+                    categoryRules[category] = rule;
+                }
+            }
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        final int[] unsortedKeys = keys;
+        Arrays.sort(order, (a, b) -> Integer.compare(unsortedKeys[a], unsortedKeys[b]));
+        this.cweKeys = new int[size];
+        this.cweRules = new RuleDefinition[size];
+        for (int i = 0; i < size; i++) {
+            cweKeys[i] = keys[order[i]];
+            cweRules[i] = values[order[i]];
+        }
+    }
+
+    /**
+     * 建立查詢表
+     *
+     * @param rules 規則（迭代順序決定同鍵規則的優先順序）
+     * @return 查詢表
+     */
+    public static RuleLookupTable of(Collection<RuleDefinition> rules) {
+        return new RuleLookupTable(new ArrayList<>(rules));
+    }
+
+    /**
+     * 依 CWE ID 與 OWASP 分類找出對應規則
+     *
+     * @param cweId CWE ID（例如 "CWE-89"、"cwe-89" 或 "89"，可為 null）
+     * @param owaspCategory OWASP 分類（例如 "A03:2021-Injection"，可為 null）
+     * @return 對應規則，找不到時為 null
+     */
+    public RuleDefinition find(String cweId, String owaspCategory) {
+        if (cweId != null && !cweId.isEmpty()) {
+            RuleDefinition rule = findByCwe(cweId);
+            if (rule != null) {
+                return rule;
+            }
+        }
+        if (owaspCategory != null && !owaspCategory.isEmpty()) {
+            return findByOwaspCategory(owaspCategory);
+        }
+        return null;
+    }
+
+    /**
+     * 依 CWE ID 找出對應規則
+     */
+    public RuleDefinition findByCwe(String cweId) {
+        if (cweId == null) {
+            return null;
+        }
+        String normalized = cweId.toUpperCase().trim();
+        if (!normalized.startsWith(CWE_PREFIX)) {
+            normalized = CWE_PREFIX + normalized;
+        }
+        int cwe = parseCweNumber(normalized);
+        if (cwe < 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(cweKeys, cwe);
+        return index >= 0 ? cweRules[index] : null;
+    }
+
+    /**
+     * 依 OWASP 分類找出對應規則（只比較年份前的編號，例如 A03）
+     */
+    public RuleDefinition findByOwaspCategory(String owaspCategory) {
+        if (owaspCategory == null) {
+            return null;
+        }
+        int category = parseCategoryNumber(owaspCategory.toUpperCase().split(":")[0]);
+        return category > 0 ? categoryRules[category] : null;
+    }
+
+    /**
+     * 建立時的規則（依原迭代順序）
+     */
+    public List<RuleDefinition> getRules() {
+        return rules;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * 解析標準格式的 CWE ID（"CWE-" 加上不含前導零的數字），否則回傳 -1
+     */
+    static int parseCweNumber(String cweId) {
+        if (cweId == null || !cweId.startsWith(CWE_PREFIX)) {
+            return -1;
+        }
+        int length = cweId.length();
+        int start = CWE_PREFIX.length();
+        if (length == start || length - start > 9 || (cweId.charAt(start) == '0' && length - start > 1)) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < length; i++) {
+            char c = cweId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 解析 OWASP 分類編號（"A01" 至 "A10"），否則回傳 -1
+     */
+    static int parseCategoryNumber(String prefix) {
+        if (prefix.length() != 3 || prefix.charAt(0) != 'A') {
+            return -1;
+        }
+        char tens = prefix.charAt(1);
+        char ones = prefix.charAt(2);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        int value = (tens - '0') * 10 + (ones - '0');
+        return value >= 1 && value <= MAX_CATEGORY ? value : -1;
+    }
+
+    private static int indexOf(int[] keys, int size, int key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
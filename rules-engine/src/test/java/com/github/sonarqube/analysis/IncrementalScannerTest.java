@@ -0,0 +1,153 @@
+package com.github.sonarqube.analysis;
+
+import com.github.sonarqube.shared.git.GitChange;
+import com.github.sonarqube.shared.git.GitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * IncrementalScanner 單元測試（行程內 Git 讀取結果與 git 指令輸出比對）
+ */
+class IncrementalScannerTest {
+
+    @TempDir
+    Path repository;
+
+    private IncrementalScanner scanner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(gitAvailable(), "git executable not available");
+
+        git("init", "-q");
+        git("config", "user.email", "test@example.com");
+        git("config", "user.name", "Test");
+        git("config", "core.autocrlf", "false");
+
+        write("src/Main.java", "class Main {\n    void run() {}\n}\n");
+        write("src/util/Helper.java", "class Helper {\n    int a;\n    int b;\n}\n");
+        write("src/util/deep/Legacy.java", "class Legacy {}\n");
+        write("docs/readme.txt", "line1\nline2\nline3\n");
+        Files.write(repository.resolve("docs/image.bin"), new byte[]{1, 0, 2, 0, 3});
+        git("add", "-A");
+        git("commit", "-q", "-m", "initial");
+        git("tag", "-a", "v1", "-m", "release 1");
+
+        write("src/Main.java", "class Main {\n    void run() { start(); }\n    void start() {}\n}\n");
+        git("commit", "-q", "-am", "second");
+
+        // 打包物件與參考，確保 pack 檔與 packed-refs 路徑都被執行
+        git("gc", "-q");
+
+        write("src/util/Helper.java", "class Helper {\n    int a;\n    int c;\n    int d;\n}\n");
+        write("src/Added.java", "class Added {}\n");
+        git("add", "src/Added.java");
+        Files.delete(repository.resolve("src/util/deep/Legacy.java"));
+        write("docs/readme.txt", "line1\nline3\n");
+        git("add", "docs/readme.txt");
+
+        scanner = new IncrementalScanner(repository);
+    }
+
+    @Test
+    void testInProcessReaderSupportsRepository() throws Exception {
+        try (GitRepository git = GitRepository.open(repository).orElseThrow()) {
+            List<String> paths = git.diffWorkingTree("HEAD", false).stream()
+                .map(GitChange::getPath)
+                .sorted()
+                .collect(Collectors.toList());
+            assertEquals(gitLines("diff", "--name-only", "HEAD"), paths);
+            assertEquals(gitLines("rev-parse", "HEAD").get(0), git.resolve("HEAD"));
+            assertEquals(gitLines("rev-parse", "v1^{commit}").get(0), git.resolve("v1"));
+            assertEquals(gitLines("rev-parse", "--abbrev-ref", "HEAD").get(0), git.getCurrentBranch());
+        }
+    }
+
+    @Test
+    void testModifiedFilesMatchGitDiff() throws Exception {
+        assertEquals(resolve(gitLines("diff", "--name-only", "HEAD")), scanner.getModifiedFilesInWorkingDirectory());
+        assertEquals(resolve(gitLines("diff", "--name-only", "--cached")), scanner.getModifiedFilesInStagingArea());
+        assertEquals(resolve(gitLines("diff", "--name-only", "v1", "HEAD")),
+            scanner.getModifiedFilesBetweenCommits("v1", "HEAD"));
+        assertEquals(resolve(gitLines("diff", "--name-only", "HEAD~1..HEAD")), scanner.getModifiedFilesSince("HEAD~1"));
+        assertEquals(resolve(gitLines("diff", "--name-only", "v1")), scanner.getModifiedFilesAgainstBranch("v1"));
+    }
+
+    @Test
+    void testFileChangeStatisticsMatchNumstat() throws Exception {
+        Map<Path, IncrementalScanner.FileChangeStatistics> all = scanner.getAllFileChangeStatistics();
+
+        List<String> numstat = gitLines("diff", "--numstat", "HEAD");
+        assertEquals(numstat.size(), all.size());
+        for (String line : numstat) {
+            String[] parts = line.split("\\s+", 3);
+            Path path = repository.resolve(parts[2]);
+            int added = "-".equals(parts[0]) ? 0 : Integer.parseInt(parts[0]);
+            int deleted = "-".equals(parts[1]) ? 0 : Integer.parseInt(parts[1]);
+
+            IncrementalScanner.FileChangeStatistics statistics = all.get(path);
+            assertNotNull(statistics, path.toString());
+            assertEquals(added, statistics.getAddedLines(), path.toString());
+            assertEquals(deleted, statistics.getDeletedLines(), path.toString());
+
+            IncrementalScanner.FileChangeStatistics single = scanner.getFileChangeStatistics(path);
+            assertEquals(added, single.getAddedLines(), path.toString());
+            assertEquals(deleted, single.getDeletedLines(), path.toString());
+        }
+    }
+
+    @Test
+    void testUnchangedFileHasNoStatistics() {
+        IncrementalScanner.FileChangeStatistics statistics =
+            scanner.getFileChangeStatistics(repository.resolve("docs/image.bin"));
+        assertEquals(0, statistics.getTotalChangedLines());
+        assertTrue(scanner.isGitRepository());
+    }
+
+    private List<Path> resolve(List<String> paths) {
+        return paths.stream().map(repository::resolve).sorted().collect(Collectors.toList());
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = repository.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private void git(String... args) throws Exception {
+        gitLines(args);
+    }
+
+    private List<String> gitLines(String... args) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(repository.toFile()).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        String error = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), "git " + String.join(" ", args) + ": " + error);
+        return output.lines().filter(line -> !line.isBlank()).collect(Collectors.toList());
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
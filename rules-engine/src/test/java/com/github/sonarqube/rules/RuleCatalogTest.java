@@ -0,0 +1,71 @@
+package com.github.sonarqube.rules;
+
+import com.github.sonarqube.rules.java.JavaSecurityRules;
+import com.github.sonarqube.rules.javascript.JavaScriptSecurityRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RuleCatalog 單元測試
+ */
+class RuleCatalogTest {
+
+    private final RuleCatalog catalog = RuleCatalog.getInstance();
+
+    @Test
+    void testSharedInstance() {
+        assertSame(catalog, RuleCatalog.getInstance());
+        assertSame(catalog.getAllRules(), RuleCatalog.getInstance().getAllRules());
+        assertSame(catalog.getLookupTable(), RuleCatalog.getInstance().getLookupTable());
+        assertSame(catalog.getVersionMappings(), RuleCatalog.getInstance().getVersionMappings());
+    }
+
+    @Test
+    void testRules() {
+        assertEquals(JavaSecurityRules.getAllRules(), catalog.getJavaRules());
+        assertEquals(JavaScriptSecurityRules.getAllRules(), catalog.getJavaScriptRules());
+        assertEquals(catalog.getJavaRules().size() + catalog.getJavaScriptRules().size(), catalog.getAllRules().size());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.getAllRules().clear());
+
+        RuleDefinition first = catalog.getJavaRules().get(0);
+        assertSame(first, catalog.getRule(first.getRuleKey()));
+        assertNull(catalog.getRule("no-such-rule"));
+    }
+
+    @Test
+    void testLookupTable() {
+        assertEquals(catalog.getAllRules().size(), catalog.getLookupTable().size());
+        RuleDefinition sql = catalog.getLookupTable().findByCwe("CWE-89");
+        assertNotNull(sql);
+        assertTrue(sql.getCweIds().contains("CWE-89"));
+    }
+
+    @Test
+    void testRulesetFingerprintIsStable() {
+        String fingerprint = catalog.getRulesetFingerprint();
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, RuleCatalog.getInstance().getRulesetFingerprint());
+    }
+
+    @Test
+    void testSharedCweMappingsAreReadOnly() {
+        CweMappingService shared = catalog.getCweMappings();
+        assertEquals("A03", shared.getOwaspByCwe("CWE-89"));
+        assertThrows(UnsupportedOperationException.class,
+            () -> shared.registerMapping("A11", Set.of("CWE-1")));
+    }
+
+    @Test
+    void testRegisterMappingDoesNotAffectOtherInstances() {
+        CweMappingService custom = new CweMappingService();
+        custom.registerMapping("A11", Set.of("CWE-1"));
+
+        assertEquals("A11", custom.getOwaspByCwe("CWE-1"));
+        assertEquals("A03", custom.getOwaspByCwe("CWE-89"));
+        assertNull(new CweMappingService().getOwaspByCwe("CWE-1"));
+        assertNull(catalog.getCweMappings().getOwaspByCwe("CWE-1"));
+    }
+}
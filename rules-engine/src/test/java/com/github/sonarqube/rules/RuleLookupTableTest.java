@@ -0,0 +1,51 @@
+package com.github.sonarqube.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RuleLookupTable 單元測試
+ */
+class RuleLookupTableTest {
+
+    private static RuleDefinition rule(String key, String category, String... cweIds) {
+        return RuleDefinition.builder(key)
+            .name(key)
+            .description(key)
+            .owaspCategory(category)
+            .cweIds(List.of(cweIds))
+            .build();
+    }
+
+    private final RuleDefinition sql = rule("sql-injection", "A03", "CWE-89");
+    private final RuleDefinition command = rule("command-injection", "A03", "CWE-78", "CWE-77");
+    private final RuleDefinition secrets = rule("hardcoded-secret", "A07", "CWE-798", "CWE-89");
+    private final RuleLookupTable table = RuleLookupTable.of(List.of(sql, command, secrets));
+
+    @Test
+    void testFindByCwe() {
+        assertSame(command, table.findByCwe("CWE-78"));
+        assertSame(command, table.findByCwe(" cwe-77 "));
+        assertSame(secrets, table.findByCwe("798"));
+        assertNull(table.findByCwe("CWE-079"));
+        assertNull(table.findByCwe("CWE-abc"));
+    }
+
+    @Test
+    void testFirstRuleWins() {
+        assertSame(sql, table.findByCwe("CWE-89"));
+        assertSame(sql, table.findByOwaspCategory("A03:2021-Injection"));
+    }
+
+    @Test
+    void testFallsBackToOwaspCategory() {
+        assertSame(secrets, table.find("CWE-1", "a07:2021-Identification"));
+        assertSame(sql, table.find(null, "A03"));
+        assertNull(table.find("", "A3:2017-Injection"));
+        assertNull(table.find(null, "A01:2021"));
+        assertNull(table.find(null, null));
+    }
+}
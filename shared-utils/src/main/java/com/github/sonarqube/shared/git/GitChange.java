@@ -0,0 +1,52 @@
+package com.github.sonarqube.shared.git;
+
+/**
+ * 單一檔案的變更（相對於倉庫根目錄的路徑、變更類型與行數統計）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class GitChange {
+
+    /**
+     * 變更類型
+     */
+    public enum Type {
+        ADDED,
+        MODIFIED,
+        DELETED
+    }
+
+    private final String path;
+    private final Type type;
+    private final int addedLines;
+    private final int deletedLines;
+
+    public GitChange(String path, Type type, int addedLines, int deletedLines) {
+        this.path = path;
+        this.type = type;
+        this.addedLines = addedLines;
+        this.deletedLines = deletedLines;
+    }
+
+    /**
+     * 相對於倉庫根目錄的路徑（以 / 分隔）
+     */
+    public String getPath() { return path; }
+    public Type getType() { return type; }
+
+    /**
+     * 新增行數（未計算行數或二進位檔時為 0）
+     */
+    public int getAddedLines() { return addedLines; }
+
+    /**
+     * 刪除行數（未計算行數或二進位檔時為 0）
+     */
+    public int getDeletedLines() { return deletedLines; }
+
+    @Override
+    public String toString() {
+        return "GitChange{" + type + " " + path + " +" + addedLines + " -" + deletedLines + '}';
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.sonarqube.shared.git;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Git 索引（.git/index，版本 2–4）
+ *
+ * 解析項目（路徑、模式、物件 ID、stat 資訊、合併階段）與 cache-tree（TREE）擴充；
+ * 使用 split index 或 sparse index 的倉庫不支援，由呼叫端改用 git 指令。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+final class GitIndex {
+
+    private static final int ID_LENGTH = 20;
+    private static final int FLAG_ASSUME_VALID = 0x8000;
+    private static final int FLAG_EXTENDED = 0x4000;
+    private static final int EXTENDED_SKIP_WORKTREE = 0x4000;
+    private static final int EXTENDED_INTENT_TO_ADD = 0x2000;
+
+    private final List<Entry> entries;
+    private final Map<String, byte[]> cacheTree;
+    private final long modifiedMillis;
+
+    private GitIndex(List<Entry> entries, Map<String, byte[]> cacheTree, long modifiedMillis) {
+        this.entries = entries;
+        this.cacheTree = cacheTree;
+        this.modifiedMillis = modifiedMillis;
+    }
+
+    /**
+     * 讀取索引檔（不存在時回傳空索引）
+     */
+    static GitIndex read(Path indexFile) throws IOException {
+        byte[] data;
+        long modified;
+        try {
+            data = Files.readAllBytes(indexFile);
+            modified = Files.getLastModifiedTime(indexFile).toMillis();
+        } catch (NoSuchFileException e) {
+            return new GitIndex(Collections.emptyList(), Collections.emptyMap(), 0);
+        }
+
+        if (data.length < 12 || data[0] != 'D' || data[1] != 'I' || data[2] != 'R' || data[3] != 'C') {
+            throw new IOException("Not a git index file: " + indexFile);
+        }
+        int version = readInt(data, 4);
+        if (version < 2 || version > 4) {
+            throw new IOException("Unsupported git index version " + version);
+        }
+        int count = readInt(data, 8);
+        int end = data.length - ID_LENGTH;
+
+        List<Entry> entries = new ArrayList<>(count);
+        int p = 12;
+        byte[] previousPath = new byte[0];
+        for (int i = 0; i < count; i++) {
+            int start = p;
+            int mtimeSeconds = readInt(data, p + 8);
+            int mtimeNanos = readInt(data, p + 12);
+            int mode = readInt(data, p + 24);
+            int size = readInt(data, p + 36);
+            byte[] id = new byte[ID_LENGTH];
+            System.arraycopy(data, p + 40, id, 0, ID_LENGTH);
+            int flags = ((data[p + 60] & 0xff) << 8) | (data[p + 61] & 0xff);
+            p += 62;
+            int extendedFlags = 0;
+            if ((flags & FLAG_EXTENDED) != 0) {
+                extendedFlags = ((data[p] & 0xff) << 8) | (data[p + 1] & 0xff);
+                p += 2;
+            }
+
+            byte[] path;
+            if (version == 4) {
+                // 前綴壓縮：先移除前一個路徑結尾的 N 個位元組，再接上以 NUL 結尾的字尾
+                int b = data[p++] & 0xff;
+                long strip = b & 0x7f;
+                while ((b & 0x80) != 0) {
+                    b = data[p++] & 0xff;
+                    strip = ((strip + 1) << 7) | (b & 0x7f);
+                }
+                int nul = ObjectDatabase.indexOf(data, (byte) 0, p);
+                int keep = previousPath.length - (int) strip;
+                path = new byte[keep + (nul - p)];
+                System.arraycopy(previousPath, 0, path, 0, keep);
+                System.arraycopy(data, p, path, keep, nul - p);
+                p = nul + 1;
+            } else {
+                int nul = ObjectDatabase.indexOf(data, (byte) 0, p);
+                path = new byte[nul - p];
+                System.arraycopy(data, p, path, 0, path.length);
+                // 項目以 NUL 補齊至 8 位元組倍數（至少一個 NUL）
+                p = start + ((nul - start + 8) & ~7);
+            }
+            previousPath = path;
+
+            if ((mode & 0170000) == 0040000) {
+                throw new IOException("Sparse git index is not supported");
+            }
+            entries.add(new Entry(new String(path, StandardCharsets.UTF_8), mode, id, size,
+                mtimeSeconds, mtimeNanos, (flags >> 12) & 0x3,
+                (flags & FLAG_ASSUME_VALID) != 0 || (extendedFlags & EXTENDED_SKIP_WORKTREE) != 0,
+                (extendedFlags & EXTENDED_INTENT_TO_ADD) != 0));
+        }
+
+        Map<String, byte[]> cacheTree = Collections.emptyMap();
+        while (p + 8 <= end) {
+            String signature = new String(data, p, 4, StandardCharsets.US_ASCII);
+            int length = readInt(data, p + 4);
+            int extensionStart = p + 8;
+            if ("TREE".equals(signature)) {
+                cacheTree = new HashMap<>();
+                parseCacheTree(data, extensionStart, extensionStart + length, "", cacheTree);
+            } else if ("link".equals(signature) || "sdir".equals(signature)) {
+                throw new IOException("Git index extension '" + signature + "' is not supported");
+            }
+            p = extensionStart + length;
+        }
+
+        return new GitIndex(entries, cacheTree, modified);
+    }
+
+    /**
+     * 解析 cache-tree：每個節點為 路徑 NUL 項目數 SP 子樹數 LF [物件 ID]，子節點依序緊接在後
+     *
+     * @return 下一個節點的起始位置
+     */
+    private static int parseCacheTree(byte[] data, int p, int end, String parent, Map<String, byte[]> result) {
+        if (p >= end) {
+            return p;
+        }
+        int nul = ObjectDatabase.indexOf(data, (byte) 0, p);
+        String name = new String(data, p, nul - p, StandardCharsets.UTF_8);
+        int space = ObjectDatabase.indexOf(data, (byte) ' ', nul + 1);
+        int newline = ObjectDatabase.indexOf(data, (byte) '\n', space + 1);
+        int entryCount = Integer.parseInt(new String(data, nul + 1, space - nul - 1, StandardCharsets.US_ASCII));
+        int subtrees = Integer.parseInt(new String(data, space + 1, newline - space - 1, StandardCharsets.US_ASCII));
+        p = newline + 1;
+
+        String path = parent.isEmpty() ? name : parent + "/" + name;
+        if (entryCount >= 0) {
+            byte[] id = new byte[ID_LENGTH];
+            System.arraycopy(data, p, id, 0, ID_LENGTH);
+            result.put(path, id);
+            p += ID_LENGTH;
+        }
+        for (int i = 0; i < subtrees; i++) {
+            p = parseCacheTree(data, p, end, path, result);
+        }
+        return p;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 24) | ((data[offset + 1] & 0xff) << 16)
+            | ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+    }
+
+    /**
+     * 索引項目（依路徑排序）
+     */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * 目錄（"" 為根目錄）在索引中對應的有效樹狀物件 ID，已失效時回傳 null
+     */
+    byte[] getCachedTree(String directory) {
+        return cacheTree.get(directory);
+    }
+
+    /**
+     * 索引檔的修改時間（用於判斷 racy 項目）
+     */
+    long getModifiedMillis() {
+        return modifiedMillis;
+    }
+
+    /**
+     * 索引項目
+     */
+    static final class Entry {
+        final String path;
+        final int mode;
+        final byte[] id;
+        final int size;
+        final int mtimeSeconds;
+        final int mtimeNanos;
+        final int stage;
+        final boolean assumeUnchanged;
+        final boolean intentToAdd;
+
+        Entry(String path, int mode, byte[] id, int size, int mtimeSeconds, int mtimeNanos, int stage,
+              boolean assumeUnchanged, boolean intentToAdd) {
+            this.path = path;
+            this.mode = mode;
+            this.id = id;
+            this.size = size;
+            this.mtimeSeconds = mtimeSeconds;
+            this.mtimeNanos = mtimeNanos;
+            this.stage = stage;
+            this.assumeUnchanged = assumeUnchanged;
+            this.intentToAdd = intentToAdd;
+        }
+
+        boolean isGitlink() {
+            return (mode & 0170000) == 0160000;
+        }
+
+        boolean isSymlink() {
+            return (mode & 0170000) == 0120000;
+        }
+    }
+}
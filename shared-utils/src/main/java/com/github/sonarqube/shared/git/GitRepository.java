@@ -0,0 +1,834 @@
+package com.github.sonarqube.shared.git;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 行程內 Git 倉庫讀取器
+ *
+ * 直接讀取 .git/index、refs 與物件資料庫（loose 物件與 pack 檔）計算變更檔案與行數統計，
+ * 取代每次掃描多次啟動 git 子行程並解析文字輸出。只支援常見情境：
+ * 設定了 filter/ident/working-tree-encoding 屬性、換行轉換（core.autocrlf、text/eol 屬性）下
+ * 變更檔案含有 CR、SHA-256 物件格式、split/sparse index 或無法解析的修訂版本時一律拋出
+ * {@link IOException}，由呼叫端改用 git 指令。
+ *
+ * <p>非執行緒安全：每次掃描開啟一個實例，使用完畢後關閉。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class GitRepository implements Closeable {
+
+    private static final int ID_LENGTH = 20;
+    private static final int MAX_SYMREF_DEPTH = 5;
+    private static final int TYPE_MASK = 0170000;
+    private static final int TYPE_TREE = 0040000;
+    private static final int TYPE_GITLINK = 0160000;
+    private static final int TYPE_SYMLINK = 0120000;
+    private static final int MODE_REGULAR = 0100644;
+    private static final int MODE_EXECUTABLE = 0100755;
+
+    private static final Pattern FULL_ID = Pattern.compile("[0-9a-fA-F]{40}");
+    private static final Pattern SHORT_ID = Pattern.compile("[0-9a-fA-F]{4,39}");
+    private static final Pattern NAVIGATION = Pattern.compile("([~^])(\\d*)$");
+    private static final Set<String> EOL_ATTRIBUTES = Set.of("text", "eol");
+    private static final Set<String> FILTER_ATTRIBUTES = Set.of("filter", "ident", "working-tree-encoding");
+
+    /**
+     * 內容轉換等級：無、僅換行轉換（不含 CR 的檔案不受影響）、任意轉換
+     */
+    private static final int CONVERSION_NONE = 0;
+    private static final int CONVERSION_EOL = 1;
+    private static final int CONVERSION_FILTER = 2;
+    private static final String ATTRIBUTES_FILE = ".gitattributes";
+
+    private final Path workTree;
+    private final Path gitDirectory;
+    private final Path commonDirectory;
+    private final boolean trustFileMode;
+    private final int configuredConversion;
+    private Map<String, String[]> packedRefs;
+    private ObjectDatabase objects;
+    private GitIndex index;
+
+    private GitRepository(Path workTree, Path gitDirectory, Path commonDirectory) throws IOException {
+        this.workTree = workTree;
+        this.gitDirectory = gitDirectory;
+        this.commonDirectory = commonDirectory;
+
+        Map<String, String> config = readConfig(commonDirectory.resolve("config"));
+        String objectFormat = config.get("extensions.objectformat");
+        if (objectFormat != null && !"sha1".equalsIgnoreCase(objectFormat)) {
+            throw new IOException("Unsupported git object format " + objectFormat);
+        }
+        if (config.containsKey("core.worktree")) {
+            throw new IOException("core.worktree is not supported");
+        }
+        this.trustFileMode = !"false".equalsIgnoreCase(config.getOrDefault("core.filemode", "true"));
+        this.configuredConversion = configuredConversion(config);
+    }
+
+    /**
+     * 從指定目錄向上尋找並開啟 Git 倉庫
+     *
+     * @param start 倉庫內任一路徑
+     * @return 倉庫，不在 Git 工作目錄內時回傳空值
+     * @throws IOException 倉庫格式不支援或無法讀取時
+     */
+    public static Optional<GitRepository> open(Path start) throws IOException {
+        Path current = start.toAbsolutePath().normalize();
+        while (current != null) {
+            Path dotGit = current.resolve(".git");
+            if (Files.isDirectory(dotGit)) {
+                return Optional.of(new GitRepository(current, dotGit, commonDirectoryOf(dotGit)));
+            }
+            if (Files.isRegularFile(dotGit)) {
+                // worktree 或 submodule：.git 檔案內容為 "gitdir: <路徑>"
+                String content = Files.readString(dotGit, StandardCharsets.UTF_8).trim();
+                if (!content.startsWith("gitdir:")) {
+                    throw new IOException("Invalid .git file: " + dotGit);
+                }
+                Path gitDirectory = current.resolve(content.substring("gitdir:".length()).trim()).normalize();
+                return Optional.of(new GitRepository(current, gitDirectory, commonDirectoryOf(gitDirectory)));
+            }
+            current = current.getParent();
+        }
+        return Optional.empty();
+    }
+
+    private static Path commonDirectoryOf(Path gitDirectory) throws IOException {
+        Path commonDir = gitDirectory.resolve("commondir");
+        if (Files.isRegularFile(commonDir)) {
+            return gitDirectory.resolve(Files.readString(commonDir, StandardCharsets.UTF_8).trim()).normalize();
+        }
+        return gitDirectory;
+    }
+
+    /**
+     * 工作目錄根路徑
+     */
+    public Path getWorkTree() {
+        return workTree;
+    }
+
+    /**
+     * 目前分支的簡短名稱（與 git rev-parse --abbrev-ref HEAD 相同，detached HEAD 時回傳 "HEAD"）
+     */
+    public String getCurrentBranch() throws IOException {
+        String head = readLooseRef("HEAD");
+        if (head == null) {
+            throw new IOException("Missing HEAD in " + gitDirectory);
+        }
+        if (head.startsWith("ref: ")) {
+            String target = head.substring(5).trim();
+            return target.startsWith("refs/heads/") ? target.substring("refs/heads/".length()) : target;
+        }
+        return "HEAD";
+    }
+
+    /**
+     * 解析修訂版本為提交 ID（十六進位）
+     *
+     * 支援完整/縮寫 ID、HEAD、分支、標籤、遠端分支及 ~N、^N 後綴；
+     * 其他語法（如 @{upstream}、:path、A..B）拋出 {@link IOException}。
+     */
+    public String resolve(String revision) throws IOException {
+        return HexFormat.of().formatHex(resolveCommit(revision));
+    }
+
+    /**
+     * 修訂版本與工作目錄之間的變更（等同 git diff --name-only &lt;revision&gt;）
+     *
+     * @param revision 基準修訂版本
+     * @param lineStats 是否計算行數統計
+     */
+    public List<GitChange> diffWorkingTree(String revision, boolean lineStats) throws IOException {
+        return diffWorkingTree(revision, lineStats, path -> true);
+    }
+
+    /**
+     * 修訂版本與工作目錄之間的變更，僅回傳符合條件的路徑（行數統計只對這些路徑計算）
+     *
+     * @param revision 基準修訂版本
+     * @param lineStats 是否計算行數統計
+     * @param pathFilter 路徑過濾條件（相對於倉庫根目錄，以 / 分隔）
+     */
+    public List<GitChange> diffWorkingTree(String revision, boolean lineStats, Predicate<String> pathFilter)
+            throws IOException {
+        return diffAgainstIndex(treeOf(resolveCommit(revision)), true, lineStats, pathFilter);
+    }
+
+    /**
+     * HEAD 與索引之間的變更（等同 git diff --cached --name-only）
+     *
+     * @param lineStats 是否計算行數統計
+     */
+    public List<GitChange> diffIndex(boolean lineStats) throws IOException {
+        return diffAgainstIndex(treeOf(resolveCommit("HEAD")), false, lineStats, path -> true);
+    }
+
+    /**
+     * 兩個修訂版本之間的變更（等同 git diff --name-only &lt;from&gt; &lt;to&gt;）
+     *
+     * @param lineStats 是否計算行數統計
+     */
+    public List<GitChange> diffCommits(String from, String to, boolean lineStats) throws IOException {
+        List<GitChange> changes = new ArrayList<>();
+        diffTrees(treeOf(resolveCommit(from)), treeOf(resolveCommit(to)), "", lineStats, changes);
+        return changes;
+    }
+
+    // ========== 修訂版本解析 ==========
+
+    private byte[] resolveCommit(String revision) throws IOException {
+        String rev = revision.trim();
+        if (rev.isEmpty() || rev.contains(":") || rev.contains("@{") || rev.contains("..") || rev.contains(" ")) {
+            throw new IOException("Unsupported revision syntax: " + revision);
+        }
+
+        // 由後往前剝除 ~N / ^N 導覽後綴
+        List<String[]> navigation = new ArrayList<>();
+        Matcher matcher = NAVIGATION.matcher(rev);
+        while (matcher.find()) {
+            navigation.add(0, new String[]{matcher.group(1), matcher.group(2)});
+            rev = rev.substring(0, matcher.start());
+            matcher = NAVIGATION.matcher(rev);
+        }
+        if (rev.isEmpty() || rev.contains("^") || rev.contains("~")) {
+            throw new IOException("Unsupported revision syntax: " + revision);
+        }
+
+        byte[] id = peelToCommit(resolveName(rev), revision);
+        for (String[] step : navigation) {
+            int n = step[1].isEmpty() ? 1 : Integer.parseInt(step[1]);
+            if ("~".equals(step[0])) {
+                for (int i = 0; i < n; i++) {
+                    id = parentOf(id, 1, revision);
+                }
+            } else if (n > 0) {
+                id = parentOf(id, n, revision);
+            }
+        }
+        return id;
+    }
+
+    private byte[] resolveName(String name) throws IOException {
+        if (FULL_ID.matcher(name).matches()) {
+            return HexFormat.of().parseHex(name.toLowerCase(Locale.ROOT));
+        }
+        String[] candidates = {
+            name, "refs/" + name, "refs/tags/" + name, "refs/heads/" + name,
+            "refs/remotes/" + name, "refs/remotes/" + name + "/HEAD"
+        };
+        for (String candidate : candidates) {
+            String id = resolveRef(candidate, 0);
+            if (id != null) {
+                return HexFormat.of().parseHex(id);
+            }
+        }
+        if (SHORT_ID.matcher(name).matches()) {
+            byte[] id = getObjects().resolvePrefix(name.toLowerCase(Locale.ROOT));
+            if (id != null) {
+                return id;
+            }
+        }
+        throw new IOException("Unknown revision: " + name);
+    }
+
+    /**
+     * 解析參考名稱（含符號參考）為物件 ID，不存在時回傳 null
+     */
+    private String resolveRef(String name, int depth) throws IOException {
+        if (depth > MAX_SYMREF_DEPTH) {
+            throw new IOException("Symbolic ref loop at " + name);
+        }
+        String value = readLooseRef(name);
+        if (value == null) {
+            String[] packed = getPackedRefs().get(name);
+            return packed == null ? null : packed[0];
+        }
+        if (value.startsWith("ref: ")) {
+            return resolveRef(value.substring(5).trim(), depth + 1);
+        }
+        if (!FULL_ID.matcher(value).matches()) {
+            throw new IOException("Invalid ref " + name + ": " + value);
+        }
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private String readLooseRef(String name) throws IOException {
+        // HEAD 等工作目錄專屬參考位於 gitdir，其餘共用參考位於 commondir
+        Path base = name.startsWith("refs/") ? commonDirectory : gitDirectory;
+        Path file = base.resolve(name);
+        if (!file.normalize().startsWith(base)) {
+            return null;
+        }
+        try {
+            if (Files.isDirectory(file)) {
+                return null;
+            }
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private Map<String, String[]> getPackedRefs() throws IOException {
+        if (packedRefs == null) {
+            Map<String, String[]> refs = new HashMap<>();
+            Path file = commonDirectory.resolve("packed-refs");
+            if (Files.isRegularFile(file)) {
+                String last = null;
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    if (line.startsWith("^") && last != null) {
+                        // 註記標籤的剝離結果
+                        refs.get(last)[1] = line.substring(1).trim();
+                        continue;
+                    }
+                    int space = line.indexOf(' ');
+                    if (space == ID_LENGTH * 2) {
+                        last = line.substring(space + 1).trim();
+                        refs.put(last, new String[]{line.substring(0, space).toLowerCase(Locale.ROOT), null});
+                    }
+                }
+            }
+            packedRefs = refs;
+        }
+        return packedRefs;
+    }
+
+    private byte[] peelToCommit(byte[] id, String revision) throws IOException {
+        for (int depth = 0; depth <= MAX_SYMREF_DEPTH; depth++) {
+            ObjectDatabase.GitObject object = getObjects().read(id);
+            if (object.type == ObjectDatabase.OBJ_COMMIT) {
+                return id;
+            }
+            if (object.type != ObjectDatabase.OBJ_TAG) {
+                throw new IOException("Revision " + revision + " does not name a commit");
+            }
+            id = headerId(object.data, "object ");
+            if (id == null) {
+                throw new IOException("Corrupt tag object for " + revision);
+            }
+        }
+        throw new IOException("Tag chain too deep for " + revision);
+    }
+
+    private byte[] parentOf(byte[] commit, int n, String revision) throws IOException {
+        byte[] data = getObjects().read(commit, ObjectDatabase.OBJ_COMMIT).data;
+        int seen = 0;
+        int p = 0;
+        while (p < data.length && data[p] != '\n') {
+            int end = ObjectDatabase.indexOf(data, (byte) '\n', p);
+            if (end < 0) {
+                break;
+            }
+            if (startsWith(data, p, "parent ") && ++seen == n) {
+                return HexFormat.of().parseHex(new String(data, p + 7, ID_LENGTH * 2, StandardCharsets.US_ASCII));
+            }
+            p = end + 1;
+        }
+        throw new IOException("Revision " + revision + " has no such parent");
+    }
+
+    private byte[] treeOf(byte[] commit) throws IOException {
+        byte[] tree = headerId(getObjects().read(commit, ObjectDatabase.OBJ_COMMIT).data, "tree ");
+        if (tree == null) {
+            throw new IOException("Corrupt commit " + HexFormat.of().formatHex(commit));
+        }
+        return tree;
+    }
+
+    private static byte[] headerId(byte[] data, String header) {
+        int p = 0;
+        while (p < data.length && data[p] != '\n') {
+            int end = ObjectDatabase.indexOf(data, (byte) '\n', p);
+            if (end < 0) {
+                return null;
+            }
+            if (startsWith(data, p, header)) {
+                return HexFormat.of().parseHex(
+                    new String(data, p + header.length(), ID_LENGTH * 2, StandardCharsets.US_ASCII));
+            }
+            p = end + 1;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, String prefix) {
+        if (offset + prefix.length() > data.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[offset + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========== 差異計算 ==========
+
+    /**
+     * 基準樹與索引（或工作目錄）比較
+     *
+     * 索引 cache-tree 中與基準子樹 ID 相同的目錄整個跳過展開，其下項目的基準即為索引本身。
+     */
+    private List<GitChange> diffAgainstIndex(byte[] baseTree, boolean workingTree, boolean lineStats,
+                                             Predicate<String> pathFilter) throws IOException {
+        GitIndex gitIndex = getIndex();
+        boolean eolConversion = false;
+        if (workingTree) {
+            int conversion = conversionLevel(gitIndex);
+            if (conversion == CONVERSION_FILTER) {
+                throw new IOException("Content filters are configured; working tree comparison is not supported");
+            }
+            eolConversion = conversion == CONVERSION_EOL;
+        }
+        Map<String, TreeEntry> base = new HashMap<>();
+        Set<String> unchangedDirectories = new HashSet<>();
+        flattenTree(baseTree, "", gitIndex, base, unchangedDirectories);
+
+        long racyThresholdSeconds = gitIndex.getModifiedMillis() / 1000;
+        Map<String, GitChange> changes = new LinkedHashMap<>();
+        Set<String> unmerged = new HashSet<>();
+
+        for (GitIndex.Entry entry : gitIndex.getEntries()) {
+            if (!pathFilter.test(entry.path)) {
+                base.remove(entry.path);
+                continue;
+            }
+            if (entry.stage != 0) {
+                // 未解決的合併衝突：視為修改，不比較內容
+                if (unmerged.add(entry.path)) {
+                    base.remove(entry.path);
+                    changes.put(entry.path, new GitChange(entry.path, GitChange.Type.MODIFIED, 0, 0));
+                }
+                continue;
+            }
+            if (entry.intentToAdd && !workingTree) {
+                continue;
+            }
+
+            TreeEntry before = inUnchangedDirectory(entry.path, unchangedDirectories)
+                ? new TreeEntry(entry.mode, entry.id)
+                : base.remove(entry.path);
+            if (entry.intentToAdd) {
+                before = null;
+            }
+            TreeEntry after = workingTree
+                ? workingTreeEntry(entry, racyThresholdSeconds, eolConversion)
+                : new TreeEntry(entry.mode, entry.id);
+
+            GitChange.Type type;
+            if (before == null && after == null) {
+                continue;
+            } else if (before == null) {
+                type = GitChange.Type.ADDED;
+            } else if (after == null) {
+                type = GitChange.Type.DELETED;
+            } else if (!Arrays.equals(before.id, after.id) || !sameMode(before.mode, after.mode)) {
+                type = GitChange.Type.MODIFIED;
+            } else {
+                continue;
+            }
+            changes.put(entry.path, change(entry.path, type, before, after, workingTree, lineStats));
+        }
+
+        // 基準樹有但索引中沒有的檔案
+        for (Map.Entry<String, TreeEntry> removed : base.entrySet()) {
+            if (!unmerged.contains(removed.getKey()) && pathFilter.test(removed.getKey())) {
+                changes.put(removed.getKey(),
+                    change(removed.getKey(), GitChange.Type.DELETED, removed.getValue(), null, false, lineStats));
+            }
+        }
+        return new ArrayList<>(changes.values());
+    }
+
+    private void flattenTree(byte[] treeId, String prefix, GitIndex gitIndex, Map<String, TreeEntry> result,
+                             Set<String> unchangedDirectories) throws IOException {
+        byte[] cached = gitIndex.getCachedTree(prefix);
+        if (cached != null && Arrays.equals(cached, treeId)) {
+            unchangedDirectories.add(prefix);
+            return;
+        }
+        for (TreeEntry entry : readTree(treeId, prefix)) {
+            if ((entry.mode & TYPE_MASK) == TYPE_TREE) {
+                flattenTree(entry.id, entry.path, gitIndex, result, unchangedDirectories);
+            } else {
+                result.put(entry.path, entry);
+            }
+        }
+    }
+
+    private static boolean inUnchangedDirectory(String path, Set<String> unchangedDirectories) {
+        if (unchangedDirectories.isEmpty()) {
+            return false;
+        }
+        if (unchangedDirectories.contains("")) {
+            return true;
+        }
+        int slash = path.lastIndexOf('/');
+        while (slash > 0) {
+            String directory = path.substring(0, slash);
+            if (unchangedDirectories.contains(directory)) {
+                return true;
+            }
+            slash = directory.lastIndexOf('/');
+        }
+        return false;
+    }
+
+    /**
+     * 樹對樹比較，子樹 ID 相同時整個跳過
+     */
+    private void diffTrees(byte[] fromTree, byte[] toTree, String prefix, boolean lineStats,
+                           List<GitChange> changes) throws IOException {
+        if (fromTree != null && toTree != null && Arrays.equals(fromTree, toTree)) {
+            return;
+        }
+        Map<String, TreeEntry> from = new LinkedHashMap<>();
+        if (fromTree != null) {
+            for (TreeEntry entry : readTree(fromTree, prefix)) {
+                from.put(entry.path, entry);
+            }
+        }
+        List<TreeEntry> to = toTree != null ? readTree(toTree, prefix) : List.of();
+
+        for (TreeEntry after : to) {
+            TreeEntry before = from.remove(after.path);
+            boolean afterIsTree = (after.mode & TYPE_MASK) == TYPE_TREE;
+            boolean beforeIsTree = before != null && (before.mode & TYPE_MASK) == TYPE_TREE;
+            if (afterIsTree || beforeIsTree) {
+                diffTrees(beforeIsTree ? before.id : null, afterIsTree ? after.id : null, after.path,
+                    lineStats, changes);
+                if (before != null && !beforeIsTree) {
+                    changes.add(change(before.path, GitChange.Type.DELETED, before, null, false, lineStats));
+                }
+                if (!afterIsTree) {
+                    changes.add(change(after.path, GitChange.Type.ADDED, null, after, false, lineStats));
+                }
+            } else if (before == null) {
+                changes.add(change(after.path, GitChange.Type.ADDED, null, after, false, lineStats));
+            } else if (!Arrays.equals(before.id, after.id) || before.mode != after.mode) {
+                changes.add(change(after.path, GitChange.Type.MODIFIED, before, after, false, lineStats));
+            }
+        }
+        for (TreeEntry before : from.values()) {
+            if ((before.mode & TYPE_MASK) == TYPE_TREE) {
+                diffTrees(before.id, null, before.path, lineStats, changes);
+            } else {
+                changes.add(change(before.path, GitChange.Type.DELETED, before, null, false, lineStats));
+            }
+        }
+    }
+
+    private GitChange change(String path, GitChange.Type type, TreeEntry before, TreeEntry after,
+                             boolean afterInWorkingTree, boolean lineStats) throws IOException {
+        if (!lineStats) {
+            return new GitChange(path, type, 0, 0);
+        }
+        byte[] oldContent = content(before, null);
+        byte[] newContent = afterInWorkingTree ? content(after, path) : content(after, null);
+        int[] counts = LineDiff.count(oldContent, newContent);
+        return new GitChange(path, type, counts[0], counts[1]);
+    }
+
+    private byte[] content(TreeEntry entry, String workingPath) throws IOException {
+        if (entry == null || (entry.mode & TYPE_MASK) == TYPE_GITLINK) {
+            return null;
+        }
+        if (workingPath != null) {
+            Path file = workTree.resolve(workingPath);
+            if ((entry.mode & TYPE_MASK) == TYPE_SYMLINK) {
+                return Files.readSymbolicLink(file).toString().getBytes(StandardCharsets.UTF_8);
+            }
+            return Files.readAllBytes(file);
+        }
+        return getObjects().read(entry.id, ObjectDatabase.OBJ_BLOB).data;
+    }
+
+    private List<TreeEntry> readTree(byte[] treeId, String prefix) throws IOException {
+        byte[] data = getObjects().read(treeId, ObjectDatabase.OBJ_TREE).data;
+        List<TreeEntry> entries = new ArrayList<>();
+        int p = 0;
+        while (p < data.length) {
+            int space = ObjectDatabase.indexOf(data, (byte) ' ', p);
+            int nul = ObjectDatabase.indexOf(data, (byte) 0, space + 1);
+            if (space < 0 || nul < 0 || nul + 1 + ID_LENGTH > data.length) {
+                throw new IOException("Corrupt tree object " + HexFormat.of().formatHex(treeId));
+            }
+            int mode = Integer.parseInt(new String(data, p, space - p, StandardCharsets.US_ASCII), 8);
+            String name = new String(data, space + 1, nul - space - 1, StandardCharsets.UTF_8);
+            byte[] id = Arrays.copyOfRange(data, nul + 1, nul + 1 + ID_LENGTH);
+            entries.add(new TreeEntry(prefix.isEmpty() ? name : prefix + "/" + name, mode, id));
+            p = nul + 1 + ID_LENGTH;
+        }
+        return entries;
+    }
+
+    /**
+     * 工作目錄中的檔案狀態；stat 資訊與索引一致時直接沿用索引 ID，否則重新計算 blob ID
+     *
+     * @return 檔案狀態，檔案已刪除時回傳 null
+     */
+    private TreeEntry workingTreeEntry(GitIndex.Entry entry, long racyThresholdSeconds, boolean eolConversion)
+            throws IOException {
+        if (entry.isGitlink() || entry.assumeUnchanged) {
+            return new TreeEntry(entry.mode, entry.id);
+        }
+        Path file = workTree.resolve(entry.path);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (attributes.isDirectory()) {
+            return null;
+        }
+
+        int mode;
+        if (attributes.isSymbolicLink()) {
+            mode = TYPE_SYMLINK;
+        } else if (!trustFileMode) {
+            mode = entry.isSymlink() ? MODE_REGULAR : entry.mode;
+        } else {
+            mode = Files.isExecutable(file) ? MODE_EXECUTABLE : MODE_REGULAR;
+        }
+
+        long seconds = attributes.lastModifiedTime().to(TimeUnit.SECONDS);
+        int nanos = attributes.lastModifiedTime().toInstant().getNano();
+        boolean statMatches = !entry.intentToAdd
+            && (int) attributes.size() == entry.size
+            && (int) seconds == entry.mtimeSeconds
+            && (entry.mtimeNanos == 0 || nanos == entry.mtimeNanos)
+            && (entry.mtimeSeconds & 0xffffffffL) < racyThresholdSeconds;
+        if (statMatches) {
+            return new TreeEntry(mode, entry.id);
+        }
+
+        byte[] content = mode == TYPE_SYMLINK
+            ? Files.readSymbolicLink(file).toString().getBytes(StandardCharsets.UTF_8)
+            : Files.readAllBytes(file);
+        if (eolConversion && mode != TYPE_SYMLINK && ObjectDatabase.indexOf(content, (byte) '\r', 0) >= 0) {
+            // 換行轉換只有在檔案含 CR 時才會改變內容
+            throw new IOException("End-of-line conversion applies to " + entry.path);
+        }
+        return new TreeEntry(mode, blobId(content));
+    }
+
+    private boolean sameMode(int before, int after) {
+        if ((before & TYPE_MASK) != (after & TYPE_MASK)) {
+            return false;
+        }
+        return !trustFileMode || (before & TYPE_MASK) != 0100000 || before == after;
+    }
+
+    static byte[] blobId(byte[] content) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            sha1.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            return sha1.digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    private ObjectDatabase getObjects() throws IOException {
+        if (objects == null) {
+            objects = new ObjectDatabase(commonDirectory.resolve("objects"));
+        }
+        return objects;
+    }
+
+    private GitIndex getIndex() throws IOException {
+        if (index == null) {
+            index = GitIndex.read(gitDirectory.resolve("index"));
+        }
+        return index;
+    }
+
+    // ========== 設定 ==========
+
+    /**
+     * 設定檔與根目錄屬性檔宣告的內容轉換等級
+     */
+    private int configuredConversion(Map<String, String> repositoryConfig) throws IOException {
+        List<Map<String, String>> configs = new ArrayList<>();
+        configs.add(repositoryConfig);
+        String home = System.getProperty("user.home");
+        if (home != null) {
+            configs.add(readConfig(Paths.get(home, ".gitconfig")));
+        }
+        String xdg = System.getenv("XDG_CONFIG_HOME");
+        if (xdg != null && !xdg.isEmpty()) {
+            configs.add(readConfig(Paths.get(xdg, "git", "config")));
+        } else if (home != null) {
+            configs.add(readConfig(Paths.get(home, ".config", "git", "config")));
+        }
+        configs.add(readConfig(Paths.get("/etc/gitconfig")));
+
+        int level = CONVERSION_NONE;
+        // 倉庫設定優先，其次為使用者與系統設定
+        for (Map<String, String> config : configs) {
+            String autocrlf = config.get("core.autocrlf");
+            if (autocrlf != null) {
+                if (!"false".equalsIgnoreCase(autocrlf)) {
+                    level = CONVERSION_EOL;
+                }
+                break;
+            }
+        }
+
+        level = Math.max(level, conversionLevel(workTree.resolve(ATTRIBUTES_FILE)));
+        return Math.max(level, conversionLevel(commonDirectory.resolve("info").resolve("attributes")));
+    }
+
+    /**
+     * 含子目錄屬性檔（由索引中的 .gitattributes 項目找出）的內容轉換等級
+     */
+    private int conversionLevel(GitIndex gitIndex) throws IOException {
+        int level = configuredConversion;
+        for (GitIndex.Entry entry : gitIndex.getEntries()) {
+            if (level == CONVERSION_FILTER) {
+                break;
+            }
+            if (entry.path.endsWith("/" + ATTRIBUTES_FILE)) {
+                level = Math.max(level, conversionLevel(workTree.resolve(entry.path)));
+            }
+        }
+        return level;
+    }
+
+    private static int conversionLevel(Path attributesFile) throws IOException {
+        if (!Files.isRegularFile(attributesFile)) {
+            return CONVERSION_NONE;
+        }
+        int level = CONVERSION_NONE;
+        for (String line : Files.readAllLines(attributesFile, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = trimmed.split("\\s+");
+            for (int i = 1; i < tokens.length; i++) {
+                String token = tokens[i];
+                if (token.startsWith("-") || token.startsWith("!")) {
+                    continue;
+                }
+                int equals = token.indexOf('=');
+                String attribute = equals < 0 ? token : token.substring(0, equals);
+                if (FILTER_ATTRIBUTES.contains(attribute)) {
+                    return CONVERSION_FILTER;
+                }
+                if (EOL_ATTRIBUTES.contains(attribute)) {
+                    level = CONVERSION_EOL;
+                }
+            }
+        }
+        return level;
+    }
+
+    /**
+     * 讀取 git 設定檔（僅支援 section.key 與 section "sub".key 形式，不處理 include）
+     */
+    private static Map<String, String> readConfig(Path file) throws IOException {
+        Map<String, String> config = new HashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return config;
+        }
+        String section = "";
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith(";")) {
+                continue;
+            }
+            if (trimmed.startsWith("[")) {
+                int close = trimmed.indexOf(']');
+                String header = close > 0 ? trimmed.substring(1, close).trim() : trimmed.substring(1);
+                int space = header.indexOf(' ');
+                section = (space < 0 ? header : header.substring(0, space)).toLowerCase(Locale.ROOT);
+                continue;
+            }
+            int equals = trimmed.indexOf('=');
+            String key = (equals < 0 ? trimmed : trimmed.substring(0, equals)).trim().toLowerCase(Locale.ROOT);
+            String value = equals < 0 ? "true" : trimmed.substring(equals + 1).trim();
+            int comment = indexOfComment(value);
+            if (comment >= 0) {
+                value = value.substring(0, comment).trim();
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            config.put(section + "." + key, value);
+        }
+        return config;
+    }
+
+    private static int indexOfComment(String value) {
+        boolean quoted = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '#' || c == ';')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (objects != null) {
+            objects.close();
+        }
+    }
+
+    /**
+     * 樹狀項目（路徑、模式、物件 ID）
+     */
+    private static final class TreeEntry {
+        final String path;
+        final int mode;
+        final byte[] id;
+
+        TreeEntry(String path, int mode, byte[] id) {
+            this.path = path;
+            this.mode = mode;
+            this.id = id;
+        }
+
+        TreeEntry(int mode, byte[] id) {
+            this(null, mode, id);
+        }
+    }
+}
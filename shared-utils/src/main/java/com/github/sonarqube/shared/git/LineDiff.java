@@ -0,0 +1,165 @@
+package com.github.sonarqube.shared.git;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行差異統計（對應 git diff --numstat 的新增/刪除行數）
+ *
+ * 以 Myers 演算法計算最短編輯距離 D；新增 = (D + M - N) / 2，刪除 = (D - M + N) / 2。
+ * 結果為最小編輯腳本（與 diff --minimal 相同）；git 的 xdiff 啟發式偶爾會多計幾行。
+ * 只需 O(N + M) 記憶體；編輯量極大時改以行多重集合差估算，避免 O(N·D) 時間失控。
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+final class LineDiff {
+
+    /**
+     * Myers 演算法的工作量上限（(N + M) · D）
+     */
+    private static final long MAX_COST = 200_000_000L;
+
+    /**
+     * git 判斷二進位檔時檢查的位元組數
+     */
+    private static final int BINARY_PROBE_LENGTH = 8000;
+
+    private LineDiff() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 計算新增/刪除行數
+     *
+     * @param oldContent 舊內容（null 表示不存在）
+     * @param newContent 新內容（null 表示不存在）
+     * @return {新增行數, 刪除行數}；二進位檔回傳 {0, 0}
+     */
+    static int[] count(byte[] oldContent, byte[] newContent) {
+        byte[] before = oldContent != null ? oldContent : new byte[0];
+        byte[] after = newContent != null ? newContent : new byte[0];
+        if (isBinary(before) || isBinary(after)) {
+            return new int[]{0, 0};
+        }
+
+        Map<String, Integer> symbols = new HashMap<>();
+        int[] a = toSymbols(before, symbols);
+        int[] b = toSymbols(after, symbols);
+
+        // 去除共同前綴與後綴
+        int start = 0;
+        while (start < a.length && start < b.length && a[start] == b[start]) {
+            start++;
+        }
+        int endA = a.length;
+        int endB = b.length;
+        while (endA > start && endB > start && a[endA - 1] == b[endB - 1]) {
+            endA--;
+            endB--;
+        }
+
+        int n = endA - start;
+        int m = endB - start;
+        int d = editDistance(a, b, start, n, m);
+        if (d < 0) {
+            return estimate(a, b, start, n, m);
+        }
+        return new int[]{(d + m - n) / 2, (d - m + n) / 2};
+    }
+
+    /**
+     * Myers 貪婪演算法求最短編輯距離
+     *
+     * @return 編輯距離，超過工作量上限時回傳 -1
+     */
+    private static int editDistance(int[] a, int[] b, int offset, int n, int m) {
+        if (n == 0 || m == 0) {
+            return n + m;
+        }
+        int max = n + m;
+        int[] v = new int[2 * max + 2];
+        for (int d = 0; d <= max; d++) {
+            if ((long) (n + m) * d > MAX_COST) {
+                return -1;
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[max + k - 1] < v[max + k + 1])) {
+                    x = v[max + k + 1];
+                } else {
+                    x = v[max + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[offset + x] == b[offset + y]) {
+                    x++;
+                    y++;
+                }
+                v[max + k] = x;
+                if (x >= n && y >= m) {
+                    return d;
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 以行多重集合差估算（不考慮順序）
+     */
+    private static int[] estimate(int[] a, int[] b, int offset, int n, int m) {
+        Map<Integer, Integer> remaining = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            remaining.merge(a[offset + i], 1, Integer::sum);
+        }
+        int common = 0;
+        for (int i = 0; i < m; i++) {
+            Integer count = remaining.get(b[offset + i]);
+            if (count != null && count > 0) {
+                remaining.put(b[offset + i], count - 1);
+                common++;
+            }
+        }
+        return new int[]{m - common, n - common};
+    }
+
+    /**
+     * 依換行分割並將每行對應為整數符號（行內容包含結尾換行，與 git 相同：檔尾缺少換行的行不等於有換行的行）
+     */
+    private static int[] toSymbols(byte[] content, Map<String, Integer> symbols) {
+        List<Integer> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n') {
+                lines.add(symbol(content, start, i + 1, symbols));
+                start = i + 1;
+            }
+        }
+        if (start < content.length) {
+            lines.add(symbol(content, start, content.length, symbols));
+        }
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = lines.get(i);
+        }
+        return result;
+    }
+
+    private static int symbol(byte[] content, int from, int to, Map<String, Integer> symbols) {
+        String line = new String(content, from, to - from, StandardCharsets.ISO_8859_1);
+        return symbols.computeIfAbsent(line, key -> symbols.size());
+    }
+
+    static boolean isBinary(byte[] content) {
+        int length = Math.min(content.length, BINARY_PROBE_LENGTH);
+        for (int i = 0; i < length; i++) {
+            if (content[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
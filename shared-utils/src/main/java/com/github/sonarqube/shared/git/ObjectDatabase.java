@@ -0,0 +1,279 @@
+package com.github.sonarqube.shared.git;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Git 物件資料庫（loose 物件 + pack 檔 + alternates）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+final class ObjectDatabase implements AutoCloseable {
+
+    static final int OBJ_COMMIT = 1;
+    static final int OBJ_TREE = 2;
+    static final int OBJ_BLOB = 3;
+    static final int OBJ_TAG = 4;
+
+    private final List<Path> objectDirectories = new ArrayList<>();
+    private final List<PackFile> packs = new ArrayList<>();
+
+    ObjectDatabase(Path objectsDirectory) throws IOException {
+        addObjectDirectory(objectsDirectory, 0);
+    }
+
+    private void addObjectDirectory(Path directory, int depth) throws IOException {
+        if (depth > 5 || !Files.isDirectory(directory)) {
+            return;
+        }
+        objectDirectories.add(directory);
+
+        Path packDirectory = directory.resolve("pack");
+        if (Files.isDirectory(packDirectory)) {
+            try (DirectoryStream<Path> indexes = Files.newDirectoryStream(packDirectory, "*.idx")) {
+                for (Path index : indexes) {
+                    String name = index.getFileName().toString();
+                    Path pack = packDirectory.resolve(name.substring(0, name.length() - 4) + ".pack");
+                    if (Files.isRegularFile(pack)) {
+                        packs.add(new PackFile(index, pack));
+                    }
+                }
+            }
+        }
+
+        Path alternates = directory.resolve("info").resolve("alternates");
+        if (Files.isRegularFile(alternates)) {
+            for (String line : Files.readAllLines(alternates, StandardCharsets.UTF_8)) {
+                String alternate = line.trim();
+                if (!alternate.isEmpty() && !alternate.startsWith("#")) {
+                    addObjectDirectory(directory.resolve(alternate).normalize(), depth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * 讀取物件
+     *
+     * @param id 物件 ID（20 位元組）
+     * @return 物件
+     * @throws IOException 物件不存在或無法解碼時
+     */
+    GitObject read(byte[] id) throws IOException {
+        for (PackFile pack : packs) {
+            GitObject object = pack.read(id, this);
+            if (object != null) {
+                return object;
+            }
+        }
+        String hex = HexFormat.of().formatHex(id);
+        for (Path directory : objectDirectories) {
+            Path loose = directory.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+            try {
+                return readLoose(Files.readAllBytes(loose));
+            } catch (NoSuchFileException e) {
+                // 嘗試下一個物件目錄
+            }
+        }
+        throw new IOException("Missing git object " + hex);
+    }
+
+    /**
+     * 讀取物件並檢查類型
+     */
+    GitObject read(byte[] id, int expectedType) throws IOException {
+        GitObject object = read(id);
+        if (object.type != expectedType) {
+            throw new IOException("Git object " + HexFormat.of().formatHex(id) + " has type " + object.type
+                + ", expected " + expectedType);
+        }
+        return object;
+    }
+
+    /**
+     * 解析縮寫的物件 ID
+     *
+     * @param prefix 十六進位前綴（至少 4 個字元）
+     * @return 唯一符合的完整 ID，無符合時回傳 null
+     * @throws IOException 前綴不唯一時
+     */
+    byte[] resolvePrefix(String prefix) throws IOException {
+        List<String> matches = new ArrayList<>();
+        for (PackFile pack : packs) {
+            pack.findByPrefix(prefix, matches);
+        }
+        for (Path directory : objectDirectories) {
+            Path fanout = directory.resolve(prefix.substring(0, 2));
+            if (!Files.isDirectory(fanout)) {
+                continue;
+            }
+            try (DirectoryStream<Path> objects = Files.newDirectoryStream(fanout, prefix.substring(2) + "*")) {
+                for (Path object : objects) {
+                    String hex = prefix.substring(0, 2) + object.getFileName();
+                    if (hex.length() == 40 && !matches.contains(hex)) {
+                        matches.add(hex);
+                    }
+                }
+            }
+        }
+        if (matches.size() > 1) {
+            throw new IOException("Ambiguous object id prefix " + prefix);
+        }
+        return matches.isEmpty() ? null : HexFormat.of().parseHex(matches.get(0));
+    }
+
+    private static GitObject readLoose(byte[] compressed) throws IOException {
+        byte[] raw;
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            raw = in.readAllBytes();
+        }
+        int space = indexOf(raw, (byte) ' ', 0);
+        int nul = indexOf(raw, (byte) 0, space + 1);
+        if (space < 0 || nul < 0) {
+            throw new IOException("Corrupt loose object header");
+        }
+        String typeName = new String(raw, 0, space, StandardCharsets.US_ASCII);
+        int type;
+        switch (typeName) {
+            case "commit": type = OBJ_COMMIT; break;
+            case "tree": type = OBJ_TREE; break;
+            case "blob": type = OBJ_BLOB; break;
+            case "tag": type = OBJ_TAG; break;
+            default: throw new IOException("Unknown loose object type " + typeName);
+        }
+        byte[] data = new byte[raw.length - nul - 1];
+        System.arraycopy(raw, nul + 1, data, 0, data.length);
+        return new GitObject(type, data);
+    }
+
+    static int indexOf(byte[] data, byte value, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解壓縮至已知大小
+     */
+    static byte[] inflate(Inflater inflater, InputStream in, int size) throws IOException {
+        byte[] result = new byte[size];
+        byte[] buffer = new byte[8192];
+        int written = 0;
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    int read = in.read(buffer);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of compressed git object");
+                    }
+                    inflater.setInput(buffer, 0, read);
+                }
+                int n = inflater.inflate(result, written, size - written);
+                written += n;
+                if (n == 0 && written == size && !inflater.needsInput()) {
+                    // 資料已完整，僅剩串流結尾
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed git object", e);
+        }
+        if (written != size) {
+            throw new IOException("Git object size mismatch: expected " + size + ", got " + written);
+        }
+        return result;
+    }
+
+    /**
+     * 套用 pack delta
+     */
+    static byte[] applyDelta(byte[] base, byte[] delta) throws IOException {
+        int[] position = {0};
+        long baseSize = readDeltaSize(delta, position);
+        long resultSize = readDeltaSize(delta, position);
+        if (baseSize != base.length) {
+            throw new IOException("Delta base size mismatch");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) resultSize);
+        int p = position[0];
+        while (p < delta.length) {
+            int op = delta[p++] & 0xff;
+            if ((op & 0x80) != 0) {
+                long offset = 0;
+                int length = 0;
+                for (int i = 0; i < 4; i++) {
+                    if ((op & (1 << i)) != 0) {
+                        offset |= (long) (delta[p++] & 0xff) << (8 * i);
+                    }
+                }
+                for (int i = 0; i < 3; i++) {
+                    if ((op & (0x10 << i)) != 0) {
+                        length |= (delta[p++] & 0xff) << (8 * i);
+                    }
+                }
+                if (length == 0) {
+                    length = 0x10000;
+                }
+                out.write(base, (int) offset, length);
+            } else if (op != 0) {
+                out.write(delta, p, op);
+                p += op;
+            } else {
+                throw new IOException("Invalid delta opcode 0");
+            }
+        }
+        if (out.size() != resultSize) {
+            throw new IOException("Delta result size mismatch");
+        }
+        return out.toByteArray();
+    }
+
+    private static long readDeltaSize(byte[] delta, int[] position) {
+        long size = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = delta[position[0]++] & 0xff;
+            size |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PackFile pack : packs) {
+            pack.close();
+        }
+    }
+
+    /**
+     * Git 物件（類型 + 內容）
+     */
+    static final class GitObject {
+        final int type;
+        final byte[] data;
+
+        GitObject(int type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.sonarqube.shared.git;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+
+/**
+ * Pack 檔讀取器（idx v2 + pack v2/v3，支援 OFS_DELTA 與 REF_DELTA）
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+final class PackFile implements AutoCloseable {
+
+    private static final int OBJ_OFS_DELTA = 6;
+    private static final int OBJ_REF_DELTA = 7;
+    private static final int ID_LENGTH = 20;
+
+    /**
+     * delta 基底快取筆數（樹狀物件通常以長串 delta 鏈儲存）
+     */
+    private static final int BASE_CACHE_SIZE = 256;
+
+    private final byte[] index;
+    private final int objectCount;
+    private final int idsOffset;
+    private final int offsets32Offset;
+    private final int offsets64Offset;
+    private final FileChannel pack;
+    private final Map<Long, ObjectDatabase.GitObject> baseCache =
+        new LinkedHashMap<>(BASE_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ObjectDatabase.GitObject> eldest) {
+                return size() > BASE_CACHE_SIZE;
+            }
+        };
+
+    PackFile(Path indexFile, Path packFile) throws IOException {
+        this.index = Files.readAllBytes(indexFile);
+        if (index.length < 8 + 256 * 4 || index[0] != (byte) 0xff || index[1] != 't' || index[2] != 'O'
+                || index[3] != 'c' || readInt(index, 4) != 2) {
+            throw new IOException("Unsupported pack index format: " + indexFile);
+        }
+        this.objectCount = readInt(index, 8 + 255 * 4);
+        this.idsOffset = 8 + 256 * 4;
+        this.offsets32Offset = idsOffset + objectCount * (ID_LENGTH + 4);
+        this.offsets64Offset = offsets32Offset + objectCount * 4;
+        this.pack = FileChannel.open(packFile, StandardOpenOption.READ);
+    }
+
+    /**
+     * 讀取物件
+     *
+     * @return 物件，不在此 pack 中時回傳 null
+     */
+    synchronized ObjectDatabase.GitObject read(byte[] id, ObjectDatabase database) throws IOException {
+        int position = find(id);
+        return position < 0 ? null : readAt(offsetOf(position), database);
+    }
+
+    /**
+     * 收集符合前綴的物件 ID（十六進位）
+     */
+    void findByPrefix(String prefix, List<String> matches) {
+        int first = Integer.parseInt(prefix.substring(0, 2), 16);
+        int low = first == 0 ? 0 : readInt(index, 8 + (first - 1) * 4);
+        int high = readInt(index, 8 + first * 4);
+        HexFormat hex = HexFormat.of();
+        for (int i = low; i < high; i++) {
+            String candidate = hex.formatHex(index, idsOffset + i * ID_LENGTH, idsOffset + (i + 1) * ID_LENGTH);
+            if (candidate.startsWith(prefix) && !matches.contains(candidate)) {
+                matches.add(candidate);
+            }
+        }
+    }
+
+    private int find(byte[] id) {
+        int first = id[0] & 0xff;
+        int low = first == 0 ? 0 : readInt(index, 8 + (first - 1) * 4);
+        int high = readInt(index, 8 + first * 4) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(index, idsOffset + mid * ID_LENGTH, idsOffset + (mid + 1) * ID_LENGTH,
+                id, 0, ID_LENGTH);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private long offsetOf(int position) {
+        long offset = readInt(index, offsets32Offset + position * 4) & 0xffffffffL;
+        if ((offset & 0x80000000L) != 0) {
+            int large = (int) (offset & 0x7fffffffL);
+            offset = ((long) readInt(index, offsets64Offset + large * 8) << 32)
+                | (readInt(index, offsets64Offset + large * 8 + 4) & 0xffffffffL);
+        }
+        return offset;
+    }
+
+    private ObjectDatabase.GitObject readAt(long offset, ObjectDatabase database) throws IOException {
+        ObjectDatabase.GitObject cached = baseCache.get(offset);
+        if (cached != null) {
+            return cached;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(32);
+        pack.read(header, offset);
+        header.flip();
+
+        int b = header.get() & 0xff;
+        int type = (b >> 4) & 0x7;
+        long size = b & 0x0f;
+        int shift = 4;
+        while ((b & 0x80) != 0) {
+            b = header.get() & 0xff;
+            size |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        }
+        if (size > Integer.MAX_VALUE - 16) {
+            throw new IOException("Git object too large: " + size);
+        }
+
+        ObjectDatabase.GitObject object;
+        if (type == OBJ_OFS_DELTA) {
+            b = header.get() & 0xff;
+            long baseDistance = b & 0x7f;
+            while ((b & 0x80) != 0) {
+                b = header.get() & 0xff;
+                baseDistance = ((baseDistance + 1) << 7) | (b & 0x7f);
+            }
+            byte[] delta = inflateAt(offset + header.position(), (int) size);
+            ObjectDatabase.GitObject base = readAt(offset - baseDistance, database);
+            object = new ObjectDatabase.GitObject(base.type, ObjectDatabase.applyDelta(base.data, delta));
+        } else if (type == OBJ_REF_DELTA) {
+            byte[] baseId = new byte[ID_LENGTH];
+            header.get(baseId);
+            byte[] delta = inflateAt(offset + header.position(), (int) size);
+            ObjectDatabase.GitObject base = database.read(baseId);
+            object = new ObjectDatabase.GitObject(base.type, ObjectDatabase.applyDelta(base.data, delta));
+        } else if (type >= ObjectDatabase.OBJ_COMMIT && type <= ObjectDatabase.OBJ_TAG) {
+            object = new ObjectDatabase.GitObject(type, inflateAt(offset + header.position(), (int) size));
+        } else {
+            throw new IOException("Unsupported pack object type " + type);
+        }
+
+        if (object.type != ObjectDatabase.OBJ_BLOB) {
+            baseCache.put(offset, object);
+        }
+        return object;
+    }
+
+    private byte[] inflateAt(long position, int size) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            pack.position(position);
+            InputStream in = Channels.newInputStream(pack);
+            return ObjectDatabase.inflate(inflater, in, size);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 24) | ((data[offset + 1] & 0xff) << 16)
+            | ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+    }
+
+    @Override
+    public void close() throws IOException {
+        pack.close();
+    }
+}
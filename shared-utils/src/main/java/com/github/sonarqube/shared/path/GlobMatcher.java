@@ -0,0 +1,438 @@
+package com.github.sonarqube.shared.path;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 預先編譯的 glob 路徑比對器
+ *
+ * 多個 glob 模式在建構時一次編譯，依形式分流到最便宜的資料結構：
+ * <ul>
+ *   <li>{@code *.min.js}、{@code **}{@code /*Test.java} 等純字尾 → 依最後副檔名分桶的字尾表</li>
+ *   <li>{@code node_modules/**}、{@code /src/generated/**} 等目錄前綴 → 路徑段 trie</li>
+ *   <li>其餘模式 → 合併為單一正規表示式</li>
+ * </ul>
+ *
+ * 語意：{@code **} 匹配任意層目錄，{@code *} 與 {@code ?} 不跨越 {@code /}，支援 {@code [abc]} 與 {@code {a,b}}。
+ * 以 {@code /} 開頭的模式錨定於路徑起點，其餘模式可匹配任一層起始的子路徑（等同隱含 {@code **}{@code /} 前綴）。
+ * 路徑中的 {@code \} 一律視為 {@code /}。
+ * 以 {@code /**} 結尾的模式另可透過 {@link #matchesDirectory(String)} 判斷整個目錄是否被涵蓋，供走訪時剪枝。
+ *
+ * <p>{@link #compileCompatible(Collection)} 供既有設定沿用舊版萬用字元語意：不含 {@code **} 的模式
+ * 以整條路徑比對，{@code *} 匹配任意字元（含 {@code /}），{@code ?} 匹配任一字元，其餘字元皆為字面值。</p>
+ *
+ * <p>不可變，執行緒安全。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class GlobMatcher {
+
+    private static final GlobMatcher EMPTY = new GlobMatcher(false);
+
+    private final boolean ignoreCase;
+
+    /**
+     * 最後副檔名（不含點，無點時為空字串）→ 完整字尾列表
+     */
+    private final Map<String, List<String>> suffixes = new HashMap<>();
+    private final SegmentNode floatingDirectories = new SegmentNode();
+    private final SegmentNode anchoredDirectories = new SegmentNode();
+    private Pattern combined;
+    private Pattern combinedDirectories;
+    private Pattern legacy;
+    private Pattern legacyDirectories;
+    private boolean empty = true;
+
+    // 各資料結構收到的模式數（供測試確認分流）
+    int suffixPatterns;
+    int directoryPatterns;
+    int regexPatterns;
+
+    private GlobMatcher(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * 編譯 glob 模式（區分大小寫）
+     */
+    public static GlobMatcher compile(Collection<String> patterns) {
+        return compile(patterns, false);
+    }
+
+    /**
+     * 編譯 glob 模式
+     *
+     * @param patterns glob 模式
+     * @param ignoreCase 是否忽略大小寫
+     * @throws IllegalArgumentException 模式語法錯誤時
+     */
+    public static GlobMatcher compile(Collection<String> patterns, boolean ignoreCase) {
+        return compile(patterns, ignoreCase, false);
+    }
+
+    /**
+     * 編譯相容舊版語意的模式（區分大小寫）
+     *
+     * 含 {@code **} 的模式依 glob 語意編譯；其餘模式沿用舊版萬用字元語意，
+     * 例：{@code node_modules/*} 仍涵蓋 {@code node_modules/a/b.js}，{@code *}{@code /target/*} 仍涵蓋任一層的 target 目錄。
+     */
+    public static GlobMatcher compileCompatible(Collection<String> patterns) {
+        return compile(patterns, false, true);
+    }
+
+    private static GlobMatcher compile(Collection<String> patterns, boolean ignoreCase, boolean compatible) {
+        if (patterns.isEmpty()) {
+            return ignoreCase ? new GlobMatcher(true) : EMPTY;
+        }
+        GlobMatcher matcher = new GlobMatcher(ignoreCase);
+        List<String> regexes = new ArrayList<>();
+        List<String> directoryRegexes = new ArrayList<>();
+        List<String> legacyRegexes = new ArrayList<>();
+        List<String> legacyDirectoryRegexes = new ArrayList<>();
+        for (String raw : patterns) {
+            String pattern = raw.trim().replace('\\', '/');
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            if (ignoreCase) {
+                pattern = pattern.toLowerCase(Locale.ROOT);
+            }
+            matcher.empty = false;
+            if (compatible && !pattern.contains("**")) {
+                matcher.addLegacy(pattern, legacyRegexes, legacyDirectoryRegexes);
+            } else {
+                matcher.add(pattern, regexes, directoryRegexes);
+            }
+        }
+        matcher.combined = join(regexes);
+        matcher.combinedDirectories = join(directoryRegexes);
+        matcher.legacy = join(legacyRegexes);
+        matcher.legacyDirectories = join(legacyDirectoryRegexes);
+        return matcher;
+    }
+
+    private static Pattern join(List<String> regexes) {
+        return regexes.isEmpty() ? null : Pattern.compile(String.join("|", regexes));
+    }
+
+    /**
+     * 依副檔名建立比對器（例：".java" 等同 {@code **}{@code /*.java}）
+     */
+    public static GlobMatcher forExtensions(Collection<String> extensions, boolean ignoreCase) {
+        List<String> patterns = new ArrayList<>(extensions.size());
+        for (String extension : extensions) {
+            patterns.add("*" + (extension.startsWith(".") ? extension : "." + extension));
+        }
+        return compile(patterns, ignoreCase);
+    }
+
+    private void add(String pattern, List<String> regexes, List<String> directoryRegexes) {
+        boolean anchored = pattern.startsWith("/");
+        String body = anchored ? pattern.substring(1) : pattern;
+        while (!anchored && body.startsWith("**/")) {
+            body = body.substring(3);
+        }
+        if (body.isEmpty() || "**".equals(body)) {
+            // 匹配所有路徑
+            regexes.add(".*");
+            directoryRegexes.add(".*");
+            return;
+        }
+
+        // 純字尾：*<literal>
+        if (!anchored && body.startsWith("*") && isLiteral(body.substring(1)) && body.length() > 1) {
+            addSuffix(body.substring(1));
+            return;
+        }
+
+        // 目錄前綴：<seg>/<seg>/**
+        if (body.endsWith("/**")) {
+            String directories = body.substring(0, body.length() - 3);
+            if (!directories.isEmpty() && isLiteral(directories.replace("/", ""))
+                    && !directories.contains("//")) {
+                SegmentNode node = anchored ? anchoredDirectories : floatingDirectories;
+                for (String segment : directories.split("/")) {
+                    node = node.children.computeIfAbsent(segment, key -> new SegmentNode());
+                }
+                node.terminal = true;
+                directoryPatterns++;
+                return;
+            }
+        }
+
+        String prefix = anchored ? "" : "(?:.*/)?";
+        regexes.add(prefix + toRegex(body));
+        regexPatterns++;
+        if (body.endsWith("/**")) {
+            directoryRegexes.add(prefix + toRegex(body.substring(0, body.length() - 3)));
+        }
+    }
+
+    /**
+     * 舊版語意：整條路徑（保留開頭的 /）比對，{@code *} 可跨越目錄
+     */
+    private void addLegacy(String pattern, List<String> regexes, List<String> directoryRegexes) {
+        String rest = pattern.substring(1);
+        if (pattern.startsWith("*") && !rest.isEmpty()
+                && rest.indexOf('*') < 0 && rest.indexOf('?') < 0 && rest.indexOf('/') < 0) {
+            // 「.*字尾」整條比對等同檔名字尾比對
+            addSuffix(rest);
+            return;
+        }
+        regexes.add(toLegacyRegex(pattern));
+        regexPatterns++;
+        if (pattern.endsWith("/*") && pattern.length() > 2) {
+            // 目錄本身（或其上層）符合「/*」之前的部分時，其下所有路徑必定符合
+            directoryRegexes.add(toLegacyRegex(pattern.substring(0, pattern.length() - 2)) + "(?:/.*)?");
+        }
+    }
+
+    private void addSuffix(String suffix) {
+        suffixes.computeIfAbsent(lastExtension(suffix), key -> new ArrayList<>()).add(suffix);
+        suffixPatterns++;
+    }
+
+    /**
+     * 路徑是否符合任一模式
+     */
+    public boolean matches(Path path) {
+        return matches(path.toString());
+    }
+
+    /**
+     * 路徑是否符合任一模式
+     */
+    public boolean matches(String path) {
+        if (empty) {
+            return false;
+        }
+        String slashed = toSlashes(path);
+        if (legacy != null && legacy.matcher(slashed).matches()) {
+            return true;
+        }
+        String normalized = stripLeadingSlash(slashed);
+
+        int lastSlash = normalized.lastIndexOf('/');
+        if (!suffixes.isEmpty()) {
+            String fileName = normalized.substring(lastSlash + 1);
+            if (matchesSuffix(fileName, suffixes.get(lastExtension(fileName)))
+                    || matchesSuffix(fileName, suffixes.get(""))) {
+                return true;
+            }
+        }
+
+        if (lastSlash > 0 && (!floatingDirectories.children.isEmpty() || !anchoredDirectories.children.isEmpty())) {
+            String[] directories = normalized.substring(0, lastSlash).split("/");
+            if (matchesDirectories(anchoredDirectories, directories, 0)) {
+                return true;
+            }
+            if (!floatingDirectories.children.isEmpty()) {
+                for (int start = 0; start < directories.length; start++) {
+                    if (matchesDirectories(floatingDirectories, directories, start)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return combined != null && combined.matcher(normalized).matches();
+    }
+
+    /**
+     * 目錄底下的所有路徑是否都必定符合（例：{@code node_modules/**} 涵蓋任一層的 node_modules 目錄）
+     *
+     * 僅考慮以 {@code /**} 結尾的模式；回傳 false 不代表目錄內沒有符合的檔案。
+     *
+     * @param directory 目錄路徑
+     */
+    public boolean matchesDirectory(String directory) {
+        if (empty) {
+            return false;
+        }
+        String slashed = toSlashes(directory);
+        if (slashed.endsWith("/")) {
+            slashed = slashed.substring(0, slashed.length() - 1);
+        }
+        if (legacyDirectories != null && !slashed.isEmpty() && legacyDirectories.matcher(slashed).matches()) {
+            return true;
+        }
+        String normalized = stripLeadingSlash(slashed);
+        if (normalized.isEmpty()) {
+            return false;
+        }
+
+        if (!floatingDirectories.children.isEmpty() || !anchoredDirectories.children.isEmpty()) {
+            String[] segments = normalized.split("/");
+            if (matchesDirectories(anchoredDirectories, segments, 0)) {
+                return true;
+            }
+            if (!floatingDirectories.children.isEmpty()) {
+                for (int start = 0; start < segments.length; start++) {
+                    if (matchesDirectories(floatingDirectories, segments, start)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return combinedDirectories != null && combinedDirectories.matcher(normalized).matches();
+    }
+
+    /**
+     * 是否未包含任何模式
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    private String toSlashes(String path) {
+        String normalized = path.indexOf('\\') >= 0 ? path.replace('\\', '/') : path;
+        return ignoreCase ? normalized.toLowerCase(Locale.ROOT) : normalized;
+    }
+
+    private static String stripLeadingSlash(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static boolean matchesSuffix(String fileName, List<String> candidates) {
+        if (candidates != null) {
+            for (String suffix : candidates) {
+                if (fileName.endsWith(suffix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesDirectories(SegmentNode root, String[] directories, int start) {
+        SegmentNode node = root;
+        for (int i = start; i < directories.length; i++) {
+            node = node.children.get(directories[i]);
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String lastExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+
+    private static boolean isLiteral(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{' || c == '/') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * glob 轉正規表示式
+     */
+    static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int braces = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        boolean slashAfter = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                        if (slashAfter) {
+                            regex.append("(?:.*/)?");
+                            i += 2;
+                        } else {
+                            regex.append(".*");
+                            i++;
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[':
+                    int close = glob.indexOf(']', i + 2);
+                    if (close < 0) {
+                        throw new IllegalArgumentException("Unclosed character class in glob: " + glob);
+                    }
+                    String content = glob.substring(i + 1, close);
+                    if (content.startsWith("!")) {
+                        content = "^" + content.substring(1);
+                    }
+                    regex.append('[').append(content.replace("\\", "\\\\")).append(']');
+                    i = close;
+                    break;
+                case '{':
+                    regex.append("(?:");
+                    braces++;
+                    break;
+                case '}':
+                    if (braces == 0) {
+                        throw new IllegalArgumentException("Unbalanced '}' in glob: " + glob);
+                    }
+                    regex.append(')');
+                    braces--;
+                    break;
+                case ',':
+                    regex.append(braces > 0 ? "|" : ",");
+                    break;
+                default:
+                    if ("\\.^$+()|".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+        if (braces != 0) {
+            throw new IllegalArgumentException("Unbalanced '{' in glob: " + glob);
+        }
+        return regex.toString();
+    }
+
+    /**
+     * 舊版萬用字元轉正規表示式（{@code *} → 任意字元，{@code ?} → 單一字元，其餘為字面值）
+     */
+    static String toLegacyRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(pattern.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(literalStart)));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * 路徑段 trie 節點
+     */
+    private static final class SegmentNode {
+        final Map<String, SegmentNode> children = new HashMap<>();
+        boolean terminal;
+    }
+}
@@ -0,0 +1,357 @@
+package com.github.sonarqube.shared.path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 依掃描範圍剪枝的平行目錄走訪器
+ *
+ * 每個目錄為一個 fork-join 任務，以 {@link Files#walkFileTree} 走訪：被排除的目錄（例：{@code node_modules/**}）
+ * 直接 {@link FileVisitResult#SKIP_SUBTREE}，不再列舉其內容；其餘子目錄 fork 為新任務平行處理。
+ * 檔案大小與修改時間取自走訪時已取得的 {@link BasicFileAttributes}，不另外呼叫 stat。
+ *
+ * <p>路徑比對一律使用相對於根目錄的路徑。不跟隨符號連結；無法讀取的目錄記錄後略過。</p>
+ *
+ * @author SonarQube AI OWASP Plugin Team
+ * @since 2.9.0
+ */
+public final class ScopedFileWalker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScopedFileWalker.class);
+
+    /**
+     * 串流結束標記
+     */
+    private static final ScannedFile END = new ScannedFile(Path.of(""), "", 0, 0);
+
+    /**
+     * 串流緩衝上限（讀取端較慢時，走訪執行緒等待而非無限累積）
+     */
+    static final int STREAM_BUFFER_SIZE = 1024;
+
+    /**
+     * 緩衝已滿時，每隔多久檢查一次串流是否已關閉
+     */
+    private static final long OFFER_POLL_MILLIS = 50;
+
+    private final Path root;
+    private final List<GlobMatcher> exclusions;
+    private final GlobMatcher inclusions;
+    private final long maxFileSizeBytes;
+    private final int parallelism;
+    private final LongAdder prunedDirectories = new LongAdder();
+
+    private ScopedFileWalker(Builder builder) {
+        this.root = builder.root;
+        this.exclusions = List.copyOf(builder.exclusions);
+        this.inclusions = builder.inclusions;
+        this.maxFileSizeBytes = builder.maxFileSizeBytes;
+        this.parallelism = builder.parallelism;
+    }
+
+    public static Builder builder(Path root) {
+        return new Builder(root);
+    }
+
+    /**
+     * 走訪並將候選檔案交給 sink（阻塞至走訪完成）
+     *
+     * @param sink 由多個執行緒同時呼叫，必須是執行緒安全的
+     * @throws IOException 根目錄無法讀取時
+     */
+    public void walk(Consumer<ScannedFile> sink) throws IOException {
+        if (!Files.isDirectory(root)) {
+            throw new IOException("Not a directory: " + root);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(root, sink, new AtomicBoolean()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 以串流取得候選檔案（背景走訪，邊列舉邊供應）
+     *
+     * 串流使用完畢須關閉，提前關閉會停止走訪。走訪失敗時於讀取端拋出 {@link UncheckedIOException}。
+     * 緩衝最多 {@value #STREAM_BUFFER_SIZE} 個檔案，讀取端跟不上時走訪執行緒會等待；關閉串流後走訪執行緒隨即結束。
+     */
+    public Stream<ScannedFile> stream() {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(STREAM_BUFFER_SIZE);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        Thread producer = new Thread(() -> {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            Object last = END;
+            try {
+                if (!Files.isDirectory(root)) {
+                    throw new IOException("Not a directory: " + root);
+                }
+                pool.invoke(new DirectoryTask(root, file -> offer(queue, file, cancelled), cancelled));
+            } catch (IOException e) {
+                last = new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                last = e;
+            } finally {
+                pool.shutdownNow();
+            }
+            if (last != END) {
+                offer(queue, last, cancelled);
+            }
+            offer(queue, END, cancelled);
+        }, "scoped-file-walker");
+        producer.setDaemon(true);
+        producer.start();
+
+        Spliterator<ScannedFile> spliterator = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.NONNULL | Spliterator.DISTINCT) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ScannedFile> action) {
+                Object next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled.set(true);
+                    return false;
+                }
+                if (next instanceof RuntimeException) {
+                    throw (RuntimeException) next;
+                }
+                if (next == END) {
+                    return false;
+                }
+                action.accept((ScannedFile) next);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> cancelled.set(true));
+    }
+
+    /**
+     * 放入串流緩衝；緩衝已滿時等待，串流關閉或執行緒中斷時放棄
+     */
+    private static void offer(BlockingQueue<Object> queue, Object item, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(item, OFFER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * 累計剪枝（未進入走訪）的目錄數
+     */
+    long getPrunedDirectoryCount() {
+        return prunedDirectories.sum();
+    }
+
+    private boolean isExcludedDirectory(String relativePath) {
+        for (GlobMatcher exclusion : exclusions) {
+            if (exclusion.matchesDirectory(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCandidate(String relativePath, BasicFileAttributes attributes) {
+        if (!attributes.isRegularFile() || attributes.size() > maxFileSizeBytes) {
+            return false;
+        }
+        if (inclusions != null && !inclusions.matches(relativePath)) {
+            return false;
+        }
+        for (GlobMatcher exclusion : exclusions) {
+            if (exclusion.matches(relativePath)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String relativize(Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * 單一目錄的走訪任務（子目錄 fork 為新任務）
+     */
+    private final class DirectoryTask extends RecursiveAction {
+
+        private final Path directory;
+        private final Consumer<ScannedFile> sink;
+        private final AtomicBoolean cancelled;
+
+        DirectoryTask(Path directory, Consumer<ScannedFile> sink, AtomicBoolean cancelled) {
+            this.directory = directory;
+            this.sink = sink;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), Integer.MAX_VALUE,
+                        new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (cancelled.get()) {
+                            return FileVisitResult.TERMINATE;
+                        }
+                        if (dir.equals(directory)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        if (isExcludedDirectory(relativize(dir))) {
+                            prunedDirectories.increment();
+                        } else {
+                            DirectoryTask subtask = new DirectoryTask(dir, sink, cancelled);
+                            subtask.fork();
+                            subtasks.add(subtask);
+                        }
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String relativePath = relativize(file);
+                        if (isCandidate(relativePath, attrs)) {
+                            sink.accept(new ScannedFile(file, relativePath, attrs.size(),
+                                    attrs.lastModifiedTime().toMillis()));
+                        }
+                        return cancelled.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        LOG.debug("略過無法讀取的路徑 {}: {}", file, exc.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (DirectoryTask subtask : subtasks) {
+                subtask.join();
+            }
+        }
+    }
+
+    /**
+     * 走訪器 Builder
+     */
+    public static final class Builder {
+        private final Path root;
+        private final List<GlobMatcher> exclusions = new ArrayList<>();
+        private GlobMatcher inclusions;
+        private long maxFileSizeBytes = Long.MAX_VALUE;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        private Builder(Path root) {
+            this.root = Objects.requireNonNull(root, "root");
+        }
+
+        /**
+         * 排除的路徑（以 {@code /**} 結尾的模式會在目錄層級剪枝）
+         */
+        public Builder exclude(GlobMatcher matcher) {
+            if (!matcher.isEmpty()) {
+                exclusions.add(matcher);
+            }
+            return this;
+        }
+
+        /**
+         * 只保留符合的檔案（空比對器表示不限制）
+         */
+        public Builder include(GlobMatcher matcher) {
+            this.inclusions = matcher.isEmpty() ? null : matcher;
+            return this;
+        }
+
+        public Builder maxFileSizeBytes(long maxFileSizeBytes) {
+            if (maxFileSizeBytes < 0) {
+                throw new IllegalArgumentException("Max file size must not be negative");
+            }
+            this.maxFileSizeBytes = maxFileSizeBytes;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Parallelism must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public ScopedFileWalker build() {
+            return new ScopedFileWalker(this);
+        }
+    }
+
+    /**
+     * 走訪取得的候選檔案
+     */
+    public static final class ScannedFile {
+        private final Path path;
+        private final String relativePath;
+        private final long size;
+        private final long lastModifiedMillis;
+
+        ScannedFile(Path path, String relativePath, long size, long lastModifiedMillis) {
+            this.path = path;
+            this.relativePath = relativePath;
+            this.size = size;
+            this.lastModifiedMillis = lastModifiedMillis;
+        }
+
+        public Path getPath() { return path; }
+
+        /**
+         * 相對於走訪根目錄的路徑（以 / 分隔）
+         */
+        public String getRelativePath() { return relativePath; }
+        public long getSize() { return size; }
+        public long getLastModifiedMillis() { return lastModifiedMillis; }
+
+        @Override
+        public String toString() {
+            return relativePath;
+        }
+    }
+}
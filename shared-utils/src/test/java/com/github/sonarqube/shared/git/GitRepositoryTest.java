@@ -0,0 +1,550 @@
+package com.github.sonarqube.shared.git;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * GitRepository 單元測試
+ *
+ * 以 git 指令建立真實倉庫（索引版本、pack 差異鏈、packed-refs、detached HEAD），
+ * 再比對行程內讀取的結果與 git 指令的輸出。環境中沒有 git 時略過。
+ */
+class GitRepositoryTest {
+
+    @TempDir
+    Path root;
+
+    private Path work;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(gitAvailable(), "git is not installed");
+        work = Files.createDirectories(root.resolve("repo"));
+        git("init", "-q", "-b", "main");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4})
+    void testIndexVersions(int version) throws Exception {
+        write("src/App.java", lines("class App {", "}"));
+        write("src/util/Strings.java", lines("class Strings {", "}"));
+        write("docs/readme.md", lines("# readme"));
+        write("deleted.txt", lines("gone"));
+        commit("initial");
+
+        write("src/App.java", lines("class App {", "  void run() {}", "}"));
+        git("add", "src/App.java");
+        write("src/util/Strings.java", lines("final class Strings {", "}", "// tail"));
+        write("src/util/Added.java", lines("class Added {}"));
+        git("add", "src/util/Added.java");
+        Files.delete(work.resolve("deleted.txt"));
+        if (version == 3) {
+            // intent-to-add 使用延伸旗標，需要版本 3 以上
+            write("src/IntentToAdd.java", lines("class IntentToAdd {}"));
+            git("add", "-N", "src/IntentToAdd.java");
+        }
+        git("update-index", "--index-version", String.valueOf(version));
+        assertEquals(version, indexVersion());
+
+        try (GitRepository repository = open()) {
+            assertEquals(expectedChanges("diff", "--cached"), describe(repository.diffIndex(true)));
+            assertEquals(expectedChanges("diff", "HEAD"), describe(repository.diffWorkingTree("HEAD", true)));
+        }
+    }
+
+    @Test
+    void testOfsDeltaChains() throws Exception {
+        List<String> commits = buildHistory();
+        git("repack", "-adf", "--depth=50", "--window=50");
+        git("prune-packed");
+        assertNoLooseObjects();
+        assertTrue(maxDeltaChain() >= 2, "pack should contain delta chains");
+
+        assertHistoryMatchesGit(commits);
+    }
+
+    @Test
+    void testRefDeltaChains() throws Exception {
+        List<String> commits = buildHistory();
+        // pack-objects 未指定 --delta-base-offset 時以 REF_DELTA 記錄差異基底
+        String objects = git("rev-list", "--objects", "--all");
+        Path packDirectory = work.resolve(".git/objects/pack");
+        Files.createDirectories(packDirectory);
+        runGit(objects, "pack-objects", "-q", "--depth=50", "--window=50",
+            packDirectory.resolve("pack").toString());
+        git("prune-packed");
+        assertNoLooseObjects();
+        assertTrue(maxDeltaChain() >= 2, "pack should contain delta chains");
+
+        assertHistoryMatchesGit(commits);
+    }
+
+    @Test
+    void testPackedRefs() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        write("a.txt", lines("one", "two"));
+        commit("second");
+        git("branch", "feature", "HEAD~1");
+        git("tag", "-a", "v1", "-m", "release", "HEAD~1");
+        git("tag", "light", "HEAD");
+        git("pack-refs", "--all");
+        assertFalse(Files.exists(work.resolve(".git/refs/heads/feature")));
+        assertTrue(Files.readString(work.resolve(".git/packed-refs")).contains("refs/tags/v1"));
+
+        try (GitRepository repository = open()) {
+            for (String revision : List.of("main", "feature", "v1", "light", "refs/heads/feature", "tags/v1",
+                    "main~1", "v1^0", "HEAD^")) {
+                assertEquals(git("rev-parse", revision + "^{commit}").trim(), repository.resolve(revision),
+                    revision);
+            }
+            assertEquals("main", repository.getCurrentBranch());
+        }
+    }
+
+    @Test
+    void testDetachedHead() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        write("a.txt", lines("one", "two"));
+        commit("second");
+        git("checkout", "-q", "--detach", "HEAD~1");
+
+        try (GitRepository repository = open()) {
+            assertEquals("HEAD", repository.getCurrentBranch());
+            assertEquals(git("rev-parse", "HEAD").trim(), repository.resolve("HEAD"));
+            assertEquals(expectedChanges("diff", "main"), describe(repository.diffWorkingTree("main", true)));
+        }
+    }
+
+    @Test
+    void testShortIdsAndUnsupportedRevisions() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        String head = git("rev-parse", "HEAD").trim();
+
+        try (GitRepository repository = open()) {
+            assertEquals(head, repository.resolve(head.substring(0, 8)));
+            assertThrows(IOException.class, () -> repository.resolve("HEAD@{1}"));
+            assertThrows(IOException.class, () -> repository.resolve("main..HEAD"));
+            assertThrows(IOException.class, () -> repository.resolve("missing-branch"));
+        }
+    }
+
+    @Test
+    void testOpenOutsideRepository() throws Exception {
+        Path outside = Files.createDirectories(root.resolve("plain"));
+        assertTrue(GitRepository.open(outside).isEmpty());
+    }
+
+    @Test
+    void testLinkedWorktreeUsesCommonDirectory() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        git("branch", "side");
+        Path linked = root.resolve("linked");
+        git("worktree", "add", "-q", linked.toString(), "side");
+        Files.writeString(linked.resolve("a.txt"), lines("one", "two"));
+
+        try (GitRepository repository = GitRepository.open(linked.resolve("sub")).orElseThrow()) {
+            assertEquals(linked.toRealPath(), repository.getWorkTree().toRealPath());
+            assertEquals("side", repository.getCurrentBranch());
+            assertEquals(Set.of("MODIFIED a.txt +1 -0"), describe(repository.diffWorkingTree("HEAD", true)));
+        }
+    }
+
+    @Test
+    void testUnsupportedRepositoryLayouts() throws Exception {
+        Path invalid = Files.createDirectories(root.resolve("invalid"));
+        Files.writeString(invalid.resolve(".git"), "not a gitdir pointer");
+        assertThrows(IOException.class, () -> GitRepository.open(invalid));
+
+        // 直接寫入設定檔：git 指令本身也無法在這些設定下操作此倉庫
+        Path config = work.resolve(".git/config");
+        String original = Files.readString(config);
+        Files.writeString(config, original + "[core]\n\tworktree = ../elsewhere\n");
+        assertThrows(IOException.class, () -> GitRepository.open(work));
+
+        Files.writeString(config, original + "[extensions]\n\tobjectFormat = sha256\n");
+        assertThrows(IOException.class, () -> GitRepository.open(work));
+    }
+
+    @Test
+    void testUnsupportedIndexFiles() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        Path index = work.resolve(".git/index");
+
+        git("update-index", "--split-index");
+        try (GitRepository repository = open()) {
+            assertThrows(IOException.class, () -> repository.diffIndex(false));
+        }
+
+        git("update-index", "--no-split-index");
+        byte[] data = Files.readAllBytes(index);
+        data[7] = 5;
+        Files.write(index, data);
+        try (GitRepository repository = open()) {
+            assertThrows(IOException.class, () -> repository.diffIndex(false));
+        }
+
+        Files.writeString(index, "garbage");
+        try (GitRepository repository = open()) {
+            assertThrows(IOException.class, () -> repository.diffIndex(false));
+        }
+
+        Files.delete(index);
+        try (GitRepository repository = open()) {
+            // 沒有索引時所有已提交檔案都視為已從索引移除
+            assertEquals(Set.of("DELETED a.txt +0 -0"), describe(repository.diffIndex(false)));
+        }
+    }
+
+    @Test
+    void testLongSharedPrefixInIndexVersion4() throws Exception {
+        String directory = "a".repeat(150) + "/" + "b".repeat(60);
+        write(directory + "/First.java", lines("class First {}"));
+        write(directory + "/Second.java", lines("class Second {}"));
+        commit("initial");
+        write(directory + "/Second.java", lines("class Second {", "}"));
+        git("update-index", "--index-version", "4");
+
+        try (GitRepository repository = open()) {
+            assertEquals(expectedChanges("diff", "HEAD"), describe(repository.diffWorkingTree("HEAD", true)));
+        }
+    }
+
+    @Test
+    void testMergeConflictIsReportedAsModified() throws Exception {
+        write("a.txt", lines("base"));
+        commit("base");
+        git("checkout", "-q", "-b", "other");
+        write("a.txt", lines("other"));
+        commit("other");
+        git("checkout", "-q", "main");
+        write("a.txt", lines("main"));
+        commit("main");
+        assertThrows(IOException.class, () -> git("merge", "-q", "other"));
+
+        try (GitRepository repository = open()) {
+            assertEquals(Set.of("MODIFIED a.txt +0 -0"), describe(repository.diffIndex(true)));
+            assertEquals(Set.of("MODIFIED a.txt +0 -0"), describe(repository.diffWorkingTree("HEAD", true)));
+        }
+    }
+
+    @Test
+    void testFileAndDirectorySwapBetweenCommits() throws Exception {
+        write("node", lines("file"));
+        write("dir/inner.txt", lines("x", "y"));
+        commit("first");
+        Files.delete(work.resolve("node"));
+        write("node/child.txt", lines("child"));
+        Files.delete(work.resolve("dir/inner.txt"));
+        Files.delete(work.resolve("dir"));
+        write("dir", lines("now a file"));
+        commit("second");
+
+        try (GitRepository repository = open()) {
+            assertEquals(expectedChanges("diff", "HEAD~1", "HEAD"),
+                describe(repository.diffCommits("HEAD~1", "HEAD", true)));
+            assertEquals(expectedChanges("diff", "HEAD", "HEAD~1"),
+                describe(repository.diffCommits("HEAD", "HEAD~1", true)));
+        }
+    }
+
+    @Test
+    void testSymlinksAndExecutableBit() throws Exception {
+        write("target.txt", lines("target"));
+        write("run.sh", lines("echo run"));
+        Files.createSymbolicLink(work.resolve("link"), Path.of("target.txt"));
+        commit("first");
+        Files.delete(work.resolve("link"));
+        Files.createSymbolicLink(work.resolve("link"), Path.of("run.sh"));
+        assumeTrue(work.resolve("run.sh").toFile().setExecutable(true));
+
+        try (GitRepository repository = open()) {
+            assertEquals(expectedChanges("diff", "HEAD"), describe(repository.diffWorkingTree("HEAD", true)));
+        }
+
+        // core.filemode=false 時忽略執行位元
+        git("config", "core.fileMode", "false");
+        try (GitRepository repository = open()) {
+            assertEquals(Set.of("MODIFIED link +1 -1"), describe(repository.diffWorkingTree("HEAD", true)));
+        }
+    }
+
+    @Test
+    void testPathFilterLimitsChanges() throws Exception {
+        write("src/App.java", lines("a"));
+        write("docs/readme.md", lines("a"));
+        commit("first");
+        write("src/App.java", lines("b"));
+        write("docs/readme.md", lines("b"));
+        Files.delete(work.resolve("docs/readme.md"));
+
+        try (GitRepository repository = open()) {
+            assertEquals(Set.of("MODIFIED src/App.java +1 -1"),
+                describe(repository.diffWorkingTree("HEAD", true, path -> path.startsWith("src/"))));
+            assertEquals(Set.of("MODIFIED src/App.java +0 -0", "DELETED docs/readme.md +0 -0"),
+                describe(repository.diffWorkingTree("HEAD", false)));
+        }
+    }
+
+    @Test
+    void testContentConversionSettings() throws Exception {
+        write("a.txt", lines("one"));
+        write(".gitattributes", String.join("\n", "# comment", "", "*.bin -text !diff", "*.md eol=lf") + "\n");
+        commit("first");
+        write("a.txt", "one\r\ntwo\r\n");
+
+        try (GitRepository repository = open()) {
+            // 換行轉換會改變含 CR 的檔案內容，無法比較
+            assertThrows(IOException.class, () -> repository.diffWorkingTree("HEAD", false));
+            // 索引比較不受影響
+            assertTrue(repository.diffIndex(false).isEmpty());
+        }
+
+        write(".gitattributes", lines("*.txt text"));
+        write("sub/.gitattributes", lines("*.dat filter=lfs"));
+        write("a.txt", lines("one"));
+        commit("second");
+        try (GitRepository repository = open()) {
+            assertThrows(IOException.class, () -> repository.diffWorkingTree("HEAD", false));
+        }
+    }
+
+    @Test
+    void testAutocrlfConfigEnablesConversion() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        Files.writeString(work.resolve(".git/config"), String.join("\n",
+            "[core]",
+            "\trepositoryformatversion = 0",
+            "\tbare = false ; trailing comment",
+            "\tautocrlf = \"input\" # quoted value",
+            "[remote \"origin\"]",
+            "\turl = https://example.com/repo.git",
+            "\tmirror"), StandardCharsets.UTF_8);
+        write("a.txt", "one\r\n");
+
+        try (GitRepository repository = open()) {
+            assertThrows(IOException.class, () -> repository.diffWorkingTree("HEAD", false));
+        }
+    }
+
+    @Test
+    void testAlternatesAndPackedShortIds() throws Exception {
+        List<String> commits = buildHistory();
+        git("repack", "-adq");
+        Path clone = root.resolve("clone");
+        git("clone", "-q", "--shared", work.toString(), clone.toString());
+        assertTrue(Files.exists(clone.resolve(".git/objects/info/alternates")));
+
+        try (GitRepository repository = GitRepository.open(clone).orElseThrow()) {
+            String head = commits.get(commits.size() - 1);
+            assertEquals(head, repository.resolve("origin/main"));
+            assertEquals(commits.get(1), repository.resolve(commits.get(1).substring(0, 10)));
+            assertEquals(expectedChanges("diff", commits.get(0), head),
+                describe(repository.diffCommits(commits.get(0), head, true)));
+        }
+    }
+
+    @Test
+    void testRevisionsThatDoNotNameCommits() throws Exception {
+        write("a.txt", lines("one"));
+        commit("first");
+        String blob = git("rev-parse", "HEAD:a.txt").trim();
+        git("tag", "-a", "blob-tag", "-m", "points at a blob", blob);
+
+        try (GitRepository repository = open()) {
+            assertThrows(IOException.class, () -> repository.resolve("blob-tag"));
+            assertThrows(IOException.class, () -> repository.resolve(blob));
+            assertThrows(IOException.class, () -> repository.resolve("HEAD~1"));
+            assertThrows(IOException.class, () -> repository.resolve("HEAD^2"));
+            assertThrows(IOException.class, () -> repository.resolve("~1"));
+            assertEquals(repository.resolve("HEAD"), repository.resolve("HEAD^0"));
+        }
+    }
+
+    // ========== 輔助方法 ==========
+
+    /**
+     * 建立多個提交，讓同一檔案的各版本在 pack 中形成差異鏈
+     */
+    private List<String> buildHistory() throws Exception {
+        List<String> body = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            body.add("line " + i + " of a reasonably long file used for delta compression");
+        }
+        List<String> commits = new ArrayList<>();
+        for (int revision = 0; revision < 6; revision++) {
+            body.set(revision * 30, "changed in revision " + revision);
+            body.add("appended in revision " + revision);
+            write("src/Large.java", String.join("\n", body) + "\n");
+            write("src/Small" + revision + ".java", lines("class Small" + revision + " {}"));
+            if (revision == 3) {
+                Files.delete(work.resolve("src/Small0.java"));
+            }
+            commit("revision " + revision);
+            commits.add(git("rev-parse", "HEAD").trim());
+        }
+        return commits;
+    }
+
+    private void assertHistoryMatchesGit(List<String> commits) throws Exception {
+        try (GitRepository repository = open()) {
+            for (int i = 1; i < commits.size(); i++) {
+                String from = commits.get(0);
+                String to = commits.get(i);
+                assertEquals(expectedChanges("diff", from, to), describe(repository.diffCommits(from, to, true)),
+                    from + ".." + to);
+            }
+            assertEquals(commits.get(2), repository.resolve("HEAD~3"));
+        }
+    }
+
+    private GitRepository open() throws IOException {
+        return GitRepository.open(work).orElseThrow();
+    }
+
+    private void commit(String message) throws Exception {
+        git("add", "-A");
+        git("commit", "-q", "-m", message);
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = work.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private int indexVersion() throws IOException {
+        byte[] header = Files.readAllBytes(work.resolve(".git/index"));
+        return ByteBuffer.wrap(header, 4, 4).getInt();
+    }
+
+    private void assertNoLooseObjects() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(work.resolve(".git/objects"), "[0-9a-f][0-9a-f]")) {
+            for (Path fanout : entries) {
+                try (DirectoryStream<Path> objects = Files.newDirectoryStream(fanout)) {
+                    assertFalse(objects.iterator().hasNext(), "loose objects left in " + fanout);
+                }
+            }
+        }
+    }
+
+    /**
+     * pack 中最長的差異鏈長度（git verify-pack -v 的 chain length 統計）
+     */
+    private int maxDeltaChain() throws Exception {
+        int max = 0;
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(work.resolve(".git/objects/pack"), "*.idx")) {
+            for (Path index : indexes) {
+                for (String line : git("verify-pack", "-v", index.toString()).split("\n")) {
+                    if (line.startsWith("chain length = ")) {
+                        max = Math.max(max, Integer.parseInt(line.substring(15, line.indexOf(':')).trim()));
+                    }
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * git 指令的變更結果（類型 路徑 +新增 -刪除）
+     */
+    private Set<String> expectedChanges(String... diffArgs) throws Exception {
+        Map<String, String> types = new HashMap<>();
+        for (String line : git(concat(diffArgs, "--no-renames", "--name-status")).split("\n")) {
+            if (!line.isEmpty()) {
+                String[] parts = line.split("\t");
+                types.put(parts[1], parts[0]);
+            }
+        }
+        Set<String> result = new TreeSet<>();
+        for (String line : git(concat(diffArgs, "--no-renames", "--numstat")).split("\n")) {
+            if (!line.isEmpty()) {
+                String[] parts = line.split("\t");
+                String type = switch (types.get(parts[2])) {
+                    case "A" -> "ADDED";
+                    case "D" -> "DELETED";
+                    default -> "MODIFIED";
+                };
+                result.add(type + " " + parts[2] + " +" + parts[0] + " -" + parts[1]);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> describe(List<GitChange> changes) {
+        return changes.stream()
+            .map(change -> change.getType() + " " + change.getPath()
+                + " +" + change.getAddedLines() + " -" + change.getDeletedLines())
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String[] concat(String[] head, String... tail) {
+        String[] result = new String[head.length + tail.length];
+        System.arraycopy(head, 0, result, 0, head.length);
+        System.arraycopy(tail, 0, result, head.length, tail.length);
+        return result;
+    }
+
+    private String git(String... args) throws Exception {
+        return runGit(null, args);
+    }
+
+    private String runGit(String input, String... args) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-c", "user.name=Test", "-c", "user.email=test@example.com",
+            "-c", "commit.gpgsign=false", "-c", "core.autocrlf=false", "-c", "gc.auto=0"));
+        command.addAll(List.of(args));
+        ProcessBuilder builder = new ProcessBuilder(command).directory(work.toFile()).redirectErrorStream(true);
+        builder.environment().put("HOME", root.toString());
+        builder.environment().put("GIT_CONFIG_NOSYSTEM", "1");
+        Process process = builder.start();
+        if (input != null) {
+            process.getOutputStream().write(input.getBytes(StandardCharsets.UTF_8));
+        }
+        process.getOutputStream().close();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (!process.waitFor(60, TimeUnit.SECONDS) || process.exitValue() != 0) {
+            throw new IOException("git " + String.join(" ", args) + " failed: " + output);
+        }
+        return output;
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            Process process = new ProcessBuilder("git", "--version").redirectErrorStream(true).start();
+            process.getInputStream().readAllBytes();
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.sonarqube.shared.git;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LineDiff 單元測試
+ */
+class LineDiffTest {
+
+    @Test
+    void testAddedAndDeletedLines() {
+        assertArrayEquals(new int[]{2, 1}, count("a\nb\nc\n", "a\nx\ny\nc\n"));
+        assertArrayEquals(new int[]{0, 0}, count("a\nb\n", "a\nb\n"));
+    }
+
+    @Test
+    void testMissingContentCountsEveryLine() {
+        assertArrayEquals(new int[]{3, 0}, LineDiff.count(null, bytes("a\nb\nc\n")));
+        assertArrayEquals(new int[]{0, 2}, LineDiff.count(bytes("a\nb\n"), null));
+        assertArrayEquals(new int[]{0, 0}, LineDiff.count(null, null));
+    }
+
+    @Test
+    void testLastLineWithoutNewlineDiffersFromTerminatedLine() {
+        // 與 git 相同：只補上檔尾換行也算修改最後一行
+        assertArrayEquals(new int[]{1, 1}, count("a\nb", "a\nb\n"));
+        assertArrayEquals(new int[]{1, 0}, count("a\n", "a\nb"));
+    }
+
+    @Test
+    void testMovedBlockCountsMinimalEdit() {
+        assertArrayEquals(new int[]{1, 1}, count("x\na\nb\nc\n", "a\nb\nc\nx\n"));
+        assertArrayEquals(new int[]{2, 2}, count("a\nb\nc\nd\n", "b\na\nd\nc\n"));
+    }
+
+    @Test
+    void testBinaryContentHasNoLineStats() {
+        byte[] binary = {'a', 0, 'b', '\n'};
+
+        assertTrue(LineDiff.isBinary(binary));
+        assertFalse(LineDiff.isBinary(bytes("text\n")));
+        assertArrayEquals(new int[]{0, 0}, LineDiff.count(bytes("a\n"), binary));
+        assertArrayEquals(new int[]{0, 0}, LineDiff.count(binary, bytes("a\n")));
+    }
+
+    @Test
+    void testNulAfterProbeWindowIsText() {
+        byte[] content = new byte[9000];
+        Arrays.fill(content, (byte) 'a');
+        content[8999] = 0;
+
+        assertFalse(LineDiff.isBinary(content));
+    }
+
+    @Test
+    void testLargeRewriteFallsBackToEstimate() {
+        // 編輯量極大時 Myers 工作量超過上限，改以行多重集合差估算
+        StringBuilder before = new StringBuilder();
+        StringBuilder after = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            before.append("old ").append(i).append('\n');
+            after.append(i % 2 == 0 ? "old " : "new ").append(i).append('\n');
+        }
+
+        int[] counts = count(before.toString(), after.toString());
+
+        assertEquals(10_000, counts[0]);
+        assertEquals(10_000, counts[1]);
+    }
+
+    private static int[] count(String before, String after) {
+        return LineDiff.count(bytes(before), bytes(after));
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
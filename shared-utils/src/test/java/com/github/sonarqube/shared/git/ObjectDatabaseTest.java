@@ -0,0 +1,74 @@
+package com.github.sonarqube.shared.git;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ObjectDatabase 單元測試（delta 套用與解壓縮）
+ */
+class ObjectDatabaseTest {
+
+    private static final byte[] BASE = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void testApplyDeltaCopiesAndInserts() throws IOException {
+        // 複製 base[10..16)，插入 "XY"，再複製 base[0..4)
+        byte[] delta = {16, 12, (byte) 0x91, 10, 6, 2, 'X', 'Y', (byte) 0x90, 4};
+
+        assertArrayEquals("abcdefXY0123".getBytes(StandardCharsets.US_ASCII), ObjectDatabase.applyDelta(BASE, delta));
+    }
+
+    @Test
+    void testApplyDeltaCopyLengthZeroMeans64K() throws IOException {
+        byte[] base = new byte[0x10000 + 5];
+        Arrays.fill(base, (byte) 'z');
+        // 大小以 7 位元變長編碼：0x10005 → 0x85 0x80 0x04
+        byte[] delta = {(byte) 0x85, (byte) 0x80, 0x04, (byte) 0x80, (byte) 0x80, 0x04, (byte) 0x80};
+
+        assertEquals(0x10000, ObjectDatabase.applyDelta(base, delta).length);
+    }
+
+    @Test
+    void testApplyDeltaRejectsCorruptInstructions() {
+        assertThrows(IOException.class, () -> ObjectDatabase.applyDelta(BASE, new byte[]{15, 2, 2, 'a', 'b'}));
+        assertThrows(IOException.class, () -> ObjectDatabase.applyDelta(BASE, new byte[]{16, 2, 0}));
+        assertThrows(IOException.class, () -> ObjectDatabase.applyDelta(BASE, new byte[]{16, 3, 2, 'a', 'b'}));
+    }
+
+    @Test
+    void testInflateToKnownSize() throws IOException {
+        byte[] content = "hello git objects".getBytes(StandardCharsets.US_ASCII);
+        byte[] compressed = deflate(content);
+
+        assertArrayEquals(content, ObjectDatabase.inflate(new Inflater(), new ByteArrayInputStream(compressed),
+            content.length));
+        assertThrows(IOException.class, () -> ObjectDatabase.inflate(new Inflater(),
+            new ByteArrayInputStream(compressed), content.length + 1));
+        assertThrows(IOException.class, () -> ObjectDatabase.inflate(new Inflater(),
+            new ByteArrayInputStream(Arrays.copyOf(compressed, compressed.length / 2)), content.length));
+        assertThrows(IOException.class, () -> ObjectDatabase.inflate(new Inflater(),
+            new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), content.length));
+    }
+
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(content);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.sonarqube.shared.path;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GlobMatcher 單元測試
+ */
+class GlobMatcherTest {
+
+    @Test
+    void testSingleStarStaysWithinSegment() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("/src/*.java"));
+
+        assertTrue(matcher.matches("src/App.java"));
+        assertFalse(matcher.matches("src/main/App.java"));
+    }
+
+    @Test
+    void testDoubleStarCrossesDirectories() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("/src/**/*.java"));
+
+        assertTrue(matcher.matches("src/App.java"));
+        assertTrue(matcher.matches("src/main/java/App.java"));
+        assertFalse(matcher.matches("lib/App.java"));
+    }
+
+    @Test
+    void testQuestionMarkMatchesOneCharacter() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("file?.txt"));
+
+        assertTrue(matcher.matches("a/file1.txt"));
+        assertFalse(matcher.matches("a/file10.txt"));
+        assertFalse(matcher.matches("file/.txt"));
+    }
+
+    @Test
+    void testUnanchoredPatternMatchesAtAnyDepth() {
+        GlobMatcher floating = GlobMatcher.compile(List.of("config/*.yml"));
+        GlobMatcher anchored = GlobMatcher.compile(List.of("/config/*.yml"));
+
+        assertTrue(floating.matches("config/app.yml"));
+        assertTrue(floating.matches("service/config/app.yml"));
+        assertTrue(anchored.matches("config/app.yml"));
+        assertFalse(anchored.matches("service/config/app.yml"));
+    }
+
+    @Test
+    void testBraceAlternatives() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("*.{js,ts}x"));
+
+        assertTrue(matcher.matches("ui/App.jsx"));
+        assertTrue(matcher.matches("ui/App.tsx"));
+        assertFalse(matcher.matches("ui/App.js"));
+        assertEquals(0, matcher.suffixPatterns);
+        assertEquals(1, matcher.regexPatterns);
+    }
+
+    @Test
+    void testCharacterClassAndNegation() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("/v[0-9]/*", "/[!a-z]*.md"));
+
+        assertTrue(matcher.matches("v1/api.json"));
+        assertFalse(matcher.matches("vx/api.json"));
+        assertTrue(matcher.matches("README.md"));
+        assertFalse(matcher.matches("readme.md"));
+    }
+
+    @Test
+    void testMalformedPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GlobMatcher.compile(List.of("a[bc")));
+        assertThrows(IllegalArgumentException.class, () -> GlobMatcher.compile(List.of("{a,b")));
+        assertThrows(IllegalArgumentException.class, () -> GlobMatcher.compile(List.of("a}")));
+    }
+
+    @Test
+    void testSuffixPatternsUseSuffixTable() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("*.min.js", "**/*Test.java", "*Makefile"));
+
+        assertEquals(3, matcher.suffixPatterns);
+        assertEquals(0, matcher.directoryPatterns);
+        assertEquals(0, matcher.regexPatterns);
+        assertTrue(matcher.matches("dist/app.min.js"));
+        assertFalse(matcher.matches("dist/app.js"));
+        assertTrue(matcher.matches("src/test/FooTest.java"));
+        assertTrue(matcher.matches("GNUMakefile"));
+        assertFalse(matcher.matches("Makefile.am"));
+    }
+
+    @Test
+    void testDirectoryPrefixesUseTrie() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("node_modules/**", "/src/generated/**"));
+
+        assertEquals(2, matcher.directoryPatterns);
+        assertEquals(0, matcher.regexPatterns);
+        assertTrue(matcher.matches("node_modules/lodash/index.js"));
+        assertTrue(matcher.matches("web/node_modules/lodash/index.js"));
+        assertFalse(matcher.matches("node_modules_backup/index.js"));
+        assertTrue(matcher.matches("src/generated/Api.java"));
+        assertFalse(matcher.matches("lib/src/generated/Api.java"));
+    }
+
+    @Test
+    void testIgnoreCaseAndBackslashes() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("Build/**", "*.MIN.js"), true);
+
+        assertTrue(matcher.matches("module\\BUILD\\out.class"));
+        assertTrue(matcher.matches("app.min.JS"));
+        assertTrue(matcher.matches(Path.of("build", "x.txt")));
+    }
+
+    @Test
+    void testForExtensions() {
+        GlobMatcher matcher = GlobMatcher.forExtensions(List.of(".java", "js"), false);
+
+        assertTrue(matcher.matches("src/App.java"));
+        assertTrue(matcher.matches("web/app.js"));
+        assertFalse(matcher.matches("web/app.json"));
+    }
+
+    @Test
+    void testEmptyMatcherMatchesNothing() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of(" ", ""));
+
+        assertTrue(matcher.isEmpty());
+        assertFalse(matcher.matches("any/file.java"));
+        assertFalse(matcher.matchesDirectory("any"));
+    }
+
+    @Test
+    void testMatchesDirectoryPrunesCoveredTrees() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("node_modules/**", "/out/**", "*.min.js", "build-*/**"));
+
+        assertTrue(matcher.matchesDirectory("node_modules"));
+        assertTrue(matcher.matchesDirectory("web/node_modules/"));
+        assertTrue(matcher.matchesDirectory("node_modules/lodash"));
+        assertTrue(matcher.matchesDirectory("out"));
+        assertFalse(matcher.matchesDirectory("web/out"));
+        assertTrue(matcher.matchesDirectory("build-debug"));
+        assertFalse(matcher.matchesDirectory("src"));
+        assertFalse(matcher.matchesDirectory("node"));
+    }
+
+    @Test
+    void testMatchesDirectoryIgnoresFilePatterns() {
+        GlobMatcher matcher = GlobMatcher.compile(List.of("*.min.js", "src/*.java"));
+
+        assertFalse(matcher.matchesDirectory("src"));
+        assertFalse(matcher.matchesDirectory("dist"));
+    }
+
+    @Test
+    void testCompatibleKeepsLegacyWildcardSemantics() {
+        GlobMatcher matcher = GlobMatcher.compileCompatible(List.of("node_modules/*", "*/target/*", "*.test.js"));
+
+        assertTrue(matcher.matches("node_modules/a/b/index.js"));
+        assertFalse(matcher.matches("web/node_modules/index.js"));
+        assertTrue(matcher.matches("/home/app/module/target/classes/App.class"));
+        assertFalse(matcher.matches("target/App.class"));
+        assertTrue(matcher.matches("web/src/app.test.js"));
+        assertEquals(1, matcher.suffixPatterns);
+        assertEquals(2, matcher.regexPatterns);
+    }
+
+    @Test
+    void testCompatibleTreatsRegexCharactersLiterally() {
+        GlobMatcher matcher = GlobMatcher.compileCompatible(List.of("lib(old)/*", "v?.[0-9]"));
+
+        assertTrue(matcher.matches("lib(old)/a.js"));
+        assertFalse(matcher.matches("libold/a.js"));
+        assertTrue(matcher.matches("v1.[0-9]"));
+        assertFalse(matcher.matches("v1.5"));
+    }
+
+    @Test
+    void testCompatibleUsesGlobSemanticsForDoubleStar() {
+        GlobMatcher matcher = GlobMatcher.compileCompatible(List.of("**/dist/**", "src/*"));
+
+        assertTrue(matcher.matches("web/dist/app.js"));
+        assertTrue(matcher.matches("src/main/App.java"));
+        assertEquals(1, matcher.directoryPatterns);
+        assertTrue(matcher.matchesDirectory("web/dist"));
+        assertTrue(matcher.matchesDirectory("src"));
+        assertTrue(matcher.matchesDirectory("src/main"));
+        assertFalse(matcher.matchesDirectory("web/src"));
+    }
+}
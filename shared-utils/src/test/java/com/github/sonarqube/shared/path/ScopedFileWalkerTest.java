@@ -0,0 +1,209 @@
+package com.github.sonarqube.shared.path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ScopedFileWalker 單元測試
+ */
+class ScopedFileWalkerTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void testExcludedDirectoriesArePruned() throws IOException {
+        write("src/App.java");
+        write("src/util/Strings.java");
+        write("node_modules/lib/index.js");
+        write("web/node_modules/lib/index.js");
+        write("web/app.js");
+
+        ScopedFileWalker walker = ScopedFileWalker.builder(root)
+            .exclude(GlobMatcher.compile(List.of("node_modules/**")))
+            .build();
+
+        assertEquals(Set.of("src/App.java", "src/util/Strings.java", "web/app.js"), walkSequentially(walker));
+        assertEquals(2, walker.getPrunedDirectoryCount());
+    }
+
+    @Test
+    void testFileLevelExclusionsDoNotPrune() throws IOException {
+        write("src/App.java");
+        write("src/app.min.js");
+
+        ScopedFileWalker walker = ScopedFileWalker.builder(root)
+            .exclude(GlobMatcher.compile(List.of("*.min.js")))
+            .build();
+
+        assertEquals(Set.of("src/App.java"), walkSequentially(walker));
+        assertEquals(0, walker.getPrunedDirectoryCount());
+    }
+
+    @Test
+    void testInclusionAndSizeFilters() throws IOException {
+        write("a/App.java");
+        write("a/readme.md");
+        Files.write(root.resolve("a/Big.java"), new byte[2048]);
+
+        ScopedFileWalker walker = ScopedFileWalker.builder(root)
+            .include(GlobMatcher.forExtensions(List.of(".java"), false))
+            .maxFileSizeBytes(1024)
+            .build();
+
+        assertEquals(Set.of("a/App.java"), walkSequentially(walker));
+    }
+
+    @Test
+    void testScannedFileAttributes() throws IOException {
+        Path file = root.resolve("src/main/App.java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class App {}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_600_000_000_000L));
+
+        List<ScopedFileWalker.ScannedFile> files = new CopyOnWriteArrayList<>();
+        ScopedFileWalker.builder(root).build().walk(files::add);
+
+        assertEquals(1, files.size());
+        ScopedFileWalker.ScannedFile scanned = files.get(0);
+        assertEquals(file, scanned.getPath());
+        assertEquals("src/main/App.java", scanned.getRelativePath());
+        assertEquals("src/main/App.java", scanned.toString());
+        assertEquals(12, scanned.getSize());
+        assertEquals(1_600_000_000_000L, scanned.getLastModifiedMillis());
+    }
+
+    @Test
+    void testWalkVisitsDirectoriesInParallel() throws IOException {
+        for (int i = 0; i < 8; i++) {
+            write("module" + i + "/File.java");
+        }
+        CountDownLatch concurrentCalls = new CountDownLatch(2);
+        AtomicBoolean overlapped = new AtomicBoolean(true);
+        Set<String> found = ConcurrentHashMap.newKeySet();
+
+        ScopedFileWalker.builder(root).parallelism(4).build().walk(file -> {
+            concurrentCalls.countDown();
+            try {
+                if (!concurrentCalls.await(5, TimeUnit.SECONDS)) {
+                    overlapped.set(false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            found.add(file.getRelativePath());
+        });
+
+        assertTrue(overlapped.get(), "sink should be called from at least two threads at once");
+        assertEquals(8, found.size());
+    }
+
+    @Test
+    void testParallelWalkMatchesSequentialWalk() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            write("d" + (i % 5) + "/sub" + (i % 3) + "/f" + i + ".txt");
+        }
+
+        Set<String> sequential = walkSequentially(ScopedFileWalker.builder(root).parallelism(1).build());
+        Set<String> parallel = ConcurrentHashMap.newKeySet();
+        ScopedFileWalker.builder(root).parallelism(4).build().walk(file -> parallel.add(file.getRelativePath()));
+
+        assertEquals(20, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void testStreamReturnsAllFilesBeyondBufferSize() throws IOException {
+        int count = ScopedFileWalker.STREAM_BUFFER_SIZE * 2 + 10;
+        Path dir = Files.createDirectories(root.resolve("many"));
+        for (int i = 0; i < count; i++) {
+            Files.createFile(dir.resolve("f" + i));
+        }
+
+        try (Stream<ScopedFileWalker.ScannedFile> files = ScopedFileWalker.builder(root).build().stream()) {
+            assertEquals(count, files.count());
+        }
+        assertProducerStops();
+    }
+
+    @Test
+    void testClosingStreamStopsProducer() throws IOException {
+        Path dir = Files.createDirectories(root.resolve("many"));
+        for (int i = 0; i < ScopedFileWalker.STREAM_BUFFER_SIZE * 3; i++) {
+            Files.createFile(dir.resolve("f" + i));
+        }
+
+        try (Stream<ScopedFileWalker.ScannedFile> files = ScopedFileWalker.builder(root).build().stream()) {
+            Iterator<ScopedFileWalker.ScannedFile> iterator = files.iterator();
+            assertTrue(iterator.hasNext());
+            iterator.next();
+        }
+        assertProducerStops();
+    }
+
+    @Test
+    void testStreamReportsMissingRoot() {
+        ScopedFileWalker walker = ScopedFileWalker.builder(root.resolve("missing")).build();
+
+        try (Stream<ScopedFileWalker.ScannedFile> files = walker.stream()) {
+            assertThrows(UncheckedIOException.class, files::count);
+        }
+        assertThrows(IOException.class, () -> walker.walk(file -> { }));
+    }
+
+    @Test
+    void testBuilderRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> ScopedFileWalker.builder(root).parallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> ScopedFileWalker.builder(root).maxFileSizeBytes(-1));
+    }
+
+    private Set<String> walkSequentially(ScopedFileWalker walker) throws IOException {
+        Set<String> found = ConcurrentHashMap.newKeySet();
+        walker.walk(file -> found.add(file.getRelativePath()));
+        return new TreeSet<>(found);
+    }
+
+    private void write(String relativePath) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "x");
+    }
+
+    private static void assertProducerStops() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Set<Thread> producers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> "scoped-file-walker".equals(thread.getName()) && thread.isAlive())
+                .collect(Collectors.toSet());
+            if (producers.isEmpty()) {
+                return;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("scoped-file-walker thread still running after the stream was closed");
+    }
+}